@@ -0,0 +1,12 @@
+package ExceptionHandling;
+
+// PersistenceException.java
+public class PersistenceException extends RuntimeException {
+    public PersistenceException(String message) {
+        super(message);
+    }
+
+    public PersistenceException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
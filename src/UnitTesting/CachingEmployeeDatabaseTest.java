@@ -0,0 +1,148 @@
+package UnitTesting;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+import static UnitTesting.EmployeeRows.rows;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+import database.CacheStatistics;
+import database.CachingEmployeeDatabase;
+import database.EmployeeDatabase;
+import model.Employee;
+import model.EmployeeField;
+import utility.BoundedCache;
+
+public class CachingEmployeeDatabaseTest {
+    private static final String[] DEPARTMENTS = {"Finance", "Backend", "Frontend", "Operations"};
+
+    @Test
+    public void testWriteInvalidatesOnlyWhatItTouched() {
+        EmployeeDatabase<Integer> db = new EmployeeDatabase<>();
+        for (int id = 0; id < 40; id++) {
+            db.addEmployee(new Employee<>(id, "Emp " + id, DEPARTMENTS[id % 4], 1000.0 * (id + 1), 1 + (id % 5) * 1.0, 2, true));
+        }
+        CachingEmployeeDatabase<Integer> cached = new CachingEmployeeDatabase<>(db);
+
+        cached.searchByDepartment("Finance");
+        cached.searchByDepartment("Backend");
+        cached.getTopPaid(3);
+        cached.raiseSalary(0, 100); // employee 0 is in Finance
+
+        assertEquals(rows(db.searchByDepartment("Backend")), rows(cached.searchByDepartment("backend")));
+        assertEquals(rows(db.searchByDepartment("Finance")), rows(cached.searchByDepartment("Finance")));
+        assertEquals(rows(db.getTopPaid(3)), rows(cached.getTopPaid(3)));
+        assertEquals(rows(db.getTopPaid(3)), rows(cached.getTopPaid(3)));
+
+        CacheStatistics byDepartment = cached.getCacheStatistics().get(0);
+        assertEquals("searchByDepartment", byDepartment.getOperation());
+        assertEquals(1, byDepartment.getHits());
+        assertEquals(3, byDepartment.getMisses());
+        assertEquals(1, byDepartment.getStale());
+        CacheStatistics topPaid = cached.getCacheStatistics().get(3);
+        assertEquals(1, topPaid.getHits());
+        assertEquals(2, topPaid.getMisses());
+
+        // Moving someone out of Backend invalidates Backend too, even when written to the delegate
+        db.update(1, EmployeeField.DEPARTMENT, "Finance");
+        assertEquals(rows(db.searchByDepartment("Backend")), rows(cached.searchByDepartment("Backend")));
+        assertEquals(2, cached.getCacheStatistics().get(0).getStale());
+    }
+
+    @Test
+    public void testCachedResultsAreNeverStale() {
+        for (BoundedCache.Eviction eviction : BoundedCache.Eviction.values()) {
+            EmployeeDatabase<Integer> db = new EmployeeDatabase<>();
+            CachingEmployeeDatabase<Integer> cached = new CachingEmployeeDatabase<>(db, 8, eviction);
+            SplittableRandom random = new SplittableRandom(3);
+            for (int step = 0; step < 5_000; step++) {
+                int id = random.nextInt(200);
+                String department = DEPARTMENTS[random.nextInt(DEPARTMENTS.length)];
+                boolean exists = db.readSnapshot().containsEmployee(id);
+                switch (random.nextInt(8)) {
+                    case 0 -> cached.addEmployee(new Employee<>(id, "Emp " + id, department,
+                            1000.0 + random.nextInt(9000), 1.0 + random.nextInt(5), 1, true));
+                    case 1 -> {
+                        if (exists) {
+                            cached.removeEmployee(id);
+                        }
+                    }
+                    case 2 -> {
+                        if (exists) {
+                            db.update(id, EmployeeField.DEPARTMENT, department);
+                        }
+                    }
+                    case 3 -> {
+                        if (exists) {
+                            cached.raiseSalary(id, random.nextInt(500));
+                        }
+                    }
+                    default -> {
+                        int limit = 1 + random.nextInt(5);
+                        double min = 1000 * random.nextInt(10);
+                        double rating = 1 + random.nextInt(5);
+                        assertEquals(rows(db.searchByDepartment(department)), rows(cached.searchByDepartment(department)));
+                        assertEquals(rows(db.getTopPaid(limit)), rows(cached.getTopPaid(limit)));
+                        assertEquals(rows(db.filterBySalaryRange(min, min + 3000)), rows(cached.filterBySalaryRange(min, min + 3000)));
+                        assertEquals(rows(db.filterByPerformance(rating)), rows(cached.filterByPerformance(rating)));
+                    }
+                }
+            }
+            assertTrue(cached.getCacheSize() <= 8);
+            assertTrue(cached.getCacheEvictions() > 0);
+            long hits = 0;
+            for (CacheStatistics statistics : cached.getCacheStatistics()) {
+                hits += statistics.getHits();
+            }
+            assertTrue(eviction + " never hit", hits > 0);
+        }
+    }
+
+    // A delegate write that changes an employee and then throws publishes no events
+    @Test
+    public void testFailedWriteMakesCachedResultsStale() {
+        EmployeeDatabase<Integer> db = new EmployeeDatabase<>() {
+            @Override
+            public void giveRaise(double minRating, double raiseAmount) {
+                Employee<Integer> first = storedEmployee(0);
+                first.setSalary(first.getSalary() + raiseAmount);
+                throw new IllegalStateException("Failed after the first raise");
+            }
+        };
+        for (int id = 0; id < 8; id++) {
+            db.addEmployee(new Employee<>(id, "Emp " + id, DEPARTMENTS[id % 4], 1000.0 * (id + 1), 5.0, 2, true));
+        }
+        CachingEmployeeDatabase<Integer> cached = new CachingEmployeeDatabase<>(db);
+        List<Employee<Integer>> finance = cached.searchByDepartment("Finance");
+        cached.filterByPerformance(4.0);
+
+        assertThrows(IllegalStateException.class, () -> cached.giveRaise(4.0, 500));
+        assertEquals(1000.0, finance.get(0).getSalary(), 0.001);
+        assertThrows(UnsupportedOperationException.class, () -> finance.get(0).setSalary(0.0));
+        assertEquals(rows(db.searchByDepartment("Finance")), rows(cached.searchByDepartment("Finance")));
+        assertEquals(rows(db.filterByPerformance(4.0)), rows(cached.filterByPerformance(4.0)));
+        assertEquals(1500.0, cached.searchByDepartment("Finance").get(0).getSalary(), 0.001);
+    }
+
+    @Test
+    public void testLfuEvictsTheLeastUsedEntry() {
+        BoundedCache<String, Integer> cache = new BoundedCache<>(2, BoundedCache.Eviction.LFU);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.get("a");
+        cache.get("a");
+        cache.get("b");
+        cache.put("c", 3);
+        assertNull(cache.get("b"));
+        assertEquals(Integer.valueOf(1), cache.get("a"));
+
+        BoundedCache<String, Integer> lru = new BoundedCache<>(2, BoundedCache.Eviction.LRU);
+        lru.put("a", 1);
+        lru.put("b", 2);
+        lru.get("a");
+        lru.put("c", 3);
+        assertNull(lru.get("b"));
+        assertEquals(1, lru.evictions());
+    }
+}
@@ -0,0 +1,187 @@
+package UnitTesting;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+import static UnitTesting.EmployeeRows.rows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import app.PagedEmployeeList;
+import database.ChangeEvent;
+import database.ChangeFeed;
+import database.ChangeListener;
+import database.ColumnarEmployeeDatabase;
+import database.EmployeeDatabase;
+import database.OffHeapEmployeeDatabase;
+import database.SortKey;
+import model.Employee;
+import model.EmployeeField;
+
+public class ChangeFeedTest {
+    @Test
+    public void testEventsDescribeEachChange() {
+        for (EmployeeDatabase<Integer> db : Arrays.<EmployeeDatabase<Integer>>asList(
+                new EmployeeDatabase<>(), new ColumnarEmployeeDatabase<>(), new OffHeapEmployeeDatabase<>())) {
+            List<ChangeEvent<Integer>> events = new ArrayList<>();
+            ChangeFeed.Subscription subscription = db.changes().subscribe(events::addAll);
+
+            db.addEmployee(new Employee<>(1, "Alice", "IT", 5000.0, 4.0, 3, true));
+            db.raiseSalary(1, 500);
+            db.raiseSalary(1, 0);
+            db.update(1, EmployeeField.DEPARTMENT, "HR");
+            db.removeEmployee(1);
+            subscription.close();
+            db.addEmployee(new Employee<>(2, "Bob", "IT", 5000.0, 4.0, 3, true));
+
+            assertEquals(4, events.size());
+            assertEquals(ChangeEvent.Type.INSERT, events.get(0).getType());
+            assertNull(events.get(0).getBefore());
+            assertEquals("Alice", events.get(0).getAfter().getName());
+
+            ChangeEvent<Integer> raise = events.get(1);
+            assertEquals(ChangeEvent.Type.UPDATE, raise.getType());
+            assertEquals(Collections.singleton(EmployeeField.SALARY), raise.getChangedFields());
+            assertEquals(5000.0, raise.getBefore().getSalary(), 0.001);
+            assertEquals(5500.0, raise.getAfter().getSalary(), 0.001);
+
+            assertEquals(Collections.singleton(EmployeeField.DEPARTMENT), events.get(2).getChangedFields());
+            assertEquals(ChangeEvent.Type.DELETE, events.get(3).getType());
+            assertEquals(Integer.valueOf(1), events.get(3).getEmployeeId());
+            assertNull(events.get(3).getAfter());
+            for (int i = 1; i < events.size(); i++) {
+                assertEquals(events.get(i - 1).getSequence() + 1, events.get(i).getSequence());
+            }
+        }
+    }
+
+    @Test
+    public void testAsyncSubscriberGetsEveryEventInOrderAndInBatches() throws Exception {
+        EmployeeDatabase<Integer> db = new EmployeeDatabase<>();
+        List<ChangeEvent<Integer>> received = Collections.synchronizedList(new ArrayList<>());
+        List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(1);
+        ChangeFeed.Subscription subscription = db.changes().subscribeAsync(events -> {
+            batchSizes.add(events.size());
+            received.addAll(events);
+            if (received.size() == 2_000) {
+                done.countDown();
+            }
+        }, 64, 16, ChangeFeed.Backpressure.BLOCK);
+        try {
+            for (int id = 0; id < 1_000; id++) {
+                db.addEmployee(new Employee<>(id, "Emp " + id, "IT", 1000.0, 3.0, 1, true));
+                db.raiseSalary(id, 1);
+            }
+            assertTrue(done.await(30, TimeUnit.SECONDS));
+        } finally {
+            subscription.close();
+        }
+        for (int i = 0; i < received.size(); i++) {
+            assertEquals(i + 1, received.get(i).getSequence());
+        }
+        for (int size : batchSizes) {
+            assertTrue(size <= 16);
+        }
+    }
+
+    @Test
+    public void testDropSubscriberReportsOverflowAndResumes() throws Exception {
+        EmployeeDatabase<Integer> db = new EmployeeDatabase<>();
+        CountDownLatch firstBatch = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch overflowed = new CountDownLatch(1);
+        CountDownLatch resumed = new CountDownLatch(1);
+        AtomicLong dropped = new AtomicLong();
+        ChangeFeed.Subscription subscription = db.changes().subscribeAsync(new ChangeListener<Integer>() {
+            @Override
+            public void onChanges(List<ChangeEvent<Integer>> events) {
+                firstBatch.countDown();
+                awaitQuietly(release);
+                if (dropped.get() > 0 && events.get(events.size() - 1).getEmployeeId() == -1) {
+                    resumed.countDown();
+                }
+            }
+
+            @Override
+            public void onOverflow(long count) {
+                dropped.set(count);
+                overflowed.countDown();
+            }
+        }, 8, 4, ChangeFeed.Backpressure.DROP);
+        try {
+            db.addEmployee(new Employee<>(0, "Emp 0", "IT", 1000.0, 3.0, 1, true));
+            assertTrue(firstBatch.await(30, TimeUnit.SECONDS));
+            // The subscriber is stuck on its first batch: 8 of these fit, the rest are dropped
+            for (int id = 1; id <= 100; id++) {
+                db.addEmployee(new Employee<>(id, "Emp " + id, "IT", 1000.0, 3.0, 1, true));
+            }
+            release.countDown();
+            assertTrue(overflowed.await(30, TimeUnit.SECONDS));
+            db.addEmployee(new Employee<>(-1, "Late", "IT", 1000.0, 3.0, 1, true));
+            assertTrue(resumed.await(30, TimeUnit.SECONDS));
+        } finally {
+            subscription.close();
+        }
+        assertEquals(92, dropped.get());
+    }
+
+    @Test
+    public void testPagedListDeltasMatchAFreshRead() {
+        EmployeeDatabase<Integer> db = new EmployeeDatabase<>();
+        for (int id = 0; id < 500; id++) {
+            db.addEmployee(new Employee<>(id, "Emp " + id, id % 2 == 0 ? "IT" : "HR", 1000.0 + id, 1.0 + id % 5, id % 20, true));
+        }
+        List<ChangeEvent<Integer>> pending = new ArrayList<>();
+        db.changes().subscribe(pending::addAll);
+        SplittableRandom random = new SplittableRandom(11);
+        for (SortKey sortKey : new SortKey[] {SortKey.SALARY, SortKey.NAME}) {
+            for (String filter : new String[] {null, "it"}) {
+                PagedEmployeeList<Integer> list = new PagedEmployeeList<>(db, 25);
+                list.prepare(filter, sortKey, false, Integer.MAX_VALUE).run();
+                for (int step = 0; step < 300; step++) {
+                    int id = random.nextInt(600);
+                    switch (random.nextInt(4)) {
+                        case 0 -> db.addEmployee(new Employee<>(id, "New " + id, "IT", 500.0 + random.nextInt(2000), 3.0, 1, true));
+                        case 1 -> {
+                            if (db.readSnapshot().containsEmployee(id)) {
+                                db.removeEmployee(id);
+                            }
+                        }
+                        case 2 -> {
+                            if (db.readSnapshot().containsEmployee(id)) {
+                                db.raiseSalary(id, random.nextInt(-100, 200));
+                            }
+                        }
+                        default -> {
+                            if (db.readSnapshot().containsEmployee(id)) {
+                                db.update(id, EmployeeField.DEPARTMENT, random.nextBoolean() ? "IT" : "HR");
+                            }
+                        }
+                    }
+                    list.prepareChanges(new ArrayList<>(pending)).run();
+                    pending.clear();
+                    // Read a row so some pages are cached when the next change lands
+                    if (list.size() > 0) {
+                        assertNotNull(list.get(random.nextInt(list.size())));
+                    }
+                }
+                assertEquals(rows(db.getPage(filter, sortKey, false, 0, Integer.MAX_VALUE)), rows(list));
+            }
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package UnitTesting;
+
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import ExceptionHandling.EmployeeNotFoundException;
+import ExceptionHandling.InvalidSalaryException;
+import database.ColumnarEmployeeDatabase;
+import model.Employee;
+import model.EmployeeField;
+
+public class ColumnarEmployeeDatabaseTest {
+    private ColumnarEmployeeDatabase<Integer> db;
+
+    @Before
+    public void setUp() {
+        db = new ColumnarEmployeeDatabase<>();
+        db.addEmployee(new Employee<>(1, "John Doe", "IT", 50000.0, 4.5, 5, true));
+        db.addEmployee(new Employee<>(2, "Jane Smith", "HR", 60000.0, 4.0, 3, true));
+        db.addEmployee(new Employee<>(3, "Bob Stone", "it", 70000.0, 3.0, 8, false));
+    }
+
+    @Test
+    public void testRowViewsReadAndWriteColumns() {
+        Employee<Integer> bob = db.searchByName("bob").get(0);
+        assertEquals("it", bob.getDepartment());
+        assertFalse(bob.isActive());
+
+        bob.setSalary(72000.0);
+        db.updateEmployeeDetails(3, "rating", 4.8);
+        assertEquals(72000.0, db.filterBySalaryRange(71000, 73000).get(0).getSalary(), 0.001);
+        assertEquals(2, db.filterByPerformance(4.5).size());
+    }
+
+    @Test
+    public void testCaseInsensitiveDepartmentAggregates() {
+        assertEquals(2, db.searchByDepartment("IT").size());
+        assertEquals(60000.0, db.getAverageSalary("It"), 0.001);
+    }
+
+    @Test
+    public void testRemoveCompactsRows() {
+        Employee<Integer> john = db.searchByName("john").get(0);
+        db.removeEmployee(1);
+
+        assertEquals(2, db.size());
+        assertEquals("John Doe", john.getName());
+        assertEquals(70000.0, db.sortBySalary().get(0).getSalary(), 0.001);
+        db.updateEmployeeDetails(3, "name", "Robert Stone");
+        assertEquals(1, db.searchByName("robert").size());
+    }
+
+    @Test
+    public void testGiveRaiseIsAllOrNothing() {
+        try {
+            db.giveRaise(0, -55000.0);
+            fail("Expected InvalidSalaryException");
+        } catch (InvalidSalaryException expected) {
+            assertEquals(50000.0, db.getTopPaid(3).get(2).getSalary(), 0.001);
+        }
+        db.giveRaise(4.0, 1000.0);
+        assertEquals(60500.0, db.getAverageSalary("it"), 0.001);
+        assertEquals(61000.0, db.getAverageSalary("hr"), 0.001);
+    }
+
+    @Test(expected = EmployeeNotFoundException.class)
+    public void testUpdateRemovedEmployee() {
+        db.removeEmployee(2);
+        db.updateEmployeeDetails(2, "salary", 1.0);
+    }
+
+    // A null active flag survives, and matches neither active(true) nor active(false)
+    @Test
+    public void testUnknownActiveMatchesNeitherFlag() {
+        db.addEmployee(new Employee<>(4, "Ann Lee", "IT", 55000.0, 4.2, 1, null));
+        db.removeEmployee(1);
+        assertNull(db.readSnapshot().getEmployee(4).isActive());
+        assertEquals(1, db.query().active(true).count());
+        assertEquals(1, db.query().active(false).count());
+        db.update(4, EmployeeField.ACTIVE, false);
+        assertEquals(2, db.query().active(false).count());
+    }
+}
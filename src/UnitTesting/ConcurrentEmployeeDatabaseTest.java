@@ -0,0 +1,149 @@
+package UnitTesting;
+
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import database.ConcurrentEmployeeDatabase;
+import index.RangeIndex;
+import model.Employee;
+
+public class ConcurrentEmployeeDatabaseTest {
+    private static final int EMPLOYEES = 200;
+    private static final int WORKERS = 8;
+    private static final int RAISES_PER_WORKER = 5000;
+    private static final int BULK_RAISES = 50;
+
+    private ConcurrentEmployeeDatabase<Integer> db;
+
+    @Before
+    public void setUp() {
+        db = new ConcurrentEmployeeDatabase<>();
+        for (int id = 0; id < EMPLOYEES; id++) {
+            db.addEmployee(new Employee<>(id, "Emp " + id, id % 2 == 0 ? "Backend" : "Finance",
+                    10000.0, id % 2 == 0 ? 5.0 : 1.0, 1, true));
+        }
+    }
+
+    @Test
+    public void testNoLostRaisesUnderContention() throws Exception {
+        AtomicLongArray expectedRaises = new AtomicLongArray(EMPLOYEES);
+        ExecutorService pool = Executors.newFixedThreadPool(WORKERS + 2);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int w = 0; w < WORKERS; w++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < RAISES_PER_WORKER; i++) {
+                    int id = random.nextInt(EMPLOYEES);
+                    db.raiseSalary(id, 1.0);
+                    expectedRaises.incrementAndGet(id);
+                }
+                return null;
+            }));
+        }
+        // Bulk raises for the high performers (even IDs) race with the per-employee raises
+        futures.add(pool.submit(() -> {
+            start.await();
+            for (int i = 0; i < BULK_RAISES; i++) {
+                db.giveRaise(4.5, 100.0);
+            }
+            return null;
+        }));
+        // Readers take no lock, yet never miss or repeat an employee that stays in range
+        futures.add(pool.submit(() -> {
+            start.await();
+            for (int i = 0; i < 200; i++) {
+                assertEquals(EMPLOYEES, db.filterBySalaryRange(0, Double.MAX_VALUE).size());
+                assertEquals(EMPLOYEES / 2, db.filterByPerformance(4.5).size());
+            }
+            return null;
+        }));
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        for (Employee<Integer> emp : db.getAllEmployees()) {
+            int id = emp.getEmployeeId();
+            double expected = 10000.0 + expectedRaises.get(id) + (id % 2 == 0 ? BULK_RAISES * 100.0 : 0);
+            assertEquals("salary of " + id, expected, emp.getSalary(), 0.0001);
+            assertTrue(db.filterBySalaryRange(expected, expected).contains(emp));
+        }
+    }
+
+    @Test
+    public void testConcurrentAddAndRemove() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(WORKERS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int w = 0; w < WORKERS; w++) {
+            int base = 1000 + w * 1000;
+            futures.add(pool.submit(() -> {
+                for (int id = base; id < base + 500; id++) {
+                    db.addEmployee(new Employee<>(id, "Tmp " + id, "Operations", 500.0, 3.0, 0, true));
+                }
+                for (int id = base; id < base + 500; id += 2) {
+                    db.removeEmployee(id);
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertEquals(EMPLOYEES + WORKERS * 250, db.getAllEmployees().size());
+        assertEquals(WORKERS * 250, db.searchByDepartment("operations").size());
+    }
+
+    // The sharded index must answer exactly like a single treap, ties on the key included
+    @Test
+    public void testShardedRangeIndexMatchesSingleTreap() {
+        RangeIndex<Integer> single = new RangeIndex<>();
+        RangeIndex<Integer> sharded = new RangeIndex<>(5);
+        SplittableRandom random = new SplittableRandom(17);
+        for (int step = 0; step < 5000; step++) {
+            int id = random.nextInt(1000);
+            if (random.nextInt(4) == 0) {
+                single.remove(id);
+                sharded.remove(id);
+            } else {
+                double key = random.nextInt(50);
+                single.index(id, key);
+                sharded.index(id, key);
+            }
+        }
+        assertEquals(single.size(), sharded.size());
+        assertEquals(toList(single.ascending()), toList(sharded.ascending()));
+        assertEquals(toList(single.rangeDescending(10, 30)), toList(sharded.rangeDescending(10, 30)));
+        assertEquals(single.count(10, 30), sharded.count(10, 30));
+        assertEquals(single.countBefore(25, 500), sharded.countBefore(25, 500));
+        assertEquals(single.countAfter(25, 500), sharded.countAfter(25, 500));
+        for (int offset = 0; offset <= single.size() + 10; offset += 37) {
+            assertEquals(single.page(offset, 25, true), sharded.page(offset, 25, true));
+            assertEquals(single.page(offset, 25, false), sharded.page(offset, 25, false));
+        }
+    }
+
+    private static List<Integer> toList(Iterable<Integer> ids) {
+        List<Integer> list = new ArrayList<>();
+        ids.forEach(list::add);
+        return list;
+    }
+}
@@ -0,0 +1,69 @@
+package UnitTesting;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import database.EmployeeDatabase;
+import importer.CsvEmployeeImporter;
+import importer.ImportResult;
+import model.Employee;
+
+public class CsvEmployeeImporterTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testHeaderQuotesAndRejectedRows() throws IOException {
+        Path csv = write("name,id,department,salary,rating,experience\r\n"
+                + "\"Doe, John\",1,IT,50000,4.5,5\r\n"
+                + "Jane,2,HR,not-a-number,4.0,3\r\n"
+                + "\"Bob \"\"B\"\"\",3,Finance,70000,3.5,2\r\n"
+                + "Alice,4,IT,60000,9.0,1\r\n");
+        EmployeeDatabase<Integer> db = new EmployeeDatabase<>();
+
+        ImportResult result = new CsvEmployeeImporter<>(Integer::valueOf).importFile(csv, db, null);
+
+        assertEquals(2, result.getImported());
+        assertEquals(2, result.getRejected());
+        assertEquals(3, result.getErrors().get(0).getLineNumber());
+        assertEquals(5, result.getErrors().get(1).getLineNumber());
+        assertEquals("Doe, John", db.search("doe").get(0).getName());
+        assertEquals("Bob \"B\"", db.searchByDepartment("finance").get(0).getName());
+    }
+
+    @Test
+    public void testSmallChunksKeepEveryRowAndLineNumber() throws IOException {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 1; i <= 500; i++) {
+            builder.append(i == 250 ? "" : i).append(",Employee ").append(i).append(",Dept").append(i % 7)
+                    .append(',').append(40000 + i).append(",3.0,").append(i % 30).append(",false\n");
+        }
+        builder.append("bad-row\n");
+        AtomicInteger nextId = new AtomicInteger(10_000);
+        EmployeeDatabase<Integer> db = new EmployeeDatabase<>();
+
+        ImportResult result = new CsvEmployeeImporter<>(Integer::valueOf, nextId::getAndIncrement, 256, 4)
+                .importFile(write(builder.toString()), db, null);
+
+        assertEquals(500, result.getImported());
+        assertEquals(1, result.getRejected());
+        assertEquals(501, result.getErrors().get(0).getLineNumber());
+        assertEquals(500, db.getAllEmployees().size());
+        assertEquals("Employee 250", db.search("10000").get(0).getName());
+        assertFalse(db.getAllEmployees().get(0).isActive());
+    }
+
+    private Path write(String content) throws IOException {
+        Path csv = folder.newFile("employees.csv").toPath();
+        Files.write(csv, content.getBytes(StandardCharsets.UTF_8));
+        return csv;
+    }
+}
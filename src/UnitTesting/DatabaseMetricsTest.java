@@ -0,0 +1,76 @@
+package UnitTesting;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Map;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+
+import ExceptionHandling.EmployeeNotFoundException;
+import database.EmployeeDatabase;
+import database.InstrumentedEmployeeDatabase;
+import metrics.DatabaseMetrics;
+import metrics.Histogram;
+import metrics.OperationStatistics;
+import model.Employee;
+
+public class DatabaseMetricsTest {
+    @Test
+    public void testHistogramPercentilesWithinBucketError() {
+        Histogram histogram = new Histogram();
+        for (long value = 1; value <= 100_000; value++) {
+            histogram.record(value * 1_000);
+        }
+        assertEquals(100_000, histogram.getCount());
+        assertEquals(100_000_000, histogram.getMax());
+        assertEquals(50_000_000, histogram.valueAtPercentile(50), 50_000_000 / 32.0);
+        assertEquals(99_000_000, histogram.valueAtPercentile(99), 99_000_000 / 32.0);
+        assertEquals(100_000_000, histogram.valueAtPercentile(100));
+        assertEquals(0, new Histogram().valueAtPercentile(99));
+    }
+
+    @Test
+    public void testOperationsAreCountedAndPublishedOverJmx() throws Exception {
+        EmployeeDatabase<Integer> raw = new EmployeeDatabase<>();
+        InstrumentedEmployeeDatabase<Integer> db = new InstrumentedEmployeeDatabase<>(raw);
+        for (int id = 1; id <= 20; id++) {
+            db.addEmployee(new Employee<>(id, "Employee " + id, id % 2 == 0 ? "IT" : "HR", 1000.0 * id, 4.0, 1, true));
+        }
+        assertEquals(10, db.searchByDepartment("it").size());
+        assertEquals(5, db.query().department("hr").salaryAtMost(10_000).count());
+        try {
+            db.removeEmployee(99);
+            fail("Expected EmployeeNotFoundException");
+        } catch (EmployeeNotFoundException expected) {
+            // counted as an error below
+        }
+
+        DatabaseMetrics metrics = db.getMetrics();
+        OperationStatistics adds = metrics.statistics(DatabaseMetrics.Operation.ADD_EMPLOYEE);
+        assertEquals(20, adds.getCalls());
+        assertEquals(10, metrics.statistics(DatabaseMetrics.Operation.SEARCH_BY_DEPARTMENT).getMaxRows());
+        assertEquals(5, metrics.statistics(DatabaseMetrics.Operation.QUERY_COUNT).getMaxRows());
+        assertEquals(1, metrics.statistics(DatabaseMetrics.Operation.REMOVE_EMPLOYEE).getErrors());
+        assertEquals(23, metrics.getTotalCalls());
+        assertEquals(Integer.valueOf(2), metrics.getIndexSizes().get("departments"));
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = metrics.register("metrics-test");
+        try {
+            assertEquals(20, server.getAttribute(name, "EmployeeCount"));
+            CompositeData[] operations = (CompositeData[]) server.getAttribute(name, "Operations");
+            assertEquals(4, operations.length);
+            assertEquals("addEmployee", operations[0].get("operation"));
+            server.invoke(name, "reset", null, null);
+            assertEquals(0L, server.getAttribute(name, "TotalCalls"));
+        } finally {
+            metrics.unregister();
+        }
+        assertFalse(server.isRegistered(name));
+    }
+}
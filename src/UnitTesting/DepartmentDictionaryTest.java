@@ -0,0 +1,133 @@
+package UnitTesting;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.ObjectStreamField;
+import java.util.ArrayList;
+import java.util.List;
+
+import aggregate.DepartmentSummary;
+import database.CachingEmployeeDatabase;
+import database.ChangeEvent;
+import database.ColumnarEmployeeDatabase;
+import database.EmployeeDatabase;
+import database.EmployeeSnapshot;
+import model.DepartmentDictionary;
+import model.Employee;
+import model.EmployeeField;
+
+// The dictionary is shared by every database in the process, so every test uses department
+// names of its own
+public class DepartmentDictionaryTest {
+
+    @Test
+    public void testCodesIgnoreCaseButSpellingsAreKept() {
+        Employee<Integer> upper = new Employee<>(1, "Ann", "Dict QA", 50000.0, 4.0, 2, true);
+        Employee<Integer> lower = new Employee<>(2, "Ben", "dict qa", 52000.0, 3.0, 4, true);
+        assertEquals("Dict QA", upper.getDepartment());
+        assertEquals("dict qa", lower.getDepartment());
+        assertEquals(upper.getDepartmentCode(), lower.getDepartmentCode());
+        assertEquals(upper.getDepartmentCode(), DepartmentDictionary.lookup("DICT QA"));
+        assertEquals(DepartmentDictionary.intern("dict qa"), DepartmentDictionary.intern("dict qa"));
+        assertNotEquals(DepartmentDictionary.intern("Dict QA"), DepartmentDictionary.intern("dict qa"));
+        assertEquals(DepartmentDictionary.NONE, DepartmentDictionary.lookup("Dict Nowhere"));
+    }
+
+    @Test
+    public void testRenameAndMergeApplyToOneDatabaseAndPublishUpdates() {
+        EmployeeDatabase<Integer> db = new EmployeeDatabase<>();
+        ColumnarEmployeeDatabase<Integer> columnar = new ColumnarEmployeeDatabase<>();
+        CachingEmployeeDatabase<Integer> cached = new CachingEmployeeDatabase<>(db);
+        String[] departments = {"Dict Sales", "dict sales", "Dict Marketing", "Dict Legal"};
+        for (int id = 0; id < 12; id++) {
+            Employee<Integer> emp = new Employee<>(id, "Emp " + id, departments[id % 4], 1000.0 * (id + 1), 3.0, 1, true);
+            db.addEmployee(emp);
+            columnar.addEmployee(emp);
+        }
+        assertEquals(6, cached.searchByDepartment("Dict Sales").size());
+        assertEquals(3, cached.searchByDepartment("Dict Marketing").size());
+
+        List<ChangeEvent<Integer>> events = new ArrayList<>();
+        db.changes().subscribe(events::addAll);
+        EmployeeSnapshot<Integer> before = db.readSnapshot();
+        db.renameDepartment("dict sales", "Dict Revenue");
+        assertEquals("dict sales", before.getEmployee(1).getDepartment());
+        assertEquals("Dict Revenue", db.readSnapshot().getEmployee(1).getDepartment());
+        assertEquals(6, events.size());
+        for (ChangeEvent<Integer> event : events) {
+            assertEquals(event.getEmployeeId() % 4 == 0 ? "Dict Sales" : "dict sales", event.getBefore().getDepartment());
+            assertEquals("Dict Revenue", event.getAfter().getDepartment());
+            assertTrue(event.changed(EmployeeField.DEPARTMENT));
+        }
+        assertEquals(6, db.searchByDepartment("dict revenue").size());
+        assertEquals(6, db.searchByDepartment("Dict Sales").size()); // old names stay aliases
+
+        // Other databases keep their departments until they are renamed themselves
+        assertEquals("Dict Sales", columnar.searchByName("Emp 0").get(0).getDepartment());
+        assertTrue(columnar.searchByDepartment("Dict Revenue").isEmpty());
+        assertNull(columnar.getDepartmentSummary("Dict Revenue"));
+        columnar.renameDepartment("Dict Sales", "Dict Revenue");
+        assertEquals("Dict Revenue", columnar.searchByName("Emp 0").get(0).getDepartment());
+        assertEquals(6, columnar.searchByDepartment("DICT REVENUE").size());
+        assertEquals(6, columnar.searchByDepartment("dict sales").size());
+
+        cached.mergeDepartments("Dict Marketing", "Dict Revenue");
+        assertEquals("Dict Revenue", db.readSnapshot().getEmployee(2).getDepartment());
+        assertEquals(9, db.searchByDepartment("Dict Revenue").size());
+        assertEquals(9, db.searchByDepartment("Dict Marketing").size());
+        assertEquals(9, cached.searchByDepartment("Dict Marketing").size());
+        assertEquals(9, db.query().department("dict revenue").count());
+        columnar.mergeDepartments("Dict Marketing", "Dict Revenue");
+        assertEquals(9, columnar.query().department("Dict Marketing").count());
+        assertEquals(3, db.query().department("Dict Legal").count());
+
+        DepartmentSummary summary = db.getDepartmentSummary("Dict Revenue");
+        assertEquals("Dict Revenue", summary.getDepartment());
+        assertEquals(9, summary.getEmployeeCount());
+        DepartmentSummary columnarSummary = columnar.getDepartmentSummary("Dict Revenue");
+        assertEquals(summary.getSalary().getAverage(), columnarSummary.getSalary().getAverage(), 0.001);
+        assertEquals(summary.getSalary().getVariance(), columnarSummary.getSalary().getVariance(), 0.001);
+        assertEquals(2, db.getDepartmentSummaries().size());
+        assertEquals(Integer.valueOf(2), db.getIndexSizes().get("departments"));
+
+        // Employees moved in afterwards are filed under the merged department as well
+        db.update(3, EmployeeField.DEPARTMENT, "dict marketing");
+        assertEquals(10, db.searchByDepartment("Dict Revenue").size());
+        assertEquals(10, cached.searchByDepartment("Dict Revenue").size());
+
+        try {
+            db.renameDepartment("Dict Revenue", "Dict Legal");
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+            // renaming onto another department must be a merge
+        }
+    }
+
+    // The department is serialized under its pre-dictionary name and type
+    @Test
+    public void testSerializedFormKeepsTheDepartmentName() throws Exception {
+        ObjectStreamField field = ObjectStreamClass.lookup(Employee.class).getField("department");
+        assertEquals(String.class, field.getType());
+
+        Employee<Integer> emp = new Employee<>(1, "Ann", "Dict Serialized", 50000.0, 4.0, 2, null);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(emp);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            @SuppressWarnings("unchecked")
+            Employee<Integer> copy = (Employee<Integer>) in.readObject();
+            assertEquals("Dict Serialized", copy.getDepartment());
+            assertEquals(emp.getDepartmentCode(), copy.getDepartmentCode());
+            assertEquals(Integer.valueOf(1), copy.getEmployeeId());
+            assertEquals(50000.0, copy.getSalary(), 0.001);
+            assertNull(copy.isActive());
+        }
+    }
+}
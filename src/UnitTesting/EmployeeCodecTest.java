@@ -0,0 +1,105 @@
+package UnitTesting;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import ExceptionHandling.PersistenceException;
+import database.EmployeeDatabase;
+import model.Employee;
+import persistence.EmployeeCodec;
+
+public class EmployeeCodecTest {
+    @Test
+    public void testRecordsRoundTripFromAnyBuffer() {
+        List<Employee<Integer>> employees = List.of(
+                new Employee<>(7, "Alice", "Finance", 81_250.5, 4.5, 12, true),
+                new Employee<>(-300_000, "Zoë Ågren", "Backend", 0.0, 0.0, 0, null),
+                new Employee<>(Integer.MAX_VALUE, "李 华", "Quality Assurance", 1e9, 5.0, 60, false));
+        for (Employee<Integer> emp : employees) {
+            byte[] bytes = EmployeeCodec.INTEGER.encode(emp);
+            ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length + 3).order(ByteOrder.LITTLE_ENDIAN);
+            direct.put(bytes).put((byte) 1).put((byte) 2).put((byte) 3).flip();
+            for (ByteBuffer in : new ByteBuffer[] {ByteBuffer.wrap(bytes), direct}) {
+                assertSameEmployee(emp, EmployeeCodec.INTEGER.decode(in));
+            }
+            assertEquals(3, direct.remaining());
+        }
+
+        Employee<String> named = new Employee<>("E-001", "Bob", "Frontend", 50_000.0, 3.0, 2, true);
+        assertSameEmployee(named, EmployeeCodec.STRING.decode(ByteBuffer.wrap(EmployeeCodec.STRING.encode(named))));
+        Employee<Long> wide = new Employee<>(Long.MIN_VALUE, "Carol", "DevOPs", 70_000.0, 3.5, 9, false);
+        assertSameEmployee(wide, EmployeeCodec.LONG.decode(ByteBuffer.wrap(EmployeeCodec.LONG.encode(wide))));
+    }
+
+    @Test
+    public void testDatabaseDumpIsCompactAndSharesDepartments() throws Exception {
+        EmployeeDatabase<Integer> db = new EmployeeDatabase<>();
+        String[] departments = {"Quality Assurance", "Frontend", "Finance", "Operations", "Backend", "DevOPs"};
+        for (int id = 0; id < 2_000; id++) {
+            db.addEmployee(new Employee<>(id, "Employee " + id, departments[id % 6], 40_000.0 + id, 1 + id % 5 * 1.0, id % 30, id % 7 != 0));
+        }
+        byte[] dump = EmployeeCodec.INTEGER.encodeAll(db.readSnapshot());
+        List<Employee<Integer>> decoded = EmployeeCodec.INTEGER.decodeAll(ByteBuffer.wrap(dump));
+
+        assertEquals(2_000, decoded.size());
+        for (Employee<Integer> emp : decoded) {
+            assertSameEmployee(db.readSnapshot().getEmployee(emp.getEmployeeId()), emp);
+        }
+        assertSame(decoded.get(0).getDepartment(), decoded.get(6).getDepartment());
+
+        ByteBuffer littleEndian = ByteBuffer.allocateDirect(dump.length).order(ByteOrder.LITTLE_ENDIAN);
+        littleEndian.put(dump).flip();
+        List<Employee<Integer>> fromDirect = EmployeeCodec.INTEGER.decodeAll(littleEndian);
+        assertEquals(2_000, fromDirect.size());
+        assertSameEmployee(decoded.get(1_999), fromDirect.get(1_999));
+
+        ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(serialized)) {
+            out.writeObject(new ArrayList<>(db.getAllEmployees()));
+        }
+        assertTrue(dump.length + " vs " + serialized.size(), dump.length * 2 < serialized.size());
+    }
+
+    @Test
+    public void testRejectsOtherVersionsKindsAndTruncatedInput() {
+        byte[] record = EmployeeCodec.INTEGER.encode(new Employee<>(1, "Alice", "Finance", 1000.0, 3.0, 1, true));
+        byte[] newer = record.clone();
+        newer[1] = (byte) ((EmployeeCodec.VERSION + 1) << 4 | newer[1] & 0x0F);
+        byte[] truncated = Arrays.copyOf(record, record.length - 4);
+        // Sign bit of the salary, after the header, the ID and the two strings
+        byte[] negativeSalary = record.clone();
+        negativeSalary[2 + 1 + 6 + 8] |= (byte) 0x80;
+        for (byte[] bad : new byte[][] {newer, truncated, negativeSalary}) {
+            try {
+                EmployeeCodec.INTEGER.decode(ByteBuffer.wrap(bad));
+                fail("Expected PersistenceException");
+            } catch (PersistenceException expected) {
+                // rejected
+            }
+        }
+        try {
+            EmployeeCodec.LONG.decodeAll(ByteBuffer.wrap(EmployeeCodec.INTEGER.encodeAll(List.of())));
+            fail("Expected PersistenceException");
+        } catch (PersistenceException expected) {
+            // Integer IDs cannot be read as Long IDs
+        }
+    }
+
+    private static <T> void assertSameEmployee(Employee<T> expected, Employee<T> actual) {
+        assertEquals(expected.getEmployeeId(), actual.getEmployeeId());
+        assertEquals(expected.getName(), actual.getName());
+        assertEquals(expected.getDepartment(), actual.getDepartment());
+        assertEquals(expected.getSalary(), actual.getSalary());
+        assertEquals(expected.getPerformanceRating(), actual.getPerformanceRating());
+        assertEquals(expected.getYearsOfExperience(), actual.getYearsOfExperience());
+        assertEquals(expected.isActive(), actual.isActive());
+    }
+}
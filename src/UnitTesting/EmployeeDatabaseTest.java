@@ -5,8 +5,15 @@ import org.junit.Test;
 import static org.junit.Assert.*;
 import ExceptionHandling.EmployeeNotFoundException;
 import ExceptionHandling.InvalidSalaryException;
+import database.ConcurrentEmployeeDatabase;
 import database.EmployeeDatabase;
+import database.EmployeeUpdateBatch;
+import database.SortKey;
+import aggregate.DepartmentSummary;
 import model.Employee;
+import model.EmployeeField;
+import java.util.List;
+import utility.EmployeePerformanceComparator;
 
 public class EmployeeDatabaseTest {
     private EmployeeDatabase<Integer> db;
@@ -53,4 +60,199 @@ public class EmployeeDatabaseTest {
     public void testUpdateNonExistentEmployee() throws EmployeeNotFoundException {
         db.updateEmployeeDetails(99, "salary", 10000.0);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testIndexesFollowUpdates() {
+        db.updateEmployeeDetails(1, "department", "hr");
+        assertEquals(2, db.searchByDepartment("HR").size());
+        assertEquals(0, db.searchByDepartment("IT").size());
+
+        db.updateEmployeeDetails(2, "salary", 90000.0);
+        assertEquals(1, db.filterBySalaryRange(80000, 100000).size());
+        assertEquals(0, db.filterBySalaryRange(55000, 65000).size());
+    }
+
+    @Test
+    public void testRaiseKeepsSalaryIndexInSync() {
+        db.giveRaise(4.5, 1000);
+        assertEquals(51000.0, db.filterBySalaryRange(51000, 51000).get(0).getSalary(), 0.001);
+        assertEquals(0, db.filterBySalaryRange(50000, 50000).size());
+        assertEquals(1, db.filterByPerformance(4.5).size());
+    }
+
+    // Jane is raised first in rating order; John's salary would go negative, so neither changes
+    @Test
+    public void testFailedRaiseChangesNothing() {
+        try {
+            db.giveRaise(4.0, -55000);
+            fail("Expected InvalidSalaryException");
+        } catch (InvalidSalaryException expected) {
+            // fall through
+        }
+        assertEquals(60000.0, db.searchByName("Jane").get(0).getSalary(), 0.001);
+        assertEquals(60000.0, db.readSnapshot().getEmployee(2).getSalary(), 0.001);
+        assertEquals(1, db.filterBySalaryRange(60000, 60000).size());
+        assertEquals(60000.0, db.getAverageSalary("HR"), 0.001);
+    }
+
+    @Test
+    public void testRemoveEmployeeClearsIndexes() {
+        db.removeEmployee(2);
+        assertTrue(db.searchByDepartment("HR").isEmpty());
+        assertEquals(1, db.filterBySalaryRange(0, 100000).size());
+        assertEquals(0.0, db.getAverageSalary("HR"), 0.001);
+    }
+
+    @Test
+    public void testSubstringSearchFollowsRenames() {
+        assertEquals(1, db.searchByName("SMI").size());
+        assertEquals(2, db.searchByName("j").size());
+
+        db.updateEmployeeDetails(2, "name", "Jane Walker");
+        assertTrue(db.searchByName("smith").isEmpty());
+        assertEquals("Jane Walker", db.searchByName("walk").get(0).getName());
+    }
+
+    @Test
+    public void testSearchMatchesNameDepartmentOrId() {
+        db.addEmployee(new Employee<Integer>(1042, "Hritik", "Finance", 70000.0, 3.5, 2, true));
+        assertEquals(2, db.search("hr").size());
+        assertEquals(1, db.search("nance").size());
+        assertEquals(1, db.search("104").size());
+        db.removeEmployee(1042);
+        assertTrue(db.search("104").isEmpty());
+    }
+
+    @Test
+    public void testTopPaidFollowsRaisesAndEdits() {
+        db.addEmployee(new Employee<Integer>(3, "Bob", "Finance", 55000.0, 3.5, 2, true));
+        assertEquals(Integer.valueOf(2), db.getTopPaid(1).get(0).getEmployeeId());
+
+        db.giveRaise(4.5, 20000.0);
+        assertEquals(Integer.valueOf(1), db.getTopPaid(1).get(0).getEmployeeId());
+
+        db.updateEmployeeDetails(3, "salary", 99000.0);
+        assertEquals(Integer.valueOf(3), db.getTopPaid(3).get(0).getEmployeeId());
+        assertEquals(3, db.getTopPaid(10).size());
+        assertEquals(db.sortBySalary(), db.getTopPaid(3));
+    }
+
+    @Test
+    public void testTopPerformers() {
+        db.addEmployee(new Employee<Integer>(3, "Bob", "Finance", 55000.0, 3.5, 2, true));
+        assertEquals("John Doe", db.getTopPerformers(1).get(0).getName());
+        assertEquals(db.sortByPerformance().subList(0, 2), db.getTop(2, new EmployeePerformanceComparator<>()));
+        assertTrue(db.getTopPerformers(0).isEmpty());
+    }
+
+    @Test
+    public void testDepartmentSummariesAreMaintained() {
+        db.addEmployee(new Employee<Integer>(3, "Bob", "it", 70000.0, 3.5, 2, true));
+        DepartmentSummary it = db.getDepartmentSummary("IT");
+        assertEquals(2, it.getEmployeeCount());
+        assertEquals(60000.0, it.getSalary().getAverage(), 0.001);
+        assertEquals(1.0e8, it.getSalary().getVariance(), 0.001);
+        assertEquals(3.5, it.getRating().getMin(), 0.001);
+
+        db.giveRaise(4.5, 10000.0);
+        db.updateEmployeeDetails(3, "department", "HR");
+        it = db.getDepartmentSummary("it");
+        assertEquals(1, it.getEmployeeCount());
+        assertEquals(60000.0, it.getSalary().getMax(), 0.001);
+        assertEquals(0.0, it.getSalary().getVariance(), 0.001);
+        assertEquals(65000.0, db.getAverageSalary("hr"), 0.001);
+
+        db.removeEmployee(1);
+        assertNull(db.getDepartmentSummary("IT"));
+        assertEquals(1, db.getDepartmentSummaries().size());
+    }
+
+    @Test
+    public void testGetPageMatchesFullSortForEveryKey() {
+        for (int i = 3; i <= 40; i++) {
+            db.addEmployee(new Employee<Integer>(i, "Emp " + (i % 7), i % 2 == 0 ? "IT" : "Ops",
+                    40000.0 + (i % 5) * 1000, (i % 4) + 1.0, i % 6, true));
+        }
+        for (SortKey key : SortKey.values()) {
+            for (boolean ascending : new boolean[] {true, false}) {
+                List<Employee<Integer>> all = db.getAllEmployees();
+                all.sort(ascending ? key.comparator() : key.<Integer>comparator().reversed());
+                assertEquals(key + " " + ascending, all.subList(10, 20), db.getPage(null, key, ascending, 10, 10));
+                assertEquals(all.subList(35, 40), db.getPage("", key, ascending, 35, 10));
+            }
+        }
+        assertEquals(21, db.count("it")); // 20 in IT plus "Jane Smith"
+        assertEquals(6, db.getPage("it", SortKey.SALARY, true, 15, 10).size());
+        assertTrue(db.getPage(null, SortKey.ID, true, 40, 10).isEmpty());
+    }
+
+    @Test
+    public void testUpdateBatchIsAllOrNothing() {
+        db.updateEmployees(new EmployeeUpdateBatch<Integer>()
+                .set(1, EmployeeField.DEPARTMENT, "HR")
+                .set(1, EmployeeField.SALARY, 90000.0)
+                .set(2, EmployeeField.NAME, "Jane Doe"));
+        assertEquals(2, db.searchByDepartment("hr").size());
+        assertEquals(1, db.getTopPaid(1).get(0).getEmployeeId().intValue());
+        assertEquals(2, db.searchByName("doe").size());
+        assertEquals(75000.0, db.getAverageSalary("HR"), 0.001);
+
+        try {
+            db.updateEmployees(new EmployeeUpdateBatch<Integer>()
+                    .set(1, EmployeeField.SALARY, 1.0)
+                    .set(99, EmployeeField.SALARY, 1.0));
+            fail("Expected EmployeeNotFoundException");
+        } catch (EmployeeNotFoundException expected) {
+            assertEquals(90000.0, db.getTopPaid(1).get(0).getSalary(), 0.001);
+        }
+    }
+
+    @Test
+    public void testAddBatchReplacesAndKeepsLastDuplicate() {
+        for (EmployeeDatabase<Integer> target : List.of(db, new ConcurrentEmployeeDatabase<Integer>())) {
+            target.addEmployees(List.of(
+                    new Employee<Integer>(1, "John Doe", "Finance", 80000.0, 3.0, 6, true),
+                    new Employee<Integer>(3, "Bob", "IT", 40000.0, 2.0, 1, true),
+                    new Employee<Integer>(3, "Bob", "IT", 45000.0, 2.5, 1, true)));
+            assertEquals(45000.0, target.getAverageSalary("IT"), 0.001);
+            assertEquals(1, target.getDepartmentSummary("IT").getSalary().getCount());
+            assertEquals(80000.0, target.getAverageSalary("Finance"), 0.001);
+            assertEquals(1, target.filterBySalaryRange(40000.0, 45000.0).size());
+            assertEquals(1, target.getTopPaid(1).get(0).getEmployeeId().intValue());
+        }
+    }
+
+    @Test(expected = InvalidSalaryException.class)
+    public void testUpdateBatchRejectsInvalidValue() {
+        new EmployeeUpdateBatch<Integer>().set(1, EmployeeField.SALARY, -5.0);
+    }
+
+    @Test
+    public void testOrderedViewsPageDeepAfterChurn() {
+        EmployeeDatabase<Integer> big = new EmployeeDatabase<>();
+        for (int id = 1; id <= 3000; id++) {
+            // Few distinct keys, so most of the order comes from the ID tie-break
+            big.addEmployee(new Employee<>(id, "Emp " + id, "Dept", 1000.0 * (id % 7), (id % 5) * 1.0, id % 9, true));
+        }
+        for (int id = 3; id <= 3000; id += 3) {
+            big.removeEmployee(id);
+        }
+        for (int id = 1; id <= 3000; id += 12) {
+            big.update(id, EmployeeField.EXPERIENCE, 20);
+            big.raiseSalary(id, 500.0);
+        }
+        List<Employee<Integer>> all = big.getAllEmployees();
+        for (SortKey key : new SortKey[] {SortKey.ID, SortKey.SALARY, SortKey.RATING, SortKey.EXPERIENCE}) {
+            for (boolean ascending : new boolean[] {true, false}) {
+                all.sort(ascending ? key.comparator() : key.<Integer>comparator().reversed());
+                for (int offset : new int[] {0, 977, 1990}) {
+                    assertEquals(key + " " + ascending + " @" + offset,
+                            all.subList(offset, Math.min(offset + 25, all.size())),
+                            big.getPage(null, key, ascending, offset, 25));
+                }
+            }
+        }
+        assertEquals(all.size(), big.sortBySalary().size());
+        assertEquals(big.getTopPaid(1).get(0), big.sortBySalary().get(0));
+    }
+}
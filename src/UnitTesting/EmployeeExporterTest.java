@@ -0,0 +1,76 @@
+package UnitTesting;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import database.EmployeeDatabase;
+import exporter.EmployeeExporter;
+import exporter.ExportFormat;
+import importer.CsvEmployeeImporter;
+import model.Employee;
+
+public class EmployeeExporterTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final List<Employee<Integer>> employees = Arrays.asList(
+            new Employee<>(1, "Doe, \"Johnny\"", "IT", 50000.5, 4.5, 5, true),
+            new Employee<>(2, "Zoë\tSmith", "HR", 60000.0, 4.04, 3, false));
+
+    @Test
+    public void testCsvRoundTripsThroughImporter() throws IOException {
+        Path csv = folder.newFile("export.csv").toPath();
+        assertEquals(2, new EmployeeExporter(ExportFormat.CSV, 16).export(employees, csv));
+
+        EmployeeDatabase<Integer> db = new EmployeeDatabase<>();
+        new CsvEmployeeImporter<>(Integer::valueOf).importFile(csv, db, null);
+
+        List<Employee<Integer>> imported = new ArrayList<>(db.getAllEmployees());
+        imported.sort((a, b) -> a.getEmployeeId() - b.getEmployeeId());
+        for (int i = 0; i < employees.size(); i++) {
+            Employee<Integer> expected = employees.get(i);
+            Employee<Integer> actual = imported.get(i);
+            assertEquals(expected.getName(), actual.getName());
+            assertEquals(expected.getSalary(), actual.getSalary());
+            assertEquals(expected.getPerformanceRating(), actual.getPerformanceRating());
+            assertEquals(expected.isActive(), actual.isActive());
+        }
+    }
+
+    @Test
+    public void testJsonLinesEscapesStrings() {
+        String json = export(ExportFormat.JSON_LINES);
+        assertEquals("{\"id\":1,\"name\":\"Doe, \\\"Johnny\\\"\",\"department\":\"IT\",\"salary\":50000.5,"
+                + "\"rating\":4.5,\"experience\":5,\"active\":true}\n"
+                + "{\"id\":2,\"name\":\"Zoë\\tSmith\",\"department\":\"HR\",\"salary\":60000.0,"
+                + "\"rating\":4.04,\"experience\":3,\"active\":false}\n", json);
+    }
+
+    @Test
+    public void testFixedWidthAlignsRoundedColumns() {
+        String[] lines = export(ExportFormat.FIXED_WIDTH).split("\n");
+        assertEquals(3, lines.length);
+        assertEquals(lines[0].length(), lines[1].length());
+        assertEquals(lines[0].length(), lines[2].length());
+        assertTrue(lines[1].contains("    50000.50     4.5"));
+        assertTrue(lines[2].contains("    60000.00     4.0"));
+        assertTrue(lines[2].endsWith("no"));
+    }
+
+    private String export(ExportFormat format) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new EmployeeExporter(format, 16).export(employees, Channels.newChannel(out));
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
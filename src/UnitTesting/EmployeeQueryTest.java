@@ -0,0 +1,88 @@
+package UnitTesting;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import database.ColumnarEmployeeDatabase;
+import database.EmployeeDatabase;
+import database.EmployeeQuery;
+import database.QueryPlan;
+import database.SortKey;
+import model.Employee;
+
+public class EmployeeQueryTest {
+    private static final String[] DEPARTMENTS = {"Backend", "Frontend", "Finance", "Operations"};
+
+    private static <D extends EmployeeDatabase<Integer>> D populate(D db) {
+        for (int i = 1; i <= 2000; i++) {
+            db.addEmployee(new Employee<>(i, "Employee " + i, DEPARTMENTS[i % 4] + (i % 50 == 0 ? " Tools" : ""),
+                    50_000.0 + (i * 37) % 90_000, (i % 11) / 2.0, i % 25, i % 3 != 0));
+        }
+        return db;
+    }
+
+    private static List<Employee<Integer>> backendQuery(EmployeeDatabase<Integer> db) {
+        return db.query().department("backend").salaryBetween(80_000, 120_000).ratingAtLeast(4)
+                .active(true).orderBy(SortKey.SALARY, false).offset(2).limit(5).list();
+    }
+
+    private static List<Integer> expectedBackend(List<Employee<Integer>> all) {
+        return all.stream()
+                .filter(e -> e.getDepartment().equalsIgnoreCase("backend"))
+                .filter(e -> e.getSalary() >= 80_000 && e.getSalary() <= 120_000)
+                .filter(e -> e.getPerformanceRating() >= 4 && e.isActive())
+                .sorted(SortKey.SALARY.<Integer>comparator().reversed())
+                .skip(2).limit(5)
+                .map(Employee::getEmployeeId)
+                .collect(Collectors.toList());
+    }
+
+    private static List<Integer> ids(List<Employee<Integer>> employees) {
+        List<Integer> ids = new ArrayList<>();
+        for (Employee<Integer> emp : employees) {
+            ids.add(emp.getEmployeeId());
+        }
+        return ids;
+    }
+
+    @Test
+    public void testQueryMatchesBruteForceOnBothEngines() {
+        EmployeeDatabase<Integer> db = populate(new EmployeeDatabase<>());
+        ColumnarEmployeeDatabase<Integer> columnar = populate(new ColumnarEmployeeDatabase<>());
+        List<Integer> expected = expectedBackend(db.getAllEmployees());
+
+        assertEquals(5, expected.size());
+        assertEquals(expected, ids(backendQuery(db)));
+        assertEquals(expected, ids(backendQuery(columnar)));
+
+        EmployeeQuery<Integer> byName = db.query().nameContains("ployee 19").experienceBetween(5, 20);
+        assertEquals(byName.count(), columnar.query().nameContains("PLOYEE 19").experienceBetween(5, 20).count());
+        assertEquals(byName.count(), byName.list().size());
+        assertEquals(1, db.query().id(7).list().size());
+        assertTrue(db.query().department("nowhere").list().isEmpty());
+    }
+
+    @Test
+    public void testPlannerPicksMostSelectivePath() {
+        EmployeeDatabase<Integer> db = populate(new EmployeeDatabase<>());
+
+        QueryPlan tools = db.query().department("Backend Tools").ratingAtLeast(1).explain();
+        assertEquals(QueryPlan.AccessPath.DEPARTMENT_INDEX, tools.getAccessPath());
+        assertEquals(20, tools.getEstimatedRows());
+
+        QueryPlan narrowSalary = db.query().department("Backend").salaryBetween(60_000, 60_100).explain();
+        assertEquals(QueryPlan.AccessPath.SALARY_INDEX, narrowSalary.getAccessPath());
+
+        QueryPlan topPaid = db.query().orderBy(SortKey.SALARY, false).limit(10).explain();
+        assertEquals(QueryPlan.AccessPath.SALARY_INDEX, topPaid.getAccessPath());
+        assertTrue(topPaid.toString().contains("index order on SALARY desc"));
+
+        assertEquals(QueryPlan.AccessPath.ID_LOOKUP, db.query().id(5).department("Backend").explain().getAccessPath());
+        assertEquals(QueryPlan.AccessPath.COLUMN_BITMAP,
+                populate(new ColumnarEmployeeDatabase<>()).query().ratingAtLeast(4).explain().getAccessPath());
+    }
+}
@@ -0,0 +1,22 @@
+package UnitTesting;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import model.Employee;
+
+// Query results reduced to what they show, in order, for comparing engines and caches that
+// return different Employee objects for the same rows
+final class EmployeeRows {
+    private EmployeeRows() {
+    }
+
+    static List<String> rows(List<? extends Employee<?>> employees) {
+        List<String> rows = new ArrayList<>(employees.size());
+        for (Employee<?> emp : employees) {
+            rows.add(emp.getEmployeeId() + " " + emp.getName() + " " + emp.getDepartment() + " " + emp.getSalary()
+                    + " " + emp.getPerformanceRating() + " " + emp.getYearsOfExperience() + " " + emp.isActive());
+        }
+        return rows;
+    }
+}
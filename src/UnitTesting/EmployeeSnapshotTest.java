@@ -0,0 +1,154 @@
+package UnitTesting;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import ExceptionHandling.EmployeeNotFoundException;
+import database.ConcurrentEmployeeDatabase;
+import database.EmployeeDatabase;
+import database.EmployeeSnapshot;
+import model.Employee;
+import model.EmployeeField;
+import utility.PersistentHashMap;
+
+public class EmployeeSnapshotTest {
+    @Test
+    public void testPersistentHashMapMatchesHashMapAndKeepsOldVersions() {
+        PersistentHashMap<Long, String> map = PersistentHashMap.empty();
+        Map<Long, String> expected = new HashMap<>();
+        PersistentHashMap<Long, String> pinned = null;
+        Map<Long, String> pinnedExpected = null;
+        SplittableRandom random = new SplittableRandom(7);
+        for (int step = 0; step < 100_000; step++) {
+            // Every key has a twin with the same hashCode, so collision nodes are exercised too
+            long low = random.nextInt(3_000);
+            long key = random.nextBoolean() ? low : twin(low);
+            if (random.nextInt(3) == 0) {
+                expected.remove(key);
+                map = map.minus(key);
+            } else {
+                expected.put(key, "v" + step);
+                map = map.plus(key, "v" + step);
+            }
+            if (step == 50_000) {
+                pinned = map;
+                pinnedExpected = new HashMap<>(expected);
+            }
+        }
+        assertEquals(expected, map);
+        assertEquals(pinnedExpected, pinned);
+
+        PersistentHashMap.Builder<Long, String> builder = map.toBuilder();
+        for (long key = 0; key < 3_000; key += 2) {
+            builder.remove(key).put(twin(key), "built");
+        }
+        PersistentHashMap<Long, String> built = builder.build();
+        builder.put(-1L, "after build");
+        assertEquals(expected, map);
+        assertFalse(built.containsKey(-1L));
+        assertEquals("built", built.get(twin(2)));
+        assertNull(built.get(2L));
+    }
+
+    @Test
+    public void testSnapshotIsUnaffectedByLaterWrites() {
+        EmployeeDatabase<Integer> db = new EmployeeDatabase<>();
+        for (int id = 1; id <= 100; id++) {
+            db.addEmployee(new Employee<>(id, "Employee " + id, "IT", 1000.0 * id, 3.0, 2, true));
+        }
+        EmployeeSnapshot<Integer> before = db.readSnapshot();
+
+        db.raiseSalary(1, 500);
+        db.update(2, EmployeeField.DEPARTMENT, "HR");
+        db.removeEmployee(3);
+        db.addEmployee(new Employee<>(101, "Newcomer", "IT", 10.0, 1.0, 0, true));
+        db.giveRaise(0, 1);
+
+        assertEquals(100, before.size());
+        assertEquals(1000.0, before.getEmployee(1).getSalary(), 0.001);
+        assertEquals("IT", before.getEmployee(2).getDepartment());
+        assertTrue(before.containsEmployee(3));
+        assertFalse(before.containsEmployee(101));
+        try {
+            before.getEmployee(1).setSalary(0.0);
+            fail("Expected UnsupportedOperationException");
+        } catch (UnsupportedOperationException expected) {
+            // snapshot copies are read-only
+        }
+
+        EmployeeSnapshot<Integer> after = db.readSnapshot();
+        assertEquals(100, after.size());
+        assertEquals(1501.0, after.getEmployee(1).getSalary(), 0.001);
+        assertEquals("HR", after.getEmployee(2).getDepartment());
+        assertEquals(11.0, after.getEmployee(101).getSalary(), 0.001);
+        try {
+            after.getEmployee(3);
+            fail("Expected EmployeeNotFoundException");
+        } catch (EmployeeNotFoundException expected) {
+            // removed before the snapshot was taken
+        }
+        Map<Integer, Double> live = new HashMap<>();
+        for (Employee<Integer> emp : db.getAllEmployees()) {
+            live.put(emp.getEmployeeId(), emp.getSalary());
+        }
+        for (Employee<Integer> emp : after) {
+            assertEquals(live.get(emp.getEmployeeId()), emp.getSalary());
+        }
+    }
+
+    @Test
+    public void testReadersNeverSeePartOfABulkRaise() throws Exception {
+        ConcurrentEmployeeDatabase<Integer> db = new ConcurrentEmployeeDatabase<>();
+        List<Employee<Integer>> employees = new ArrayList<>();
+        for (int id = 0; id < 500; id++) {
+            employees.add(new Employee<>(id, "Emp " + id, "Backend", 10_000.0, 4.0, 1, true));
+        }
+        db.addEmployees(employees);
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> writer = pool.submit(() -> {
+                for (int i = 0; i < 200; i++) {
+                    db.giveRaise(0, 1);
+                }
+            });
+            Future<Integer> reader = pool.submit(() -> {
+                int torn = 0;
+                while (!writer.isDone()) {
+                    Double first = null;
+                    for (Employee<Integer> emp : db.readSnapshot()) {
+                        if (first == null) {
+                            first = emp.getSalary();
+                        } else if (!first.equals(emp.getSalary())) {
+                            torn++;
+                            break;
+                        }
+                    }
+                }
+                return torn;
+            });
+            writer.get(30, TimeUnit.SECONDS);
+            assertEquals(Integer.valueOf(0), reader.get(30, TimeUnit.SECONDS));
+        } finally {
+            pool.shutdownNow();
+        }
+        for (Employee<Integer> emp : db.readSnapshot()) {
+            assertEquals(10_200.0, emp.getSalary(), 0.001);
+        }
+    }
+
+    // Long.hashCode() is high word XOR low word, so this key hashes like low
+    private static long twin(long low) {
+        return (low + 1) << 32 | (low ^ (low + 1));
+    }
+}
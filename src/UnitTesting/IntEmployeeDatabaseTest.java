@@ -0,0 +1,102 @@
+package UnitTesting;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+import static UnitTesting.EmployeeRows.rows;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import ExceptionHandling.EmployeeNotFoundException;
+import database.EmployeeDatabase;
+import database.IntEmployeeDatabase;
+import database.SortKey;
+import model.Employee;
+import model.EmployeeField;
+import utility.IntHashMap;
+import utility.IntHashSet;
+
+public class IntEmployeeDatabaseTest {
+    @Test
+    public void testIntHashMapMatchesHashMapUnderChurn() {
+        IntHashMap<String> map = new IntHashMap<>();
+        Map<Integer, String> expected = new HashMap<>();
+        SplittableRandom random = new SplittableRandom(11);
+        for (int step = 0; step < 200_000; step++) {
+            // Narrow key range so probe runs collide and removals shift entries back
+            int key = random.nextInt(-2_000, 2_000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                String value = "v" + step;
+                assertEquals(expected.put(key, value), map.put(key, value));
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        for (int key = -2_000; key < 2_000; key++) {
+            assertEquals(expected.get(key), map.get(key));
+        }
+        assertEquals(expected, map);
+    }
+
+    @Test
+    public void testIntHashSetMatchesHashSetUnderChurn() {
+        IntHashSet set = new IntHashSet();
+        Set<Integer> expected = new HashSet<>();
+        SplittableRandom random = new SplittableRandom(13);
+        for (int step = 0; step < 200_000; step++) {
+            // 0 is the set's empty marker, so it is in range on purpose
+            int key = random.nextInt(-500, 500);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), set.remove(key));
+            } else {
+                assertEquals(expected.add(key), set.add(key));
+            }
+        }
+        assertEquals(expected.size(), set.size());
+        assertEquals(expected, set);
+        assertEquals(expected, new HashSet<>(set));
+    }
+
+    @Test
+    public void testSameResultsAsGenericEngine() {
+        EmployeeDatabase<Integer> generic = new EmployeeDatabase<>();
+        IntEmployeeDatabase specialized = new IntEmployeeDatabase(10);
+        for (int id = 1; id <= 500; id++) {
+            Employee<Integer> emp = new Employee<>(id, "Employee " + id, id % 2 == 0 ? "Backend" : "Finance",
+                    40_000.0 + id * 100, (id % 6) * 0.8, id % 30, id % 7 != 0);
+            generic.addEmployee(emp);
+            specialized.addEmployee(new Employee<>(id, emp.getName(), emp.getDepartment(), emp.getSalary(),
+                    emp.getPerformanceRating(), emp.getYearsOfExperience(), emp.isActive()));
+        }
+        for (int id = 5; id <= 500; id += 5) {
+            generic.removeEmployee(id);
+            specialized.removeEmployee(id);
+        }
+        generic.updateEmployeeDetails(12, "department", "Finance");
+        specialized.updateEmployeeDetails(12, "department", "Finance");
+        generic.update(13, EmployeeField.SALARY, 99_000.0);
+        specialized.update(13, EmployeeField.SALARY, 99_000.0);
+
+        assertEquals(generic.size(), specialized.size());
+        assertEquals(generic.getPage(null, SortKey.SALARY, false, 0, 50).toString(),
+                specialized.getPage(null, SortKey.SALARY, false, 0, 50).toString());
+        assertEquals(new HashSet<>(rows(generic.searchByDepartment("finance"))), new HashSet<>(rows(specialized.searchByDepartment("finance"))));
+        assertEquals(new HashSet<>(rows(generic.searchByName("ee 4"))), new HashSet<>(rows(specialized.searchByName("ee 4"))));
+        assertEquals(generic.getDepartmentSummaries().toString(), specialized.getDepartmentSummaries().toString());
+        assertEquals(generic.query().nameContains("ee 4").ratingAtLeast(2).count(),
+                specialized.query().nameContains("ee 4").ratingAtLeast(2).count());
+        assertEquals("Finance", specialized.getEmployee(12).getDepartment());
+        assertFalse(specialized.containsEmployee(5));
+
+        try {
+            specialized.removeEmployee(5);
+            fail("Expected EmployeeNotFoundException");
+        } catch (EmployeeNotFoundException expected) {
+            assertEquals(400, specialized.size());
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package UnitTesting;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import static UnitTesting.EmployeeRows.rows;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import ExceptionHandling.EmployeeNotFoundException;
+import ExceptionHandling.InvalidSalaryException;
+import database.EmployeeDatabase;
+import database.OffHeapEmployeeDatabase;
+import database.SortKey;
+import model.Employee;
+import model.EmployeeField;
+
+public class OffHeapEmployeeDatabaseTest {
+    private OffHeapEmployeeDatabase<Integer> db;
+
+    @Before
+    public void setUp() {
+        db = new OffHeapEmployeeDatabase<>();
+        db.addEmployee(new Employee<>(1, "John Doe", "IT", 50000.0, 4.5, 5, true));
+        db.addEmployee(new Employee<>(2, "Jane Smith", "HR", 60000.0, 4.0, 3, true));
+        db.addEmployee(new Employee<>(3, "Bob Stone", "it", 70000.0, 3.0, 8, false));
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void testRemovedSlotsAreReused() {
+        Employee<Integer> john = db.searchByName("john").get(0);
+        long slotBytes = db.getOffHeapUsage().get("slotBytes");
+        db.removeEmployee(1);
+
+        assertEquals(2, db.size());
+        assertEquals(1L, (long) db.getOffHeapUsage().get("freeListSlots"));
+        assertThrows(EmployeeNotFoundException.class, john::getName);
+
+        db.addEmployee(new Employee<>(4, "Ann Lee", "IT", 55000.0, 4.2, 1, true));
+        assertEquals(0L, (long) db.getOffHeapUsage().get("freeListSlots"));
+        assertEquals(slotBytes, (long) db.getOffHeapUsage().get("slotBytes"));
+        assertThrows(EmployeeNotFoundException.class, john::getName);
+        assertEquals("Ann Lee", db.searchByDepartment("IT").get(0).getName());
+        assertEquals(62500.0, db.getAverageSalary("it"), 0.001);
+
+        try {
+            db.giveRaise(0, -56000.0);
+            fail("Expected InvalidSalaryException");
+        } catch (InvalidSalaryException expected) {
+            assertEquals(55000.0, db.getTopPaid(3).get(2).getSalary(), 0.001);
+        }
+    }
+
+    // A null active flag is its own state, matching neither active(true) nor active(false)
+    @Test
+    public void testUnknownActiveMatchesNeitherFlag() {
+        db.addEmployee(new Employee<>(4, "Ann Lee", "IT", 55000.0, 4.2, 1, null));
+        assertNull(db.readSnapshot().getEmployee(4).isActive());
+        assertEquals(2, db.query().active(true).count());
+        assertEquals(1, db.query().active(false).count());
+        db.update(4, EmployeeField.ACTIVE, false);
+        assertEquals(Boolean.FALSE, db.readSnapshot().getEmployee(4).isActive());
+        assertEquals(2, db.query().active(false).count());
+    }
+
+    // Random writes against the generic engine, with renames long enough to force the
+    // string area through several compactions
+    @Test
+    public void testMatchesGenericDatabase() {
+        EmployeeDatabase<Integer> expected = new EmployeeDatabase<>();
+        OffHeapEmployeeDatabase<Integer> offHeap = new OffHeapEmployeeDatabase<>();
+        String[] departments = {"OffHeap Finance", "OffHeap Backend", "offheap backend", "OffHeap Ops"};
+        SplittableRandom random = new SplittableRandom(5);
+        try {
+            for (int step = 0; step < 20000; step++) {
+                int id = random.nextInt(2000);
+                boolean exists = expected.readSnapshot().containsEmployee(id);
+                switch (random.nextInt(4)) {
+                    case 0 -> {
+                        String department = departments[random.nextInt(departments.length)];
+                        double salary = 1000.0 * random.nextInt(20, 120);
+                        double rating = random.nextInt(0, 6);
+                        int experience = random.nextInt(30);
+                        boolean active = random.nextBoolean();
+                        expected.addEmployee(new Employee<>(id, "Emp " + id, department, salary, rating, experience, active));
+                        offHeap.addEmployee(new Employee<>(id, "Emp " + id, department, salary, rating, experience, active));
+                    }
+                    case 1 -> {
+                        if (exists) {
+                            expected.removeEmployee(id);
+                            offHeap.removeEmployee(id);
+                        }
+                    }
+                    case 2 -> {
+                        if (exists) {
+                            String name = "Emp " + id + " " + "x".repeat(random.nextInt(1000));
+                            expected.update(id, EmployeeField.NAME, name);
+                            offHeap.update(id, EmployeeField.NAME, name);
+                        }
+                    }
+                    default -> {
+                        if (exists) {
+                            expected.raiseSalary(id, 100);
+                            offHeap.raiseSalary(id, 100);
+                        }
+                    }
+                }
+            }
+            expected.giveRaise(4.0, 250);
+            offHeap.giveRaise(4.0, 250);
+
+            assertEquals(expected.size(), offHeap.size());
+            assertEquals(rows(expected.getPage(null, SortKey.SALARY, false, 0, 5000)), rows(offHeap.getPage(null, SortKey.SALARY, false, 0, 5000)));
+            assertEquals(rows(expected.getPage(null, SortKey.NAME, true, 30, 20)), rows(offHeap.getPage(null, SortKey.NAME, true, 30, 20)));
+            assertEquals(new HashSet<>(rows(expected.query().department("offheap backend").ratingAtLeast(3).active(true).list())),
+                    new HashSet<>(rows(offHeap.query().department("offheap backend").ratingAtLeast(3).active(true).list())));
+            assertEquals(expected.query().salaryAtLeast(60000).count(), offHeap.query().salaryAtLeast(60000).count());
+            for (String department : departments) {
+                assertEquals(expected.getAverageSalary(department), offHeap.getAverageSalary(department), 1e-6);
+            }
+            assertTrue(offHeap.getOffHeapUsage().get("stringBytesGarbage") <= offHeap.getOffHeapUsage().get("stringBytesLive") + (1 << 20));
+        } finally {
+            offHeap.close();
+        }
+        assertEquals(0, offHeap.size());
+        assertThrows(IllegalStateException.class, () -> offHeap.addEmployee(new Employee<>(1, "A", "B", 1.0, 1.0, 1, true)));
+    }
+
+    // Pages, tops and positions are ranked on slot values, and names matched in place while ASCII
+    @Test
+    public void testSlotOrderMatchesGenericDatabase() {
+        EmployeeDatabase<Integer> expected = new EmployeeDatabase<>();
+        String[] names = {"ann", "Ann", "ANNA", "Zoë", "zoe", "Émile", "bob", "Bo"};
+        SplittableRandom random = new SplittableRandom(11);
+        for (int id = 10; id < 400; id++) {
+            Employee<Integer> emp = new Employee<>(id, names[id % names.length] + " " + id % 7, id % 3 == 0 ? "Ops" : "ops",
+                    1000.0 * random.nextInt(20, 30), (double) random.nextInt(0, 6), random.nextInt(5), true);
+            expected.addEmployee(emp);
+            db.addEmployee(new Employee<>(id, emp.getName(), emp.getDepartment(), emp.getSalary(),
+                    emp.getPerformanceRating(), emp.getYearsOfExperience(), true));
+        }
+        db.removeEmployee(1);
+        db.removeEmployee(2);
+        db.removeEmployee(3);
+        for (SortKey sortKey : SortKey.values()) {
+            for (boolean ascending : new boolean[] {true, false}) {
+                for (String filter : new String[] {null, "an", "zoë", "ÉMI", "OPS", "12"}) {
+                    assertEquals(sortKey + " " + ascending + " " + filter, rows(expected.getPage(filter, sortKey, ascending, 7, 40)),
+                            rows(db.getPage(filter, sortKey, ascending, 7, 40)));
+                    Employee<Integer> probe = expected.readSnapshot().getEmployee(10 + random.nextInt(390));
+                    assertEquals(expected.positionOf(filter, sortKey, ascending, probe), db.positionOf(filter, sortKey, ascending, probe));
+                }
+            }
+        }
+        assertEquals(rows(expected.getTopPaid(25)), rows(db.getTopPaid(25)));
+        assertEquals(rows(expected.getTopPerformers(25)), rows(db.getTopPerformers(25)));
+        assertEquals(expected.count("bo"), db.count("bo"));
+        assertEquals(new HashSet<>(rows(expected.searchByName("ZO"))), new HashSet<>(rows(db.searchByName("ZO"))));
+        List<Employee<Integer>> bySalary = db.sortBySalary();
+        for (int i = 1; i < bySalary.size(); i++) {
+            assertTrue(bySalary.get(i - 1).getSalary() >= bySalary.get(i).getSalary());
+        }
+        assertEquals(expected.size(), bySalary.size());
+    }
+
+    @Test
+    public void testIntegerIdsAreBoxedOnlyOnceAnotherTypeIsAdded() {
+        OffHeapEmployeeDatabase<Object> mixed = new OffHeapEmployeeDatabase<>();
+        try {
+            for (int id = 0; id < 100; id++) {
+                mixed.addEmployee(new Employee<Object>(id, "Emp " + id, "IT", 1000.0 + id, 3.0, 1, true));
+            }
+            // Integer IDs order before any other class, as in EmployeeIdComparator
+            assertEquals(100, mixed.positionOf(null, SortKey.ID, true, new Employee<Object>("x", "X", "IT", 1.0, 1.0, 1, true)));
+            mixed.addEmployee(new Employee<Object>("E-1", "Text Id", "IT", 500.0, 3.0, 1, true));
+            mixed.removeEmployee(42);
+            assertEquals(100, mixed.size());
+            assertEquals("Emp 41", mixed.readSnapshot().getEmployee(41).getName());
+            assertEquals("Text Id", mixed.readSnapshot().getEmployee("E-1").getName());
+            assertEquals(99, mixed.getTopPaid(1).get(0).getEmployeeId());
+            assertEquals("E-1", mixed.getPage(null, SortKey.ID, false, 0, 1).get(0).getEmployeeId());
+            assertEquals("E-1", mixed.search("-1").get(0).getEmployeeId());
+            assertEquals(19, mixed.search("9").size());
+        } finally {
+            mixed.close();
+        }
+    }
+}
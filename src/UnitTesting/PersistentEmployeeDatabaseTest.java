@@ -0,0 +1,146 @@
+package UnitTesting;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import ExceptionHandling.InvalidSalaryException;
+import ExceptionHandling.PersistenceException;
+import database.EmployeeUpdateBatch;
+import database.PersistentEmployeeDatabase;
+import model.Employee;
+import model.EmployeeField;
+import persistence.IdCodec;
+import persistence.PersistenceConfig;
+
+public class PersistentEmployeeDatabaseTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path dir;
+    private final PersistenceConfig config = new PersistenceConfig(1, 0, 0);
+
+    @Before
+    public void setUp() {
+        dir = folder.getRoot().toPath();
+    }
+
+    @Test
+    public void testMutationsSurviveRestart() {
+        try (PersistentEmployeeDatabase<Integer> db = PersistentEmployeeDatabase.open(dir, IdCodec.INTEGER, config)) {
+            db.addEmployee(new Employee<>(1, "John Doe", "IT", 50000.0, 4.5, 5, true));
+            db.addEmployee(new Employee<>(2, "Jane Smith", "HR", 60000.0, 4.0, 3, true));
+            db.addEmployee(new Employee<>(3, "Bob", "Finance", 70000.0, 3.5, 2, true));
+            db.updateEmployeeDetails(2, "department", "IT");
+            db.updateEmployeeDetails(3, "active", false);
+            db.giveRaise(4.5, 1000.0);
+            db.raiseSalary(2, 500.0);
+            db.removeEmployee(3);
+            db.updateEmployees(new EmployeeUpdateBatch<Integer>()
+                    .set(1, EmployeeField.NAME, "John Batch")
+                    .set(2, EmployeeField.EXPERIENCE, 9));
+        }
+
+        try (PersistentEmployeeDatabase<Integer> db = PersistentEmployeeDatabase.open(dir, IdCodec.INTEGER, config)) {
+            assertEquals(2, db.getAllEmployees().size());
+            assertEquals(2, db.searchByDepartment("it").size());
+            assertEquals(1, db.searchByName("batch").size());
+            assertEquals(9, db.query().id(2).list().get(0).getYearsOfExperience().intValue());
+            assertEquals(51000.0, db.filterByPerformance(4.5).get(0).getSalary(), 0.001);
+            assertEquals(60500.0, db.filterBySalaryRange(60000, 61000).get(0).getSalary(), 0.001);
+        }
+    }
+
+    // The dictionary outlives the database in this process, so the log is checked directly
+    @Test
+    public void testDepartmentRenamesAndMergesAreLogged() throws IOException {
+        try (PersistentEmployeeDatabase<Integer> db = PersistentEmployeeDatabase.open(dir, IdCodec.INTEGER, config)) {
+            db.addEmployee(new Employee<>(1, "Ann", "Wal Sales", 50000.0, 4.0, 2, true));
+            db.addEmployee(new Employee<>(2, "Ben", "Wal Support", 40000.0, 3.0, 1, true));
+            db.renameDepartment("wal sales", "Wal Revenue");
+            db.mergeDepartments("Wal Support", "Wal Revenue");
+            assertThrows(IllegalArgumentException.class, () -> db.mergeDepartments("Wal Nowhere", "Wal Revenue"));
+        }
+        String log = new String(Files.readAllBytes(files("wal-").get(0)), StandardCharsets.ISO_8859_1);
+        assertTrue(log.contains("Wal Revenue"));
+        assertFalse(log.contains("Wal Nowhere"));
+
+        try (PersistentEmployeeDatabase<Integer> db = PersistentEmployeeDatabase.open(dir, IdCodec.INTEGER, config)) {
+            assertEquals(2, db.searchByDepartment("Wal Revenue").size());
+            assertEquals("Wal Revenue", db.readSnapshot().getEmployee(2).getDepartment());
+        }
+    }
+
+    @Test
+    public void testSnapshotCompactsLogAndRecovers() throws IOException {
+        PersistenceConfig snapshotting = new PersistenceConfig(1, 0, 10);
+        try (PersistentEmployeeDatabase<Integer> db = PersistentEmployeeDatabase.open(dir, IdCodec.INTEGER, snapshotting)) {
+            for (int id = 0; id < 25; id++) {
+                db.addEmployee(new Employee<>(id, "Emp " + id, "Backend", 1000.0 + id, 3.0, 1, true));
+            }
+            db.removeEmployee(0);
+        }
+        assertEquals(1, files("snapshot-").size());
+        assertEquals(1, files("wal-").size());
+
+        try (PersistentEmployeeDatabase<Integer> db = PersistentEmployeeDatabase.open(dir, IdCodec.INTEGER, snapshotting)) {
+            assertEquals(24, db.getAllEmployees().size());
+            assertEquals(24, db.searchByDepartment("Backend").size());
+        }
+    }
+
+    // Neither write reaches memory: the raise is refused before logging, the batch by the log
+    @Test
+    public void testRefusedWritesChangeNothing() {
+        List<Employee<Integer>> batch = new ArrayList<>();
+        for (int id = 10; id < 300; id++) {
+            batch.add(new Employee<>(id, "x".repeat(60_000), "IT", 1000.0, 3.0, 1, true));
+        }
+        try (PersistentEmployeeDatabase<Integer> db = PersistentEmployeeDatabase.open(dir, IdCodec.INTEGER, config)) {
+            db.addEmployee(new Employee<>(1, "John Doe", "IT", 50000.0, 4.5, 5, true));
+            assertThrows(InvalidSalaryException.class, () -> db.giveRaise(0, -60000.0));
+            assertThrows(PersistenceException.class, () -> db.addEmployees(batch));
+            assertEquals(1, db.size());
+            db.raiseSalary(1, 100.0);
+        }
+        try (PersistentEmployeeDatabase<Integer> db = PersistentEmployeeDatabase.open(dir, IdCodec.INTEGER, config)) {
+            assertEquals(1, db.size());
+            assertEquals(50100.0, db.getAllEmployees().get(0).getSalary(), 0.001);
+        }
+    }
+
+    @Test
+    public void testTornTailIsDiscarded() throws IOException {
+        try (PersistentEmployeeDatabase<Integer> db = PersistentEmployeeDatabase.open(dir, IdCodec.INTEGER, config)) {
+            db.addEmployee(new Employee<>(1, "John Doe", "IT", 50000.0, 4.5, 5, true));
+        }
+        Path segment = files("wal-").get(0);
+        Files.write(segment, new byte[] {0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        try (PersistentEmployeeDatabase<Integer> db = PersistentEmployeeDatabase.open(dir, IdCodec.INTEGER, config)) {
+            assertEquals(1, db.getAllEmployees().size());
+            db.addEmployee(new Employee<>(2, "Jane Smith", "HR", 60000.0, 4.0, 3, true));
+        }
+        try (PersistentEmployeeDatabase<Integer> db = PersistentEmployeeDatabase.open(dir, IdCodec.INTEGER, config)) {
+            assertEquals(2, db.getAllEmployees().size());
+        }
+    }
+
+    private List<Path> files(String prefix) throws IOException {
+        try (Stream<Path> list = Files.list(dir)) {
+            return list.filter(p -> p.getFileName().toString().startsWith(prefix)).sorted().collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package UnitTesting;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.SplittableRandom;
+
+import scan.ScanKernels;
+
+public class ScanKernelsTest {
+
+    @Test
+    public void testScalarKernels() {
+        double[] values = {5, 1, Double.NaN, 3, 7, 3};
+        long[] selection = ScanKernels.SCALAR.selectRange(values, 5, 3, 5);
+        assertEquals(BitSet.valueOf(new long[] {0b1001}), BitSet.valueOf(selection));
+        assertEquals(2, ScanKernels.count(selection));
+        assertEquals(8, ScanKernels.SCALAR.sum(values, 5, selection), 0);
+        assertEquals(3, ScanKernels.SCALAR.min(values, 5, selection), 0);
+        assertEquals(Double.POSITIVE_INFINITY, ScanKernels.SCALAR.min(values, 5, new long[1]), 0);
+
+        ScanKernels.SCALAR.add(values, 5, selection, 10);
+        assertEquals(15, values[0], 0);
+        assertEquals(13, values[3], 0);
+        assertEquals(3, values[5], 0);
+
+        int[] codes = {2, 0, 1, 2, 4};
+        assertEquals(BitSet.valueOf(new long[] {0b01101}), BitSet.valueOf(ScanKernels.SCALAR.selectCodes(codes, 5, new int[] {2, 1})));
+        assertEquals(0, ScanKernels.count(ScanKernels.SCALAR.selectCodes(codes, 5, new int[0])));
+        assertThrows(IllegalArgumentException.class, () -> ScanKernels.SCALAR.selectCodes(codes, 6, new int[] {1}));
+    }
+
+    // Lengths around every vector width, so both the vector loop and the scalar tail are covered
+    @Test
+    public void testVectorKernelsMatchScalar() {
+        ScanKernels vector = ScanKernels.vector();
+        if (vector == null) {
+            // Built without the vector profile, or run without the module
+            assertSame(ScanKernels.SCALAR, ScanKernels.DEFAULT);
+            return;
+        }
+        SplittableRandom random = new SplittableRandom(7);
+        for (int length : new int[] {0, 1, 3, 4, 7, 8, 15, 16, 17, 63, 64, 65, 130, 1000}) {
+            double[] values = new double[length + 5];
+            int[] codes = new int[length + 5];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = random.nextInt(10) == 0 ? Double.NaN : random.nextInt(100);
+                codes[i] = random.nextInt(6);
+            }
+            String label = "length " + length;
+            long[] range = ScanKernels.SCALAR.selectRange(values, length, 20, 70);
+            assertArrayEquals(label, range, vector.selectRange(values, length, 20, 70));
+            assertArrayEquals(label, ScanKernels.SCALAR.selectCodes(codes, length, new int[] {1, 4}),
+                    vector.selectCodes(codes, length, new int[] {1, 4}));
+            assertEquals(label, ScanKernels.SCALAR.sum(values, length, range), vector.sum(values, length, range), 1e-9);
+            assertEquals(label, ScanKernels.SCALAR.min(values, length, range), vector.min(values, length, range), 0);
+
+            double[] expected = values.clone();
+            ScanKernels.SCALAR.add(expected, length, range, 2.5);
+            vector.add(values, length, range, 2.5);
+            assertEquals(label, Arrays.toString(expected), Arrays.toString(values));
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package UnitTesting;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+import static UnitTesting.EmployeeRows.rows;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import ExceptionHandling.InvalidSalaryException;
+import aggregate.DepartmentSummary;
+import database.ChangeEvent;
+import database.EmployeeDatabase;
+import database.EmployeeUpdateBatch;
+import database.ShardedEmployeeDatabase;
+import database.SortKey;
+import model.Employee;
+import model.EmployeeField;
+
+public class ShardedEmployeeDatabaseTest {
+    private static final String[] DEPARTMENTS = {"Shard Finance", "Shard Backend", "Shard Frontend", "Shard Ops", "Shard Legal"};
+
+    @Test
+    public void testScatterGatherMatchesSingleDatabase() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (ShardedEmployeeDatabase.Partitioning partitioning : ShardedEmployeeDatabase.Partitioning.values()) {
+                EmployeeDatabase<Integer> single = new EmployeeDatabase<>();
+                ShardedEmployeeDatabase<Integer> sharded = new ShardedEmployeeDatabase<>(4, partitioning, pool);
+                SplittableRandom random = new SplittableRandom(11);
+                List<Employee<Integer>> batch = new ArrayList<>();
+                for (int id = 0; id < 300; id++) {
+                    batch.add(employee(id, random));
+                }
+                single.addEmployees(batch);
+                sharded.addEmployees(copies(batch));
+
+                for (int step = 0; step < 400; step++) {
+                    int id = random.nextInt(350);
+                    boolean exists = single.readSnapshot().containsEmployee(id);
+                    switch (random.nextInt(5)) {
+                        case 0 -> {
+                            Employee<Integer> emp = employee(id, random);
+                            single.addEmployee(emp);
+                            sharded.addEmployee(copies(List.of(emp)).get(0));
+                        }
+                        case 1 -> {
+                            if (exists) {
+                                single.removeEmployee(id);
+                                sharded.removeEmployee(id);
+                            }
+                        }
+                        case 2 -> {
+                            if (exists) {
+                                String department = DEPARTMENTS[random.nextInt(DEPARTMENTS.length)];
+                                single.update(id, EmployeeField.DEPARTMENT, department);
+                                sharded.update(id, EmployeeField.DEPARTMENT, department);
+                            }
+                        }
+                        default -> {
+                            if (exists) {
+                                double raise = random.nextInt(1000);
+                                single.raiseSalary(id, raise);
+                                sharded.raiseSalary(id, raise);
+                            }
+                        }
+                    }
+                }
+                single.giveRaise(4.0, 250);
+                sharded.giveRaise(4.0, 250);
+
+                String label = partitioning.toString();
+                assertEquals(label, single.size(), sharded.size());
+                assertEquals(label, rows(single.sortBySalary()), rows(sharded.sortBySalary()));
+                assertEquals(label, rows(single.getTopPaid(7)), rows(sharded.getTopPaid(7)));
+                assertEquals(label, rows(single.getTopPerformers(5)), rows(sharded.getTopPerformers(5)));
+                assertEquals(label, rows(single.filterBySalaryRange(40_000, 80_000)), rows(sharded.filterBySalaryRange(40_000, 80_000)));
+                assertEquals(label, rows(single.getPage(null, SortKey.SALARY, false, 40, 15)),
+                        rows(sharded.getPage(null, SortKey.SALARY, false, 40, 15)));
+                assertEquals(label, rows(single.getPage("shard", SortKey.NAME, true, 10, 10)),
+                        rows(sharded.getPage("shard", SortKey.NAME, true, 10, 10)));
+                assertEquals(label, new HashSet<>(rows(single.searchByName("emp 1"))), new HashSet<>(rows(sharded.searchByName("emp 1"))));
+                assertEquals(label, rows(single.query().department("Shard Ops").ratingAtLeast(2).orderBy(SortKey.SALARY, true).offset(3).limit(5).list()),
+                        rows(sharded.query().department("Shard Ops").ratingAtLeast(2).orderBy(SortKey.SALARY, true).offset(3).limit(5).list()));
+                assertEquals(label, single.query().salaryAtLeast(50_000).count(), sharded.query().salaryAtLeast(50_000).count());
+
+                Employee<Integer> probe = single.getTopPaid(30).get(29);
+                assertEquals(label, single.positionOf(null, SortKey.SALARY, true, probe), sharded.positionOf(null, SortKey.SALARY, true, probe));
+                for (String department : DEPARTMENTS) {
+                    assertEquals(label, new HashSet<>(rows(single.searchByDepartment(department))),
+                            new HashSet<>(rows(sharded.searchByDepartment(department))));
+                    assertEquals(label, single.getAverageSalary(department), sharded.getAverageSalary(department), 1e-6);
+                }
+                List<DepartmentSummary> expected = single.getDepartmentSummaries();
+                List<DepartmentSummary> actual = sharded.getDepartmentSummaries();
+                assertEquals(label, expected.size(), actual.size());
+                for (int i = 0; i < expected.size(); i++) {
+                    assertEquals(label, expected.get(i).getEmployeeCount(), actual.get(i).getEmployeeCount());
+                    assertEquals(label, expected.get(i).getSalary().getVariance(), actual.get(i).getSalary().getVariance(), 1e-3);
+                }
+                assertEquals(label, single.readSnapshot().size(), sharded.readSnapshot().size());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testDepartmentMoveIsOneUpdateEvent() {
+        ShardedEmployeeDatabase<Integer> sharded = new ShardedEmployeeDatabase<>(8, ShardedEmployeeDatabase.Partitioning.DEPARTMENT);
+        for (int id = 0; id < 50; id++) {
+            sharded.addEmployee(new Employee<>(id, "Emp " + id, DEPARTMENTS[id % DEPARTMENTS.length], 1000.0 * id, 3.0, 1, true));
+        }
+        List<ChangeEvent<Integer>> events = new ArrayList<>();
+        sharded.changes().subscribe(events::addAll);
+
+        sharded.update(0, EmployeeField.DEPARTMENT, "Shard Legal");
+        assertEquals(1, events.size());
+        assertEquals(ChangeEvent.Type.UPDATE, events.get(0).getType());
+        assertEquals("Shard Finance", events.get(0).getBefore().getDepartment());
+        assertEquals("Shard Legal", events.get(0).getAfter().getDepartment());
+        assertEquals(11, sharded.searchByDepartment("shard legal").size());
+        assertEquals(9, sharded.searchByDepartment("Shard Finance").size());
+        assertEquals(50, sharded.size());
+
+        // Employee 0 earns nothing, so this cut fails and no shard may apply it
+        List<String> before = rows(sharded.sortBySalary());
+        assertThrows(InvalidSalaryException.class, () -> sharded.giveRaise(3.0, -500.0));
+        assertEquals(before, rows(sharded.sortBySalary()));
+        assertEquals(1, events.size());
+
+        // Empty writes reach no shard, as on the base engine
+        sharded.updateEmployees(new EmployeeUpdateBatch<>());
+        sharded.addEmployees(new ArrayList<>());
+        assertEquals(before, rows(sharded.sortBySalary()));
+        assertEquals(1, events.size());
+    }
+
+    private static Employee<Integer> employee(int id, SplittableRandom random) {
+        return new Employee<>(id, "Emp " + id, DEPARTMENTS[random.nextInt(DEPARTMENTS.length)],
+                1000.0 * random.nextInt(20, 120), random.nextInt(1, 6) * 1.0, random.nextInt(30), random.nextBoolean());
+    }
+
+    // The sharded database gets its own objects, as the two would otherwise share mutations
+    private static List<Employee<Integer>> copies(List<Employee<Integer>> employees) {
+        List<Employee<Integer>> result = new ArrayList<>();
+        for (Employee<Integer> e : employees) {
+            result.add(new Employee<>(e.getEmployeeId(), e.getName(), e.getDepartment(), e.getSalary(),
+                    e.getPerformanceRating(), e.getYearsOfExperience(), e.isActive()));
+        }
+        return result;
+    }
+}
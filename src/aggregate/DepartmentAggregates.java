@@ -0,0 +1,181 @@
+package aggregate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import model.DepartmentAliases;
+import model.DepartmentDictionary;
+import model.Employee;
+import utility.KeyCollections;
+
+// Materialized per-department salary and rating statistics, keyed by DepartmentDictionary code
+// (so case-insensitively). Departments the database's DepartmentAliases renamed or merged into
+// another are combined on read.
+// Each employee's last contribution is remembered, so an update only needs the employee's
+// current values even if the Employee object was already mutated by the caller.
+// In concurrent mode callers must still serialize updates for the same employee ID.
+public class DepartmentAggregates<T> {
+    private final DepartmentAliases aliases;
+    private final Map<Integer, Group> groups;
+    private final Map<T, Contribution> contributions;
+
+    public DepartmentAggregates() {
+        this(false);
+    }
+
+    public DepartmentAggregates(boolean concurrent) {
+        this(concurrent, concurrent ? KeyCollections.concurrent() : KeyCollections.hashed());
+    }
+
+    public DepartmentAggregates(boolean concurrent, KeyCollections<T> ids) {
+        this(concurrent, ids, new DepartmentAliases());
+    }
+
+    // ids makes the map of contributions by employee; it must be concurrent if this is
+    public DepartmentAggregates(boolean concurrent, KeyCollections<T> ids, DepartmentAliases aliases) {
+        this.aliases = aliases;
+        this.groups = concurrent ? new ConcurrentHashMap<>() : new HashMap<>();
+        this.contributions = ids.newMap();
+    }
+
+    // departmentCode as from Employee.getDepartmentCode()
+    public void update(T employeeId, int departmentCode, double salary, double rating) {
+        Contribution next = new Contribution(departmentCode, salary, rating);
+        Contribution previous = contributions.put(employeeId, next);
+        if (next.equals(previous)) {
+            return;
+        }
+        if (previous != null) {
+            groups.get(previous.key).remove(previous);
+        }
+        groups.computeIfAbsent(departmentCode, k -> new Group()).add(next);
+    }
+
+    // Batch form of update(): each department's statistics are locked once for the batch.
+    // Additions go first, so an employee listed twice never removes a value not yet added.
+    public void updateAll(Collection<? extends Employee<T>> employees) {
+        Map<Integer, List<Contribution>> added = new HashMap<>();
+        Map<Integer, List<Contribution>> removed = new HashMap<>();
+        for (Employee<T> emp : employees) {
+            Contribution next = new Contribution(emp.getDepartmentCode(), emp.getSalary(), emp.getPerformanceRating());
+            Contribution previous = contributions.put(emp.getEmployeeId(), next);
+            if (next.equals(previous)) {
+                continue;
+            }
+            if (previous != null) {
+                removed.computeIfAbsent(previous.key, k -> new ArrayList<>()).add(previous);
+            }
+            added.computeIfAbsent(next.key, k -> new ArrayList<>()).add(next);
+        }
+        added.forEach((key, batch) -> groups.computeIfAbsent(key, k -> new Group()).addAll(batch));
+        removed.forEach((key, batch) -> groups.get(key).removeAll(batch));
+    }
+
+    public void remove(T employeeId) {
+        Contribution previous = contributions.remove(employeeId);
+        if (previous != null) {
+            groups.get(previous.key).remove(previous);
+        }
+    }
+
+    // O(1) apart from min/max lookups; null if no employee is in the department.
+    public DepartmentSummary summary(String department) {
+        int code = aliases.lookup(department);
+        if (code == DepartmentDictionary.NONE) {
+            return null;
+        }
+        SummaryStatistics salary = SummaryStatistics.EMPTY;
+        SummaryStatistics rating = SummaryStatistics.EMPTY;
+        for (int member : aliases.members(code)) {
+            Group group = groups.get(member);
+            if (group != null) {
+                synchronized (group) {
+                    salary = salary.combine(group.salary.snapshot());
+                    rating = rating.combine(group.rating.snapshot());
+                }
+            }
+        }
+        return salary.getCount() == 0 ? null : new DepartmentSummary(aliases.name(code), salary, rating);
+    }
+
+    // Every non-empty department, ordered by name.
+    public List<DepartmentSummary> summaries() {
+        Map<Integer, DepartmentSummary> byDepartment = new HashMap<>();
+        for (Map.Entry<Integer, Group> entry : groups.entrySet()) {
+            Group group = entry.getValue();
+            SummaryStatistics salary;
+            SummaryStatistics rating;
+            synchronized (group) {
+                salary = group.salary.snapshot();
+                rating = group.rating.snapshot();
+            }
+            if (salary.getCount() == 0) {
+                continue;
+            }
+            int code = aliases.canonical(entry.getKey());
+            byDepartment.merge(code, new DepartmentSummary(aliases.name(code), salary, rating),
+                    (a, b) -> new DepartmentSummary(a.getDepartment(), a.getSalary().combine(b.getSalary()),
+                            a.getRating().combine(b.getRating())));
+        }
+        List<DepartmentSummary> result = new ArrayList<>(byDepartment.values());
+        result.sort(Comparator.comparing(DepartmentSummary::getDepartment, String.CASE_INSENSITIVE_ORDER));
+        return result;
+    }
+
+    private static final class Group {
+        private final RunningStatistics salary = new RunningStatistics();
+        private final RunningStatistics rating = new RunningStatistics();
+
+        private synchronized void add(Contribution c) {
+            salary.add(c.salary);
+            rating.add(c.rating);
+        }
+
+        private synchronized void remove(Contribution c) {
+            salary.remove(c.salary);
+            rating.remove(c.rating);
+        }
+
+        private synchronized void addAll(List<Contribution> batch) {
+            for (Contribution c : batch) {
+                add(c);
+            }
+        }
+
+        private synchronized void removeAll(List<Contribution> batch) {
+            for (Contribution c : batch) {
+                remove(c);
+            }
+        }
+    }
+
+    private static final class Contribution {
+        private final int key;
+        private final double salary;
+        private final double rating;
+
+        private Contribution(int key, double salary, double rating) {
+            this.key = key;
+            this.salary = salary;
+            this.rating = rating;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Contribution other)) return false;
+            return key == other.key && Double.compare(salary, other.salary) == 0
+                    && Double.compare(rating, other.rating) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return key * 31 + Double.hashCode(salary) * 17 + Double.hashCode(rating);
+        }
+    }
+}
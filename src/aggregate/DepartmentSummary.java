@@ -0,0 +1,36 @@
+package aggregate;
+
+// Salary and rating statistics for one department.
+public class DepartmentSummary {
+    private final String department;
+    private final SummaryStatistics salary;
+    private final SummaryStatistics rating;
+
+    public DepartmentSummary(String department, SummaryStatistics salary, SummaryStatistics rating) {
+        this.department = department;
+        this.salary = salary;
+        this.rating = rating;
+    }
+
+    public String getDepartment() {
+        return department;
+    }
+
+    public long getEmployeeCount() {
+        return salary.getCount();
+    }
+
+    public SummaryStatistics getSalary() {
+        return salary;
+    }
+
+    public SummaryStatistics getRating() {
+        return rating;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s | Employees: %d | Salary: %s | Rating: %s",
+                department, getEmployeeCount(), salary, rating);
+    }
+}
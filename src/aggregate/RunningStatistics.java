@@ -0,0 +1,52 @@
+package aggregate;
+
+import java.util.TreeMap;
+
+// Count, sum, min, max and variance of a stream of values that also supports removing values.
+// Mean and variance use Welford's update (and its inverse on removal); min and max come from
+// a sorted multiset, so every operation is O(log distinct values). Not thread-safe.
+public class RunningStatistics {
+    private final TreeMap<Double, Integer> values = new TreeMap<>();
+    private long count;
+    private double sum;
+    private double mean;
+    private double m2;
+
+    public void add(double value) {
+        values.merge(value, 1, Integer::sum);
+        count++;
+        sum += value;
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+    }
+
+    public void remove(double value) {
+        Integer occurrences = values.get(value);
+        if (occurrences == null) {
+            throw new IllegalArgumentException("Value " + value + " was never added");
+        }
+        if (occurrences == 1) values.remove(value);
+        else values.put(value, occurrences - 1);
+
+        if (count == 1) {
+            count = 0;
+            sum = 0;
+            mean = 0;
+            m2 = 0;
+            return;
+        }
+        double previousMean = (count * mean - value) / (count - 1);
+        m2 = Math.max(0, m2 - (value - previousMean) * (value - mean));
+        mean = previousMean;
+        sum -= value;
+        count--;
+    }
+
+    public SummaryStatistics snapshot() {
+        if (count == 0) {
+            return SummaryStatistics.EMPTY;
+        }
+        return new SummaryStatistics(count, sum, values.firstKey(), values.lastKey(), m2 / count);
+    }
+}
@@ -0,0 +1,68 @@
+package aggregate;
+
+// Immutable point-in-time statistics for one attribute (variance is the population variance).
+public class SummaryStatistics {
+    public static final SummaryStatistics EMPTY = new SummaryStatistics(0, 0, 0, 0, 0);
+
+    private final long count;
+    private final double sum;
+    private final double min;
+    private final double max;
+    private final double variance;
+
+    public SummaryStatistics(long count, double sum, double min, double max, double variance) {
+        this.count = count;
+        this.sum = sum;
+        this.min = min;
+        this.max = max;
+        this.variance = variance;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getSum() {
+        return sum;
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    public double getAverage() {
+        return count == 0 ? 0 : sum / count;
+    }
+
+    public double getVariance() {
+        return variance;
+    }
+
+    public double getStandardDeviation() {
+        return Math.sqrt(variance);
+    }
+
+    // Statistics of both value sets together (Chan et al.'s pairwise variance update)
+    public SummaryStatistics combine(SummaryStatistics other) {
+        if (other.count == 0) {
+            return this;
+        }
+        if (count == 0) {
+            return other;
+        }
+        long n = count + other.count;
+        double delta = other.getAverage() - getAverage();
+        double m2 = variance * count + other.variance * other.count + delta * delta * count * other.count / n;
+        return new SummaryStatistics(n, sum + other.sum, Math.min(min, other.min), Math.max(max, other.max), m2 / n);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d avg=%.2f min=%.2f max=%.2f stddev=%.2f",
+                count, getAverage(), min, max, getStandardDeviation());
+    }
+}
@@ -0,0 +1,87 @@
+package app;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import javafx.concurrent.Task;
+
+// Runs database work off the FX application thread and hands results back on it.
+// Tasks run on a pool of daemon threads; success and failure callbacks are invoked on the FX
+// thread. runLatest() keeps one task per key and cancels the previous one, so only the newest
+// result (e.g. of a search) is ever applied. runInOrder() queues writes on one thread, so
+// they reach the database in the order they were made. All methods must be called on the
+// FX thread.
+public class BackgroundTasks {
+    private final ExecutorService executor;
+    private final ExecutorService writer;
+    private final Map<String, Task<?>> latest = new HashMap<>();
+
+    public BackgroundTasks() {
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "ui-worker-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.writer = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "ui-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public <R> Task<R> run(Callable<R> work, Consumer<R> onSuccess, Consumer<Throwable> onFailure) {
+        return execute(task(work, onSuccess, onFailure));
+    }
+
+    // After every task submitted through here before it has finished
+    public void runInOrder(Runnable work, Runnable onSuccess, Consumer<Throwable> onFailure) {
+        writer.execute(task(() -> {
+            work.run();
+            return null;
+        }, done -> onSuccess.run(), onFailure));
+    }
+
+    // Cancels the still-running task submitted under the same key; its result is dropped
+    public <R> Task<R> runLatest(String key, Callable<R> work, Consumer<R> onSuccess, Consumer<Throwable> onFailure) {
+        Task<?> previous = latest.get(key);
+        if (previous != null) {
+            previous.cancel(true);
+        }
+        Task<R> task = run(work, onSuccess, onFailure);
+        latest.put(key, task);
+        task.runningProperty().addListener((obs, wasRunning, running) -> {
+            if (!running && latest.get(key) == task) {
+                latest.remove(key);
+            }
+        });
+        return task;
+    }
+
+    public <R> Task<R> execute(Task<R> task) {
+        executor.execute(task);
+        return task;
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+        writer.shutdown();
+    }
+
+    private static <R> Task<R> task(Callable<R> work, Consumer<R> onSuccess, Consumer<Throwable> onFailure) {
+        Task<R> task = new Task<>() {
+            @Override
+            protected R call() throws Exception {
+                return work.call();
+            }
+        };
+        task.setOnSucceeded(e -> onSuccess.accept(task.getValue()));
+        task.setOnFailed(e -> onFailure.accept(task.getException()));
+        return task;
+    }
+}
@@ -1,22 +1,49 @@
 package app;
 
+import aggregate.DepartmentSummary;
+import database.ChangeEvent;
+import database.ChangeFeed;
+import database.ChangeListener;
 import database.EmployeeDatabase;
+import database.InstrumentedEmployeeDatabase;
+import database.PersistentEmployeeDatabase;
+import database.SortKey;
+import exporter.EmployeeExporter;
+import exporter.ExportFormat;
+import importer.CsvEmployeeImporter;
+import importer.ImportError;
+import importer.ImportResult;
+import metrics.DatabaseMetrics;
+import metrics.MetricsLogReporter;
 import model.Employee;
+import model.EmployeeField;
+import persistence.IdCodec;
 import utility.EmployeeSalaryComparator;
 
+import java.io.File;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 import ExceptionHandling.EmployeeNotFoundException;
 import ExceptionHandling.InvalidDepartmentException;
 import ExceptionHandling.InvalidSalaryException;
+import javafx.animation.PauseTransition;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.beans.property.SimpleBooleanProperty;
 import javafx.beans.property.SimpleDoubleProperty;
 import javafx.beans.property.SimpleIntegerProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
+import javafx.event.Event;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
@@ -25,6 +52,9 @@ import javafx.scene.control.Button;
 import javafx.scene.control.ButtonType;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.Label;
+import javafx.scene.control.Pagination;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.TableCell;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableRow;
@@ -36,21 +66,87 @@ import javafx.scene.control.cell.ComboBoxTableCell;
 import javafx.scene.control.cell.TextFieldTableCell;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
 import javafx.scene.layout.VBox;
+import javafx.stage.FileChooser;
+import javafx.stage.Modality;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 import javafx.util.converter.DoubleStringConverter;
 import javafx.util.converter.IntegerStringConverter;
 
 public class EmployeeManagementUI extends Application {
-    private final EmployeeDatabase<Integer> database = new EmployeeDatabase<>();
-    private final ObservableList<Employee<Integer>> employeeList = FXCollections.observableArrayList();
+    private static final String DATA_DIRECTORY = "employee-data";
+    // Set -Demployee.metrics=true to time every database call, publish the figures over JMX and
+    // log them every employee.metrics.reportSeconds (default 60). Off by default, at no cost.
+    private static final boolean METRICS_ENABLED = Boolean.getBoolean("employee.metrics");
+    private PersistentEmployeeDatabase<Integer> store;
+    private EmployeeDatabase<Integer> database;
+    private DatabaseMetrics metrics;
+    private MetricsLogReporter metricsReporter;
+    private PagedEmployeeList<Integer> employeeList;
+    private ChangeFeed.Subscription changeSubscription;
+    private static final int PREVIEW_PAGE_ROWS = 200;
+    // Change events buffered for the table; a burst beyond this (a big import) reloads it instead
+    private static final int CHANGE_BUFFER = 4096;
+    private static final Duration SEARCH_DELAY = Duration.millis(300);
     private static final AtomicInteger idCounter = new AtomicInteger(1000);
     private TableView<Employee<Integer>> table;
+    private final BackgroundTasks tasks = new BackgroundTasks();
+    private ProgressIndicator loadingIndicator;
+
+    // What the table should show; reloadTable() brings employeeList in line in the background
+    private String viewFilter;
+    private SortKey viewSort = SortKey.ID;
+    private boolean viewAscending = true;
+    private int viewLimit = Integer.MAX_VALUE;
 
     public static void main(String[] args) {
         launch(args);
     }
 
+    @Override
+    public void init() {
+        store = PersistentEmployeeDatabase.open(Paths.get(DATA_DIRECTORY), IdCodec.INTEGER);
+        database = store;
+        if (METRICS_ENABLED) {
+            InstrumentedEmployeeDatabase<Integer> instrumented = new InstrumentedEmployeeDatabase<>(store);
+            metrics = instrumented.getMetrics();
+            metrics.register(DATA_DIRECTORY);
+            metricsReporter = new MetricsLogReporter(metrics,
+                    Long.getLong("employee.metrics.reportSeconds", 60), TimeUnit.SECONDS, false);
+            database = instrumented;
+        }
+        // Continue handing out IDs after the highest one recovered from disk
+        for (Employee<Integer> emp : database.readSnapshot()) {
+            idCounter.accumulateAndGet(emp.getEmployeeId() + 1, Math::max);
+        }
+        employeeList = new PagedEmployeeList<>(database, tasks);
+        // Every write, from any thread, reaches the table as the smallest list change that covers it
+        changeSubscription = database.changes().subscribeAsync(new ChangeListener<Integer>() {
+            @Override
+            public void onChanges(List<ChangeEvent<Integer>> events) {
+                Platform.runLater(employeeList.prepareChanges(events));
+            }
+
+            @Override
+            public void onOverflow(long dropped) {
+                Platform.runLater(() -> reloadTable(null));
+            }
+        }, CHANGE_BUFFER, ChangeFeed.DEFAULT_MAX_BATCH, ChangeFeed.Backpressure.DROP);
+    }
+
+    @Override
+    public void stop() {
+        changeSubscription.close();
+        tasks.shutdown();
+        if (metrics != null) {
+            metricsReporter.close();
+            metrics.unregister();
+        }
+        store.close();
+    }
+
     @Override
     public void start(Stage stage) {
         stage.setTitle("Employee Management System");
@@ -121,51 +217,35 @@ public class EmployeeManagementUI extends Application {
 
         // ID Column
         TableColumn<Employee<Integer>, Integer> idColumn = (TableColumn<Employee<Integer>, Integer>) createColumn.apply("ID");
-        idColumn.setCellValueFactory(cell -> new SimpleIntegerProperty(cell.getValue().getEmployeeId()).asObject());
+        idColumn.setUserData(SortKey.ID);
+        idColumn.setCellValueFactory(cell -> cell.getValue() == null ? null : new SimpleIntegerProperty(cell.getValue().getEmployeeId()).asObject());
         idColumn.setStyle("-fx-font-weight: bold; -fx-text-fill: black;");
 
         // Name Column
         TableColumn<Employee<Integer>, String> nameColumn = (TableColumn<Employee<Integer>, String>) createColumn.apply("Name");
-        nameColumn.setCellValueFactory(cell -> new SimpleStringProperty(cell.getValue().getName()));
+        nameColumn.setUserData(SortKey.NAME);
+        nameColumn.setCellValueFactory(cell -> cell.getValue() == null ? null : new SimpleStringProperty(cell.getValue().getName()));
         nameColumn.setCellFactory(TextFieldTableCell.forTableColumn());
         nameColumn.setStyle("-fx-text-fill: green;");
-        nameColumn.setOnEditCommit(event -> {
-            try {
-                Employee<Integer> emp = event.getRowValue();
-                emp.setName(event.getNewValue());
-                database.updateEmployeeDetails(emp.getEmployeeId(), "name", event.getNewValue());
-            } catch (Exception e) {
-                showAlert("Error", e.getMessage());
-                employeeList.setAll(database.getAllEmployees());
-            }
-        });
+        nameColumn.setOnEditCommit(event -> updateInBackground(event.getRowValue(), EmployeeField.NAME, event.getNewValue(),
+                ex -> showAlert("Error", ex.getMessage())));
 
         // Department Column (with combo box for editing)
         TableColumn<Employee<Integer>, String> departmentColumn = (TableColumn<Employee<Integer>, String>) createColumn.apply("Department");
-        departmentColumn.setCellValueFactory(cell -> new SimpleStringProperty(cell.getValue().getDepartment()));
+        departmentColumn.setUserData(SortKey.DEPARTMENT);
+        departmentColumn.setCellValueFactory(cell -> cell.getValue() == null ? null : new SimpleStringProperty(cell.getValue().getDepartment()));
         departmentColumn.setStyle("-fx-text-fill: black;");
         departmentColumn.setCellFactory(ComboBoxTableCell.forTableColumn(
             FXCollections.observableArrayList("Quality Assurance", "Frontend", "Finance", "Operations", "Backend", "DevOPs")
         ));
         
-        departmentColumn.setOnEditCommit(event -> {
-            try {
-                Employee<Integer> emp = event.getRowValue();
-                emp.setDepartment(event.getNewValue());
-                database.updateEmployeeDetails(emp.getEmployeeId(), "department", event.getNewValue());
-            } catch (InvalidDepartmentException ex) {
-                showAlert("Invalid Department", ex.getMessage());
-                employeeList.setAll(database.getAllEmployees());
-            } catch (Exception ex) {
-                showAlert("Error", ex.getMessage());
-                employeeList.setAll(database.getAllEmployees());
-            }
-            
-        });
+        departmentColumn.setOnEditCommit(event -> updateInBackground(event.getRowValue(), EmployeeField.DEPARTMENT, event.getNewValue(),
+                ex -> showAlert(ex instanceof InvalidDepartmentException ? "Invalid Department" : "Error", ex.getMessage())));
 
         // Salary Column (with currency formatting)
         TableColumn<Employee<Integer>, Double> salaryColumn = (TableColumn<Employee<Integer>, Double>) createColumn.apply("Salary");
-        salaryColumn.setCellValueFactory(cell -> new SimpleDoubleProperty(cell.getValue().getSalary()).asObject());
+        salaryColumn.setUserData(SortKey.SALARY);
+        salaryColumn.setCellValueFactory(cell -> cell.getValue() == null ? null : new SimpleDoubleProperty(cell.getValue().getSalary()).asObject());
         salaryColumn.setCellFactory(column -> new TextFieldTableCell<Employee<Integer>, Double>(new DoubleStringConverter()) {
             @Override
             public void updateItem(Double item, boolean empty) {
@@ -176,23 +256,13 @@ public class EmployeeManagementUI extends Application {
                 }
             }
         });
-        salaryColumn.setOnEditCommit(event -> {
-            try {
-                Employee<Integer> emp = event.getRowValue();
-                emp.setSalary(event.getNewValue());
-                database.updateEmployeeDetails(emp.getEmployeeId(), "salary", event.getNewValue());
-            } catch (InvalidSalaryException ex) {
-                showAlert("Invalid Salary", ex.getMessage());
-                employeeList.setAll(database.getAllEmployees());
-            } catch (Exception ex) {
-                showAlert("Error", ex.getMessage());
-                employeeList.setAll(database.getAllEmployees());
-            }
-        });
+        salaryColumn.setOnEditCommit(event -> updateInBackground(event.getRowValue(), EmployeeField.SALARY, event.getNewValue(),
+                ex -> showAlert(ex instanceof InvalidSalaryException ? "Invalid Salary" : "Error", ex.getMessage())));
 
         // Rating Column (with color coding)
         TableColumn<Employee<Integer>, Double> ratingColumn = (TableColumn<Employee<Integer>, Double>) createColumn.apply("Rating");
-        ratingColumn.setCellValueFactory(cell -> new SimpleDoubleProperty(cell.getValue().getPerformanceRating()).asObject());
+        ratingColumn.setUserData(SortKey.RATING);
+        ratingColumn.setCellValueFactory(cell -> cell.getValue() == null ? null : new SimpleDoubleProperty(cell.getValue().getPerformanceRating()).asObject());
         ratingColumn.setCellFactory(column -> new TableCell<Employee<Integer>, Double>() {
             @Override
             protected void updateItem(Double item, boolean empty) {
@@ -209,56 +279,56 @@ public class EmployeeManagementUI extends Application {
                 }
             }
         });
-        ratingColumn.setOnEditCommit(event -> {
-            try {
-                Employee<Integer> emp = event.getRowValue();
-                emp.setPerformanceRating(event.getNewValue());
-                database.updateEmployeeDetails(emp.getEmployeeId(), "rating", event.getNewValue());
-            } catch (IllegalArgumentException ex) {
+        ratingColumn.setOnEditCommit(event -> updateInBackground(event.getRowValue(), EmployeeField.RATING, event.getNewValue(), ex -> {
+            if (ex instanceof IllegalArgumentException) {
                 showAlert("Invalid Rating", "Rating must be between 0 and 5");
-                employeeList.setAll(database.getAllEmployees());
-            } catch (Exception ex) {
+            } else {
                 showAlert("Error", ex.getMessage());
-                employeeList.setAll(database.getAllEmployees());
             }
-        });
+        }));
 
         // Experience Column
         TableColumn<Employee<Integer>, Integer> experienceColumn = (TableColumn<Employee<Integer>, Integer>) createColumn.apply("Exp (Yrs)");
-        experienceColumn.setCellValueFactory(cell -> new SimpleIntegerProperty(cell.getValue().getYearsOfExperience()).asObject());
+        experienceColumn.setUserData(SortKey.EXPERIENCE);
+        experienceColumn.setCellValueFactory(cell -> cell.getValue() == null ? null : new SimpleIntegerProperty(cell.getValue().getYearsOfExperience()).asObject());
         experienceColumn.setStyle("-fx-text-fill: black;");
         experienceColumn.setCellFactory(TextFieldTableCell.forTableColumn(new IntegerStringConverter()));
-        experienceColumn.setOnEditCommit(event -> {
-            try {
-                Employee<Integer> emp = event.getRowValue();
-                emp.setYearsOfExperience(event.getNewValue());
-                database.updateEmployeeDetails(emp.getEmployeeId(), "experience", event.getNewValue());
-            } catch (IllegalArgumentException ex) {
+        experienceColumn.setOnEditCommit(event -> updateInBackground(event.getRowValue(), EmployeeField.EXPERIENCE, event.getNewValue(), ex -> {
+            if (ex instanceof IllegalArgumentException) {
                 showAlert("Invalid Experience", "Years of experience cannot be negative");
-                employeeList.setAll(database.getAllEmployees());
-            } catch (Exception ex) {
+            } else {
                 showAlert("Error", ex.getMessage());
-                employeeList.setAll(database.getAllEmployees());
             }
-        });
+        }));
 
         // Active Column (with better checkbox styling)
         TableColumn<Employee<Integer>, Boolean> activeColumn = (TableColumn<Employee<Integer>, Boolean>) createColumn.apply("Active");
-        activeColumn.setCellValueFactory(cell -> new SimpleBooleanProperty(cell.getValue().isActive()));
+        activeColumn.setCellValueFactory(cell -> cell.getValue() == null ? null : new SimpleBooleanProperty(cell.getValue().isActive()));
         activeColumn.setCellFactory(tc -> {
             CheckBoxTableCell<Employee<Integer>, Boolean> cell = new CheckBoxTableCell<>();
             cell.setAlignment(Pos.CENTER);
             return cell;
         });
-        activeColumn.setOnEditCommit(event -> {
-            Employee<Integer> emp = event.getRowValue();
-            emp.setActive(event.getNewValue());
-            database.updateEmployeeDetails(emp.getEmployeeId(), "active", event.getNewValue());
-        });
+        activeColumn.setOnEditCommit(event -> updateInBackground(event.getRowValue(), EmployeeField.ACTIVE, event.getNewValue(),
+                ex -> showAlert("Error", ex.getMessage())));
 
         tableView.getColumns().addAll(idColumn, nameColumn, departmentColumn, salaryColumn, 
                                    ratingColumn, experienceColumn, activeColumn);
         tableView.setItems(employeeList);
+
+        // Sorting is pushed down to the database; the list only ever holds the visible pages
+        tableView.setSortPolicy(tv -> {
+            TableColumn<Employee<Integer>, ?> column = tv.getSortOrder().isEmpty() ? null : tv.getSortOrder().get(0);
+            if (column == null || !(column.getUserData() instanceof SortKey)) {
+                viewSort = SortKey.ID;
+                viewAscending = true;
+            } else {
+                viewSort = (SortKey) column.getUserData();
+                viewAscending = column.getSortType() == TableColumn.SortType.ASCENDING;
+            }
+            reloadTable(null);
+            return true;
+        });
         
         // Style table headers
         tableView.lookupAll(".column-header").forEach(node -> 
@@ -310,15 +380,19 @@ public class EmployeeManagementUI extends Application {
                 int exp = Integer.parseInt(experienceField.getText());
 
                 Employee<Integer> emp = new Employee<>(generateId(), name, dept, salary, rating, exp, true);
-                database.addEmployee(emp);
-                employeeList.setAll(database.getAllEmployees());
-                
-                // Clear fields
-                nameField.clear();
-                departmentField.setValue(null);
-                salaryField.clear();
-                ratingField.clear();
-                experienceField.clear();
+                addButton.setDisable(true);
+                tasks.runInOrder(() -> database.addEmployee(emp), () -> {
+                    addButton.setDisable(false);
+                    // Clear fields
+                    nameField.clear();
+                    departmentField.setValue(null);
+                    salaryField.clear();
+                    ratingField.clear();
+                    experienceField.clear();
+                }, ex -> {
+                    addButton.setDisable(false);
+                    showAlert("Error", "An unexpected error occurred: " + ex.getMessage());
+                });
             } catch (NumberFormatException ex) {
                 showAlert("Input Error", "Please enter valid numbers for salary, rating, and experience");
             } catch (InvalidDepartmentException | InvalidSalaryException ex) {
@@ -339,6 +413,16 @@ public class EmployeeManagementUI extends Application {
 
         Button searchButton = new Button("Search");
         searchButton.setStyle("-fx-background-color:rgb(2, 123, 216); -fx-text-fill: white; -fx-font-size: 14px; -fx-font-weight: bold; -fx-pref-height: 35px;");
+        // Search as you type: waits for a pause in typing, and each new query cancels the last one
+        PauseTransition searchDelay = new PauseTransition(SEARCH_DELAY);
+        searchDelay.setOnFinished(e -> {
+            String query = searchField.getText().toLowerCase();
+            viewFilter = query.isBlank() ? null : query;
+            viewLimit = Integer.MAX_VALUE;
+            reloadTable(null);
+        });
+        searchField.textProperty().addListener((obs, oldText, newText) -> searchDelay.playFromStart());
+
         searchButton.setOnAction(e -> {
             String query = searchField.getText().toLowerCase();
             try {
@@ -346,19 +430,14 @@ public class EmployeeManagementUI extends Application {
                     throw new IllegalArgumentException("Search query cannot be empty");
                 }
                 
-                ObservableList<Employee<Integer>> results = FXCollections.observableArrayList();
-                for (Employee<Integer> emp : database.getAllEmployees()) {
-                    if ((emp.getName() != null && emp.getName().toLowerCase().contains(query)) ||
-                            (emp.getDepartment() != null && emp.getDepartment().toLowerCase().contains(query)) ||
-                            String.valueOf(emp.getEmployeeId()).contains(query)) {
-                        results.add(emp);
+                searchDelay.stop();
+                viewFilter = query;
+                viewLimit = Integer.MAX_VALUE;
+                reloadTable(() -> {
+                    if (employeeList.isEmpty()) {
+                        showAlert("No Results", "No employees match your search criteria");
                     }
-                }
-                
-                if (results.isEmpty()) {
-                    showAlert("No Results", "No employees match your search criteria");
-                }
-                employeeList.setAll(results);
+                });
             } catch (IllegalArgumentException ex) {
                 showAlert("Search Error", ex.getMessage());
             }
@@ -366,9 +445,20 @@ public class EmployeeManagementUI extends Application {
 
         Button resetButton = new Button("Reset");
         resetButton.setStyle("-fx-background-color:rgb(4, 96, 87); -fx-text-fill: white; -fx-font-size: 14px; -fx-font-weight: bold; -fx-pref-height: 35px;");
-        resetButton.setOnAction(e -> employeeList.setAll(database.getAllEmployees()));
+        resetButton.setOnAction(e -> {
+            searchField.clear();
+            searchDelay.stop();
+            viewFilter = null;
+            viewLimit = Integer.MAX_VALUE;
+            table.getSortOrder().clear();
+            reloadTable(null);
+        });
+
+        loadingIndicator = new ProgressIndicator();
+        loadingIndicator.setPrefSize(28, 28);
+        loadingIndicator.setVisible(false);
 
-        HBox searchBox = new HBox(10, searchField, searchButton, resetButton);
+        HBox searchBox = new HBox(10, searchField, searchButton, resetButton, loadingIndicator);
         searchBox.setAlignment(Pos.CENTER);
         return searchBox;
     }
@@ -394,9 +484,9 @@ public class EmployeeManagementUI extends Application {
                 
                 // Only proceed if user clicked OK
                 if (result == ButtonType.OK) {
-                    database.removeEmployee(selected.getEmployeeId());
-                    employeeList.setAll(database.getAllEmployees());
-                    showAlert("Success", "Employee deleted successfully");
+                    tasks.runInOrder(() -> database.removeEmployee(selected.getEmployeeId()),
+                            () -> showAlert("Success", "Employee deleted successfully"),
+                            ex -> showAlert("Error", ex.getMessage()));
                 }
             } catch (EmployeeNotFoundException ex) {
                 showAlert("Error", ex.getMessage());
@@ -405,20 +495,11 @@ public class EmployeeManagementUI extends Application {
     
         Button sortByExperienceButton = new Button("Sort by Experience");
         sortByExperienceButton.setStyle("-fx-background-color: #3F51B5; -fx-text-fill: white; -fx-font-size: 14px; -fx-font-weight: bold; -fx-pref-height: 35px;");
-        sortByExperienceButton.setOnAction(e -> {
-            ObservableList<Employee<Integer>> sortedList = FXCollections.observableArrayList(database.getAllEmployees());
-            sortedList.sort((a, b) -> {
-                if (a == null && b == null) return 0;
-                if (a == null) return 1;
-                if (b == null) return -1;
-                return Integer.compare(b.getYearsOfExperience(), a.getYearsOfExperience());
-            });
-            employeeList.setAll(sortedList);
-        });
+        sortByExperienceButton.setOnAction(e -> sortTable(SortKey.EXPERIENCE, TableColumn.SortType.DESCENDING));
     
         Button sortBySalaryButton = new Button("Sort by Salary");
         sortBySalaryButton.setStyle("-fx-background-color: #3F51B5; -fx-text-fill: white; -fx-font-size: 14px; -fx-font-weight: bold; -fx-pref-height: 35px;");
-        sortBySalaryButton.setOnAction(e -> employeeList.setAll(database.sortBySalary()));
+        sortBySalaryButton.setOnAction(e -> sortTable(SortKey.SALARY, TableColumn.SortType.DESCENDING));
     
         HBox bottomBox = new HBox(15, sortByExperienceButton, sortBySalaryButton, removeButton);
         bottomBox.setAlignment(Pos.CENTER);
@@ -446,8 +527,9 @@ public class EmployeeManagementUI extends Application {
                 if (selectedDept == null) {
                     throw new InvalidDepartmentException("Please select a department");
                 }
-                double avg = database.getAverageSalary(selectedDept);
-                showAlert(selectedDept + " Department", "Average Salary: $" + String.format("%.2f", avg));
+                tasks.run(() -> database.getAverageSalary(selectedDept),
+                        avg -> showAlert(selectedDept + " Department", "Average Salary: $" + String.format("%.2f", avg)),
+                        ex -> showAlert("Error", "Failed to calculate average salary: " + ex.getMessage()));
             } catch (InvalidDepartmentException ex) {
                 showAlert("Error", ex.getMessage());
             } catch (Exception ex) {
@@ -459,48 +541,159 @@ public class EmployeeManagementUI extends Application {
         Button raiseButton = new Button("Raise High Performers");
         raiseButton.setStyle("-fx-background-color: #3F51B5; -fx-text-fill: white; -fx-font-size: 14px; -fx-font-weight: bold; -fx-pref-height: 35px;");
         raiseButton.setOnAction(e -> {
-            try {
-                double threshold = 4.5;
-                double increment = 1000;
-                database.giveRaise(threshold, increment);
-                employeeList.setAll(database.getAllEmployees());
+            double threshold = 4.5;
+            double increment = 1000;
+            raiseButton.setDisable(true);
+            tasks.runInOrder(() -> database.giveRaise(threshold, increment), () -> {
+                raiseButton.setDisable(false);
                 showAlert("Success", "Raise applied to high performers");
-            } catch (Exception ex) {
+            }, ex -> {
+                raiseButton.setDisable(false);
                 showAlert("Error", "Failed to apply raises: " + ex.getMessage());
-            }
+            });
         });
 
         // Top paid employees button
         Button topPaidButton = new Button("Show Top 5 Paid");
         topPaidButton.setStyle("-fx-background-color: #3F51B5; -fx-text-fill: white; -fx-font-size: 14px; -fx-font-weight: bold; -fx-pref-height: 35px;");
         topPaidButton.setOnAction(e -> {
-            try {
-                employeeList.setAll(database.getTopPaid(5));
-            } catch (Exception ex) {
-                showAlert("Error", "Failed to get top paid employees: " + ex.getMessage());
-            }
+            viewFilter = null;
+            viewLimit = 5;
+            sortTable(SortKey.SALARY, TableColumn.SortType.DESCENDING);
+            reloadTable(null);
         });
 
         // Print buttons
         Button printAllButton = new Button("Print All Employees");
         printAllButton.setStyle("-fx-background-color: #009688; -fx-text-fill: white; -fx-font-size: 14px; -fx-font-weight: bold; -fx-pref-height: 35px;");
-        printAllButton.setOnAction(e -> {
-            try {
-                StringBuilder builder = new StringBuilder();
-                for (Employee<Integer> emp : database.getAllEmployees()) {
-                    builder.append(emp.toString()).append("\n");
-                }
-                showPrintWindow("All Employees", builder.toString());
-            } catch (Exception ex) {
-                showAlert("Error", "Failed to print employees: " + ex.getMessage());
+        // A snapshot is O(1) to take and stays consistent however long the preview is open
+        printAllButton.setOnAction(e -> showPreviewWindow("All Employees", database.readSnapshot()));
+
+        Button summaryButton = new Button("Department Summary");
+        summaryButton.setStyle("-fx-background-color: #009688; -fx-text-fill: white; -fx-font-size: 14px; -fx-font-weight: bold; -fx-pref-height: 35px;");
+        summaryButton.setOnAction(e -> {
+            StringBuilder builder = new StringBuilder();
+            for (DepartmentSummary summary : database.getDepartmentSummaries()) {
+                builder.append(summary).append("\n");
+            }
+            showPrintWindow("Department Summary", builder.toString());
+        });
+
+        Button importButton = new Button("Import CSV");
+        importButton.setStyle("-fx-background-color: #009688; -fx-text-fill: white; -fx-font-size: 14px; -fx-font-weight: bold; -fx-pref-height: 35px;");
+        importButton.setOnAction(e -> {
+            FileChooser chooser = new FileChooser();
+            chooser.setTitle("Import Employees");
+            chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV files", "*.csv"));
+            File file = chooser.showOpenDialog(importButton.getScene().getWindow());
+            if (file != null) {
+                importCsv(file.toPath());
             }
         });
 
         sidePanel.getChildren().addAll(title, departmentComboBox, avgSalaryButton, raiseButton, 
-                                     topPaidButton, printAllButton);
+                                     topPaidButton, printAllButton, summaryButton, importButton);
         return sidePanel;
     }
 
+    // Runs the import off the FX thread behind a modal progress window. The parser records the
+    // largest ID in the file so idCounter can be moved past it without rescanning the database.
+    private void importCsv(Path csv) {
+        AtomicInteger maxId = new AtomicInteger(Integer.MIN_VALUE);
+        Function<String, Integer> idParser = raw -> {
+            Integer id = Integer.valueOf(raw);
+            maxId.accumulateAndGet(id, Math::max);
+            return id;
+        };
+        CsvEmployeeImporter<Integer> importer = new CsvEmployeeImporter<>(idParser, this::generateId,
+                CsvEmployeeImporter.DEFAULT_CHUNK_BYTES, Runtime.getRuntime().availableProcessors());
+        Task<ImportResult> task = new Task<>() {
+            @Override
+            protected ImportResult call() {
+                return importer.importFile(csv, database, (bytes, total, imported, rejected) -> {
+                    updateProgress(bytes, total);
+                    updateMessage(String.format("%,d imported, %,d rejected", imported, rejected));
+                });
+            }
+        };
+
+        ProgressBar progressBar = new ProgressBar();
+        progressBar.setPrefWidth(350);
+        progressBar.progressProperty().bind(task.progressProperty());
+        Label status = new Label();
+        status.textProperty().bind(task.messageProperty());
+        VBox content = new VBox(10, new Label("Importing " + csv.getFileName()), progressBar, status);
+        content.setPadding(new Insets(15));
+        Stage progressStage = new Stage();
+        progressStage.setTitle("Import CSV");
+        progressStage.initModality(Modality.APPLICATION_MODAL);
+        progressStage.setOnCloseRequest(Event::consume);
+        progressStage.setScene(new Scene(content));
+
+        task.setOnSucceeded(e -> {
+            progressStage.close();
+            advanceIdCounter(maxId.get());
+            ImportResult result = task.getValue();
+            StringBuilder builder = new StringBuilder(result.toString());
+            List<ImportError> errors = result.getErrors();
+            for (int i = 0; i < Math.min(errors.size(), 10); i++) {
+                builder.append("\n").append(errors.get(i));
+            }
+            showAlert("Import Finished", builder.toString());
+        });
+        task.setOnFailed(e -> {
+            progressStage.close();
+            advanceIdCounter(maxId.get());
+            reloadTable(null);
+            showAlert("Import Failed", task.getException().getMessage());
+        });
+
+        tasks.execute(task);
+        progressStage.show();
+    }
+
+    // Cell edits are written in the background: a persistent database holds its lock for the
+    // whole write, log append included. On failure the table is reloaded to drop the edit.
+    private <V> void updateInBackground(Employee<Integer> emp, EmployeeField<V> field, V value, Consumer<Throwable> onFailure) {
+        Integer id = emp.getEmployeeId();
+        tasks.runInOrder(() -> database.update(id, field, value), () -> { }, ex -> {
+            onFailure.accept(ex);
+            reloadTable(null);
+        });
+    }
+
+    // Loads the current view off the FX thread; a newer reload cancels one still in flight
+    private void reloadTable(Runnable then) {
+        String filter = viewFilter;
+        SortKey sortKey = viewSort;
+        boolean ascending = viewAscending;
+        int limit = viewLimit;
+        Task<Runnable> task = tasks.runLatest("table", () -> employeeList.prepare(filter, sortKey, ascending, limit),
+                install -> {
+                    install.run();
+                    if (then != null) {
+                        then.run();
+                    }
+                },
+                ex -> showAlert("Error", "Failed to load employees: " + ex.getMessage()));
+        loadingIndicator.visibleProperty().bind(task.runningProperty());
+    }
+
+    private void sortTable(SortKey key, TableColumn.SortType type) {
+        for (TableColumn<Employee<Integer>, ?> column : table.getColumns()) {
+            if (column.getUserData() == key) {
+                column.setSortType(type);
+                table.getSortOrder().setAll(List.of(column));
+            }
+        }
+    }
+
+    private static void advanceIdCounter(int usedId) {
+        if (usedId != Integer.MIN_VALUE) {
+            idCounter.accumulateAndGet(usedId + 1, Math::max);
+        }
+    }
+
     private int generateId() {
         return idCounter.getAndIncrement();
     }
@@ -513,6 +706,71 @@ public class EmployeeManagementUI extends Application {
         alert.showAndWait();
     }
 
+    // Only the page being viewed is formatted, so the preview costs the same for any list size.
+    // Pages are found by skipping through the collection, which is cheap next to the formatting.
+    private void showPreviewWindow(String title, Collection<Employee<Integer>> employees) {
+        int pageCount = Math.max(1, (employees.size() + PREVIEW_PAGE_ROWS - 1) / PREVIEW_PAGE_ROWS);
+        StringBuilder page = new StringBuilder(PREVIEW_PAGE_ROWS * 100);
+        Pagination pagination = new Pagination(pageCount, 0);
+        pagination.setPageFactory(index -> {
+            page.setLength(0);
+            ExportFormat.FIXED_WIDTH.appendHeader(page);
+            Iterator<Employee<Integer>> rows = employees.iterator();
+            for (int skipped = 0; skipped < index * PREVIEW_PAGE_ROWS && rows.hasNext(); skipped++) {
+                rows.next();
+            }
+            for (int i = 0; i < PREVIEW_PAGE_ROWS && rows.hasNext(); i++) {
+                ExportFormat.FIXED_WIDTH.appendRow(rows.next(), page);
+            }
+            TextArea area = new TextArea(page.toString());
+            area.setEditable(false);
+            area.setStyle("-fx-font-family: monospace; -fx-font-size: 14px;");
+            return area;
+        });
+        VBox.setVgrow(pagination, Priority.ALWAYS);
+
+        Stage previewStage = new Stage();
+        Button exportButton = new Button("Export...");
+        exportButton.setStyle("-fx-background-color: #009688; -fx-text-fill: white; -fx-font-size: 14px; -fx-font-weight: bold;");
+        exportButton.setOnAction(e -> exportEmployees(previewStage, employees));
+
+        HBox controls = new HBox(10, new Label(String.format("%,d employees", employees.size())), exportButton);
+        controls.setAlignment(Pos.CENTER_LEFT);
+        controls.setPadding(new Insets(5));
+        previewStage.setTitle(title);
+        previewStage.setScene(new Scene(new VBox(controls, pagination), 900, 600));
+        previewStage.show();
+    }
+
+    private void exportEmployees(Stage owner, Collection<Employee<Integer>> employees) {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Export Employees");
+        for (ExportFormat format : ExportFormat.values()) {
+            chooser.getExtensionFilters().add(
+                    new FileChooser.ExtensionFilter(format.name() + " (*." + format.getExtension() + ")", "*." + format.getExtension()));
+        }
+        File file = chooser.showSaveDialog(owner);
+        if (file == null) {
+            return;
+        }
+        ExportFormat format = ExportFormat.CSV;
+        for (ExportFormat candidate : ExportFormat.values()) {
+            if (file.getName().toLowerCase().endsWith("." + candidate.getExtension())) {
+                format = candidate;
+            }
+        }
+        ExportFormat selected = format;
+        Task<Long> task = new Task<>() {
+            @Override
+            protected Long call() {
+                return new EmployeeExporter(selected).export(employees, file.toPath());
+            }
+        };
+        task.setOnSucceeded(e -> showAlert("Export Finished", String.format("Wrote %,d employees to %s", task.getValue(), file)));
+        task.setOnFailed(e -> showAlert("Export Failed", task.getException().getMessage()));
+        tasks.execute(task);
+    }
+
     private void showPrintWindow(String title, String content) {
         Stage printStage = new Stage();
         printStage.setTitle(title);
@@ -0,0 +1,325 @@
+package app;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import database.ChangeEvent;
+import database.EmployeeDatabase;
+import database.SortKey;
+import javafx.application.Platform;
+import javafx.collections.ObservableListBase;
+import model.Employee;
+import model.EmployeeField;
+
+// Read-only ObservableList over an EmployeeDatabase for the TableView.
+// Rows are fetched a page at a time (plus one page either side as prefetch) only when the
+// table asks for them, and a handful of pages stay cached. Given BackgroundTasks, a page that
+// is not cached is fetched off the FX thread: get() returns null (an empty placeholder row)
+// and the rows are replaced once the page arrives. Without it pages load on the caller. Filtering and sorting are done by
+// EmployeeDatabase.getPage(), so a refresh costs one count() instead of copying every row.
+// Feed it the database's change events through prepareChanges() to keep it current with minimal
+// list changes; otherwise call refresh() after mutating the database.
+public class PagedEmployeeList<T> extends ObservableListBase<Employee<T>> {
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int CACHED_PAGES = 16;
+    // Beyond this many moved rows in one batch, re-reading from the top is cheaper than locating
+    // each of them (a scan apiece for filtered or name and department orders)
+    private static final int MAX_LOCATED = 32;
+
+    private final EmployeeDatabase<T> database;
+    private final BackgroundTasks tasks;
+    private final int pageSize;
+    private final Map<Integer, List<Employee<T>>> pages = new LinkedHashMap<>(CACHED_PAGES, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<Employee<T>>> eldest) {
+            return size() > CACHED_PAGES;
+        }
+    };
+
+    // Replaced as a whole, so prepareChanges() reads a consistent view from any thread
+    private volatile View view = new View(null, SortKey.ID, true, Integer.MAX_VALUE);
+    private int size;
+    // Pages being fetched in the background, each with the row updates that arrived meanwhile.
+    // Bumping generation drops them all: rows may have moved since they were requested.
+    private final Map<Integer, Map<T, Employee<T>>> fetching = new HashMap<>();
+    private int generation;
+
+    public PagedEmployeeList(EmployeeDatabase<T> database) {
+        this(database, null, DEFAULT_PAGE_SIZE);
+    }
+
+    public PagedEmployeeList(EmployeeDatabase<T> database, int pageSize) {
+        this(database, null, pageSize);
+    }
+
+    public PagedEmployeeList(EmployeeDatabase<T> database, BackgroundTasks tasks) {
+        this(database, tasks, DEFAULT_PAGE_SIZE);
+    }
+
+    public PagedEmployeeList(EmployeeDatabase<T> database, BackgroundTasks tasks, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        this.database = database;
+        this.tasks = tasks;
+        this.pageSize = pageSize;
+        this.size = database.count(null);
+    }
+
+    @Override
+    public Employee<T> get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        int page = index / pageSize;
+        List<Employee<T>> rows = pages.get(page);
+        if (rows == null) {
+            if (tasks != null) {
+                fetch(page);
+                return null;
+            }
+            rows = load(page);
+        }
+        int offset = index % pageSize;
+        if (offset >= rows.size()) {
+            // The database shrank since the last refresh; catch up once the current pulse is done
+            Platform.runLater(this::refresh);
+            return null;
+        }
+        return rows.get(offset);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    // Search filter as in EmployeeDatabase.search(); null or blank shows everyone
+    public void setFilter(String filter) {
+        View view = this.view;
+        prepare(filter, view.sortKey, view.ascending, view.limit).run();
+    }
+
+    public void setSort(SortKey sortKey, boolean ascending) {
+        View view = this.view;
+        prepare(view.filter, sortKey, ascending, view.limit).run();
+    }
+
+    // Shows at most the first limit rows of the current order, e.g. the top 5 paid
+    public void setLimit(int limit) {
+        View view = this.view;
+        prepare(view.filter, view.sortKey, view.ascending, limit).run();
+    }
+
+    // Drops the filter and the limit; the sort order is left to the table
+    public void reset() {
+        View view = this.view;
+        prepare(null, view.sortKey, view.ascending, Integer.MAX_VALUE).run();
+    }
+
+    public void refresh() {
+        View view = this.view;
+        prepare(view.filter, view.sortKey, view.ascending, view.limit).run();
+    }
+
+    // Runs the count and first-window queries for a new view of the database and returns the
+    // step that installs it. Safe to call off the FX thread; the returned Runnable is not.
+    public Runnable prepare(String filter, SortKey sortKey, boolean ascending, int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit cannot be negative");
+        }
+        int count = Math.min(database.count(filter), limit);
+        List<Employee<T>> window = database.getPage(filter, sortKey, ascending, 0, Math.min(count, 2 * pageSize));
+        View next = new View(filter, sortKey, ascending, limit);
+        return () -> {
+            view = next;
+            int oldSize = size;
+            size = count;
+            pages.clear();
+            invalidateFetches();
+            cache(window, 0);
+            beginChange();
+            if (oldSize > 0) {
+                nextRemove(0, Collections.nCopies(oldSize, null));
+            }
+            if (size > 0) {
+                nextAdd(0, size);
+            }
+            endChange();
+        };
+    }
+
+    // Works out what a batch of change events (in sequence order, as a ChangeListener receives
+    // them) does to the current view and returns the step that applies it. Updates that leave
+    // the row where it is replace just that row. Anything that can move rows (inserts, deletes,
+    // changes to the sort key, or to what the filter matches) re-reads the view from the first
+    // row it touches on, leaving the rows above alone. Safe to call off the FX thread; the
+    // returned Runnable is not, and falls back to refresh() if the view changed in between.
+    public Runnable prepareChanges(List<ChangeEvent<T>> events) {
+        View view = this.view;
+        Map<T, Employee<T>> updated = new HashMap<>();
+        int moved = 0;
+        int from = Integer.MAX_VALUE;
+        for (ChangeEvent<T> event : events) {
+            if (!moves(event, view)) {
+                updated.put(event.getEmployeeId(), event.getAfter());
+            } else if (++moved > MAX_LOCATED) {
+                from = 0;
+            } else if (from > 0) {
+                // The row leaves its old position and lands on its new one
+                if (event.getBefore() != null) {
+                    from = Math.min(from, database.positionOf(view.filter, view.sortKey, view.ascending, event.getBefore()));
+                }
+                if (event.getAfter() != null) {
+                    from = Math.min(from, database.positionOf(view.filter, view.sortKey, view.ascending, event.getAfter()));
+                }
+            }
+        }
+        boolean structural = moved > 0;
+        int firstMoved = from;
+        int count = structural ? Math.min(database.count(view.filter), view.limit) : 0;
+        return () -> {
+            if (this.view != view) {
+                refresh();
+                return;
+            }
+            beginChange();
+            if (structural) {
+                pages.keySet().removeIf(page -> (long) (page + 1) * pageSize > firstMoved);
+                invalidateFetches();
+            }
+            if (!updated.isEmpty()) {
+                for (Map<T, Employee<T>> patches : fetching.values()) {
+                    patches.putAll(updated);
+                }
+                for (Map.Entry<Integer, List<Employee<T>>> entry : pages.entrySet()) {
+                    List<Employee<T>> rows = entry.getValue();
+                    for (int i = 0; i < rows.size(); i++) {
+                        Employee<T> after = updated.get(rows.get(i).getEmployeeId());
+                        if (after != null) {
+                            nextSet(entry.getKey() * pageSize + i, rows.set(i, after));
+                        }
+                    }
+                }
+            }
+            if (structural) {
+                int oldSize = size;
+                size = count;
+                if (oldSize > firstMoved) {
+                    nextRemove(firstMoved, Collections.nCopies(oldSize - firstMoved, null));
+                }
+                if (size > firstMoved) {
+                    nextAdd(firstMoved, size);
+                }
+            }
+            endChange();
+        };
+    }
+
+    public String getFilter() {
+        return view.filter;
+    }
+
+    public SortKey getSortKey() {
+        return view.sortKey;
+    }
+
+    public boolean isAscending() {
+        return view.ascending;
+    }
+
+    public int getLimit() {
+        return view.limit;
+    }
+
+    private static <T> boolean moves(ChangeEvent<T> event, View view) {
+        if (event.getType() != ChangeEvent.Type.UPDATE) {
+            return true;
+        }
+        EmployeeField<?> sortField = view.sortKey.field();
+        if (sortField != null && event.changed(sortField)) {
+            return true;
+        }
+        return view.filter != null && !view.filter.isBlank()
+                && (event.changed(EmployeeField.NAME) || event.changed(EmployeeField.DEPARTMENT));
+    }
+
+    // One query for the page and its neighbours, split back into cached pages
+    private List<Employee<T>> load(int page) {
+        View view = this.view;
+        int first = Math.max(0, page - 1);
+        int offset = first * pageSize;
+        int count = Math.min(3 * pageSize, size - offset);
+        cache(database.getPage(view.filter, view.sortKey, view.ascending, offset, count), first);
+        List<Employee<T>> rows = pages.get(page);
+        return rows == null ? Collections.emptyList() : rows;
+    }
+
+    // load() on a background thread. Once the rows arrive they are patched with any updates
+    // published in the meantime, cached, and announced as replacing the placeholders.
+    private void fetch(int page) {
+        if (fetching.containsKey(page)) {
+            return;
+        }
+        Map<T, Employee<T>> patches = new HashMap<>();
+        fetching.put(page, patches);
+        View view = this.view;
+        int stamp = generation;
+        int first = Math.max(0, page - 1);
+        int offset = first * pageSize;
+        int count = Math.min(3 * pageSize, size - offset);
+        tasks.run(() -> database.getPage(view.filter, view.sortKey, view.ascending, offset, count), rows -> {
+            if (generation != stamp) {
+                return;
+            }
+            fetching.remove(page);
+            for (int i = 0; i < rows.size(); i++) {
+                Employee<T> after = patches.get(rows.get(i).getEmployeeId());
+                if (after != null) {
+                    rows.set(i, after);
+                }
+            }
+            cache(rows, first);
+            int to = Math.min(size, offset + rows.size());
+            if (to > offset) {
+                beginChange();
+                for (int i = offset; i < to; i++) {
+                    nextSet(i, null);
+                }
+                endChange();
+            }
+        }, ex -> {
+            if (generation == stamp) {
+                fetching.remove(page);
+            }
+        });
+    }
+
+    private void invalidateFetches() {
+        fetching.clear();
+        generation++;
+    }
+
+    private void cache(List<Employee<T>> rows, int firstPage) {
+        for (int from = 0, page = firstPage; from < rows.size(); from += pageSize, page++) {
+            pages.put(page, rows.subList(from, Math.min(rows.size(), from + pageSize)));
+        }
+    }
+
+    private static final class View {
+        private final String filter;
+        private final SortKey sortKey;
+        private final boolean ascending;
+        private final int limit;
+
+        private View(String filter, SortKey sortKey, boolean ascending, int limit) {
+            this.filter = filter;
+            this.sortKey = sortKey;
+            this.ascending = ascending;
+            this.limit = limit;
+        }
+    }
+}
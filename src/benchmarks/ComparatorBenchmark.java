@@ -0,0 +1,63 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.Employee;
+import utility.EmployeePerformanceComparator;
+import utility.EmployeeSalaryComparator;
+
+// Raw cost of sorting with the repo's comparators, independent of EmployeeDatabase.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class ComparatorBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private List<Employee<Integer>> employees;
+    private final EmployeeSalaryComparator<Integer> bySalary = new EmployeeSalaryComparator<>();
+    private final EmployeePerformanceComparator<Integer> byPerformance = new EmployeePerformanceComparator<>();
+
+    @Setup
+    public void load() {
+        employees = SyntheticEmployees.generate(size, 42);
+    }
+
+    @Benchmark
+    public List<Employee<Integer>> sortWithSalaryComparator() {
+        List<Employee<Integer>> copy = new ArrayList<>(employees);
+        copy.sort(bySalary);
+        return copy;
+    }
+
+    @Benchmark
+    public List<Employee<Integer>> sortWithPerformanceComparator() {
+        List<Employee<Integer>> copy = new ArrayList<>(employees);
+        copy.sort(byPerformance);
+        return copy;
+    }
+
+    @Benchmark
+    public List<Employee<Integer>> sortNaturalOrder() {
+        List<Employee<Integer>> copy = new ArrayList<>(employees);
+        copy.sort(null);
+        return copy;
+    }
+}
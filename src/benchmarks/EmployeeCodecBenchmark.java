@@ -0,0 +1,78 @@
+package benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.Employee;
+import persistence.EmployeeCodec;
+
+// Whole-list dumps with EmployeeCodec against Java serialization (ObjectOutputStream), both
+// ways. Encoded sizes are printed once per trial.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class EmployeeCodecBenchmark {
+    @Param({"1000", "100000"})
+    public int size;
+
+    private List<Employee<Integer>> employees;
+    private byte[] encoded;
+    private byte[] serialized;
+
+    @Setup
+    public void load() throws IOException {
+        employees = new ArrayList<>(SyntheticEmployees.generate(size, 42));
+        encoded = codecEncode();
+        serialized = serializationEncode();
+        System.out.printf("%n%d employees: codec %,d bytes (%.1f/employee), ObjectOutputStream %,d bytes (%.1f/employee)%n",
+                size, encoded.length, (double) encoded.length / size, serialized.length, (double) serialized.length / size);
+    }
+
+    @Benchmark
+    public byte[] codecEncode() {
+        return EmployeeCodec.INTEGER.encodeAll(employees);
+    }
+
+    @Benchmark
+    public List<Employee<Integer>> codecDecode() {
+        return EmployeeCodec.INTEGER.decodeAll(ByteBuffer.wrap(encoded));
+    }
+
+    @Benchmark
+    public byte[] serializationEncode() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(employees);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Benchmark
+    public Object serializationDecode() throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serialized))) {
+            return in.readObject();
+        }
+    }
+}
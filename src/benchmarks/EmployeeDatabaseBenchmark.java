@@ -0,0 +1,158 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import database.CachingEmployeeDatabase;
+import database.EmployeeDatabase;
+import database.IntEmployeeDatabase;
+import database.OffHeapEmployeeDatabase;
+import database.ShardedEmployeeDatabase;
+import model.Employee;
+
+// Throughput plus sampled latency percentiles for the EmployeeDatabase API.
+// Run with: mvn -P benchmarks verify   (adds -prof gc for allocation rates)
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class EmployeeDatabaseBenchmark {
+    @Param({"1000", "100000", "1000000", "5000000"})
+    public int size;
+
+    // generic = EmployeeDatabase<Integer> over a HashMap,
+    // int = IntEmployeeDatabase, the map, indexes and aggregates keyed by primitive int,
+    // cached = generic behind a CachingEmployeeDatabase (repeated queries hit; writes invalidate),
+    // sharded = ShardedEmployeeDatabase, one ID-hashed shard per core on the common pool,
+    // offheap = OffHeapEmployeeDatabase, records in direct memory and no secondary indexes
+    @Param({"generic", "int", "cached", "sharded", "offheap"})
+    public String engine;
+
+    private EmployeeDatabase<Integer> db;
+    private List<Employee<Integer>> employees;
+    private SplittableRandom random;
+    private int nextId;
+    private final List<Integer> added = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void load() {
+        db = switch (engine) {
+            case "int" -> new IntEmployeeDatabase(size);
+            case "cached" -> new CachingEmployeeDatabase<>(new EmployeeDatabase<>());
+            case "sharded" -> new ShardedEmployeeDatabase<>();
+            case "offheap" -> new OffHeapEmployeeDatabase<>(size);
+            default -> new EmployeeDatabase<>();
+        };
+        employees = SyntheticEmployees.generate(size, 42);
+        for (Employee<Integer> emp : employees) {
+            db.addEmployee(emp);
+        }
+        random = new SplittableRandom(7);
+        nextId = size;
+    }
+
+    // Keeps the dataset at its nominal size between iterations
+    @TearDown(Level.Iteration)
+    public void dropAdded() {
+        for (Integer id : added) {
+            db.removeEmployee(id);
+        }
+        added.clear();
+        nextId = size;
+    }
+
+    @Benchmark
+    public void addEmployee() {
+        Employee<Integer> emp = SyntheticEmployees.next(random, nextId++);
+        db.addEmployee(emp);
+        added.add(emp.getEmployeeId());
+    }
+
+    // Removes a random employee and puts it back so the dataset does not drain;
+    // subtract addEmployee for the cost of the removal alone.
+    @Benchmark
+    public void removeEmployee() {
+        Employee<Integer> emp = employees.get(random.nextInt(size));
+        db.removeEmployee(emp.getEmployeeId());
+        db.addEmployee(emp);
+    }
+
+    // Point lookup plus salary index and aggregate maintenance
+    @Benchmark
+    public void raiseSalary() {
+        db.raiseSalary(employees.get(random.nextInt(size)).getEmployeeId(), 0.0);
+    }
+
+    @Benchmark
+    public List<Employee<Integer>> searchByName() {
+        return db.searchByName("ana");
+    }
+
+    @Benchmark
+    public List<Employee<Integer>> searchByDepartment() {
+        return db.searchByDepartment("Finance");
+    }
+
+    @Benchmark
+    public List<Employee<Integer>> filterBySalaryRange() {
+        return db.filterBySalaryRange(80_000, 82_000);
+    }
+
+    @Benchmark
+    public List<Employee<Integer>> sortBySalary() {
+        return db.sortBySalary();
+    }
+
+    @Benchmark
+    public List<Employee<Integer>> sortByPerformance() {
+        return db.sortByPerformance();
+    }
+
+    @Benchmark
+    public List<Employee<Integer>> getTopPaid() {
+        return db.getTopPaid(5);
+    }
+
+    @Benchmark
+    public void giveRaise() {
+        db.giveRaise(4.9, 1.0);
+    }
+
+    // A whole-table report the old way (copy every employee into a list first) ...
+    @Benchmark
+    public double payrollFromCopy() {
+        double total = 0;
+        for (Employee<Integer> emp : db.getAllEmployees()) {
+            total += emp.getSalary();
+        }
+        return total;
+    }
+
+    // ... and over a snapshot, which copies nothing
+    @Benchmark
+    public double payrollFromSnapshot() {
+        double total = 0;
+        for (Employee<Integer> emp : db.readSnapshot()) {
+            total += emp.getSalary();
+        }
+        return total;
+    }
+}
@@ -0,0 +1,62 @@
+package benchmarks;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.function.Supplier;
+
+import database.EmployeeDatabase;
+import database.IntEmployeeDatabase;
+import database.OffHeapEmployeeDatabase;
+
+// Retained heap of a loaded database, which JMH does not measure: heap in use after a full GC
+// with the database loaded, minus the same before the employees were generated, plus the
+// direct (off-heap) buffer memory the database reserved. The generated list is dropped after
+// the load, so whatever the database keeps of the input (IDs included) is counted.
+// One engine per JVM, so neither run inherits the other's heap layout; run after
+// mvn -P benchmarks verify with a fixed heap:
+//   java -Xms4g -Xmx4g -XX:+UseParallelGC -cp target/classes benchmarks.FootprintReport generic|int|offheap [size]
+public final class FootprintReport {
+    private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+
+    private FootprintReport() {
+    }
+
+    public static void main(String[] args) {
+        String engine = args.length > 0 ? args[0] : "generic";
+        int size = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+        switch (engine) {
+            case "generic" -> report("EmployeeDatabase<Integer>", size, EmployeeDatabase::new);
+            case "int" -> report("IntEmployeeDatabase", size, () -> new IntEmployeeDatabase(size));
+            case "offheap" -> report("OffHeapEmployeeDatabase", size, () -> new OffHeapEmployeeDatabase<>(size));
+            default -> throw new IllegalArgumentException("Unknown engine: " + engine);
+        }
+    }
+
+    private static void report(String label, int size, Supplier<EmployeeDatabase<Integer>> engine) {
+        long baseline = usedAfterGc();
+        long directBaseline = directUsed();
+        EmployeeDatabase<Integer> db = engine.get();
+        db.addEmployees(SyntheticEmployees.generate(size, 42));
+        long loaded = usedAfterGc();
+        long direct = directUsed() - directBaseline;
+        System.out.printf("%-26s %,12d employees  heap %,8.1f MB  %6.1f bytes/employee  off-heap %,8.1f MB%n",
+                label, db.size(), (loaded - baseline) / 1e6, (loaded - baseline) / (double) size, direct / 1e6);
+    }
+
+    private static long directUsed() {
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if (pool.getName().equals("direct")) {
+                return pool.getMemoryUsed();
+            }
+        }
+        return 0;
+    }
+
+    private static long usedAfterGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return MEMORY.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,57 @@
+package benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import database.EmployeeDatabase;
+import database.InstrumentedEmployeeDatabase;
+import model.Employee;
+
+// Cost of InstrumentedEmployeeDatabase on the cheapest operations, where it shows most:
+// compare instrumented=true against false.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InstrumentationBenchmark {
+    @Param({"false", "true"})
+    public boolean instrumented;
+
+    private EmployeeDatabase<Integer> db;
+
+    @Setup
+    public void load() {
+        EmployeeDatabase<Integer> raw = new EmployeeDatabase<>();
+        raw.addEmployees(SyntheticEmployees.generate(100_000, 42));
+        db = instrumented ? new InstrumentedEmployeeDatabase<>(raw) : raw;
+    }
+
+    @Benchmark
+    public List<Employee<Integer>> getTopPaid() {
+        return db.getTopPaid(5);
+    }
+
+    @Benchmark
+    public double getAverageSalary() {
+        return db.getAverageSalary("Finance");
+    }
+
+    @Benchmark
+    public List<Employee<Integer>> searchByName() {
+        return db.searchByName("kwame");
+    }
+}
@@ -0,0 +1,99 @@
+package benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.DepartmentDictionary;
+import model.Employee;
+import scan.ScanKernels;
+
+// The columnar engine's scans, as a stream over Employee objects (boxed getters, one object
+// per row) against ScanKernels over the packed columns, per row (scalar) and with the
+// Vector API (vector; needs --add-modules jdk.incubator.vector, which the profile passes).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g", "--add-modules", "jdk.incubator.vector"})
+public class ScanKernelBenchmark {
+    @Param({"100000", "1000000"})
+    public int size;
+
+    @Param({"stream", "scalar", "vector"})
+    public String kernels;
+
+    private List<Employee<Integer>> employees;
+    private ScanKernels scan;
+    private double[] salaries;
+    private double[] ratings;
+    private int[] departmentCodes;
+    private int[] backend;
+
+    @Setup
+    public void load() {
+        employees = SyntheticEmployees.generate(size, 42);
+        scan = switch (kernels) {
+            case "scalar" -> ScanKernels.SCALAR;
+            case "vector" -> ScanKernels.vector();
+            default -> null;
+        };
+        if (scan == null && !kernels.equals("stream")) {
+            throw new IllegalStateException("jdk.incubator.vector is not available");
+        }
+        salaries = new double[size];
+        ratings = new double[size];
+        departmentCodes = new int[size];
+        for (int i = 0; i < size; i++) {
+            Employee<Integer> emp = employees.get(i);
+            salaries[i] = emp.getSalary();
+            ratings[i] = emp.getPerformanceRating();
+            departmentCodes[i] = emp.getDepartmentCode();
+        }
+        backend = new int[] {DepartmentDictionary.intern("Backend")};
+    }
+
+    // filterBySalaryRange
+    @Benchmark
+    public int salaryRange() {
+        if (scan == null) {
+            return (int) employees.stream().filter(e -> e.getSalary() >= 50_000 && e.getSalary() <= 80_000).count();
+        }
+        return ScanKernels.count(scan.selectRange(salaries, size, 50_000, 80_000));
+    }
+
+    // getAverageSalary
+    @Benchmark
+    public double departmentAverage() {
+        if (scan == null) {
+            return employees.stream().filter(e -> e.getDepartmentCode() == backend[0])
+                    .mapToDouble(Employee::getSalary).average().orElse(0);
+        }
+        long[] selection = scan.selectCodes(departmentCodes, size, backend);
+        return scan.sum(salaries, size, selection) / ScanKernels.count(selection);
+    }
+
+    // giveRaise; a cent at a time, so salaries barely drift over a run
+    @Benchmark
+    public double raise() {
+        if (scan == null) {
+            employees.stream().filter(e -> e.getPerformanceRating() >= 4.0)
+                    .forEach(e -> e.setSalary(e.getSalary() + 0.01));
+            return employees.get(0).getSalary();
+        }
+        scan.add(salaries, size, scan.selectRange(ratings, size, 4.0, Double.POSITIVE_INFINITY), 0.01);
+        return salaries[0];
+    }
+}
@@ -0,0 +1,66 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import model.Employee;
+
+// Deterministic, realistic-looking employees for benchmarks: varied names, the UI's six
+// departments with uneven head counts, log-normal salaries and ratings clustered around 3.5.
+public final class SyntheticEmployees {
+    public static final String[] DEPARTMENTS =
+            {"Quality Assurance", "Frontend", "Finance", "Operations", "Backend", "DevOPs"};
+    private static final double[] DEPARTMENT_WEIGHTS = {0.12, 0.22, 0.10, 0.14, 0.32, 0.10};
+    private static final String[] FIRST_NAMES = {
+            "James", "Mary", "Robert", "Patricia", "John", "Jennifer", "Michael", "Linda", "David",
+            "Elizabeth", "William", "Barbara", "Richard", "Susan", "Joseph", "Jessica", "Thomas", "Sarah",
+            "Priya", "Wei", "Ahmed", "Fatima", "Hiroshi", "Yuki", "Carlos", "Lucia", "Olusegun", "Amara",
+            "Dmitri", "Anya", "Rahul", "Ananya", "Kwame", "Efua", "Mateo", "Sofia", "Lars", "Ingrid"};
+    private static final String[] LAST_NAMES = {
+            "Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller", "Davis", "Rodriguez",
+            "Martinez", "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson", "Thomas", "Taylor", "Moore",
+            "Patel", "Chen", "Khan", "Nakamura", "Okafor", "Ivanova", "Sharma", "Mensah", "Silva", "Larsen",
+            "Kowalski", "Novak", "Haddad", "Kim", "Nguyen", "Schmidt", "Rossi", "Dubois", "Murphy", "Cohen"};
+
+    private SyntheticEmployees() {
+    }
+
+    public static List<Employee<Integer>> generate(int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<Employee<Integer>> employees = new ArrayList<>(count);
+        for (int id = 0; id < count; id++) {
+            employees.add(next(random, id));
+        }
+        return employees;
+    }
+
+    public static Employee<Integer> next(SplittableRandom random, int id) {
+        String name = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+                + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+        String department = department(random.nextDouble());
+        int experience = (int) Math.min(40, Math.abs(gaussian(random) * 8));
+        double salary = Math.round(Math.exp(11.0 + 0.35 * gaussian(random)) * (1 + experience * 0.015));
+        double rating = Math.round(Math.max(0, Math.min(5, 3.5 + 0.8 * gaussian(random))) * 10) / 10.0;
+        boolean active = random.nextInt(100) < 93;
+        return new Employee<>(id, name, department, salary, rating, experience, active);
+    }
+
+    private static String department(double u) {
+        double cumulative = 0;
+        for (int i = 0; i < DEPARTMENTS.length; i++) {
+            cumulative += DEPARTMENT_WEIGHTS[i];
+            if (u < cumulative) {
+                return DEPARTMENTS[i];
+            }
+        }
+        return DEPARTMENTS[DEPARTMENTS.length - 1];
+    }
+
+    // Box-Muller; SplittableRandom has no nextGaussian() on Java 17
+    private static double gaussian(SplittableRandom random) {
+        double u1 = 1.0 - random.nextDouble();
+        double u2 = random.nextDouble();
+        return Math.sqrt(-2 * Math.log(u1)) * Math.cos(2 * Math.PI * u2);
+    }
+}
@@ -0,0 +1,44 @@
+package database;
+
+// Point-in-time hit and miss counts for one query cached by a CachingEmployeeDatabase.
+// Stale lookups found an entry that a later write had invalidated; they count as misses too.
+public final class CacheStatistics {
+    private final String operation;
+    private final long hits;
+    private final long misses;
+    private final long stale;
+
+    CacheStatistics(String operation, long hits, long misses, long stale) {
+        this.operation = operation;
+        this.hits = hits;
+        this.misses = misses;
+        this.stale = stale;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getStale() {
+        return stale;
+    }
+
+    // 0 before the first lookup
+    public double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s hits=%d misses=%d (stale=%d) hitRate=%.1f%%", operation, hits, misses, stale, 100 * getHitRate());
+    }
+}
@@ -0,0 +1,390 @@
+package database;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import aggregate.DepartmentSummary;
+import metrics.DatabaseMetrics.Operation;
+import model.DepartmentAliases;
+import model.DepartmentDictionary;
+import model.Employee;
+import model.EmployeeField;
+import model.ImmutableEmployee;
+import utility.BoundedCache;
+
+// Decorator that caches the results of the dashboard queries of another EmployeeDatabase:
+// searchByDepartment, filterByPerformance, filterBySalaryRange and getTopPaid. Everything
+// else, writes included, goes straight to the delegate.
+// Invalidation is by version counter, driven by the delegate's change feed, so it also covers
+// writes made to the delegate directly. A write through the decorator that throws publishes no
+// events but may have changed something first, so it makes every cached result stale. Every write bumps the global version and stamps each
+// department it touched (before and after the change) with it. A department search stays valid
+// until its own department is stamped, so a salary edit in Finance leaves cached Backend results
+// alone; the other queries span every department and are valid for one global version only.
+// Departments are tracked by DepartmentDictionary code, and a department search also goes
+// stale when the delegate's DepartmentAliases change, since a merge changes which employees a
+// name finds.
+// A result is tagged with the version read before running its query, so a write that lands
+// while it runs makes it stale rather than the cache wrong: once a write has returned, no
+// result computed before it is served again.
+// Entries hold ImmutableEmployee copies, so neither a write to the delegate nor a caller can
+// change a cached row in place; cached queries return those copies, hit or miss.
+// Thread safety is the delegate's for the queries; the cache itself is safe to share.
+public class CachingEmployeeDatabase<T> extends EmployeeDatabase<T> {
+    public static final int DEFAULT_CAPACITY = 256;
+
+    private final EmployeeDatabase<T> delegate;
+    private final BoundedCache<List<Object>, Entry<T>> cache;
+    private final AtomicLong version = new AtomicLong();
+    // Department code -> version of the last write that touched it
+    private final Map<Integer, Long> departmentVersions = new ConcurrentHashMap<>();
+    // Results tagged before this version are stale whatever they depend on
+    private volatile long validFrom;
+    private final Map<Operation, Counters> counters = new EnumMap<>(Operation.class);
+    private final ChangeFeed.Subscription subscription;
+    private volatile boolean closed;
+
+    public CachingEmployeeDatabase(EmployeeDatabase<T> delegate) {
+        this(delegate, DEFAULT_CAPACITY, BoundedCache.Eviction.LRU);
+    }
+
+    public CachingEmployeeDatabase(EmployeeDatabase<T> delegate, int capacity, BoundedCache.Eviction eviction) {
+        super(Storage.EXTERNAL);
+        if (delegate == null) {
+            throw new IllegalArgumentException("Database cannot be null");
+        }
+        this.delegate = delegate;
+        this.cache = new BoundedCache<>(capacity, eviction);
+        for (Operation operation : new Operation[] {Operation.SEARCH_BY_DEPARTMENT, Operation.FILTER_BY_PERFORMANCE,
+                Operation.FILTER_BY_SALARY_RANGE, Operation.GET_TOP_PAID}) {
+            counters.put(operation, new Counters());
+        }
+        this.subscription = delegate.changes().subscribe(this::invalidate);
+    }
+
+    public EmployeeDatabase<T> getDelegate() {
+        return delegate;
+    }
+
+    // One entry per cached query, in Operation order
+    public List<CacheStatistics> getCacheStatistics() {
+        List<CacheStatistics> result = new ArrayList<>(counters.size());
+        for (Map.Entry<Operation, Counters> entry : counters.entrySet()) {
+            Counters c = entry.getValue();
+            result.add(new CacheStatistics(entry.getKey().toString(), c.hits.sum(), c.misses.sum(), c.stale.sum()));
+        }
+        return result;
+    }
+
+    public int getCacheSize() {
+        return cache.size();
+    }
+
+    public long getCacheEvictions() {
+        return cache.evictions();
+    }
+
+    public void clearCache() {
+        cache.clear();
+    }
+
+    // Stops listening to the delegate and drops every entry; the decorator keeps working as a
+    // pass-through. Needed only to discard the decorator while the delegate lives on.
+    public void close() {
+        closed = true;
+        subscription.close();
+        cache.clear();
+    }
+
+    @Override
+    public List<Employee<T>> searchByDepartment(String department) {
+        if (department == null || department.isBlank()) {
+            return delegate.searchByDepartment(department);
+        }
+        DepartmentAliases aliases = delegate.getDepartmentAliases();
+        long dictionaryVersion = aliases.version();
+        int code = aliases.lookup(department);
+        return cached(Operation.SEARCH_BY_DEPARTMENT, code, dictionaryVersion,
+                List.of(Operation.SEARCH_BY_DEPARTMENT, department.toLowerCase(Locale.ROOT)),
+                () -> delegate.searchByDepartment(department));
+    }
+
+    @Override
+    public List<Employee<T>> filterByPerformance(double minRating) {
+        return cached(Operation.FILTER_BY_PERFORMANCE, null, 0, List.of(Operation.FILTER_BY_PERFORMANCE, minRating),
+                () -> delegate.filterByPerformance(minRating));
+    }
+
+    @Override
+    public List<Employee<T>> filterBySalaryRange(double min, double max) {
+        return cached(Operation.FILTER_BY_SALARY_RANGE, null, 0, List.of(Operation.FILTER_BY_SALARY_RANGE, min, max),
+                () -> delegate.filterBySalaryRange(min, max));
+    }
+
+    @Override
+    public List<Employee<T>> getTopPaid(int limit) {
+        return cached(Operation.GET_TOP_PAID, null, 0, List.of(Operation.GET_TOP_PAID, limit),
+                () -> delegate.getTopPaid(limit));
+    }
+
+    @Override
+    public void addEmployee(Employee<T> employee) {
+        write(() -> delegate.addEmployee(employee));
+    }
+
+    @Override
+    public void addEmployees(Collection<? extends Employee<T>> employees) {
+        write(() -> delegate.addEmployees(employees));
+    }
+
+    @Override
+    public void removeEmployee(T employeeId) {
+        write(() -> delegate.removeEmployee(employeeId));
+    }
+
+    @Override
+    public void updateEmployeeDetails(T employeeId, String field, Object newValue) {
+        write(() -> delegate.updateEmployeeDetails(employeeId, field, newValue));
+    }
+
+    @Override
+    public <V> void update(T employeeId, EmployeeField<V> field, V value) {
+        write(() -> delegate.update(employeeId, field, value));
+    }
+
+    @Override
+    public void updateEmployees(EmployeeUpdateBatch<T> batch) {
+        write(() -> delegate.updateEmployees(batch));
+    }
+
+    @Override
+    public void raiseSalary(T employeeId, double raiseAmount) {
+        write(() -> delegate.raiseSalary(employeeId, raiseAmount));
+    }
+
+    @Override
+    public void giveRaise(double minRating, double raiseAmount) {
+        write(() -> delegate.giveRaise(minRating, raiseAmount));
+    }
+
+    // The relabelled employees invalidate like any write; department searches also see the
+    // aliases' version change
+    @Override
+    public void renameDepartment(String department, String newName) {
+        write(() -> delegate.renameDepartment(department, newName));
+    }
+
+    @Override
+    public void mergeDepartments(String department, String into) {
+        write(() -> delegate.mergeDepartments(department, into));
+    }
+
+    @Override
+    public DepartmentAliases getDepartmentAliases() {
+        return delegate.getDepartmentAliases();
+    }
+
+    @Override
+    public List<Employee<T>> getAllEmployees() {
+        return delegate.getAllEmployees();
+    }
+
+    @Override
+    public List<Employee<T>> searchByName(String name) {
+        return delegate.searchByName(name);
+    }
+
+    @Override
+    public List<Employee<T>> search(String query) {
+        return delegate.search(query);
+    }
+
+    @Override
+    public int size() {
+        return delegate.size();
+    }
+
+    @Override
+    public int count(String filter) {
+        return delegate.count(filter);
+    }
+
+    @Override
+    public List<Employee<T>> getPage(String filter, SortKey sortKey, boolean ascending, int offset, int limit) {
+        return delegate.getPage(filter, sortKey, ascending, offset, limit);
+    }
+
+    @Override
+    public int positionOf(String filter, SortKey sortKey, boolean ascending, Employee<T> employee) {
+        return delegate.positionOf(filter, sortKey, ascending, employee);
+    }
+
+    @Override
+    protected List<Employee<T>> executeQuery(EmployeeQuery<T> query) {
+        return delegate.executeQuery(query);
+    }
+
+    @Override
+    protected int countQuery(EmployeeQuery<T> query) {
+        return delegate.countQuery(query);
+    }
+
+    @Override
+    protected QueryPlan planQuery(EmployeeQuery<T> query) {
+        return delegate.planQuery(query);
+    }
+
+    @Override
+    public Iterator<Employee<T>> getIterator() {
+        return delegate.getIterator();
+    }
+
+    @Override
+    public EmployeeSnapshot<T> readSnapshot() {
+        return delegate.readSnapshot();
+    }
+
+    @Override
+    public ChangeFeed<T> changes() {
+        return delegate.changes();
+    }
+
+    @Override
+    public List<Employee<T>> sortBySalary() {
+        return delegate.sortBySalary();
+    }
+
+    @Override
+    public List<Employee<T>> sortByPerformance() {
+        return delegate.sortByPerformance();
+    }
+
+    @Override
+    public List<Employee<T>> getTopPerformers(int limit) {
+        return delegate.getTopPerformers(limit);
+    }
+
+    @Override
+    public List<Employee<T>> getTop(int limit, Comparator<Employee<T>> order) {
+        return delegate.getTop(limit, order);
+    }
+
+    @Override
+    public double getAverageSalary(String department) {
+        return delegate.getAverageSalary(department);
+    }
+
+    @Override
+    public DepartmentSummary getDepartmentSummary(String department) {
+        return delegate.getDepartmentSummary(department);
+    }
+
+    @Override
+    public List<DepartmentSummary> getDepartmentSummaries() {
+        return delegate.getDepartmentSummaries();
+    }
+
+    @Override
+    public Map<String, Integer> getIndexSizes() {
+        return delegate.getIndexSizes();
+    }
+
+    // department is the code a department search depends on (NONE for an unknown name) and
+    // dictionaryVersion the dictionary version it was resolved at; null for the global queries.
+    // Callers get their own copy of the list; the employees in it are read-only copies.
+    private List<Employee<T>> cached(Operation operation, Integer department, long dictionaryVersion,
+                                     List<Object> key, Supplier<List<Employee<T>>> query) {
+        if (closed) {
+            return query.get();
+        }
+        Counters c = counters.get(operation);
+        long current = version.get();
+        Entry<T> entry = cache.get(key);
+        if (entry != null) {
+            if (isCurrent(entry, current)) {
+                c.hits.increment();
+                return new ArrayList<>(entry.rows);
+            }
+            c.stale.increment();
+            cache.remove(key, entry);
+        }
+        c.misses.increment();
+        List<Employee<T>> rows = new ArrayList<>();
+        for (Employee<T> emp : query.get()) {
+            rows.add(ImmutableEmployee.copyOf(emp));
+        }
+        cache.put(key, new Entry<>(Collections.unmodifiableList(rows), current, department, dictionaryVersion));
+        return new ArrayList<>(rows);
+    }
+
+    private boolean isCurrent(Entry<T> entry, long current) {
+        if (entry.version < validFrom) {
+            return false;
+        }
+        if (entry.department == null) {
+            return entry.version == current;
+        }
+        return entry.dictionaryVersion == delegate.getDepartmentAliases().version()
+                && departmentVersions.getOrDefault(entry.department, 0L) <= entry.version;
+    }
+
+    // Called on the writing thread once the write is visible. Departments are stamped with the
+    // version that is about to be published, before publishing it: a query tagged with that
+    // version or later read it after the write became visible, so its result includes the write.
+    private void invalidate(List<ChangeEvent<T>> events) {
+        long next = version.get() + 1;
+        for (ChangeEvent<T> event : events) {
+            stamp(event.getBefore(), next);
+            stamp(event.getAfter(), next);
+        }
+        version.incrementAndGet();
+    }
+
+    // Runs a write on the delegate; if it throws, invalidates everything, as whatever it changed
+    // before failing was never published
+    private void write(Runnable write) {
+        try {
+            write.run();
+        } catch (RuntimeException | Error e) {
+            validFrom = version.incrementAndGet();
+            throw e;
+        }
+    }
+
+    private void stamp(Employee<T> emp, long next) {
+        if (emp != null && emp.getDepartmentCode() != DepartmentDictionary.NONE) {
+            departmentVersions.merge(delegate.getDepartmentAliases().canonical(emp.getDepartmentCode()), next, Math::max);
+        }
+    }
+
+    private static final class Entry<T> {
+        private final List<Employee<T>> rows;
+        private final long version;
+        private final Integer department;
+        private final long dictionaryVersion;
+
+        private Entry(List<Employee<T>> rows, long version, Integer department, long dictionaryVersion) {
+            this.rows = rows;
+            this.version = version;
+            this.department = department;
+            this.dictionaryVersion = dictionaryVersion;
+        }
+    }
+
+    private static final class Counters {
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder stale = new LongAdder();
+    }
+}
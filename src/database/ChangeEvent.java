@@ -0,0 +1,91 @@
+package database;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+
+import model.EmployeeField;
+import model.ImmutableEmployee;
+
+// One change to one employee, as published by a database's ChangeFeed. before and after are
+// read-only copies of the employee around the change: an INSERT has no before, a DELETE no
+// after. An UPDATE lists the fields that actually differ (never none: writes that change
+// nothing publish no event); INSERT and DELETE list no fields.
+// Sequence numbers count up by one per event, in the order the changes were applied.
+public final class ChangeEvent<T> {
+    public enum Type {
+        INSERT,
+        UPDATE,
+        DELETE
+    }
+
+    private final long sequence;
+    private final Type type;
+    private final ImmutableEmployee<T> before;
+    private final ImmutableEmployee<T> after;
+    private final Set<EmployeeField<?>> changedFields;
+
+    private ChangeEvent(long sequence, Type type, ImmutableEmployee<T> before, ImmutableEmployee<T> after,
+                        Set<EmployeeField<?>> changedFields) {
+        this.sequence = sequence;
+        this.type = type;
+        this.before = before;
+        this.after = after;
+        this.changedFields = changedFields;
+    }
+
+    // The event turning before into after (either may be null), or null when nothing changed
+    static <T> ChangeEvent<T> between(ImmutableEmployee<T> before, ImmutableEmployee<T> after, ChangeFeed<T> feed) {
+        if (before == null && after == null) {
+            return null;
+        }
+        if (before == null) {
+            return new ChangeEvent<>(feed.nextSequence(), Type.INSERT, null, after, Collections.emptySet());
+        }
+        if (after == null) {
+            return new ChangeEvent<>(feed.nextSequence(), Type.DELETE, before, null, Collections.emptySet());
+        }
+        Set<EmployeeField<?>> changed = new LinkedHashSet<>();
+        for (EmployeeField<?> field : EmployeeField.values()) {
+            if (!Objects.equals(field.get(before), field.get(after))) {
+                changed.add(field);
+            }
+        }
+        return changed.isEmpty() ? null
+                : new ChangeEvent<>(feed.nextSequence(), Type.UPDATE, before, after, Collections.unmodifiableSet(changed));
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public T getEmployeeId() {
+        return after != null ? after.getEmployeeId() : before.getEmployeeId();
+    }
+
+    public ImmutableEmployee<T> getBefore() {
+        return before;
+    }
+
+    public ImmutableEmployee<T> getAfter() {
+        return after;
+    }
+
+    public Set<EmployeeField<?>> getChangedFields() {
+        return changedFields;
+    }
+
+    public boolean changed(EmployeeField<?> field) {
+        return changedFields.contains(field);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("#%d %s %s%s", sequence, type, getEmployeeId(), changedFields.isEmpty() ? "" : " " + changedFields);
+    }
+}
@@ -0,0 +1,210 @@
+package database;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Change data capture for one database (EmployeeDatabase.changes()): every write that changes
+// something publishes one INSERT, UPDATE or DELETE event per employee it touched, in the order
+// the changes were applied. Nothing is captured while nobody is subscribed.
+// Synchronous subscribers are called on the writing thread, once per operation, after the
+// change is visible to readers. The writer may still hold the database's locks, so they must
+// be quick and must not call back into the database.
+// Asynchronous subscribers get their own daemon thread and a bounded buffer; they receive
+// events in batches of up to maxBatch and may use the database freely, except as noted for
+// BLOCK. When the buffer is full, BLOCK makes the writer wait for room (lossless; a BLOCK
+// listener must not wait for a database write, which could be the one waiting on it), and
+// DROP discards events and reports the gap through ChangeListener.onOverflow().
+// A listener that throws is logged and stays subscribed; the write it was told about stands.
+public final class ChangeFeed<T> {
+    public static final int DEFAULT_CAPACITY = 8192;
+    public static final int DEFAULT_MAX_BATCH = 512;
+
+    private static final Logger LOG = Logger.getLogger(ChangeFeed.class.getName());
+    private static final AtomicInteger THREADS = new AtomicInteger();
+
+    public enum Backpressure {
+        BLOCK,
+        DROP
+    }
+
+    public interface Subscription extends AutoCloseable {
+        // Stops delivery; an asynchronous subscriber still receives what was already queued
+        @Override
+        void close();
+    }
+
+    private final List<ChangeListener<T>> synchronous = new CopyOnWriteArrayList<>();
+    private final List<AsyncSubscriber> asynchronous = new CopyOnWriteArrayList<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private volatile boolean subscribed;
+
+    public Subscription subscribe(ChangeListener<T> listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener cannot be null");
+        }
+        synchronous.add(listener);
+        updateSubscribed();
+        return () -> {
+            synchronous.remove(listener);
+            updateSubscribed();
+        };
+    }
+
+    public Subscription subscribeAsync(ChangeListener<T> listener) {
+        return subscribeAsync(listener, DEFAULT_CAPACITY, DEFAULT_MAX_BATCH, Backpressure.BLOCK);
+    }
+
+    public Subscription subscribeAsync(ChangeListener<T> listener, int capacity, int maxBatch, Backpressure backpressure) {
+        if (listener == null || backpressure == null) {
+            throw new IllegalArgumentException("Listener and backpressure cannot be null");
+        }
+        if (capacity <= 0 || maxBatch <= 0) {
+            throw new IllegalArgumentException("Capacity and batch size must be positive");
+        }
+        AsyncSubscriber subscriber = new AsyncSubscriber(listener, capacity, maxBatch, backpressure);
+        asynchronous.add(subscriber);
+        updateSubscribed();
+        subscriber.thread.start();
+        return subscriber;
+    }
+
+    public boolean hasSubscribers() {
+        return subscribed;
+    }
+
+    // Sequence number of the last event published, 0 before the first
+    public long lastSequence() {
+        return sequence.get();
+    }
+
+    long nextSequence() {
+        return sequence.incrementAndGet();
+    }
+
+    // Queues events for the asynchronous subscribers. Callers publish under the lock that orders
+    // their writes, so every buffer receives events in sequence order.
+    void enqueue(List<ChangeEvent<T>> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        for (AsyncSubscriber subscriber : asynchronous) {
+            subscriber.offer(events);
+        }
+    }
+
+    // Hands events to the synchronous subscribers
+    void deliver(List<ChangeEvent<T>> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        List<ChangeEvent<T>> view = Collections.unmodifiableList(events);
+        for (ChangeListener<T> listener : synchronous) {
+            try {
+                listener.onChanges(view);
+            } catch (RuntimeException e) {
+                LOG.log(Level.WARNING, "Change listener failed", e);
+            }
+        }
+    }
+
+    // For engines that apply writes without a lock of their own: enqueue, then deliver
+    void publish(List<ChangeEvent<T>> events) {
+        enqueue(events);
+        deliver(events);
+    }
+
+    private void updateSubscribed() {
+        subscribed = !synchronous.isEmpty() || !asynchronous.isEmpty();
+    }
+
+    private final class AsyncSubscriber implements Subscription, Runnable {
+        private final ChangeListener<T> listener;
+        private final BlockingQueue<ChangeEvent<T>> queue;
+        private final int maxBatch;
+        private final Backpressure backpressure;
+        private final Thread thread;
+        private final AtomicLong dropped = new AtomicLong();
+        // Set on the first dropped event; from then on everything is dropped until the subscriber
+        // has caught up with the queue and been told about the gap
+        private volatile boolean overflowed;
+        private volatile boolean closed;
+
+        private AsyncSubscriber(ChangeListener<T> listener, int capacity, int maxBatch, Backpressure backpressure) {
+            this.listener = listener;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.maxBatch = maxBatch;
+            this.backpressure = backpressure;
+            this.thread = new Thread(this, "change-feed-" + THREADS.incrementAndGet());
+            this.thread.setDaemon(true);
+        }
+
+        private void offer(List<ChangeEvent<T>> events) {
+            for (ChangeEvent<T> event : events) {
+                if (closed) {
+                    return;
+                }
+                if (backpressure == Backpressure.DROP) {
+                    if (overflowed || !queue.offer(event)) {
+                        overflowed = true;
+                        dropped.incrementAndGet();
+                    }
+                    continue;
+                }
+                try {
+                    // Wakes up now and then to notice a close() while the buffer stays full
+                    while (!queue.offer(event, 100, TimeUnit.MILLISECONDS)) {
+                        if (closed) {
+                            return;
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            List<ChangeEvent<T>> batch = new ArrayList<>(maxBatch);
+            while (!closed || !queue.isEmpty()) {
+                try {
+                    ChangeEvent<T> first = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (first != null) {
+                        batch.add(first);
+                        queue.drainTo(batch, maxBatch - 1);
+                        listener.onChanges(Collections.unmodifiableList(new ArrayList<>(batch)));
+                        batch.clear();
+                    }
+                    if (overflowed && queue.isEmpty()) {
+                        // Reopen the buffer before reporting, so nothing is lost between the
+                        // subscriber's resync and the next event it receives
+                        overflowed = false;
+                        listener.onOverflow(dropped.getAndSet(0));
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                } catch (RuntimeException e) {
+                    batch.clear();
+                    LOG.log(Level.WARNING, "Change listener failed", e);
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            asynchronous.remove(this);
+            updateSubscribed();
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package database;
+
+import java.util.List;
+
+// Receives the change events of a database; see ChangeFeed for when and on which thread.
+@FunctionalInterface
+public interface ChangeListener<T> {
+    // Events in sequence order. The list is read-only.
+    void onChanges(List<ChangeEvent<T>> events);
+
+    // Only for asynchronous DROP subscriptions: dropped events were lost because the buffer was
+    // full. Called once everything queued before the gap was delivered; events after this call
+    // are delivered again, so re-reading the database here brings the subscriber back in sync.
+    default void onOverflow(long dropped) {
+    }
+}
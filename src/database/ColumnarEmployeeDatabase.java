@@ -0,0 +1,715 @@
+package database;
+import java.util.*;
+
+import ExceptionHandling.EmployeeNotFoundException;
+import aggregate.DepartmentSummary;
+import aggregate.RunningStatistics;
+import model.DepartmentAliases;
+import model.DepartmentDictionary;
+import model.Employee;
+import model.EmployeeField;
+import model.ImmutableEmployee;
+import scan.ScanKernels;
+import utility.EmployeePerformanceComparator;
+import utility.EmployeeSalaryComparator;
+import utility.PersistentHashMap;
+import utility.TopKSelector;
+
+// Struct-of-arrays storage engine: one primitive column per Employee attribute instead of
+// one Employee object (plus four boxed fields) per row. Departments are stored as their
+// DepartmentDictionary spelling codes.
+// Employees handed out by this database are live row views over the columns; employees
+// passed to addEmployee are copied into the columns and not retained.
+// Rows are kept dense: removing an employee moves the last row into the freed slot.
+// Salary, rating and department predicates, sums and bulk raises run as ScanKernels over
+// the columns (Vector API when available), producing row bitmaps before any view is made.
+public class ColumnarEmployeeDatabase<T> extends EmployeeDatabase<T> {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final ScanKernels KERNELS = ScanKernels.DEFAULT;
+
+    private final Map<T, Integer> rowById = new HashMap<>();
+    private int size;
+
+    private Object[] ids = new Object[INITIAL_CAPACITY];
+    private String[] names = new String[INITIAL_CAPACITY];
+    private int[] departmentCodes = new int[INITIAL_CAPACITY];
+    private double[] salaries = new double[INITIAL_CAPACITY];
+    private double[] ratings = new double[INITIAL_CAPACITY];
+    private int[] experience = new int[INITIAL_CAPACITY];
+    // isActive() per row: a null is a clear bit in activeKnown, so it matches neither
+    // active(true) nor active(false), as in EmployeeDatabase
+    private final BitSet active = new BitSet();
+    private final BitSet activeKnown = new BitSet();
+    private Row<T>[] views = newViewArray(INITIAL_CAPACITY);
+
+    public ColumnarEmployeeDatabase() {
+        super(Storage.EXTERNAL);
+    }
+
+    @Override
+    public void addEmployee(Employee<T> employee) {
+        if (employee == null) {
+            throw new IllegalArgumentException("Employee cannot be null");
+        }
+        writeInPlace(Collections.singletonList(employee.getEmployeeId()), () -> put(employee));
+    }
+
+    @Override
+    public void addEmployees(Collection<? extends Employee<T>> employees) {
+        List<T> employeeIds = new ArrayList<>(employees.size());
+        for (Employee<T> employee : employees) {
+            if (employee == null) {
+                throw new IllegalArgumentException("Employee cannot be null");
+            }
+            employeeIds.add(employee.getEmployeeId());
+        }
+        writeInPlace(employeeIds, () -> {
+            ensureCapacity(size + employees.size());
+            for (Employee<T> employee : employees) {
+                put(employee);
+            }
+        });
+    }
+
+    private void put(Employee<T> employee) {
+        Integer existing = rowById.get(employee.getEmployeeId());
+        int row;
+        if (existing != null) {
+            row = existing;
+        } else {
+            ensureCapacity(size + 1);
+            row = size++;
+            ids[row] = employee.getEmployeeId();
+            rowById.put(employee.getEmployeeId(), row);
+        }
+        names[row] = employee.getName();
+        departmentCodes[row] = DepartmentDictionary.intern(employee.getDepartment());
+        salaries[row] = employee.getSalary();
+        ratings[row] = employee.getPerformanceRating();
+        experience[row] = employee.getYearsOfExperience();
+        setActive(row, employee.isActive());
+    }
+
+    @Override
+    public void removeEmployee(T employeeId) {
+        if (!rowById.containsKey(employeeId)) {
+            throw new EmployeeNotFoundException("Employee with ID " + employeeId + " not found");
+        }
+        writeInPlace(Collections.singletonList(employeeId), () -> {
+            int row = rowById.remove(employeeId);
+            if (views[row] != null) {
+                views[row].detach();
+            }
+            int last = --size;
+            if (row != last) {
+                moveRow(last, row);
+            }
+            ids[last] = null;
+            names[last] = null;
+            views[last] = null;
+            active.clear(last);
+            activeKnown.clear(last);
+        });
+    }
+
+    @Override
+    public void updateEmployeeDetails(T employeeId, String field, Object newValue) {
+        try {
+            Employee<T> emp = view(rowOf(employeeId));
+            EmployeeField<?> descriptor = EmployeeField.forName(field);
+            if (descriptor == null) {
+                throw new IllegalArgumentException("Invalid field: " + field);
+            }
+            writeInPlace(Collections.singletonList(employeeId), () -> EmployeeUpdateBatch.assign(emp, descriptor, newValue));
+        } catch (ClassCastException e) {
+            throw new IllegalArgumentException("Invalid type for field " + field, e);
+        }
+    }
+
+    @Override
+    public void updateEmployees(EmployeeUpdateBatch<T> batch) {
+        for (T employeeId : batch.employeeIds()) {
+            rowOf(employeeId);
+        }
+        writeInPlace(batch.employeeIds(), () -> {
+            for (Map.Entry<T, Map<EmployeeField<?>, Object>> entry : batch.changes().entrySet()) {
+                Employee<T> emp = view(rowById.get(entry.getKey()));
+                for (Map.Entry<EmployeeField<?>, Object> change : entry.getValue().entrySet()) {
+                    EmployeeUpdateBatch.assign(emp, change.getKey(), change.getValue());
+                }
+            }
+        });
+    }
+
+    @Override
+    public void raiseSalary(T employeeId, double raiseAmount) {
+        int row = rowOf(employeeId);
+        double salary = Row.checkSalary(salaries[row] + raiseAmount);
+        writeInPlace(Collections.singletonList(employeeId), () -> salaries[row] = salary);
+    }
+
+    @Override
+    public List<Employee<T>> getAllEmployees() {
+        List<Employee<T>> result = new ArrayList<>(size);
+        for (int row = 0; row < size; row++) {
+            result.add(view(row));
+        }
+        return result;
+    }
+
+    @Override
+    public List<Employee<T>> searchByDepartment(String department) {
+        if (department == null || department.isBlank()) {
+            return Collections.emptyList();
+        }
+        int code = getDepartmentAliases().lookup(department);
+        if (code == DepartmentDictionary.NONE) {
+            return Collections.emptyList();
+        }
+        return views(KERNELS.selectCodes(departmentCodes, size, departmentSpellings(code)));
+    }
+
+    @Override
+    public List<Employee<T>> searchByName(String name) {
+        if (name == null || name.isBlank()) {
+            return Collections.emptyList();
+        }
+        String searchTerm = name.toLowerCase();
+        List<Employee<T>> result = new ArrayList<>();
+        for (int row = 0; row < size; row++) {
+            if (names[row].toLowerCase().contains(searchTerm)) {
+                result.add(view(row));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<Employee<T>> search(String query) {
+        if (query == null || query.isBlank()) {
+            return Collections.emptyList();
+        }
+        String searchTerm = query.toLowerCase(Locale.ROOT);
+        boolean[] departmentMatches = new boolean[DepartmentDictionary.spellingCount()];
+        for (int code = 0; code < departmentMatches.length; code++) {
+            departmentMatches[code] = DepartmentDictionary.spelling(code).toLowerCase(Locale.ROOT).contains(searchTerm);
+        }
+        List<Employee<T>> result = new ArrayList<>();
+        for (int row = 0; row < size; row++) {
+            if (departmentMatches[departmentCodes[row]]
+                    || names[row].toLowerCase(Locale.ROOT).contains(searchTerm)
+                    || String.valueOf(ids[row]).contains(searchTerm)) {
+                result.add(view(row));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<Employee<T>> filterByPerformance(double minRating) {
+        return views(KERNELS.selectRange(ratings, size, minRating, Double.POSITIVE_INFINITY));
+    }
+
+    @Override
+    public List<Employee<T>> filterBySalaryRange(double min, double max) {
+        return views(KERNELS.selectRange(salaries, size, min, max));
+    }
+
+    @Override
+    protected List<Employee<T>> executeQuery(EmployeeQuery<T> query) {
+        return QueryRunner.collect(query, candidates(query), false);
+    }
+
+    @Override
+    protected int countQuery(EmployeeQuery<T> query) {
+        return QueryRunner.count(query, candidates(query));
+    }
+
+    @Override
+    protected QueryPlan planQuery(EmployeeQuery<T> query) {
+        QueryPlan.AccessPath path = query.getEmployeeId() != null
+                ? QueryPlan.AccessPath.ID_LOOKUP : QueryPlan.AccessPath.COLUMN_BITMAP;
+        long rows = path == QueryPlan.AccessPath.ID_LOOKUP ? (rowById.containsKey(query.getEmployeeId()) ? 1 : 0) : size;
+        return new QueryPlan(path, rows, rows, describeOrdering(query, query.getSortKey(), false),
+                query.describeConditions(), Collections.singletonMap(path, (double) rows));
+    }
+
+    // No secondary indexes here: range, department and active conditions are applied one
+    // column at a time to a row bitmap, and only the surviving rows become views
+    private Iterable<Employee<T>> candidates(EmployeeQuery<T> query) {
+        if (query.getEmployeeId() != null) {
+            Integer row = rowById.get(query.getEmployeeId());
+            return row == null ? Collections.emptyList() : Collections.singletonList(view(row));
+        }
+        BitSet rows = new BitSet(size);
+        rows.set(0, size);
+        if (query.hasSalaryRange()) {
+            rows.and(BitSet.valueOf(KERNELS.selectRange(salaries, size, query.getMinSalary(), query.getMaxSalary())));
+        }
+        if (query.hasRatingRange()) {
+            rows.and(BitSet.valueOf(KERNELS.selectRange(ratings, size, query.getMinRating(), query.getMaxRating())));
+        }
+        if (query.hasExperienceRange()) {
+            int min = query.getMinExperience();
+            int max = query.getMaxExperience();
+            for (int row = 0; row < size; row++) {
+                if (experience[row] < min || experience[row] > max) {
+                    rows.clear(row);
+                }
+            }
+        }
+        if (query.getActive() != null) {
+            if (query.getActive()) {
+                rows.and(active);
+            } else {
+                rows.and(activeKnown);
+                rows.andNot(active);
+            }
+        }
+        for (String department : query.getDepartments()) {
+            int code = getDepartmentAliases().lookup(department);
+            if (code == DepartmentDictionary.NONE) {
+                return Collections.emptyList();
+            }
+            rows.and(BitSet.valueOf(KERNELS.selectCodes(departmentCodes, size, departmentSpellings(code))));
+        }
+        return () -> new Iterator<Employee<T>>() {
+            private int row = rows.nextSetBit(0);
+
+            @Override
+            public boolean hasNext() {
+                return row >= 0 && row < size;
+            }
+
+            @Override
+            public Employee<T> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Employee<T> emp = view(row);
+                row = rows.nextSetBit(row + 1);
+                return emp;
+            }
+        };
+    }
+
+    @Override
+    public Iterator<Employee<T>> getIterator() {
+        return Collections.unmodifiableList(getAllEmployees()).iterator();
+    }
+
+    // The columns are updated in place, so there is no older version to share: this copies
+    // every row, O(n), into a snapshot that is just as immutable as the other engines'
+    @Override
+    public EmployeeSnapshot<T> readSnapshot() {
+        PersistentHashMap.Builder<T, Employee<T>> builder = PersistentHashMap.<T, Employee<T>>empty().toBuilder();
+        for (int row = 0; row < size; row++) {
+            ImmutableEmployee<T> copy = ImmutableEmployee.copyOf(view(row));
+            builder.put(copy.getEmployeeId(), copy);
+        }
+        return new EmployeeSnapshot<>(builder.build());
+    }
+
+    @Override
+    public List<Employee<T>> sortBySalary() {
+        List<Employee<T>> result = getAllEmployees();
+        result.sort(new EmployeeSalaryComparator<>());
+        return result;
+    }
+
+    @Override
+    public List<Employee<T>> sortByPerformance() {
+        List<Employee<T>> result = getAllEmployees();
+        result.sort(new EmployeePerformanceComparator<>());
+        return result;
+    }
+
+    @Override
+    public void giveRaise(double minRating, double raiseAmount) {
+        long[] selection = KERNELS.selectRange(ratings, size, minRating, Double.POSITIVE_INFINITY);
+        if (ScanKernels.count(selection) == 0) {
+            return;
+        }
+        // Only a negative result is rejected, so the lowest selected salary decides for all
+        Row.checkSalary(KERNELS.min(salaries, size, selection) + raiseAmount);
+        List<T> raised = null;
+        if (changes().hasSubscribers()) {
+            raised = new ArrayList<>();
+            for (Employee<T> emp : views(selection)) {
+                raised.add(emp.getEmployeeId());
+            }
+        }
+        writeInPlace(raised, () -> KERNELS.add(salaries, size, selection, raiseAmount));
+    }
+
+    // As in EmployeeDatabase: the aliases change, then the department's rows are relabelled
+    @Override
+    public void renameDepartment(String department, String newName) {
+        checkRename(department, newName);
+        long[] selection = departmentRows(department);
+        writeInPlace(selectedIds(selection), () -> {
+            getDepartmentAliases().rename(department, newName);
+            relabel(selection, newName);
+        });
+    }
+
+    @Override
+    public void mergeDepartments(String department, String into) {
+        getDepartmentAliases().checkMerge(department, into);
+        long[] selection = departmentRows(department);
+        writeInPlace(selectedIds(selection), () -> {
+            DepartmentAliases aliases = getDepartmentAliases();
+            aliases.merge(department, into);
+            relabel(selection, aliases.name(aliases.lookup(into)));
+        });
+    }
+
+    @Override
+    public List<Employee<T>> getTopPaid(int limit) {
+        return getTop(limit, new EmployeeSalaryComparator<>());
+    }
+
+    @Override
+    public List<Employee<T>> getTopPerformers(int limit) {
+        return getTop(limit, new EmployeePerformanceComparator<>());
+    }
+
+    @Override
+    public List<Employee<T>> getTop(int limit, Comparator<Employee<T>> order) {
+        return TopKSelector.select(getAllEmployees(), limit, order);
+    }
+
+    @Override
+    public double getAverageSalary(String department) {
+        if (department == null) {
+            return 0;
+        }
+        int code = getDepartmentAliases().lookup(department);
+        if (code == DepartmentDictionary.NONE) {
+            return 0;
+        }
+        long[] selection = KERNELS.selectCodes(departmentCodes, size, departmentSpellings(code));
+        int count = ScanKernels.count(selection);
+        return count == 0 ? 0 : KERNELS.sum(salaries, size, selection) / count;
+    }
+
+    @Override
+    public DepartmentSummary getDepartmentSummary(String department) {
+        if (department == null) {
+            return null;
+        }
+        int code = getDepartmentAliases().lookup(department);
+        return code == DepartmentDictionary.NONE ? null : summarize().get(code);
+    }
+
+    @Override
+    public List<DepartmentSummary> getDepartmentSummaries() {
+        List<DepartmentSummary> result = new ArrayList<>();
+        for (DepartmentSummary summary : summarize()) {
+            if (summary != null) {
+                result.add(summary);
+            }
+        }
+        result.sort(Comparator.comparing(DepartmentSummary::getDepartment, String.CASE_INSENSITIVE_ORDER));
+        return result;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int count(String filter) {
+        return filter == null || filter.isBlank() ? size : search(filter).size();
+    }
+
+    // No secondary indexes; reports the distinct departments and spellings in the rows
+    @Override
+    public Map<String, Integer> getIndexSizes() {
+        BitSet departments = new BitSet();
+        BitSet spellings = new BitSet();
+        for (int row = 0; row < size; row++) {
+            spellings.set(departmentCodes[row]);
+            departments.set(getDepartmentAliases().department(departmentCodes[row]));
+        }
+        Map<String, Integer> sizes = new LinkedHashMap<>();
+        sizes.put("departments", departments.cardinality());
+        sizes.put("departmentSpellings", spellings.cardinality());
+        return sizes;
+    }
+
+    @Override
+    public int positionOf(String filter, SortKey sortKey, boolean ascending, Employee<T> employee) {
+        if (employee == null) {
+            throw new IllegalArgumentException("Employee cannot be null");
+        }
+        Comparator<Employee<T>> order = ascending ? sortKey.comparator() : sortKey.<T>comparator().reversed();
+        T id = employee.getEmployeeId();
+        int position = 0;
+        for (Employee<T> emp : filter == null || filter.isBlank() ? getAllEmployees() : search(filter)) {
+            if (order.compare(emp, employee) < 0 && !emp.getEmployeeId().equals(id)) {
+                position++;
+            }
+        }
+        return position;
+    }
+
+    // No ordered indexes here: every page is a bounded-heap top-(offset + limit) over the rows
+    @Override
+    public List<Employee<T>> getPage(String filter, SortKey sortKey, boolean ascending, int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("Offset and limit cannot be negative");
+        }
+        Comparator<Employee<T>> order = ascending ? sortKey.comparator() : sortKey.<T>comparator().reversed();
+        List<Employee<T>> candidates = filter == null || filter.isBlank() ? getAllEmployees() : search(filter);
+        List<Employee<T>> top = TopKSelector.select(candidates, (int) Math.min((long) offset + limit, Integer.MAX_VALUE), order);
+        return offset >= top.size() ? new ArrayList<>() : new ArrayList<>(top.subList(offset, top.size()));
+    }
+
+    // One pass over the salary, rating and department columns; indexed by department code
+    private List<DepartmentSummary> summarize() {
+        DepartmentAliases aliases = getDepartmentAliases();
+        int groups = DepartmentDictionary.departmentCount();
+        int[] groupOf = new int[DepartmentDictionary.spellingCount()];
+        for (int code = 0; code < groupOf.length; code++) {
+            groupOf[code] = aliases.department(code);
+        }
+        RunningStatistics[] salaryStats = new RunningStatistics[groups];
+        RunningStatistics[] ratingStats = new RunningStatistics[groups];
+        for (int row = 0; row < size; row++) {
+            int group = groupOf[departmentCodes[row]];
+            if (salaryStats[group] == null) {
+                salaryStats[group] = new RunningStatistics();
+                ratingStats[group] = new RunningStatistics();
+            }
+            salaryStats[group].add(salaries[row]);
+            ratingStats[group].add(ratings[row]);
+        }
+        List<DepartmentSummary> result = new ArrayList<>(groups);
+        for (int group = 0; group < groups; group++) {
+            result.add(salaryStats[group] == null ? null
+                    : new DepartmentSummary(aliases.name(group), salaryStats[group].snapshot(), ratingStats[group].snapshot()));
+        }
+        return result;
+    }
+
+    private int rowOf(T employeeId) {
+        Integer row = rowById.get(employeeId);
+        if (row == null) {
+            throw new EmployeeNotFoundException("Employee with ID " + employeeId + " not found");
+        }
+        return row;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T employeeId(int row) {
+        return (T) ids[row];
+    }
+
+    @Override
+    protected Employee<T> storedEmployee(T employeeId) {
+        Integer row = rowById.get(employeeId);
+        return row == null ? null : view(row);
+    }
+
+    private Row<T> view(int row) {
+        Row<T> view = views[row];
+        if (view == null) {
+            view = new Row<>(this, employeeId(row), row);
+            views[row] = view;
+        }
+        return view;
+    }
+
+    private Boolean active(int row) {
+        return activeKnown.get(row) ? active.get(row) : null;
+    }
+
+    private void setActive(int row, Boolean value) {
+        active.set(row, Boolean.TRUE.equals(value));
+        activeKnown.set(row, value != null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void moveRow(int from, int to) {
+        ids[to] = ids[from];
+        names[to] = names[from];
+        departmentCodes[to] = departmentCodes[from];
+        salaries[to] = salaries[from];
+        ratings[to] = ratings[from];
+        experience[to] = experience[from];
+        active.set(to, active.get(from));
+        activeKnown.set(to, activeKnown.get(from));
+        views[to] = views[from];
+        if (views[to] != null) {
+            views[to].row = to;
+        }
+        rowById.put((T) ids[to], to);
+    }
+
+    // The spelling codes that belong to the department, for matching the department column
+    private int[] departmentSpellings(int departmentCode) {
+        DepartmentAliases aliases = getDepartmentAliases();
+        int count = DepartmentDictionary.spellingCount();
+        int[] spellings = new int[count];
+        int matches = 0;
+        for (int code = 0; code < count; code++) {
+            if (aliases.department(code) == departmentCode) {
+                spellings[matches++] = code;
+            }
+        }
+        return Arrays.copyOf(spellings, matches);
+    }
+
+    private long[] departmentRows(String department) {
+        return KERNELS.selectCodes(departmentCodes, size, departmentSpellings(getDepartmentAliases().lookup(department)));
+    }
+
+    private void relabel(long[] selection, String department) {
+        int code = DepartmentDictionary.intern(department);
+        for (int word = 0; word < selection.length; word++) {
+            for (long bits = selection[word]; bits != 0; bits &= bits - 1) {
+                departmentCodes[word << 6 | Long.numberOfTrailingZeros(bits)] = code;
+            }
+        }
+    }
+
+    // IDs of the selected rows, for writeInPlace(); null while nobody listens
+    private List<T> selectedIds(long[] selection) {
+        if (!changes().hasSubscribers()) {
+            return null;
+        }
+        List<T> selected = new ArrayList<>();
+        for (Employee<T> emp : views(selection)) {
+            selected.add(emp.getEmployeeId());
+        }
+        return selected;
+    }
+
+    // Views of the selected rows, in row order
+    private List<Employee<T>> views(long[] selection) {
+        List<Employee<T>> result = new ArrayList<>(ScanKernels.count(selection));
+        for (int word = 0; word < selection.length; word++) {
+            for (long bits = selection[word]; bits != 0; bits &= bits - 1) {
+                result.add(view(word << 6 | Long.numberOfTrailingZeros(bits)));
+            }
+        }
+        return result;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= ids.length) {
+            return;
+        }
+        int capacity = Math.max(required, ids.length + (ids.length >> 1));
+        ids = Arrays.copyOf(ids, capacity);
+        names = Arrays.copyOf(names, capacity);
+        departmentCodes = Arrays.copyOf(departmentCodes, capacity);
+        salaries = Arrays.copyOf(salaries, capacity);
+        ratings = Arrays.copyOf(ratings, capacity);
+        experience = Arrays.copyOf(experience, capacity);
+        views = Arrays.copyOf(views, capacity);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Row<T>[] newViewArray(int capacity) {
+        return (Row<T>[]) new Row<?>[capacity];
+    }
+
+    // Live view of one row. Once its employee is removed the view keeps a detached copy
+    // of the last values so that callers still holding it can read them.
+    private static final class Row<T> extends Employee<T> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient ColumnarEmployeeDatabase<T> db;
+        private int row;
+        private Employee<T> detached;
+
+        private Row(ColumnarEmployeeDatabase<T> db, T employeeId, int row) {
+            super(employeeId);
+            this.db = db;
+            this.row = row;
+        }
+
+        private void detach() {
+            detached = new Employee<>(getEmployeeId(), getName(), getDepartment(), getSalary(),
+                    getPerformanceRating(), getYearsOfExperience(), isActive());
+        }
+
+        private static double checkSalary(double salary) {
+            return validateSalary(salary);
+        }
+
+        @Override
+        public String getName() {
+            return detached != null ? detached.getName() : db.names[row];
+        }
+
+        @Override
+        public void setName(String name) {
+            if (detached != null) detached.setName(name);
+            else db.names[row] = validateName(name);
+        }
+
+        @Override
+        public String getDepartment() {
+            return detached != null ? detached.getDepartment() : DepartmentDictionary.spelling(db.departmentCodes[row]);
+        }
+
+        @Override
+        public int getDepartmentCode() {
+            return detached != null ? detached.getDepartmentCode() : DepartmentDictionary.department(db.departmentCodes[row]);
+        }
+
+        @Override
+        public void setDepartment(String department) {
+            if (detached != null) detached.setDepartment(department);
+            else db.departmentCodes[row] = DepartmentDictionary.intern(validateDepartment(department));
+        }
+
+        @Override
+        public Double getSalary() {
+            return detached != null ? detached.getSalary() : db.salaries[row];
+        }
+
+        @Override
+        public void setSalary(Double salary) {
+            if (detached != null) detached.setSalary(salary);
+            else db.salaries[row] = validateSalary(salary);
+        }
+
+        @Override
+        public Double getPerformanceRating() {
+            return detached != null ? detached.getPerformanceRating() : db.ratings[row];
+        }
+
+        @Override
+        public void setPerformanceRating(Double performanceRating) {
+            if (detached != null) detached.setPerformanceRating(performanceRating);
+            else db.ratings[row] = validatePerformanceRating(performanceRating);
+        }
+
+        @Override
+        public Integer getYearsOfExperience() {
+            return detached != null ? detached.getYearsOfExperience() : db.experience[row];
+        }
+
+        @Override
+        public void setYearsOfExperience(Integer yearsOfExperience) {
+            if (detached != null) detached.setYearsOfExperience(yearsOfExperience);
+            else db.experience[row] = validateYearsOfExperience(yearsOfExperience);
+        }
+
+        @Override
+        public Boolean isActive() {
+            return detached != null ? detached.isActive() : db.active(row);
+        }
+
+        @Override
+        public void setActive(Boolean active) {
+            if (detached != null) detached.setActive(active);
+            else db.setActive(row, active);
+        }
+    }
+}
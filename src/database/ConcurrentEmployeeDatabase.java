@@ -0,0 +1,130 @@
+package database;
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantLock;
+
+import model.Employee;
+import model.EmployeeField;
+
+// Thread-safe EmployeeDatabase built on striped write locks.
+// Single-employee writes lock only the stripe owning that ID, so writers on different
+// employees run in parallel. Bulk raises lock every stripe and are therefore atomic
+// with respect to all other writes. Queries take none of these locks: they read the
+// thread-safe map and indexes directly, each index guarding itself with short locks of its
+// own, so a query never holds up writers for longer than one index read.
+// Queries are therefore weakly consistent: one that runs alongside a write may see it
+// applied to one index and not yet to another, or see part of a bulk raise, but never lists
+// an employee twice. readSnapshot() and getIterator() are the consistent view: they read the
+// latest published version, which always reflects whole operations.
+public class ConcurrentEmployeeDatabase<T> extends EmployeeDatabase<T> {
+    private static final int DEFAULT_STRIPES = 64;
+
+    private final ReentrantLock[] stripes;
+    private final int stripeMask;
+
+    public ConcurrentEmployeeDatabase() {
+        this(DEFAULT_STRIPES);
+    }
+
+    public ConcurrentEmployeeDatabase(int stripeCount) {
+        super(true);
+        if (stripeCount <= 0) {
+            throw new IllegalArgumentException("Stripe count must be positive");
+        }
+        int size = 1;
+        while (size < stripeCount) {
+            size <<= 1;
+        }
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.stripeMask = size - 1;
+    }
+
+    @Override
+    public void addEmployee(Employee<T> employee) {
+        if (employee == null) {
+            throw new IllegalArgumentException("Employee cannot be null");
+        }
+        writeOne(employee.getEmployeeId(), () -> super.addEmployee(employee));
+    }
+
+    // One exclusive section per batch instead of one stripe lock per employee
+    @Override
+    public void addEmployees(Collection<? extends Employee<T>> employees) {
+        writeAll(() -> super.addEmployees(employees));
+    }
+
+    @Override
+    public void removeEmployee(T employeeId) {
+        writeOne(employeeId, () -> super.removeEmployee(employeeId));
+    }
+
+    @Override
+    public void updateEmployeeDetails(T employeeId, String field, Object newValue) {
+        writeOne(employeeId, () -> super.updateEmployeeDetails(employeeId, field, newValue));
+    }
+
+    // A single-field update only needs its own stripe
+    @Override
+    public <V> void update(T employeeId, EmployeeField<V> field, V value) {
+        EmployeeUpdateBatch<T> batch = new EmployeeUpdateBatch<T>().set(employeeId, field, value);
+        writeOne(employeeId, () -> super.updateEmployees(batch));
+    }
+
+    // Exclusive over every stripe so no other write interleaves with the batch
+    @Override
+    public void updateEmployees(EmployeeUpdateBatch<T> batch) {
+        writeAll(() -> super.updateEmployees(batch));
+    }
+
+    @Override
+    public void raiseSalary(T employeeId, double raiseAmount) {
+        writeOne(employeeId, () -> super.raiseSalary(employeeId, raiseAmount));
+    }
+
+    @Override
+    public void giveRaise(double minRating, double raiseAmount) {
+        writeAll(() -> super.giveRaise(minRating, raiseAmount));
+    }
+
+    @Override
+    public void renameDepartment(String department, String newName) {
+        writeAll(() -> super.renameDepartment(department, newName));
+    }
+
+    @Override
+    public void mergeDepartments(String department, String into) {
+        writeAll(() -> super.mergeDepartments(department, into));
+    }
+
+    private ReentrantLock stripeFor(Object employeeId) {
+        int h = employeeId == null ? 0 : employeeId.hashCode();
+        return stripes[(h ^ (h >>> 16)) & stripeMask];
+    }
+
+    private void writeOne(T employeeId, Runnable action) {
+        ReentrantLock lock = stripeFor(employeeId);
+        lock.lock();
+        try {
+            action.run();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Stripes are always acquired in index order, so writers cannot deadlock.
+    private void writeAll(Runnable action) {
+        int locked = 0;
+        try {
+            for (; locked < stripes.length; locked++) {
+                stripes[locked].lock();
+            }
+            action.run();
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                stripes[i].unlock();
+            }
+        }
+    }
+}
@@ -1,20 +1,130 @@
 package database;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
 
 import ExceptionHandling.EmployeeNotFoundException;
+import aggregate.DepartmentAggregates;
+import aggregate.DepartmentSummary;
+import index.DepartmentIndex;
+import index.RangeIndex;
+import index.TrigramIndex;
+import model.DepartmentAliases;
+import model.DepartmentDictionary;
 import model.Employee;
-import utility.EmployeePerformanceComparator;
-import utility.EmployeeSalaryComparator;
+import model.EmployeeField;
+import model.ImmutableEmployee;
+import utility.KeyCollections;
+import utility.PersistentHashMap;
+import utility.TopKSelector;
 
 public class EmployeeDatabase<T> {
-    private final Map<T, Employee<T>> employeeMap = new HashMap<>();
+    private final Map<T, Employee<T>> employeeMap;
+    // This database's department renames and merges
+    private final DepartmentAliases departmentAliases = new DepartmentAliases();
+
+    // Secondary indexes, kept in sync by every mutating method below
+    private final DepartmentIndex<T> departmentIndex;
+    private final RangeIndex<T> salaryIndex;
+    private final RangeIndex<T> ratingIndex;
+    private final RangeIndex<T> experienceIndex;
+    private final TrigramIndex<T> nameIndex;
+    private final TrigramIndex<T> idIndex;
+    // Every employee under the same key, so the order is ID order alone
+    private final RangeIndex<T> idOrder;
+    private final DepartmentAggregates<T> aggregates;
+    // Queries may run alongside writes, and an index scan can then meet an employee twice
+    private final boolean concurrent;
+    // Latest published version of every employee as an ImmutableEmployee, for readSnapshot().
+    // Writes only stage their copies in pendingVersions; the next readSnapshot() (or every
+    // FOLD_THRESHOLD writes, to bound the backlog) folds them into a new map that shares all
+    // unchanged nodes, under commitLock. A batch is staged as one entry, so no snapshot sees
+    // half of one.
+    private static final int FOLD_THRESHOLD = 1024;
+    // Range index shards for concurrent databases, so writers to different shards don't queue
+    private static final int INDEX_SHARDS = 16;
+    private volatile PersistentHashMap<T, Employee<T>> versions = PersistentHashMap.empty();
+    private final Queue<StagedVersion<T>> pendingVersions = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final ReentrantLock commitLock = new ReentrantLock();
+    private final ChangeFeed<T> changes = new ChangeFeed<>();
+
+    public EmployeeDatabase() {
+        this(false);
+    }
+
+    // concurrent = true backs the map and indexes with thread-safe structures;
+    // ConcurrentEmployeeDatabase adds the locking that makes whole operations atomic.
+    protected EmployeeDatabase(boolean concurrent) {
+        this(concurrent, concurrent ? KeyCollections.concurrent() : KeyCollections.hashed(), null);
+    }
+
+    // For single-threaded engines with IDs of their own kind (see IntEmployeeDatabase): every
+    // index keeps its per-employee entries in collections from ids, and employeeMap, which must
+    // be empty, is the primary store.
+    protected EmployeeDatabase(KeyCollections<T> ids, Map<T, Employee<T>> employeeMap) {
+        this(false, ids, employeeMap);
+    }
+
+    private EmployeeDatabase(boolean concurrent, KeyCollections<T> ids, Map<T, Employee<T>> employeeMap) {
+        this.concurrent = concurrent;
+        this.employeeMap = employeeMap != null ? employeeMap : ids.newMap();
+        this.departmentIndex = new DepartmentIndex<>(concurrent, ids, departmentAliases);
+        // Range index shards are locked one at a time, so their maps need not be concurrent
+        int indexShards = concurrent ? INDEX_SHARDS : 1;
+        KeyCollections<T> shardIds = concurrent ? KeyCollections.hashed() : ids;
+        this.salaryIndex = new RangeIndex<>(indexShards, shardIds);
+        this.ratingIndex = new RangeIndex<>(indexShards, shardIds);
+        this.experienceIndex = new RangeIndex<>(indexShards, shardIds);
+        this.nameIndex = new TrigramIndex<>(concurrent, ids);
+        this.idIndex = new TrigramIndex<>(concurrent, ids);
+        this.idOrder = new RangeIndex<>(indexShards, shardIds);
+        this.aggregates = new DepartmentAggregates<>(concurrent, ids, departmentAliases);
+    }
+
+    // For engines that keep employees in storage of their own and override every query and
+    // write (e.g. ColumnarEmployeeDatabase, or a decorator): no map or index is allocated, only
+    // the version history and change feed.
+    protected EmployeeDatabase(Storage storage) {
+        this.employeeMap = Collections.emptyMap();
+        this.departmentIndex = null;
+        this.salaryIndex = null;
+        this.ratingIndex = null;
+        this.experienceIndex = null;
+        this.nameIndex = null;
+        this.idIndex = null;
+        this.idOrder = null;
+        this.aggregates = null;
+        this.concurrent = false;
+    }
+
+    protected enum Storage {
+        EXTERNAL
+    }
 
     public void addEmployee(Employee<T> employee) {
         if (employee == null) {
             throw new IllegalArgumentException("Employee cannot be null");
         }
         employeeMap.put(employee.getEmployeeId(), employee);
+        indexEmployee(employee);
+        commit(Collections.singletonList(employee), null);
+    }
+
+    // Batch insert: validates the whole batch before touching the map or any index
+    public void addEmployees(Collection<? extends Employee<T>> employees) {
+        for (Employee<T> employee : employees) {
+            if (employee == null) {
+                throw new IllegalArgumentException("Employee cannot be null");
+            }
+        }
+        for (Employee<T> employee : employees) {
+            employeeMap.put(employee.getEmployeeId(), employee);
+        }
+        indexEmployees(employees);
+        commit(employees, null);
     }
 
     public void removeEmployee(T employeeId) {
@@ -22,6 +132,8 @@ public class EmployeeDatabase<T> {
             throw new EmployeeNotFoundException("Employee with ID " + employeeId + " not found");
         }
         employeeMap.remove(employeeId);
+        unindexEmployee(employeeId);
+        commit(Collections.emptyList(), employeeId);
     }
 
     public void updateEmployeeDetails(T employeeId, String field, Object newValue) {
@@ -31,20 +143,92 @@ public class EmployeeDatabase<T> {
                 throw new EmployeeNotFoundException("Employee with ID " + employeeId + " not found");
             }
 
-            switch (field.toLowerCase()) {
-                case "name" -> emp.setName((String) newValue);
-                case "department" -> emp.setDepartment((String) newValue);
-                case "salary" -> emp.setSalary((Double) newValue);
-                case "rating" -> emp.setPerformanceRating((Double) newValue);
-                case "experience" -> emp.setYearsOfExperience((Integer) newValue);
-                case "active" -> emp.setActive((Boolean) newValue);
-                default -> throw new IllegalArgumentException("Invalid field: " + field);
+            EmployeeField<?> descriptor = EmployeeField.forName(field);
+            if (descriptor == null) {
+                throw new IllegalArgumentException("Invalid field: " + field);
             }
+            EmployeeUpdateBatch.assign(emp, descriptor, newValue);
+            indexEmployee(emp);
+            commit(Collections.singletonList(emp), null);
         } catch (ClassCastException e) {
             throw new IllegalArgumentException("Invalid type for field " + field, e);
         }
     }
 
+    public <V> void update(T employeeId, EmployeeField<V> field, V value) {
+        updateEmployees(new EmployeeUpdateBatch<T>().set(employeeId, field, value));
+    }
+
+    // All or nothing: every employee is checked to exist before the first change is made (the
+    // values were validated when added to the batch), and each employee is reindexed once.
+    public void updateEmployees(EmployeeUpdateBatch<T> batch) {
+        for (T employeeId : batch.employeeIds()) {
+            if (!employeeMap.containsKey(employeeId)) {
+                throw new EmployeeNotFoundException("Employee with ID " + employeeId + " not found");
+            }
+        }
+        List<Employee<T>> changed = new ArrayList<>(batch.employeeCount());
+        for (Map.Entry<T, Map<EmployeeField<?>, Object>> entry : batch.changes().entrySet()) {
+            Employee<T> emp = employeeMap.get(entry.getKey());
+            for (Map.Entry<EmployeeField<?>, Object> change : entry.getValue().entrySet()) {
+                EmployeeUpdateBatch.assign(emp, change.getKey(), change.getValue());
+            }
+            changed.add(emp);
+        }
+        indexEmployees(changed);
+        commit(changed, null);
+    }
+
+    public void raiseSalary(T employeeId, double raiseAmount) {
+        Employee<T> emp = employeeMap.get(employeeId);
+        if (emp == null) {
+            throw new EmployeeNotFoundException("Employee with ID " + employeeId + " not found");
+        }
+        emp.setSalary(emp.getSalary() + raiseAmount);
+        salaryChanged(emp);
+        commit(Collections.singletonList(emp), null);
+    }
+
+    // The stored employee or null, for subclasses that check a write before making it
+    protected Employee<T> storedEmployee(T employeeId) {
+        return employeeMap.get(employeeId);
+    }
+
+    // For engines that overwrite employees in place and so cannot diff versions the way commit()
+    // does: runs the write between copies of the employees it may touch, as storedEmployee()
+    // returns them, and publishes one event per employee it changed, also when it then fails.
+    // Nothing is copied while nobody listens or when employeeIds is null.
+    protected void writeInPlace(Collection<T> employeeIds, Runnable write) {
+        if (employeeIds == null || !changes.hasSubscribers()) {
+            write.run();
+            return;
+        }
+        Map<T, ImmutableEmployee<T>> before = new LinkedHashMap<>();
+        for (T employeeId : employeeIds) {
+            if (!before.containsKey(employeeId)) {
+                before.put(employeeId, copyOfStored(employeeId));
+            }
+        }
+        try {
+            write.run();
+        } finally {
+            List<ChangeEvent<T>> events = new ArrayList<>(before.size());
+            for (Map.Entry<T, ImmutableEmployee<T>> entry : before.entrySet()) {
+                ChangeEvent<T> event = ChangeEvent.between(entry.getValue(), copyOfStored(entry.getKey()), changes);
+                if (event != null) {
+                    events.add(event);
+                }
+            }
+            changes.publish(events);
+        }
+    }
+
+    private ImmutableEmployee<T> copyOfStored(T employeeId) {
+        Employee<T> emp = storedEmployee(employeeId);
+        return emp == null ? null : ImmutableEmployee.copyOf(emp);
+    }
+
+    // Copies the list of employees; readers that only iterate should use readSnapshot()
     public List<Employee<T>> getAllEmployees() {
         return new ArrayList<>(employeeMap.values());
     }
@@ -53,86 +237,260 @@ public class EmployeeDatabase<T> {
         if (department == null || department.isBlank()) {
             return Collections.emptyList();
         }
-        return employeeMap.values().stream()
-                .filter(emp -> emp != null && emp.getDepartment() != null 
-                        && emp.getDepartment().equalsIgnoreCase(department))
-                .collect(Collectors.toList());
+        return lookup(departmentIndex.lookup(department));
     }
 
     public List<Employee<T>> searchByName(String name) {
         if (name == null || name.isBlank()) {
             return Collections.emptyList();
         }
-        String searchTerm = name.toLowerCase();
-        return employeeMap.values().stream()
-                .filter(emp -> emp != null && emp.getName() != null 
-                        && emp.getName().toLowerCase().contains(searchTerm))
-                .collect(Collectors.toList());
+        return lookup(nameIndex.search(name));
+    }
+
+    // Employees whose name, department or ID contains the query, ignoring case.
+    public List<Employee<T>> search(String query) {
+        if (query == null || query.isBlank()) {
+            return Collections.emptyList();
+        }
+        Set<T> ids = new LinkedHashSet<>(nameIndex.search(query));
+        ids.addAll(departmentIndex.containing(query));
+        ids.addAll(idIndex.search(query));
+        return lookup(ids);
     }
 
     public List<Employee<T>> filterByPerformance(double minRating) {
-        return employeeMap.values().stream()
-                .filter(emp -> emp != null && emp.getPerformanceRating() != null 
-                        && emp.getPerformanceRating() >= minRating)
-                .collect(Collectors.toList());
+        return lookup(ratingIndex.atLeast(minRating));
     }
 
     public List<Employee<T>> filterBySalaryRange(double min, double max) {
-        return employeeMap.values().stream()
-                .filter(emp -> emp != null && emp.getSalary() != null 
-                        && emp.getSalary() >= min && emp.getSalary() <= max)
-                .collect(Collectors.toList());
+        return lookup(salaryIndex.range(min, max));
+    }
+
+    public int size() {
+        return employeeMap.size();
+    }
+
+    // Number of rows getPage() pages through for this filter (null or blank = everyone).
+    public int count(String filter) {
+        return filter == null || filter.isBlank() ? employeeMap.size() : search(filter).size();
+    }
+
+    // One window of the employees matching filter (as in search(), null or blank = everyone),
+    // ordered by sortKey with ties on ID. Unfiltered ID, SALARY, RATING and EXPERIENCE pages are
+    // read by position from an ordered index in O(log n + limit), however deep the page;
+    // everything else is a bounded-heap top-(offset + limit).
+    public List<Employee<T>> getPage(String filter, SortKey sortKey, boolean ascending, int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("Offset and limit cannot be negative");
+        }
+        boolean filtered = filter != null && !filter.isBlank();
+        if (!filtered) {
+            RangeIndex<T> ordered = orderedIndex(sortKey);
+            if (ordered != null) {
+                return lookup(ordered.page(offset, limit, ascending));
+            }
+        }
+        Comparator<Employee<T>> order = ascending ? sortKey.comparator() : sortKey.<T>comparator().reversed();
+        Collection<Employee<T>> candidates = filtered ? search(filter) : employeeMap.values();
+        List<Employee<T>> top = TopKSelector.select(candidates, (int) Math.min((long) offset + limit, Integer.MAX_VALUE), order);
+        return offset >= top.size() ? new ArrayList<>() : new ArrayList<>(top.subList(offset, top.size()));
+    }
+
+    // Row the employee takes (or would take) in getPage()'s order for this view: the number of
+    // employees matching filter that order before it. The employee need not be stored or
+    // current, e.g. the old version of an updated or removed employee; its own ID is never
+    // counted. O(log n) where getPage() reads an ordered index, a scan of the matches otherwise.
+    public int positionOf(String filter, SortKey sortKey, boolean ascending, Employee<T> employee) {
+        if (employee == null) {
+            throw new IllegalArgumentException("Employee cannot be null");
+        }
+        Comparator<Employee<T>> order = ascending ? sortKey.comparator() : sortKey.<T>comparator().reversed();
+        T id = employee.getEmployeeId();
+        boolean filtered = filter != null && !filter.isBlank();
+        RangeIndex<T> ordered = filtered ? null : orderedIndex(sortKey);
+        if (ordered == null) {
+            int position = 0;
+            for (Employee<T> emp : filtered ? search(filter) : employeeMap.values()) {
+                if (order.compare(emp, employee) < 0 && !emp.getEmployeeId().equals(id)) {
+                    position++;
+                }
+            }
+            return position;
+        }
+        double key = switch (sortKey) {
+            case SALARY -> employee.getSalary();
+            case RATING -> employee.getPerformanceRating();
+            case EXPERIENCE -> employee.getYearsOfExperience();
+            default -> 0;
+        };
+        int position = ascending ? ordered.countBefore(key, id) : ordered.countAfter(key, id);
+        Employee<T> stored = employeeMap.get(id);
+        return stored != null && order.compare(stored, employee) < 0 ? position - 1 : position;
+    }
+
+    // Entry counts of the secondary indexes, for monitoring. Reads no locks: on a concurrent
+    // engine each figure is individually accurate but they are not taken at one instant.
+    public Map<String, Integer> getIndexSizes() {
+        Map<String, Integer> sizes = new LinkedHashMap<>();
+        sizes.put("departments", departmentIndex.departmentCount());
+        sizes.put("salary", salaryIndex.size());
+        sizes.put("rating", ratingIndex.size());
+        sizes.put("experience", experienceIndex.size());
+        sizes.put("nameTrigrams", nameIndex.trigramCount());
+        sizes.put("idTrigrams", idIndex.trigramCount());
+        return sizes;
+    }
+
+    // Fluent query with index selection, e.g. query().department("Backend").ratingAtLeast(4).list()
+    public EmployeeQuery<T> query() {
+        return new EmployeeQuery<>(this);
+    }
+
+    protected List<Employee<T>> executeQuery(EmployeeQuery<T> query) {
+        Access<T> access = choose(query, false);
+        return QueryRunner.collect(query, access.candidates, access.ordered);
     }
 
+    protected int countQuery(EmployeeQuery<T> query) {
+        return QueryRunner.count(query, choose(query, true).candidates);
+    }
+
+    protected QueryPlan planQuery(EmployeeQuery<T> query) {
+        return choose(query, false).plan;
+    }
+
+    // Consistent point-in-time view of every employee: O(1), lock-free and copy-free, and
+    // unaffected by later writes. See EmployeeSnapshot.
+    public EmployeeSnapshot<T> readSnapshot() {
+        // The count drops only once a fold has installed its map, so zero means nothing is missing
+        if (pendingCount.get() == 0) {
+            return new EmployeeSnapshot<>(versions);
+        }
+        commitLock.lock();
+        try {
+            foldPending();
+            return new EmployeeSnapshot<>(versions);
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    // Iterates a snapshot, so it never throws ConcurrentModificationException; the employees
+    // it returns are read-only copies
     public Iterator<Employee<T>> getIterator() {
-        return employeeMap.values().iterator();
+        return readSnapshot().iterator();
+    }
+
+    // Insert, update and delete events for every change made to this database, see ChangeFeed
+    public ChangeFeed<T> changes() {
+        return changes;
     }
 
+    // Highest salary first (EmployeeSalaryComparator order), ties on ID. Read off the salary
+    // index in O(n) instead of sorting; use getPage() to fetch one window of the order.
     public List<Employee<T>> sortBySalary() {
-        return employeeMap.values().stream()
-                .sorted(new EmployeeSalaryComparator<>())
-                .collect(Collectors.toList());
+        return lookup(salaryIndex.descending());
     }
 
+    // Highest rating first (EmployeePerformanceComparator order), ties on ID
     public List<Employee<T>> sortByPerformance() {
-        return employeeMap.values().stream()
-                .sorted(new EmployeePerformanceComparator<>())
-                .collect(Collectors.toList());
+        return lookup(ratingIndex.descending());
     }
 
     public void giveRaise(double minRating, double raiseAmount) {
-        employeeMap.values().stream()
-                .filter(emp -> emp != null && emp.getPerformanceRating() != null 
-                        && emp.getPerformanceRating() >= minRating)
-                .forEach(emp -> {
-                    double newSalary = emp.getSalary() + raiseAmount;
-                    emp.setSalary(newSalary);
-                    employeeMap.put(emp.getEmployeeId(), emp);
-                });
+        List<Employee<T>> raised = lookup(ratingIndex.atLeast(minRating));
+        // All or nothing: a salary the raise would make invalid fails the call before any changes
+        for (Employee<T> emp : raised) {
+            EmployeeField.SALARY.validate(emp.getSalary() + raiseAmount);
+        }
+        for (Employee<T> emp : raised) {
+            emp.setSalary(emp.getSalary() + raiseAmount);
+            salaryChanged(emp);
+        }
+        commit(raised, null);
+    }
+
+    // Department renames and merges apply to this database only. Its DepartmentAliases turns the
+    // old names into aliases at once; then the department's employees are relabelled with its
+    // current name as one batch, so snapshots taken before keep the old name and the change
+    // feed carries an update per employee. Old names keep finding the department, also for
+    // employees that join it under one later.
+    public void renameDepartment(String department, String newName) {
+        checkRename(department, newName);
+        List<T> members = new ArrayList<>(departmentIndex.lookup(department));
+        departmentAliases.rename(department, newName);
+        relabel(members, newName);
+    }
+
+    public void mergeDepartments(String department, String into) {
+        departmentAliases.checkMerge(department, into);
+        List<T> members = new ArrayList<>(departmentIndex.lookup(department));
+        departmentAliases.merge(department, into);
+        relabel(members, departmentAliases.name(departmentAliases.lookup(into)));
+    }
+
+    public DepartmentAliases getDepartmentAliases() {
+        return departmentAliases;
+    }
+
+    // The checks renameDepartment() makes, for engines that must know a rename will succeed
+    // before applying it (e.g. to log it first): the new name may not be another department's
+    protected void checkRename(String department, String newName) {
+        DepartmentAliases aliases = getDepartmentAliases();
+        aliases.checkRename(department, newName);
+        int target = aliases.lookup(newName);
+        if (target != DepartmentDictionary.NONE && target != aliases.lookup(department)
+                && (aliases.isAliased(target) || !searchByDepartment(newName).isEmpty())) {
+            throw new IllegalArgumentException("Department " + newName + " already exists; merge instead");
+        }
     }
 
+    private void relabel(Collection<T> employeeIds, String department) {
+        List<Employee<T>> changed = new ArrayList<>(employeeIds.size());
+        for (T id : employeeIds) {
+            Employee<T> emp = employeeMap.get(id);
+            if (emp != null && !department.equals(emp.getDepartment())) {
+                emp.setDepartment(department);
+                changed.add(emp);
+            }
+        }
+        if (!changed.isEmpty()) {
+            indexEmployees(changed);
+            commit(changed, null);
+        }
+    }
+
+    // Read straight off the salary index, which stays ordered through edits and raises: O(log n + limit)
     public List<Employee<T>> getTopPaid(int limit) {
-        return employeeMap.values().stream()
-                .filter(Objects::nonNull)
-                .sorted(new EmployeeSalaryComparator<>())
-                .limit(limit)
-                .collect(Collectors.toList());
+        return highest(salaryIndex, limit);
+    }
+
+    public List<Employee<T>> getTopPerformers(int limit) {
+        return highest(ratingIndex, limit);
+    }
+
+    // Ad-hoc top-K for any ordering, e.g. EmployeePerformanceComparator, via a bounded heap
+    public List<Employee<T>> getTop(int limit, Comparator<Employee<T>> order) {
+        return TopKSelector.select(employeeMap.values(), limit, order);
     }
 
     public double getAverageSalary(String department) {
-        return employeeMap.values().stream()
-                .filter(emp -> emp != null && emp.getDepartment() != null 
-                        && emp.getDepartment().equalsIgnoreCase(department))
-                .mapToDouble(Employee::getSalary)
-                .average()
-                .orElse(0);
+        DepartmentSummary summary = getDepartmentSummary(department);
+        return summary == null ? 0 : summary.getSalary().getAverage();
+    }
+
+    // Count, sum, min, max and variance of salary and rating, maintained on every mutation.
+    // Returns null for a department without employees.
+    public DepartmentSummary getDepartmentSummary(String department) {
+        return aggregates.summary(department);
+    }
+
+    public List<DepartmentSummary> getDepartmentSummaries() {
+        return aggregates.summaries();
     }
 
     public void applyRaiseToHighPerformers(double minRating, double raiseAmount) {
-        getAllEmployees().stream()
-            .filter(emp -> emp != null && emp.getPerformanceRating() != null 
-                    && emp.getPerformanceRating() >= minRating)
-            .forEach(emp -> emp.setSalary(emp.getSalary() + raiseAmount));
+        giveRaise(minRating, raiseAmount);
         System.out.printf("Raise of $%.2f applied to employees with rating ≥ %.1f.%n", raiseAmount, minRating);
     }
 
@@ -140,4 +498,353 @@ public class EmployeeDatabase<T> {
         double avg = getAverageSalary(department);
         System.out.printf("\nAverage Salary in %s Department: $%.2f%n", department, avg);
     }
-}
\ No newline at end of file
+
+    // Prices every access path that can serve the query and keeps the cheapest. Estimates are
+    // exact for ID and department lookups and for salary, rating and experience ranges (an
+    // O(log n) count on the ordered index), and an upper bound (shortest posting list) for names.
+    private Access<T> choose(EmployeeQuery<T> query, boolean counting) {
+        int n = employeeMap.size();
+        SortKey sortKey = counting ? null : query.getSortKey();
+        boolean ascending = query.isAscending();
+        List<Access<T>> options = new ArrayList<>();
+        options.add(new Access<>(QueryPlan.AccessPath.FULL_SCAN, n, false, employeeMap.values()));
+
+        T id = query.getEmployeeId();
+        if (id != null) {
+            Employee<T> emp = employeeMap.get(id);
+            options.add(new Access<>(QueryPlan.AccessPath.ID_LOOKUP, emp == null ? 0 : 1, false,
+                    emp == null ? Collections.emptyList() : Collections.singletonList(emp)));
+        }
+        if (!query.getDepartments().isEmpty()) {
+            Set<T> ids = departmentIndex.lookup(query.getDepartments().get(0));
+            options.add(new Access<>(QueryPlan.AccessPath.DEPARTMENT_INDEX, ids.size(), false, employees(ids)));
+        }
+        String fragment = null;
+        int fragmentRows = Integer.MAX_VALUE;
+        for (String candidate : query.getNameFragments()) {
+            int rows = nameIndex.estimate(candidate);
+            if (rows < fragmentRows) {
+                fragment = candidate;
+                fragmentRows = rows;
+            }
+        }
+        if (fragment != null) {
+            String chosen = fragment;
+            options.add(new Access<>(QueryPlan.AccessPath.NAME_INDEX, fragmentRows, false,
+                    employees(() -> nameIndex.search(chosen).iterator())));
+        }
+
+        if (query.hasSalaryRange() || sortKey == SortKey.SALARY) {
+            options.add(rangeAccess(QueryPlan.AccessPath.SALARY_INDEX, salaryIndex,
+                    query.getMinSalary(), query.getMaxSalary(), sortKey == SortKey.SALARY, ascending));
+        }
+        if (query.hasRatingRange() || sortKey == SortKey.RATING) {
+            options.add(rangeAccess(QueryPlan.AccessPath.RATING_INDEX, ratingIndex,
+                    query.getMinRating(), query.getMaxRating(), sortKey == SortKey.RATING, ascending));
+        }
+        if (query.hasExperienceRange() || sortKey == SortKey.EXPERIENCE) {
+            options.add(rangeAccess(QueryPlan.AccessPath.EXPERIENCE_INDEX, experienceIndex,
+                    query.getMinExperience(), query.getMaxExperience(), sortKey == SortKey.EXPERIENCE, ascending));
+        }
+        if (sortKey == SortKey.ID) {
+            options.add(new Access<>(QueryPlan.AccessPath.ID_ORDER, n, true,
+                    employees(ascending ? idOrder.ascending() : idOrder.descending())));
+        }
+
+        long bound = n;
+        for (Access<T> option : options) {
+            bound = Math.min(bound, option.rows);
+        }
+        long wanted = counting ? Long.MAX_VALUE : (long) query.getOffset() + query.getLimit();
+        for (Access<T> option : options) {
+            boolean needsSort = sortKey != null && !option.ordered;
+            double visits = option.rows;
+            if (!needsSort && wanted < bound) {
+                // Matches are assumed to be spread evenly over the candidates
+                visits = option.rows * ((double) wanted / bound);
+            }
+            double sortCost = needsSort ? bound * (Math.log(Math.min(bound, wanted) + 1.0) / Math.log(2)) : 0;
+            option.cost = visits + sortCost;
+        }
+        options.sort(Comparator.comparingDouble(option -> option.cost));
+
+        Access<T> best = options.get(0);
+        Map<QueryPlan.AccessPath, Double> considered = new LinkedHashMap<>();
+        for (Access<T> option : options) {
+            considered.put(option.path, option.cost);
+        }
+        best.plan = new QueryPlan(best.path, best.rows, best.cost, describeOrdering(query, sortKey, best.ordered),
+                query.describeConditions(), considered);
+        return best;
+    }
+
+    // ordered = the query sorts on this index's key, so candidates are produced in sort order
+    private Access<T> rangeAccess(QueryPlan.AccessPath path, RangeIndex<T> index, double min, double max,
+                                  boolean ordered, boolean ascending) {
+        return new Access<>(path, index.count(min, max), ordered,
+                employees(ordered && !ascending ? index.rangeDescending(min, max) : index.range(min, max)));
+    }
+
+    static String describeOrdering(EmployeeQuery<?> query, SortKey sortKey, boolean ordered) {
+        StringBuilder ordering = new StringBuilder();
+        if (sortKey == null) {
+            ordering.append("none (access path order)");
+        } else {
+            String key = sortKey + (query.isAscending() ? " asc" : " desc");
+            if (ordered) {
+                ordering.append("index order on ").append(key).append(", stops early");
+            } else if (query.getLimit() != Integer.MAX_VALUE) {
+                ordering.append("top-").append((long) query.getOffset() + query.getLimit()).append(" heap on ").append(key);
+            } else {
+                ordering.append("full sort on ").append(key);
+            }
+        }
+        if (query.getOffset() > 0) {
+            ordering.append(", offset ").append(query.getOffset());
+        }
+        if (query.getLimit() != Integer.MAX_VALUE) {
+            ordering.append(", limit ").append(query.getLimit());
+        }
+        return ordering.toString();
+    }
+
+    // Lazy ID -> employee mapping over an index, skipping IDs removed concurrently and, on a
+    // concurrent database, IDs already returned (a write can move one past the scan)
+    private Iterable<Employee<T>> employees(Iterable<T> employeeIds) {
+        return () -> new Iterator<Employee<T>>() {
+            private final Iterator<T> ids = employeeIds.iterator();
+            private final Set<T> seen = concurrent ? new HashSet<>() : null;
+            private Employee<T> next;
+
+            @Override
+            public boolean hasNext() {
+                while (next == null && ids.hasNext()) {
+                    T id = ids.next();
+                    if (seen == null || seen.add(id)) {
+                        next = employeeMap.get(id);
+                    }
+                }
+                return next != null;
+            }
+
+            @Override
+            public Employee<T> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Employee<T> emp = next;
+                next = null;
+                return emp;
+            }
+        };
+    }
+
+    private static final class Access<T> {
+        private final QueryPlan.AccessPath path;
+        private final long rows;
+        private final boolean ordered;
+        private final Iterable<Employee<T>> candidates;
+        private double cost;
+        private QueryPlan plan;
+
+        private Access(QueryPlan.AccessPath path, long rows, boolean ordered, Iterable<Employee<T>> candidates) {
+            this.path = path;
+            this.rows = rows;
+            this.ordered = ordered;
+            this.candidates = candidates;
+        }
+    }
+
+    private List<Employee<T>> lookup(Iterable<T> employeeIds) {
+        List<Employee<T>> result = new ArrayList<>();
+        Set<T> seen = concurrent ? new HashSet<>() : null;
+        for (T id : employeeIds) {
+            if (seen != null && !seen.add(id)) {
+                continue;
+            }
+            Employee<T> emp = employeeMap.get(id);
+            if (emp != null) {
+                result.add(emp);
+            }
+        }
+        return result;
+    }
+
+    private List<Employee<T>> highest(RangeIndex<T> index, int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit cannot be negative");
+        }
+        return lookup(index.page(0, limit, false));
+    }
+
+    // The ordered index that serves a sort key directly, or null
+    private RangeIndex<T> orderedIndex(SortKey sortKey) {
+        return switch (sortKey) {
+            case ID -> idOrder;
+            case SALARY -> salaryIndex;
+            case RATING -> ratingIndex;
+            case EXPERIENCE -> experienceIndex;
+            default -> null;
+        };
+    }
+
+    private void indexEmployee(Employee<T> emp) {
+        T id = emp.getEmployeeId();
+        departmentIndex.index(id, emp.getDepartmentCode());
+        salaryIndex.index(id, emp.getSalary());
+        ratingIndex.index(id, emp.getPerformanceRating());
+        experienceIndex.index(id, emp.getYearsOfExperience());
+        nameIndex.index(id, emp.getName());
+        idIndex.index(id, String.valueOf(id));
+        idOrder.index(id, 0);
+        aggregates.update(id, emp.getDepartmentCode(), emp.getSalary(), emp.getPerformanceRating());
+    }
+
+    // Batch form of indexEmployee(): goes index by index, so each ordered index takes each
+    // shard lock once and the aggregates lock each department once, not once per employee
+    private void indexEmployees(Collection<? extends Employee<T>> batch) {
+        int size = batch.size();
+        List<T> ids = new ArrayList<>(size);
+        double[] salaries = new double[size];
+        double[] ratings = new double[size];
+        double[] experience = new double[size];
+        int i = 0;
+        for (Employee<T> emp : batch) {
+            T id = emp.getEmployeeId();
+            ids.add(id);
+            salaries[i] = emp.getSalary();
+            ratings[i] = emp.getPerformanceRating();
+            experience[i] = emp.getYearsOfExperience();
+            i++;
+            departmentIndex.index(id, emp.getDepartmentCode());
+            nameIndex.index(id, emp.getName());
+            idIndex.index(id, String.valueOf(id));
+        }
+        salaryIndex.indexAll(ids, salaries);
+        ratingIndex.indexAll(ids, ratings);
+        experienceIndex.indexAll(ids, experience);
+        idOrder.indexAll(ids, new double[size]);
+        aggregates.updateAll(batch);
+    }
+
+    private void salaryChanged(Employee<T> emp) {
+        T id = emp.getEmployeeId();
+        salaryIndex.index(id, emp.getSalary());
+        aggregates.update(id, emp.getDepartmentCode(), emp.getSalary(), emp.getPerformanceRating());
+    }
+
+    // Stages read-only copies of the changed employees (or the removal of removedId) as the
+    // next version, and publishes the differences to the change feed when anyone listens.
+    // With no subscribers that is a queue append, and only snapshots pay for building maps.
+    // Otherwise commitLock keeps versions and events in one order: asynchronous subscribers
+    // are fed under it, synchronous ones after it, so a slow one holds up only its own writer.
+    private void commit(Collection<? extends Employee<T>> changed, T removedId) {
+        List<ImmutableEmployee<T>> copies = new ArrayList<>(changed.size());
+        for (Employee<T> emp : changed) {
+            copies.add(ImmutableEmployee.copyOf(emp));
+        }
+        StagedVersion<T> staged = new StagedVersion<>(copies, removedId);
+        if (!changes.hasSubscribers()) {
+            // Counted before it is queued, so the count never falls short of the queue
+            int pending = pendingCount.incrementAndGet();
+            pendingVersions.add(staged);
+            if (pending >= FOLD_THRESHOLD && commitLock.tryLock()) {
+                try {
+                    foldPending();
+                } finally {
+                    commitLock.unlock();
+                }
+            }
+            return;
+        }
+        List<ChangeEvent<T>> events = new ArrayList<>(Math.max(1, copies.size()));
+        commitLock.lock();
+        try {
+            foldPending();
+            PersistentHashMap<T, Employee<T>> current = versions;
+            // A batch may touch an ID twice; its second event starts from the first's after
+            Map<T, ImmutableEmployee<T>> seen = copies.size() > 1 ? new HashMap<>() : null;
+            for (ImmutableEmployee<T> copy : copies) {
+                T id = copy.getEmployeeId();
+                ImmutableEmployee<T> before = seen != null && seen.containsKey(id)
+                        ? seen.get(id) : (ImmutableEmployee<T>) current.get(id);
+                ChangeEvent<T> event = ChangeEvent.between(before, copy, changes);
+                if (event != null) {
+                    events.add(event);
+                }
+                if (seen != null) {
+                    seen.put(id, copy);
+                }
+            }
+            if (removedId != null) {
+                ChangeEvent<T> event = ChangeEvent.between((ImmutableEmployee<T>) current.get(removedId), null, changes);
+                if (event != null) {
+                    events.add(event);
+                }
+            }
+            if (removedId != null) {
+                versions = current.minus(removedId);
+            } else if (copies.size() == 1) {
+                versions = current.plus(copies.get(0).getEmployeeId(), copies.get(0));
+            } else if (!copies.isEmpty()) {
+                PersistentHashMap.Builder<T, Employee<T>> builder = current.toBuilder();
+                staged.applyTo(builder);
+                versions = builder.build();
+            }
+            changes.enqueue(events);
+        } finally {
+            commitLock.unlock();
+        }
+        changes.deliver(events);
+    }
+
+    // Folds the staged writes into versions, in staging order; writes to one ID are staged in
+    // the order they happened, since they never run concurrently. Takes at most as many
+    // entries as were counted on entry, so a steady stream of writers cannot keep it going.
+    // Caller holds commitLock.
+    private void foldPending() {
+        int limit = pendingCount.get();
+        if (limit == 0) {
+            return;
+        }
+        PersistentHashMap.Builder<T, Employee<T>> builder = versions.toBuilder();
+        int folded = 0;
+        StagedVersion<T> staged;
+        while (folded < limit && (staged = pendingVersions.poll()) != null) {
+            staged.applyTo(builder);
+            folded++;
+        }
+        versions = builder.build();
+        pendingCount.addAndGet(-folded);
+    }
+
+    private void unindexEmployee(T employeeId) {
+        departmentIndex.remove(employeeId);
+        salaryIndex.remove(employeeId);
+        ratingIndex.remove(employeeId);
+        experienceIndex.remove(employeeId);
+        nameIndex.remove(employeeId);
+        idIndex.remove(employeeId);
+        idOrder.remove(employeeId);
+        aggregates.remove(employeeId);
+    }
+
+    private static final class StagedVersion<T> {
+        private final List<ImmutableEmployee<T>> copies;
+        private final T removedId;
+
+        private StagedVersion(List<ImmutableEmployee<T>> copies, T removedId) {
+            this.copies = copies;
+            this.removedId = removedId;
+        }
+
+        private void applyTo(PersistentHashMap.Builder<T, Employee<T>> builder) {
+            for (ImmutableEmployee<T> copy : copies) {
+                builder.put(copy.getEmployeeId(), copy);
+            }
+            if (removedId != null) {
+                builder.remove(removedId);
+            }
+        }
+    }
+}
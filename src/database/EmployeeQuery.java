@@ -0,0 +1,366 @@
+package database;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Predicate;
+
+import model.DepartmentAliases;
+import model.DepartmentDictionary;
+import model.Employee;
+
+// Fluent, conjunctive query over an EmployeeDatabase, e.g.
+//   db.query().department("Backend").salaryBetween(80_000, 120_000).ratingAtLeast(4)
+//     .active(true).orderBy(SortKey.SALARY, false).limit(10).list();
+// Every condition narrows the result (AND). The database plans the query when it runs:
+// explain() shows which access path was picked and what it is expected to cost.
+public final class EmployeeQuery<T> {
+    private final EmployeeDatabase<T> database;
+
+    private final List<String> departments = new ArrayList<>();
+    private final List<String> nameFragments = new ArrayList<>();
+    private final List<Predicate<? super Employee<T>>> predicates = new ArrayList<>();
+    private T employeeId;
+    private double minSalary = Double.NEGATIVE_INFINITY;
+    private double maxSalary = Double.POSITIVE_INFINITY;
+    private double minRating = Double.NEGATIVE_INFINITY;
+    private double maxRating = Double.POSITIVE_INFINITY;
+    private int minExperience = Integer.MIN_VALUE;
+    private int maxExperience = Integer.MAX_VALUE;
+    private Boolean active;
+    private SortKey sortKey;
+    private boolean ascending = true;
+    private int offset;
+    private int limit = Integer.MAX_VALUE;
+    // departments as DepartmentDictionary codes, resolved again when the dictionary changes
+    private volatile DepartmentCodes departmentCodes;
+
+    EmployeeQuery(EmployeeDatabase<T> database) {
+        this.database = database;
+    }
+
+    public EmployeeQuery<T> id(T employeeId) {
+        if (employeeId == null) {
+            throw new IllegalArgumentException("Employee ID cannot be null");
+        }
+        this.employeeId = employeeId;
+        return this;
+    }
+
+    // Exact department, ignoring case
+    public EmployeeQuery<T> department(String department) {
+        if (department == null || department.isBlank()) {
+            throw new IllegalArgumentException("Department cannot be empty");
+        }
+        departments.add(department.toLowerCase(Locale.ROOT));
+        departmentCodes = null;
+        return this;
+    }
+
+    // Name contains the fragment, ignoring case
+    public EmployeeQuery<T> nameContains(String fragment) {
+        if (fragment == null || fragment.isEmpty()) {
+            throw new IllegalArgumentException("Name fragment cannot be empty");
+        }
+        nameFragments.add(fragment.toLowerCase(Locale.ROOT));
+        return this;
+    }
+
+    public EmployeeQuery<T> salaryBetween(double min, double max) {
+        requireBounds(min, max);
+        minSalary = Math.max(minSalary, min);
+        maxSalary = Math.min(maxSalary, max);
+        return this;
+    }
+
+    public EmployeeQuery<T> salaryAtLeast(double min) {
+        return salaryBetween(min, Double.POSITIVE_INFINITY);
+    }
+
+    public EmployeeQuery<T> salaryAtMost(double max) {
+        return salaryBetween(Double.NEGATIVE_INFINITY, max);
+    }
+
+    public EmployeeQuery<T> ratingBetween(double min, double max) {
+        requireBounds(min, max);
+        minRating = Math.max(minRating, min);
+        maxRating = Math.min(maxRating, max);
+        return this;
+    }
+
+    public EmployeeQuery<T> ratingAtLeast(double min) {
+        return ratingBetween(min, Double.POSITIVE_INFINITY);
+    }
+
+    public EmployeeQuery<T> ratingAtMost(double max) {
+        return ratingBetween(Double.NEGATIVE_INFINITY, max);
+    }
+
+    public EmployeeQuery<T> experienceBetween(int min, int max) {
+        minExperience = Math.max(minExperience, min);
+        maxExperience = Math.min(maxExperience, max);
+        return this;
+    }
+
+    public EmployeeQuery<T> experienceAtLeast(int min) {
+        return experienceBetween(min, Integer.MAX_VALUE);
+    }
+
+    public EmployeeQuery<T> active(boolean active) {
+        if (this.active != null && this.active != active) {
+            predicates.add(emp -> false);
+        }
+        this.active = active;
+        return this;
+    }
+
+    // Arbitrary extra condition; always evaluated last, on candidate rows only
+    public EmployeeQuery<T> where(Predicate<? super Employee<T>> predicate) {
+        if (predicate == null) {
+            throw new IllegalArgumentException("Predicate cannot be null");
+        }
+        predicates.add(predicate);
+        return this;
+    }
+
+    // Ties break on employee ID. Without orderBy the order is whatever the access path yields.
+    public EmployeeQuery<T> orderBy(SortKey sortKey, boolean ascending) {
+        if (sortKey == null) {
+            throw new IllegalArgumentException("Sort key cannot be null");
+        }
+        this.sortKey = sortKey;
+        this.ascending = ascending;
+        return this;
+    }
+
+    public EmployeeQuery<T> offset(int offset) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("Offset cannot be negative");
+        }
+        this.offset = offset;
+        return this;
+    }
+
+    public EmployeeQuery<T> limit(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit cannot be negative");
+        }
+        this.limit = limit;
+        return this;
+    }
+
+    public List<Employee<T>> list() {
+        return database.executeQuery(this);
+    }
+
+    // Number of matching employees, ignoring offset and limit
+    public int count() {
+        return database.countQuery(this);
+    }
+
+    public QueryPlan explain() {
+        return database.planQuery(this);
+    }
+
+    // Full predicate, checked against every candidate regardless of the access path
+    boolean matches(Employee<T> emp) {
+        if (employeeId != null && !employeeId.equals(emp.getEmployeeId())) {
+            return false;
+        }
+        double salary = emp.getSalary();
+        if (salary < minSalary || salary > maxSalary) {
+            return false;
+        }
+        double rating = emp.getPerformanceRating();
+        if (rating < minRating || rating > maxRating) {
+            return false;
+        }
+        int years = emp.getYearsOfExperience();
+        if (years < minExperience || years > maxExperience) {
+            return false;
+        }
+        if (active != null && !active.equals(emp.isActive())) {
+            return false;
+        }
+        if (!departments.isEmpty()) {
+            int code = database.getDepartmentAliases().canonical(emp.getDepartmentCode());
+            for (int department : departmentCodes()) {
+                if (department == DepartmentDictionary.NONE || department != code) {
+                    return false;
+                }
+            }
+        }
+        for (String fragment : nameFragments) {
+            if (!containsIgnoreCase(emp.getName(), fragment)) {
+                return false;
+            }
+        }
+        for (Predicate<? super Employee<T>> predicate : predicates) {
+            if (!predicate.test(emp)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Same conditions and order over another window, for engines that run one query per part
+    EmployeeQuery<T> window(int offset, int limit) {
+        EmployeeQuery<T> copy = new EmployeeQuery<>(database);
+        copy.departments.addAll(departments);
+        copy.nameFragments.addAll(nameFragments);
+        copy.predicates.addAll(predicates);
+        copy.employeeId = employeeId;
+        copy.minSalary = minSalary;
+        copy.maxSalary = maxSalary;
+        copy.minRating = minRating;
+        copy.maxRating = maxRating;
+        copy.minExperience = minExperience;
+        copy.maxExperience = maxExperience;
+        copy.active = active;
+        copy.sortKey = sortKey;
+        copy.ascending = ascending;
+        copy.offset = offset;
+        copy.limit = limit;
+        return copy;
+    }
+
+    private int[] departmentCodes() {
+        DepartmentCodes resolved = departmentCodes;
+        DepartmentAliases aliases = database.getDepartmentAliases();
+        long version = aliases.version();
+        if (resolved == null || resolved.version != version) {
+            int[] codes = new int[departments.size()];
+            for (int i = 0; i < codes.length; i++) {
+                codes[i] = aliases.lookup(departments.get(i));
+            }
+            resolved = new DepartmentCodes(codes, version);
+            departmentCodes = resolved;
+        }
+        return resolved.codes;
+    }
+
+    private static void requireBounds(double min, double max) {
+        if (Double.isNaN(min) || Double.isNaN(max)) {
+            throw new IllegalArgumentException("Range bounds cannot be NaN");
+        }
+    }
+
+    // Same answer as text.toLowerCase().contains(fragment) without allocating a lowercase copy
+    private static boolean containsIgnoreCase(String text, String fragment) {
+        for (int i = 0; i + fragment.length() <= text.length(); i++) {
+            if (text.regionMatches(true, i, fragment, 0, fragment.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Human-readable conditions for explain()
+    List<String> describeConditions() {
+        List<String> conditions = new ArrayList<>();
+        if (employeeId != null) {
+            conditions.add("id = " + employeeId);
+        }
+        for (String department : departments) {
+            conditions.add("department = '" + department + "'");
+        }
+        for (String fragment : nameFragments) {
+            conditions.add("name contains '" + fragment + "'");
+        }
+        if (hasSalaryRange()) {
+            conditions.add("salary in [" + minSalary + ", " + maxSalary + "]");
+        }
+        if (hasRatingRange()) {
+            conditions.add("rating in [" + minRating + ", " + maxRating + "]");
+        }
+        if (hasExperienceRange()) {
+            conditions.add("experience in [" + minExperience + ", " + maxExperience + "]");
+        }
+        if (active != null) {
+            conditions.add("active = " + active);
+        }
+        if (!predicates.isEmpty()) {
+            conditions.add(predicates.size() + " custom predicate(s)");
+        }
+        return conditions;
+    }
+
+    boolean hasSalaryRange() {
+        return minSalary != Double.NEGATIVE_INFINITY || maxSalary != Double.POSITIVE_INFINITY;
+    }
+
+    boolean hasRatingRange() {
+        return minRating != Double.NEGATIVE_INFINITY || maxRating != Double.POSITIVE_INFINITY;
+    }
+
+    boolean hasExperienceRange() {
+        return minExperience != Integer.MIN_VALUE || maxExperience != Integer.MAX_VALUE;
+    }
+
+    T getEmployeeId() {
+        return employeeId;
+    }
+
+    List<String> getDepartments() {
+        return Collections.unmodifiableList(departments);
+    }
+
+    List<String> getNameFragments() {
+        return Collections.unmodifiableList(nameFragments);
+    }
+
+    double getMinSalary() {
+        return minSalary;
+    }
+
+    double getMaxSalary() {
+        return maxSalary;
+    }
+
+    double getMinRating() {
+        return minRating;
+    }
+
+    double getMaxRating() {
+        return maxRating;
+    }
+
+    int getMinExperience() {
+        return minExperience;
+    }
+
+    int getMaxExperience() {
+        return maxExperience;
+    }
+
+    Boolean getActive() {
+        return active;
+    }
+
+    SortKey getSortKey() {
+        return sortKey;
+    }
+
+    boolean isAscending() {
+        return ascending;
+    }
+
+    int getOffset() {
+        return offset;
+    }
+
+    int getLimit() {
+        return limit;
+    }
+
+    private static final class DepartmentCodes {
+        private final int[] codes;
+        private final long version;
+
+        private DepartmentCodes(int[] codes, long version) {
+            this.codes = codes;
+            this.version = version;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package database;
+
+import java.util.AbstractCollection;
+import java.util.Iterator;
+import java.util.Map;
+
+import ExceptionHandling.EmployeeNotFoundException;
+import model.Employee;
+import model.ImmutableEmployee;
+import utility.PersistentHashMap;
+
+// Point-in-time, read-only view of every employee in a database, from
+// EmployeeDatabase.readSnapshot(). Taking one is O(1) and takes no lock: it pins the current
+// version of the database's persistent ID -> employee map, which writers never change but
+// replace. Iterating, exporting or checkpointing a snapshot therefore neither copies the data
+// nor blocks writers, and never sees a write made after it was taken. Employees are
+// ImmutableEmployee copies, in no particular order. A version lives as long as some snapshot
+// (or the database) still references it, and is garbage collected after that.
+public final class EmployeeSnapshot<T> extends AbstractCollection<Employee<T>> {
+    private final PersistentHashMap<T, Employee<T>> employees;
+
+    EmployeeSnapshot(PersistentHashMap<T, Employee<T>> employees) {
+        this.employees = employees;
+    }
+
+    @Override
+    public int size() {
+        return employees.size();
+    }
+
+    public boolean containsEmployee(T employeeId) {
+        return employees.containsKey(employeeId);
+    }
+
+    // The employee as of this snapshot
+    public ImmutableEmployee<T> getEmployee(T employeeId) {
+        Employee<T> emp = employees.get(employeeId);
+        if (emp == null) {
+            throw new EmployeeNotFoundException("Employee with ID " + employeeId + " not found");
+        }
+        return (ImmutableEmployee<T>) emp;
+    }
+
+    // Membership by employee ID, as Employee.equals() defines it
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Employee<?> emp && employees.containsKey(emp.getEmployeeId());
+    }
+
+    @Override
+    public Iterator<Employee<T>> iterator() {
+        return employees.values().iterator();
+    }
+
+    // Read-only ID -> employee map of this snapshot
+    public Map<T, Employee<T>> asMap() {
+        return employees;
+    }
+}
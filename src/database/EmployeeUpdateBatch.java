@@ -0,0 +1,57 @@
+package database;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import model.Employee;
+import model.EmployeeField;
+
+// A set of typed field changes across many employees, applied by
+// EmployeeDatabase.updateEmployees() as one all-or-nothing operation.
+// Values are validated as they are added, so a bad value fails here rather than halfway
+// through the update. Setting the same field of the same employee twice keeps the last value.
+public final class EmployeeUpdateBatch<T> {
+    private final Map<T, Map<EmployeeField<?>, Object>> changes = new LinkedHashMap<>();
+    private int fieldCount;
+
+    public <V> EmployeeUpdateBatch<T> set(T employeeId, EmployeeField<V> field, V value) {
+        if (employeeId == null) {
+            throw new IllegalArgumentException("Employee ID cannot be null");
+        }
+        if (field == null) {
+            throw new IllegalArgumentException("Field cannot be null");
+        }
+        V validated = field.validate(value);
+        if (changes.computeIfAbsent(employeeId, id -> new LinkedHashMap<>()).put(field, validated) == null) {
+            fieldCount++;
+        }
+        return this;
+    }
+
+    public boolean isEmpty() {
+        return changes.isEmpty();
+    }
+
+    public int employeeCount() {
+        return changes.size();
+    }
+
+    public int fieldCount() {
+        return fieldCount;
+    }
+
+    // ClassCastException if the value is not of the field's type (never for values added via set())
+    static <V> void assign(Employee<?> employee, EmployeeField<V> field, Object value) {
+        field.set(employee, field.cast(value));
+    }
+
+    Set<T> employeeIds() {
+        return Collections.unmodifiableSet(changes.keySet());
+    }
+
+    Map<T, Map<EmployeeField<?>, Object>> changes() {
+        return Collections.unmodifiableMap(changes);
+    }
+}
@@ -0,0 +1,408 @@
+package database;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import aggregate.DepartmentSummary;
+import metrics.DatabaseMetrics;
+import metrics.DatabaseMetrics.Operation;
+import model.DepartmentAliases;
+import model.Employee;
+import model.EmployeeField;
+
+// Decorator that times every operation of another EmployeeDatabase into a DatabaseMetrics:
+// latency, call and error counts, and the number of rows each read returned. Costs two
+// System.nanoTime() calls and a few uncontended atomic adds per operation. To turn metrics
+// off, use the wrapped database directly: nothing of this class stays on the call path.
+// Thread safety is the delegate's; the decorator itself holds no data.
+public class InstrumentedEmployeeDatabase<T> extends EmployeeDatabase<T> {
+    private final EmployeeDatabase<T> delegate;
+    private final DatabaseMetrics metrics;
+
+    public InstrumentedEmployeeDatabase(EmployeeDatabase<T> delegate) {
+        super(Storage.EXTERNAL);
+        if (delegate == null) {
+            throw new IllegalArgumentException("Database cannot be null");
+        }
+        this.delegate = delegate;
+        this.metrics = new DatabaseMetrics(delegate::size, delegate::getIndexSizes);
+    }
+
+    public DatabaseMetrics getMetrics() {
+        return metrics;
+    }
+
+    public EmployeeDatabase<T> getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public void addEmployee(Employee<T> employee) {
+        long start = System.nanoTime();
+        try {
+            delegate.addEmployee(employee);
+        } catch (RuntimeException e) {
+            throw failed(Operation.ADD_EMPLOYEE, start, e);
+        }
+        metrics.record(Operation.ADD_EMPLOYEE, start);
+    }
+
+    @Override
+    public void addEmployees(Collection<? extends Employee<T>> employees) {
+        long start = System.nanoTime();
+        try {
+            delegate.addEmployees(employees);
+        } catch (RuntimeException e) {
+            throw failed(Operation.ADD_EMPLOYEES, start, e);
+        }
+        metrics.record(Operation.ADD_EMPLOYEES, start, employees.size());
+    }
+
+    @Override
+    public void removeEmployee(T employeeId) {
+        long start = System.nanoTime();
+        try {
+            delegate.removeEmployee(employeeId);
+        } catch (RuntimeException e) {
+            throw failed(Operation.REMOVE_EMPLOYEE, start, e);
+        }
+        metrics.record(Operation.REMOVE_EMPLOYEE, start);
+    }
+
+    @Override
+    public void updateEmployeeDetails(T employeeId, String field, Object newValue) {
+        long start = System.nanoTime();
+        try {
+            delegate.updateEmployeeDetails(employeeId, field, newValue);
+        } catch (RuntimeException e) {
+            throw failed(Operation.UPDATE_EMPLOYEE_DETAILS, start, e);
+        }
+        metrics.record(Operation.UPDATE_EMPLOYEE_DETAILS, start);
+    }
+
+    @Override
+    public <V> void update(T employeeId, EmployeeField<V> field, V value) {
+        long start = System.nanoTime();
+        try {
+            delegate.update(employeeId, field, value);
+        } catch (RuntimeException e) {
+            throw failed(Operation.UPDATE, start, e);
+        }
+        metrics.record(Operation.UPDATE, start);
+    }
+
+    @Override
+    public void updateEmployees(EmployeeUpdateBatch<T> batch) {
+        long start = System.nanoTime();
+        try {
+            delegate.updateEmployees(batch);
+        } catch (RuntimeException e) {
+            throw failed(Operation.UPDATE_EMPLOYEES, start, e);
+        }
+        metrics.record(Operation.UPDATE_EMPLOYEES, start, batch.employeeCount());
+    }
+
+    @Override
+    public void raiseSalary(T employeeId, double raiseAmount) {
+        long start = System.nanoTime();
+        try {
+            delegate.raiseSalary(employeeId, raiseAmount);
+        } catch (RuntimeException e) {
+            throw failed(Operation.RAISE_SALARY, start, e);
+        }
+        metrics.record(Operation.RAISE_SALARY, start);
+    }
+
+    @Override
+    public void giveRaise(double minRating, double raiseAmount) {
+        long start = System.nanoTime();
+        try {
+            delegate.giveRaise(minRating, raiseAmount);
+        } catch (RuntimeException e) {
+            throw failed(Operation.GIVE_RAISE, start, e);
+        }
+        metrics.record(Operation.GIVE_RAISE, start);
+    }
+
+    @Override
+    public void renameDepartment(String department, String newName) {
+        long start = System.nanoTime();
+        try {
+            delegate.renameDepartment(department, newName);
+        } catch (RuntimeException e) {
+            throw failed(Operation.RENAME_DEPARTMENT, start, e);
+        }
+        metrics.record(Operation.RENAME_DEPARTMENT, start);
+    }
+
+    @Override
+    public void mergeDepartments(String department, String into) {
+        long start = System.nanoTime();
+        try {
+            delegate.mergeDepartments(department, into);
+        } catch (RuntimeException e) {
+            throw failed(Operation.MERGE_DEPARTMENTS, start, e);
+        }
+        metrics.record(Operation.MERGE_DEPARTMENTS, start);
+    }
+
+    @Override
+    public DepartmentAliases getDepartmentAliases() {
+        return delegate.getDepartmentAliases();
+    }
+
+    @Override
+    public List<Employee<T>> getAllEmployees() {
+        long start = System.nanoTime();
+        try {
+            return rows(Operation.GET_ALL_EMPLOYEES, start, delegate.getAllEmployees());
+        } catch (RuntimeException e) {
+            throw failed(Operation.GET_ALL_EMPLOYEES, start, e);
+        }
+    }
+
+    @Override
+    public List<Employee<T>> searchByDepartment(String department) {
+        long start = System.nanoTime();
+        try {
+            return rows(Operation.SEARCH_BY_DEPARTMENT, start, delegate.searchByDepartment(department));
+        } catch (RuntimeException e) {
+            throw failed(Operation.SEARCH_BY_DEPARTMENT, start, e);
+        }
+    }
+
+    @Override
+    public List<Employee<T>> searchByName(String name) {
+        long start = System.nanoTime();
+        try {
+            return rows(Operation.SEARCH_BY_NAME, start, delegate.searchByName(name));
+        } catch (RuntimeException e) {
+            throw failed(Operation.SEARCH_BY_NAME, start, e);
+        }
+    }
+
+    @Override
+    public List<Employee<T>> search(String query) {
+        long start = System.nanoTime();
+        try {
+            return rows(Operation.SEARCH, start, delegate.search(query));
+        } catch (RuntimeException e) {
+            throw failed(Operation.SEARCH, start, e);
+        }
+    }
+
+    @Override
+    public List<Employee<T>> filterByPerformance(double minRating) {
+        long start = System.nanoTime();
+        try {
+            return rows(Operation.FILTER_BY_PERFORMANCE, start, delegate.filterByPerformance(minRating));
+        } catch (RuntimeException e) {
+            throw failed(Operation.FILTER_BY_PERFORMANCE, start, e);
+        }
+    }
+
+    @Override
+    public List<Employee<T>> filterBySalaryRange(double min, double max) {
+        long start = System.nanoTime();
+        try {
+            return rows(Operation.FILTER_BY_SALARY_RANGE, start, delegate.filterBySalaryRange(min, max));
+        } catch (RuntimeException e) {
+            throw failed(Operation.FILTER_BY_SALARY_RANGE, start, e);
+        }
+    }
+
+    // A gauge rather than an operation: not timed
+    @Override
+    public int size() {
+        return delegate.size();
+    }
+
+    @Override
+    public int count(String filter) {
+        long start = System.nanoTime();
+        try {
+            int count = delegate.count(filter);
+            metrics.record(Operation.COUNT, start, count);
+            return count;
+        } catch (RuntimeException e) {
+            throw failed(Operation.COUNT, start, e);
+        }
+    }
+
+    @Override
+    public List<Employee<T>> getPage(String filter, SortKey sortKey, boolean ascending, int offset, int limit) {
+        long start = System.nanoTime();
+        try {
+            return rows(Operation.GET_PAGE, start, delegate.getPage(filter, sortKey, ascending, offset, limit));
+        } catch (RuntimeException e) {
+            throw failed(Operation.GET_PAGE, start, e);
+        }
+    }
+
+    @Override
+    public int positionOf(String filter, SortKey sortKey, boolean ascending, Employee<T> employee) {
+        long start = System.nanoTime();
+        try {
+            int position = delegate.positionOf(filter, sortKey, ascending, employee);
+            metrics.record(Operation.POSITION_OF, start);
+            return position;
+        } catch (RuntimeException e) {
+            throw failed(Operation.POSITION_OF, start, e);
+        }
+    }
+
+    // query() from EmployeeDatabase binds the query to this decorator, so it runs through here
+    @Override
+    protected List<Employee<T>> executeQuery(EmployeeQuery<T> query) {
+        long start = System.nanoTime();
+        try {
+            return rows(Operation.QUERY, start, delegate.executeQuery(query));
+        } catch (RuntimeException e) {
+            throw failed(Operation.QUERY, start, e);
+        }
+    }
+
+    @Override
+    protected int countQuery(EmployeeQuery<T> query) {
+        long start = System.nanoTime();
+        try {
+            int count = delegate.countQuery(query);
+            metrics.record(Operation.QUERY_COUNT, start, count);
+            return count;
+        } catch (RuntimeException e) {
+            throw failed(Operation.QUERY_COUNT, start, e);
+        }
+    }
+
+    @Override
+    protected QueryPlan planQuery(EmployeeQuery<T> query) {
+        long start = System.nanoTime();
+        try {
+            QueryPlan plan = delegate.planQuery(query);
+            metrics.record(Operation.QUERY_EXPLAIN, start);
+            return plan;
+        } catch (RuntimeException e) {
+            throw failed(Operation.QUERY_EXPLAIN, start, e);
+        }
+    }
+
+    // Lazy, so there is nothing to time
+    @Override
+    public Iterator<Employee<T>> getIterator() {
+        return delegate.getIterator();
+    }
+
+    // O(1) and lock-free: not timed either
+    @Override
+    public EmployeeSnapshot<T> readSnapshot() {
+        return delegate.readSnapshot();
+    }
+
+    // Writes go to the delegate, so its feed is the one that sees them
+    @Override
+    public ChangeFeed<T> changes() {
+        return delegate.changes();
+    }
+
+    @Override
+    public List<Employee<T>> sortBySalary() {
+        long start = System.nanoTime();
+        try {
+            return rows(Operation.SORT_BY_SALARY, start, delegate.sortBySalary());
+        } catch (RuntimeException e) {
+            throw failed(Operation.SORT_BY_SALARY, start, e);
+        }
+    }
+
+    @Override
+    public List<Employee<T>> sortByPerformance() {
+        long start = System.nanoTime();
+        try {
+            return rows(Operation.SORT_BY_PERFORMANCE, start, delegate.sortByPerformance());
+        } catch (RuntimeException e) {
+            throw failed(Operation.SORT_BY_PERFORMANCE, start, e);
+        }
+    }
+
+    @Override
+    public List<Employee<T>> getTopPaid(int limit) {
+        long start = System.nanoTime();
+        try {
+            return rows(Operation.GET_TOP_PAID, start, delegate.getTopPaid(limit));
+        } catch (RuntimeException e) {
+            throw failed(Operation.GET_TOP_PAID, start, e);
+        }
+    }
+
+    @Override
+    public List<Employee<T>> getTopPerformers(int limit) {
+        long start = System.nanoTime();
+        try {
+            return rows(Operation.GET_TOP_PERFORMERS, start, delegate.getTopPerformers(limit));
+        } catch (RuntimeException e) {
+            throw failed(Operation.GET_TOP_PERFORMERS, start, e);
+        }
+    }
+
+    @Override
+    public List<Employee<T>> getTop(int limit, Comparator<Employee<T>> order) {
+        long start = System.nanoTime();
+        try {
+            return rows(Operation.GET_TOP, start, delegate.getTop(limit, order));
+        } catch (RuntimeException e) {
+            throw failed(Operation.GET_TOP, start, e);
+        }
+    }
+
+    @Override
+    public double getAverageSalary(String department) {
+        long start = System.nanoTime();
+        try {
+            double average = delegate.getAverageSalary(department);
+            metrics.record(Operation.GET_AVERAGE_SALARY, start);
+            return average;
+        } catch (RuntimeException e) {
+            throw failed(Operation.GET_AVERAGE_SALARY, start, e);
+        }
+    }
+
+    @Override
+    public DepartmentSummary getDepartmentSummary(String department) {
+        long start = System.nanoTime();
+        try {
+            DepartmentSummary summary = delegate.getDepartmentSummary(department);
+            metrics.record(Operation.GET_DEPARTMENT_SUMMARY, start);
+            return summary;
+        } catch (RuntimeException e) {
+            throw failed(Operation.GET_DEPARTMENT_SUMMARY, start, e);
+        }
+    }
+
+    @Override
+    public List<DepartmentSummary> getDepartmentSummaries() {
+        long start = System.nanoTime();
+        try {
+            return rows(Operation.GET_DEPARTMENT_SUMMARIES, start, delegate.getDepartmentSummaries());
+        } catch (RuntimeException e) {
+            throw failed(Operation.GET_DEPARTMENT_SUMMARIES, start, e);
+        }
+    }
+
+    @Override
+    public Map<String, Integer> getIndexSizes() {
+        return delegate.getIndexSizes();
+    }
+
+    private <R extends Collection<?>> R rows(Operation operation, long start, R result) {
+        metrics.record(operation, start, result.size());
+        return result;
+    }
+
+    private RuntimeException failed(Operation operation, long start, RuntimeException e) {
+        metrics.failed(operation, start);
+        return e;
+    }
+}
@@ -0,0 +1,60 @@
+package database;
+
+import ExceptionHandling.EmployeeNotFoundException;
+import model.Employee;
+import utility.IntHashMap;
+import utility.KeyCollections;
+
+// EmployeeDatabase specialized for int employee IDs, which is what the application uses.
+// The primary ID -> employee store is an IntHashMap instead of a HashMap<Integer, ...>, and the
+// indexes and aggregates key their per-employee entries the same way (IntHashMap, and IntHashSet
+// for the department and trigram posting sets), so there is no HashMap.Node per employee per
+// structure. The int overloads below look employees up without boxing the ID: the index
+// updates reuse the Integer already held by the employee. Same query surface and behaviour as
+// the generic engine otherwise, except that unordered results (e.g. searchByDepartment) come in
+// hash order of the int IDs. Not thread-safe.
+public class IntEmployeeDatabase extends EmployeeDatabase<Integer> {
+    private final IntHashMap<Employee<Integer>> employees;
+
+    public IntEmployeeDatabase() {
+        this(new IntHashMap<>());
+    }
+
+    // Presized for expectedSize employees, e.g. before a bulk load
+    public IntEmployeeDatabase(int expectedSize) {
+        this(new IntHashMap<>(expectedSize));
+    }
+
+    private IntEmployeeDatabase(IntHashMap<Employee<Integer>> employees) {
+        super(KeyCollections.ints(), employees);
+        this.employees = employees;
+    }
+
+    public boolean containsEmployee(int employeeId) {
+        return employees.containsKey(employeeId);
+    }
+
+    public Employee<Integer> getEmployee(int employeeId) {
+        return require(employeeId);
+    }
+
+    public void removeEmployee(int employeeId) {
+        super.removeEmployee(require(employeeId).getEmployeeId());
+    }
+
+    public void updateEmployeeDetails(int employeeId, String field, Object newValue) {
+        super.updateEmployeeDetails(require(employeeId).getEmployeeId(), field, newValue);
+    }
+
+    public void raiseSalary(int employeeId, double raiseAmount) {
+        super.raiseSalary(require(employeeId).getEmployeeId(), raiseAmount);
+    }
+
+    private Employee<Integer> require(int employeeId) {
+        Employee<Integer> emp = employees.get(employeeId);
+        if (emp == null) {
+            throw new EmployeeNotFoundException("Employee with ID " + employeeId + " not found");
+        }
+        return emp;
+    }
+}
@@ -0,0 +1,910 @@
+package database;
+import java.io.Closeable;
+import java.util.*;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+
+import ExceptionHandling.EmployeeNotFoundException;
+import aggregate.DepartmentSummary;
+import aggregate.RunningStatistics;
+import model.DepartmentAliases;
+import model.DepartmentDictionary;
+import model.Employee;
+import model.EmployeeField;
+import model.ImmutableEmployee;
+import utility.EmployeeIdComparator;
+import utility.PersistentHashMap;
+import utility.TopKSelector;
+
+// Storage engine for very large tables that keeps the records out of the garbage-collected
+// heap: every employee is a fixed-width slot in direct memory (see OffHeapEmployeeStore), with
+// the name in an off-heap string area and the department as its DepartmentDictionary spelling
+// code. What stays on the heap is the IDs, in an array indexed by slot (an int[] while every ID
+// is an Integer, one object each once another type shows up), and an open-addressing int[]
+// table from ID hash to slot, so there are no map nodes, boxed fields or Employee objects to
+// trace however many employees are loaded.
+// Employees handed out by this database are views over their slot, made per call; employees
+// passed to addEmployee are copied into the store and not retained. A view of an employee that
+// has since been removed throws EmployeeNotFoundException, as its slot may hold another by now.
+// Removed slots are reused through the store's free list. There are no secondary indexes:
+// queries scan the slots, and sorts and pages rank slot numbers on the stored values, so only
+// the employees returned become views. close() releases the off-heap memory; the database is empty after.
+// Not thread-safe.
+public class OffHeapEmployeeDatabase<T> extends EmployeeDatabase<T> implements Closeable {
+    private static final int MIN_TABLE_CAPACITY = 16;
+
+    private static final EmployeeIdComparator<Object> ID_ORDER = new EmployeeIdComparator<>();
+
+    private final OffHeapEmployeeStore store = new OffHeapEmployeeStore();
+    // IDs by slot: intIds while all are Integers, else ids (the other is null)
+    private int[] intIds;
+    private Object[] ids;
+    // slot + 1 per entry, 0 when empty; probed linearly from the ID's hash
+    private int[] table;
+    private int shift;
+
+    public OffHeapEmployeeDatabase() {
+        this(0);
+    }
+
+    // Presized for expectedSize employees, e.g. before a bulk load
+    public OffHeapEmployeeDatabase(int expectedSize) {
+        super(Storage.EXTERNAL);
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Expected size cannot be negative");
+        }
+        intIds = new int[Math.max(MIN_TABLE_CAPACITY, expectedSize)];
+        allocateTable(tableCapacityFor(expectedSize));
+    }
+
+    @Override
+    public void addEmployee(Employee<T> employee) {
+        if (employee == null) {
+            throw new IllegalArgumentException("Employee cannot be null");
+        }
+        writeInPlace(Collections.singletonList(employee.getEmployeeId()), () -> put(employee));
+    }
+
+    @Override
+    public void addEmployees(Collection<? extends Employee<T>> employees) {
+        List<T> employeeIds = new ArrayList<>(employees.size());
+        for (Employee<T> employee : employees) {
+            if (employee == null) {
+                throw new IllegalArgumentException("Employee cannot be null");
+            }
+            employeeIds.add(employee.getEmployeeId());
+        }
+        writeInPlace(employeeIds, () -> {
+            for (Employee<T> employee : employees) {
+                put(employee);
+            }
+        });
+    }
+
+    private void put(Employee<T> employee) {
+        int slot = find(employee.getEmployeeId());
+        if (slot < 0) {
+            slot = store.allocate();
+            storeId(slot, employee.getEmployeeId());
+            index(slot);
+        }
+        store.setName(slot, employee.getName());
+        store.setDepartment(slot, DepartmentDictionary.intern(employee.getDepartment()));
+        store.setSalary(slot, employee.getSalary());
+        store.setRating(slot, employee.getPerformanceRating());
+        store.setExperience(slot, employee.getYearsOfExperience());
+        store.setActive(slot, employee.isActive());
+    }
+
+    @Override
+    public void removeEmployee(T employeeId) {
+        int slot = slotOf(employeeId);
+        writeInPlace(Collections.singletonList(employeeId), () -> {
+            unindex(slot);
+            if (ids != null) {
+                ids[slot] = null;
+            }
+            store.release(slot);
+        });
+    }
+
+    @Override
+    public void updateEmployeeDetails(T employeeId, String field, Object newValue) {
+        try {
+            Employee<T> emp = view(slotOf(employeeId));
+            EmployeeField<?> descriptor = EmployeeField.forName(field);
+            if (descriptor == null) {
+                throw new IllegalArgumentException("Invalid field: " + field);
+            }
+            writeInPlace(Collections.singletonList(employeeId), () -> EmployeeUpdateBatch.assign(emp, descriptor, newValue));
+        } catch (ClassCastException e) {
+            throw new IllegalArgumentException("Invalid type for field " + field, e);
+        }
+    }
+
+    @Override
+    public void updateEmployees(EmployeeUpdateBatch<T> batch) {
+        for (T employeeId : batch.employeeIds()) {
+            slotOf(employeeId);
+        }
+        writeInPlace(batch.employeeIds(), () -> {
+            for (Map.Entry<T, Map<EmployeeField<?>, Object>> entry : batch.changes().entrySet()) {
+                Employee<T> emp = view(find(entry.getKey()));
+                for (Map.Entry<EmployeeField<?>, Object> change : entry.getValue().entrySet()) {
+                    EmployeeUpdateBatch.assign(emp, change.getKey(), change.getValue());
+                }
+            }
+        });
+    }
+
+    @Override
+    public void raiseSalary(T employeeId, double raiseAmount) {
+        int slot = slotOf(employeeId);
+        double salary = Record.checkSalary(store.salary(slot) + raiseAmount);
+        writeInPlace(Collections.singletonList(employeeId), () -> store.setSalary(slot, salary));
+    }
+
+    @Override
+    public List<Employee<T>> getAllEmployees() {
+        List<Employee<T>> result = new ArrayList<>(store.used());
+        for (int slot = 0; slot < store.slots(); slot++) {
+            if (store.occupied(slot)) {
+                result.add(view(slot));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<Employee<T>> searchByDepartment(String department) {
+        if (department == null || department.isBlank()) {
+            return Collections.emptyList();
+        }
+        int code = getDepartmentAliases().lookup(department);
+        if (code == DepartmentDictionary.NONE) {
+            return Collections.emptyList();
+        }
+        return views(inDepartment(code));
+    }
+
+    @Override
+    public List<Employee<T>> searchByName(String name) {
+        if (name == null || name.isBlank()) {
+            return Collections.emptyList();
+        }
+        IntPredicate nameMatches = store.nameContaining(name.toLowerCase(Locale.ROOT));
+        BitSet slots = new BitSet(store.slots());
+        for (int slot = 0; slot < store.slots(); slot++) {
+            if (store.occupied(slot) && nameMatches.test(slot)) {
+                slots.set(slot);
+            }
+        }
+        return views(slots);
+    }
+
+    @Override
+    public List<Employee<T>> search(String query) {
+        if (query == null || query.isBlank()) {
+            return Collections.emptyList();
+        }
+        return views(searchSlots(query));
+    }
+
+    // Slots whose department, name or ID contains the term, ignoring case
+    private BitSet searchSlots(String query) {
+        String searchTerm = query.toLowerCase(Locale.ROOT);
+        boolean[] departmentMatches = new boolean[DepartmentDictionary.spellingCount()];
+        for (int code = 0; code < departmentMatches.length; code++) {
+            departmentMatches[code] = DepartmentDictionary.spelling(code).toLowerCase(Locale.ROOT).contains(searchTerm);
+        }
+        IntPredicate nameMatches = store.nameContaining(searchTerm);
+        // An Integer ID prints as digits and a sign, so other terms need not format any
+        boolean numeric = searchTerm.chars().allMatch(c -> c == '-' || c >= '0' && c <= '9');
+        BitSet slots = new BitSet(store.slots());
+        for (int slot = 0; slot < store.slots(); slot++) {
+            if (store.occupied(slot) && (departmentMatches[store.department(slot)]
+                    || nameMatches.test(slot)
+                    || (intIds == null || numeric) && String.valueOf(employeeId(slot)).contains(searchTerm))) {
+                slots.set(slot);
+            }
+        }
+        return slots;
+    }
+
+    @Override
+    public List<Employee<T>> filterByPerformance(double minRating) {
+        return views(ratingRange(minRating, Double.POSITIVE_INFINITY));
+    }
+
+    @Override
+    public List<Employee<T>> filterBySalaryRange(double min, double max) {
+        BitSet slots = occupiedSlots();
+        for (int slot = slots.nextSetBit(0); slot >= 0; slot = slots.nextSetBit(slot + 1)) {
+            double salary = store.salary(slot);
+            if (salary < min || salary > max) {
+                slots.clear(slot);
+            }
+        }
+        return views(slots);
+    }
+
+    @Override
+    protected List<Employee<T>> executeQuery(EmployeeQuery<T> query) {
+        return QueryRunner.collect(query, candidates(query), false);
+    }
+
+    @Override
+    protected int countQuery(EmployeeQuery<T> query) {
+        return QueryRunner.count(query, candidates(query));
+    }
+
+    @Override
+    protected QueryPlan planQuery(EmployeeQuery<T> query) {
+        QueryPlan.AccessPath path = query.getEmployeeId() != null
+                ? QueryPlan.AccessPath.ID_LOOKUP : QueryPlan.AccessPath.COLUMN_BITMAP;
+        long rows = path == QueryPlan.AccessPath.ID_LOOKUP ? (find(query.getEmployeeId()) >= 0 ? 1 : 0) : store.used();
+        return new QueryPlan(path, rows, rows, describeOrdering(query, query.getSortKey(), false),
+                query.describeConditions(), Collections.singletonMap(path, (double) rows));
+    }
+
+    // As in ColumnarEmployeeDatabase, each condition narrows a bitmap of slots in one pass,
+    // and only the surviving slots become views
+    private Iterable<Employee<T>> candidates(EmployeeQuery<T> query) {
+        if (query.getEmployeeId() != null) {
+            int slot = find(query.getEmployeeId());
+            return slot < 0 ? Collections.emptyList() : Collections.singletonList(view(slot));
+        }
+        BitSet slots = occupiedSlots();
+        for (int slot = slots.nextSetBit(0); slot >= 0; slot = slots.nextSetBit(slot + 1)) {
+            if (query.hasSalaryRange() && !within(store.salary(slot), query.getMinSalary(), query.getMaxSalary())
+                    || query.hasRatingRange() && !within(store.rating(slot), query.getMinRating(), query.getMaxRating())
+                    || query.hasExperienceRange() && !within(store.experience(slot), query.getMinExperience(), query.getMaxExperience())
+                    || query.getActive() != null && !query.getActive().equals(store.active(slot))) {
+                slots.clear(slot);
+            }
+        }
+        for (String department : query.getDepartments()) {
+            int code = getDepartmentAliases().lookup(department);
+            if (code == DepartmentDictionary.NONE) {
+                return Collections.emptyList();
+            }
+            slots.and(inDepartment(code));
+        }
+        return () -> new Iterator<Employee<T>>() {
+            private int slot = slots.nextSetBit(0);
+
+            @Override
+            public boolean hasNext() {
+                return slot >= 0;
+            }
+
+            @Override
+            public Employee<T> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Employee<T> emp = view(slot);
+                slot = slots.nextSetBit(slot + 1);
+                return emp;
+            }
+        };
+    }
+
+    @Override
+    public Iterator<Employee<T>> getIterator() {
+        return Collections.unmodifiableList(getAllEmployees()).iterator();
+    }
+
+    // Copies every record, O(n), onto the heap; meant for exports and change tracking, not
+    // for tables that only fit off-heap
+    @Override
+    public EmployeeSnapshot<T> readSnapshot() {
+        PersistentHashMap.Builder<T, Employee<T>> builder = PersistentHashMap.<T, Employee<T>>empty().toBuilder();
+        for (int slot = 0; slot < store.slots(); slot++) {
+            if (store.occupied(slot)) {
+                ImmutableEmployee<T> copy = ImmutableEmployee.copyOf(view(slot));
+                builder.put(copy.getEmployeeId(), copy);
+            }
+        }
+        return new EmployeeSnapshot<>(builder.build());
+    }
+
+    // EmployeeSalaryComparator order; ties keep slot order, as the stable sort of
+    // getAllEmployees() would
+    @Override
+    public List<Employee<T>> sortBySalary() {
+        return sortedSlots((a, b) -> Double.compare(store.salary(b), store.salary(a)));
+    }
+
+    // EmployeePerformanceComparator order, ties in slot order
+    @Override
+    public List<Employee<T>> sortByPerformance() {
+        return sortedSlots((a, b) -> Double.compare(store.rating(b), store.rating(a)));
+    }
+
+    private List<Employee<T>> sortedSlots(IntBinaryOperator order) {
+        int[] slots = occupiedSlots().stream().toArray();
+        IntBinaryOperator total = (a, b) -> {
+            int c = order.applyAsInt(a, b);
+            return c != 0 ? c : Integer.compare(a, b);
+        };
+        return views(TopKSelector.select(slots, slots.length, slots.length, total));
+    }
+
+    @Override
+    public void giveRaise(double minRating, double raiseAmount) {
+        BitSet raised = ratingRange(minRating, Double.POSITIVE_INFINITY);
+        List<T> raisedIds = changes().hasSubscribers() ? new ArrayList<>() : null;
+        for (int slot = raised.nextSetBit(0); slot >= 0; slot = raised.nextSetBit(slot + 1)) {
+            Record.checkSalary(store.salary(slot) + raiseAmount);
+            if (raisedIds != null) {
+                raisedIds.add(employeeId(slot));
+            }
+        }
+        writeInPlace(raisedIds, () -> {
+            for (int slot = raised.nextSetBit(0); slot >= 0; slot = raised.nextSetBit(slot + 1)) {
+                store.setSalary(slot, store.salary(slot) + raiseAmount);
+            }
+        });
+    }
+
+    // As in EmployeeDatabase: the aliases change, then the department's slots are relabelled
+    @Override
+    public void renameDepartment(String department, String newName) {
+        checkRename(department, newName);
+        BitSet slots = inDepartment(getDepartmentAliases().lookup(department));
+        writeInPlace(slotIds(slots), () -> {
+            getDepartmentAliases().rename(department, newName);
+            relabel(slots, newName);
+        });
+    }
+
+    @Override
+    public void mergeDepartments(String department, String into) {
+        getDepartmentAliases().checkMerge(department, into);
+        BitSet slots = inDepartment(getDepartmentAliases().lookup(department));
+        writeInPlace(slotIds(slots), () -> {
+            DepartmentAliases aliases = getDepartmentAliases();
+            aliases.merge(department, into);
+            relabel(slots, aliases.name(aliases.lookup(into)));
+        });
+    }
+
+    // Highest salary first, ties on the higher ID, as EmployeeDatabase reads its salary index
+    @Override
+    public List<Employee<T>> getTopPaid(int limit) {
+        int[] slots = occupiedSlots().stream().toArray();
+        return views(TopKSelector.select(slots, slots.length, limit, slotOrder(SortKey.SALARY, false)));
+    }
+
+    @Override
+    public List<Employee<T>> getTopPerformers(int limit) {
+        int[] slots = occupiedSlots().stream().toArray();
+        return views(TopKSelector.select(slots, slots.length, limit, slotOrder(SortKey.RATING, false)));
+    }
+
+    @Override
+    public List<Employee<T>> getTop(int limit, Comparator<Employee<T>> order) {
+        return TopKSelector.select(getAllEmployees(), limit, order);
+    }
+
+    @Override
+    public double getAverageSalary(String department) {
+        if (department == null) {
+            return 0;
+        }
+        int code = getDepartmentAliases().lookup(department);
+        if (code == DepartmentDictionary.NONE) {
+            return 0;
+        }
+        BitSet slots = inDepartment(code);
+        double sum = 0;
+        for (int slot = slots.nextSetBit(0); slot >= 0; slot = slots.nextSetBit(slot + 1)) {
+            sum += store.salary(slot);
+        }
+        int count = slots.cardinality();
+        return count == 0 ? 0 : sum / count;
+    }
+
+    @Override
+    public DepartmentSummary getDepartmentSummary(String department) {
+        if (department == null) {
+            return null;
+        }
+        int code = getDepartmentAliases().lookup(department);
+        return code == DepartmentDictionary.NONE ? null : summarize().get(code);
+    }
+
+    @Override
+    public List<DepartmentSummary> getDepartmentSummaries() {
+        List<DepartmentSummary> result = new ArrayList<>();
+        for (DepartmentSummary summary : summarize()) {
+            if (summary != null) {
+                result.add(summary);
+            }
+        }
+        result.sort(Comparator.comparing(DepartmentSummary::getDepartment, String.CASE_INSENSITIVE_ORDER));
+        return result;
+    }
+
+    @Override
+    public int size() {
+        return store.used();
+    }
+
+    @Override
+    public int count(String filter) {
+        return filter == null || filter.isBlank() ? store.used() : searchSlots(filter).cardinality();
+    }
+
+    // No secondary indexes; reports the distinct departments and spellings in the slots
+    @Override
+    public Map<String, Integer> getIndexSizes() {
+        BitSet departments = new BitSet();
+        BitSet spellings = new BitSet();
+        for (int slot = 0; slot < store.slots(); slot++) {
+            if (store.occupied(slot)) {
+                spellings.set(store.department(slot));
+                departments.set(getDepartmentAliases().department(store.department(slot)));
+            }
+        }
+        Map<String, Integer> sizes = new LinkedHashMap<>();
+        sizes.put("departments", departments.cardinality());
+        sizes.put("departmentSpellings", spellings.cardinality());
+        return sizes;
+    }
+
+    // Direct memory reserved by the store, in bytes unless the key says slots:
+    // slotBytes, slotsInUse, freeListSlots (released, reused first), unallocatedSlots,
+    // stringBytes, stringBytesLive, stringBytesGarbage (reclaimed by compaction), totalBytes
+    public Map<String, Long> getOffHeapUsage() {
+        return store.usage();
+    }
+
+    @Override
+    public int positionOf(String filter, SortKey sortKey, boolean ascending, Employee<T> employee) {
+        if (employee == null) {
+            throw new IllegalArgumentException("Employee cannot be null");
+        }
+        IntPredicate precedes = precedes(sortKey, ascending, employee);
+        BitSet slots = candidateSlots(filter);
+        int position = 0;
+        for (int slot = slots.nextSetBit(0); slot >= 0; slot = slots.nextSetBit(slot + 1)) {
+            if (precedes.test(slot)) {
+                position++;
+            }
+        }
+        return position;
+    }
+
+    // No ordered indexes here: every page is a bounded-heap top-(offset + limit) over the slot
+    // numbers, ranked on the stored values
+    @Override
+    public List<Employee<T>> getPage(String filter, SortKey sortKey, boolean ascending, int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("Offset and limit cannot be negative");
+        }
+        int[] slots = candidateSlots(filter).stream().toArray();
+        int[] top = TopKSelector.select(slots, slots.length, (int) Math.min((long) offset + limit, Integer.MAX_VALUE),
+                slotOrder(sortKey, ascending));
+        List<Employee<T>> page = new ArrayList<>(Math.max(0, top.length - offset));
+        for (int i = offset; i < top.length; i++) {
+            page.add(view(top[i]));
+        }
+        return page;
+    }
+
+    // Releases the off-heap memory and forgets every employee; later writes throw
+    // IllegalStateException
+    @Override
+    public void close() {
+        store.close();
+        intIds = new int[MIN_TABLE_CAPACITY];
+        ids = null;
+        allocateTable(MIN_TABLE_CAPACITY);
+    }
+
+    // One pass over the slots; indexed by department code
+    private List<DepartmentSummary> summarize() {
+        DepartmentAliases aliases = getDepartmentAliases();
+        int groups = DepartmentDictionary.departmentCount();
+        int[] groupOf = new int[DepartmentDictionary.spellingCount()];
+        for (int code = 0; code < groupOf.length; code++) {
+            groupOf[code] = aliases.department(code);
+        }
+        RunningStatistics[] salaryStats = new RunningStatistics[groups];
+        RunningStatistics[] ratingStats = new RunningStatistics[groups];
+        for (int slot = 0; slot < store.slots(); slot++) {
+            if (!store.occupied(slot)) {
+                continue;
+            }
+            int group = groupOf[store.department(slot)];
+            if (salaryStats[group] == null) {
+                salaryStats[group] = new RunningStatistics();
+                ratingStats[group] = new RunningStatistics();
+            }
+            salaryStats[group].add(store.salary(slot));
+            ratingStats[group].add(store.rating(slot));
+        }
+        List<DepartmentSummary> result = new ArrayList<>(groups);
+        for (int group = 0; group < groups; group++) {
+            result.add(salaryStats[group] == null ? null
+                    : new DepartmentSummary(aliases.name(group), salaryStats[group].snapshot(), ratingStats[group].snapshot()));
+        }
+        return result;
+    }
+
+    private BitSet occupiedSlots() {
+        BitSet slots = new BitSet(store.slots());
+        for (int slot = 0; slot < store.slots(); slot++) {
+            if (store.occupied(slot)) {
+                slots.set(slot);
+            }
+        }
+        return slots;
+    }
+
+    private BitSet candidateSlots(String filter) {
+        return filter == null || filter.isBlank() ? occupiedSlots() : searchSlots(filter);
+    }
+
+    // SortKey.comparator() order (then reversed when descending) on the stored values
+    private IntBinaryOperator slotOrder(SortKey sortKey, boolean ascending) {
+        IntBinaryOperator byKey = switch (sortKey) {
+            case ID -> (a, b) -> 0;
+            case NAME -> store::compareNames;
+            case DEPARTMENT -> (a, b) -> String.CASE_INSENSITIVE_ORDER.compare(
+                    DepartmentDictionary.spelling(store.department(a)), DepartmentDictionary.spelling(store.department(b)));
+            case SALARY -> (a, b) -> Double.compare(store.salary(a) + 0.0, store.salary(b) + 0.0);
+            case RATING -> (a, b) -> Double.compare(store.rating(a) + 0.0, store.rating(b) + 0.0);
+            case EXPERIENCE -> (a, b) -> Integer.compare(store.experience(a), store.experience(b));
+        };
+        IntBinaryOperator order = (a, b) -> {
+            int c = byKey.applyAsInt(a, b);
+            if (c != 0) {
+                return c;
+            }
+            return intIds != null ? Integer.compare(intIds[a], intIds[b]) : ID_ORDER.compare(ids[a], ids[b]);
+        };
+        return ascending ? order : (a, b) -> order.applyAsInt(b, a);
+    }
+
+    // Whether a slot other than the employee's comes before it in slotOrder(sortKey, ascending);
+    // the employee's values are read once
+    private IntPredicate precedes(SortKey sortKey, boolean ascending, Employee<T> employee) {
+        IntUnaryOperator byKey = switch (sortKey) {
+            case ID -> slot -> 0;
+            case NAME -> {
+                String name = employee.getName();
+                yield slot -> store.compareName(slot, name);
+            }
+            case DEPARTMENT -> {
+                String department = employee.getDepartment();
+                yield slot -> String.CASE_INSENSITIVE_ORDER.compare(DepartmentDictionary.spelling(store.department(slot)), department);
+            }
+            case SALARY -> {
+                double salary = employee.getSalary() + 0.0;
+                yield slot -> Double.compare(store.salary(slot) + 0.0, salary);
+            }
+            case RATING -> {
+                double rating = employee.getPerformanceRating() + 0.0;
+                yield slot -> Double.compare(store.rating(slot) + 0.0, rating);
+            }
+            case EXPERIENCE -> {
+                int experience = employee.getYearsOfExperience();
+                yield slot -> Integer.compare(store.experience(slot), experience);
+            }
+        };
+        T id = employee.getEmployeeId();
+        boolean intId = intIds != null && id instanceof Integer;
+        int intValue = intId ? (Integer) id : 0;
+        return slot -> {
+            if (intId ? intIds[slot] == intValue : employeeId(slot).equals(id)) {
+                return false;
+            }
+            int c = byKey.applyAsInt(slot);
+            if (c == 0) {
+                c = intId ? Integer.compare(intIds[slot], intValue) : ID_ORDER.compare(employeeId(slot), id);
+            }
+            return ascending ? c < 0 : c > 0;
+        };
+    }
+
+    private BitSet ratingRange(double min, double max) {
+        BitSet slots = occupiedSlots();
+        for (int slot = slots.nextSetBit(0); slot >= 0; slot = slots.nextSetBit(slot + 1)) {
+            if (!within(store.rating(slot), min, max)) {
+                slots.clear(slot);
+            }
+        }
+        return slots;
+    }
+
+    // Occupied slots whose spelling belongs to the department
+    private BitSet inDepartment(int departmentCode) {
+        DepartmentAliases aliases = getDepartmentAliases();
+        boolean[] matches = new boolean[DepartmentDictionary.spellingCount()];
+        for (int code = 0; code < matches.length; code++) {
+            matches[code] = aliases.department(code) == departmentCode;
+        }
+        BitSet slots = new BitSet(store.slots());
+        for (int slot = 0; slot < store.slots(); slot++) {
+            if (store.occupied(slot) && matches[store.department(slot)]) {
+                slots.set(slot);
+            }
+        }
+        return slots;
+    }
+
+    private void relabel(BitSet slots, String department) {
+        int code = DepartmentDictionary.intern(department);
+        for (int slot = slots.nextSetBit(0); slot >= 0; slot = slots.nextSetBit(slot + 1)) {
+            store.setDepartment(slot, code);
+        }
+    }
+
+    // IDs of the slots, for writeInPlace(); null while nobody listens
+    private List<T> slotIds(BitSet slots) {
+        if (!changes().hasSubscribers()) {
+            return null;
+        }
+        List<T> result = new ArrayList<>(slots.cardinality());
+        for (int slot = slots.nextSetBit(0); slot >= 0; slot = slots.nextSetBit(slot + 1)) {
+            result.add(employeeId(slot));
+        }
+        return result;
+    }
+
+    private static boolean within(double value, double min, double max) {
+        return value >= min && value <= max;
+    }
+
+    private List<Employee<T>> views(BitSet slots) {
+        List<Employee<T>> result = new ArrayList<>(slots.cardinality());
+        for (int slot = slots.nextSetBit(0); slot >= 0; slot = slots.nextSetBit(slot + 1)) {
+            result.add(view(slot));
+        }
+        return result;
+    }
+
+    private List<Employee<T>> views(int[] slots) {
+        List<Employee<T>> result = new ArrayList<>(slots.length);
+        for (int slot : slots) {
+            result.add(view(slot));
+        }
+        return result;
+    }
+
+    private Record<T> view(int slot) {
+        return new Record<>(this, employeeId(slot), slot, store.generation(slot));
+    }
+
+    private int slotOf(T employeeId) {
+        int slot = find(employeeId);
+        if (slot < 0) {
+            throw new EmployeeNotFoundException("Employee with ID " + employeeId + " not found");
+        }
+        return slot;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T employeeId(int slot) {
+        return (T) (intIds != null ? Integer.valueOf(intIds[slot]) : ids[slot]);
+    }
+
+    // Boxes the IDs stored so far the first time an ID is not an Integer
+    private void storeId(int slot, T employeeId) {
+        if (intIds != null && !(employeeId instanceof Integer)) {
+            ids = new Object[intIds.length];
+            for (int other = 0; other < store.slots(); other++) {
+                if (other != slot && store.occupied(other)) {
+                    ids[other] = intIds[other];
+                }
+            }
+            intIds = null;
+        }
+        if (intIds != null) {
+            if (slot >= intIds.length) {
+                intIds = Arrays.copyOf(intIds, Math.max(slot + 1, intIds.length + (intIds.length >> 1)));
+            }
+            intIds[slot] = (Integer) employeeId;
+        } else {
+            if (slot >= ids.length) {
+                ids = Arrays.copyOf(ids, Math.max(slot + 1, ids.length + (ids.length >> 1)));
+            }
+            ids[slot] = employeeId;
+        }
+    }
+
+    @Override
+    protected Employee<T> storedEmployee(T employeeId) {
+        int slot = find(employeeId);
+        return slot < 0 ? null : view(slot);
+    }
+
+    // The ID table is open addressing (linear probing, backward-shift deletion) and holds
+    // slot + 1 and compares the IDs by slot; -1 when the ID is not stored
+    private int find(Object employeeId) {
+        int mask = table.length - 1;
+        if (intIds != null) {
+            if (!(employeeId instanceof Integer)) {
+                return -1;
+            }
+            int id = (Integer) employeeId;
+            for (int i = home(id); table[i] != 0; i = (i + 1) & mask) {
+                int slot = table[i] - 1;
+                if (intIds[slot] == id) {
+                    return slot;
+                }
+            }
+            return -1;
+        }
+        for (int i = home(employeeId.hashCode()); table[i] != 0; i = (i + 1) & mask) {
+            int slot = table[i] - 1;
+            if (ids[slot].equals(employeeId)) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private void index(int slot) {
+        if ((store.used() + 1) * 4L > table.length * 3L) {
+            rehash(table.length * 2);
+        }
+        int mask = table.length - 1;
+        int i = home(hashAt(slot));
+        while (table[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        table[i] = slot + 1;
+    }
+
+    private void unindex(int slot) {
+        int mask = table.length - 1;
+        int gap = home(hashAt(slot));
+        while (table[gap] != slot + 1) {
+            gap = (gap + 1) & mask;
+        }
+        for (int next = (gap + 1) & mask; table[next] != 0; next = (next + 1) & mask) {
+            int home = home(hashAt(table[next] - 1));
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                table[gap] = table[next];
+                gap = next;
+            }
+        }
+        table[gap] = 0;
+    }
+
+    private void rehash(int capacity) {
+        int[] old = table;
+        allocateTable(capacity);
+        int mask = capacity - 1;
+        for (int entry : old) {
+            if (entry != 0) {
+                int i = home(hashAt(entry - 1));
+                while (table[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+                table[i] = entry;
+            }
+        }
+    }
+
+    private void allocateTable(int capacity) {
+        table = new int[capacity];
+        shift = 32 - Integer.numberOfTrailingZeros(capacity);
+    }
+
+    // Integer.hashCode() is the value, so a table built in either mode stays valid in the other
+    private int hashAt(int slot) {
+        return intIds != null ? intIds[slot] : ids[slot].hashCode();
+    }
+
+    private int home(int hash) {
+        return (hash * 0x9E3779B9) >>> shift;
+    }
+
+    // Smallest power of two that holds expectedSize at a load factor of at most 3/4
+    private static int tableCapacityFor(int expectedSize) {
+        long required = Math.max(MIN_TABLE_CAPACITY, (expectedSize * 4L + 2) / 3 + 1);
+        if (required > (1 << 30)) {
+            throw new IllegalArgumentException("Expected size too large: " + expectedSize);
+        }
+        return Integer.highestOneBit((int) required - 1) << 1;
+    }
+
+    // View of one slot, checked against the slot's generation on every access
+    private static final class Record<T> extends Employee<T> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient OffHeapEmployeeDatabase<T> db;
+        private final int slot;
+        private final int generation;
+
+        private Record(OffHeapEmployeeDatabase<T> db, T employeeId, int slot, int generation) {
+            super(employeeId);
+            this.db = db;
+            this.slot = slot;
+            this.generation = generation;
+        }
+
+        private static double checkSalary(double salary) {
+            return validateSalary(salary);
+        }
+
+        private OffHeapEmployeeStore store() {
+            OffHeapEmployeeStore store = db.store;
+            if (slot >= store.slots() || store.generation(slot) != generation) {
+                throw new EmployeeNotFoundException("Employee with ID " + getEmployeeId() + " was removed");
+            }
+            return store;
+        }
+
+        @Override
+        public String getName() {
+            return store().name(slot);
+        }
+
+        @Override
+        public void setName(String name) {
+            store().setName(slot, validateName(name));
+        }
+
+        @Override
+        public String getDepartment() {
+            return DepartmentDictionary.spelling(store().department(slot));
+        }
+
+        @Override
+        public int getDepartmentCode() {
+            return DepartmentDictionary.department(store().department(slot));
+        }
+
+        @Override
+        public void setDepartment(String department) {
+            store().setDepartment(slot, DepartmentDictionary.intern(validateDepartment(department)));
+        }
+
+        @Override
+        public Double getSalary() {
+            return store().salary(slot);
+        }
+
+        @Override
+        public void setSalary(Double salary) {
+            store().setSalary(slot, validateSalary(salary));
+        }
+
+        @Override
+        public Double getPerformanceRating() {
+            return store().rating(slot);
+        }
+
+        @Override
+        public void setPerformanceRating(Double performanceRating) {
+            store().setRating(slot, validatePerformanceRating(performanceRating));
+        }
+
+        @Override
+        public Integer getYearsOfExperience() {
+            return store().experience(slot);
+        }
+
+        @Override
+        public void setYearsOfExperience(Integer yearsOfExperience) {
+            store().setExperience(slot, validateYearsOfExperience(yearsOfExperience));
+        }
+
+        @Override
+        public Boolean isActive() {
+            return store().active(slot);
+        }
+
+        @Override
+        public void setActive(Boolean active) {
+            store().setActive(slot, active);
+        }
+    }
+}
@@ -0,0 +1,372 @@
+package database;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.IntPredicate;
+
+// Employee records in direct (off-heap) memory for OffHeapEmployeeDatabase: the collector
+// sees a few hundred buffer objects however many records there are.
+// Slots are fixed-width, SLOT_BYTES each, in chunks of SLOTS_PER_CHUNK (a direct buffer is
+// int-indexed, so one cannot hold 50M records):
+//   0 long name address   8 int name length   12 int department spelling code
+//  16 double salary      24 double rating     32 int experience   36 int flags
+//  40 int generation     44 int next free slot, while on the free list
+// Released slots go on a free list and are reused before the store grows; their generation
+// is bumped so that views still pointing at them can tell. Names are UTF-8 in a separate
+// append-only string area (chunk index << 32 | offset); a shorter name is rewritten in place,
+// and once more than half the area is garbage the live names are copied into fresh chunks.
+// Direct buffers count against -XX:MaxDirectMemorySize (by default the -Xmx value) and their
+// memory goes back to the OS when the buffers are collected; close() drops them all.
+// Not thread-safe.
+final class OffHeapEmployeeStore implements AutoCloseable {
+    static final int SLOT_BYTES = 48;
+    private static final int CHUNK_SHIFT = 15;
+    static final int SLOTS_PER_CHUNK = 1 << CHUNK_SHIFT;
+    private static final int STRING_CHUNK_BYTES = 1 << 20;
+
+    private static final int NAME_ADDRESS = 0;
+    private static final int NAME_LENGTH = 8;
+    private static final int DEPARTMENT = 12;
+    private static final int SALARY = 16;
+    private static final int RATING = 24;
+    private static final int EXPERIENCE = 32;
+    private static final int FLAGS = 36;
+    private static final int GENERATION = 40;
+    private static final int NEXT_FREE = 44;
+
+    private static final int OCCUPIED = 1;
+    private static final int ACTIVE = 2;
+    // Set when the employee has an active flag at all; without it active() is null
+    private static final int ACTIVE_KNOWN = 4;
+
+    private ByteBuffer[] slotChunks = new ByteBuffer[0];
+    private int slots;
+    private int used;
+    private int freeHead = -1;
+
+    private List<ByteBuffer> stringChunks = new ArrayList<>();
+    private long stringLive;
+    private long stringGarbage;
+    private boolean closed;
+
+    // A cleared slot, from the free list when there is one
+    int allocate() {
+        checkOpen();
+        int slot;
+        if (freeHead >= 0) {
+            slot = freeHead;
+            freeHead = chunk(slot).getInt(offset(slot) + NEXT_FREE);
+        } else {
+            if (slots == slotChunks.length * SLOTS_PER_CHUNK) {
+                growSlots();
+            }
+            slot = slots++;
+        }
+        ByteBuffer chunk = chunk(slot);
+        int base = offset(slot);
+        chunk.putLong(base + NAME_ADDRESS, 0);
+        chunk.putInt(base + NAME_LENGTH, 0);
+        chunk.putInt(base + FLAGS, OCCUPIED);
+        used++;
+        return slot;
+    }
+
+    void release(int slot) {
+        ByteBuffer chunk = chunk(slot);
+        int base = offset(slot);
+        int length = chunk.getInt(base + NAME_LENGTH);
+        stringLive -= length;
+        stringGarbage += length;
+        chunk.putInt(base + FLAGS, 0);
+        chunk.putInt(base + GENERATION, chunk.getInt(base + GENERATION) + 1);
+        chunk.putInt(base + NEXT_FREE, freeHead);
+        freeHead = slot;
+        used--;
+        compactIfSparse();
+    }
+
+    // Slots handed out so far, free ones included; every occupied slot is below this
+    int slots() {
+        return slots;
+    }
+
+    int used() {
+        return used;
+    }
+
+    boolean occupied(int slot) {
+        return (chunk(slot).getInt(offset(slot) + FLAGS) & OCCUPIED) != 0;
+    }
+
+    int generation(int slot) {
+        return chunk(slot).getInt(offset(slot) + GENERATION);
+    }
+
+    String name(int slot) {
+        ByteBuffer chunk = chunk(slot);
+        int base = offset(slot);
+        long address = chunk.getLong(base + NAME_ADDRESS);
+        byte[] bytes = new byte[chunk.getInt(base + NAME_LENGTH)];
+        stringChunks.get((int) (address >>> 32)).get((int) address, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    void setName(int slot, String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer chunk = chunk(slot);
+        int base = offset(slot);
+        int length = chunk.getInt(base + NAME_LENGTH);
+        long address = chunk.getLong(base + NAME_ADDRESS);
+        if (bytes.length > length || length == 0) {
+            address = appendString(bytes);
+        } else {
+            stringChunks.get((int) (address >>> 32)).put((int) address, bytes);
+        }
+        chunk.putLong(base + NAME_ADDRESS, address);
+        chunk.putInt(base + NAME_LENGTH, bytes.length);
+        stringLive += bytes.length - length;
+        stringGarbage += bytes.length > length ? length : length - bytes.length;
+        compactIfSparse();
+    }
+
+    // Whether the name contains term, which is in lower case, ignoring case: the same answer as
+    // name.toLowerCase(Locale.ROOT).contains(term). An ASCII name is searched where it lies; only
+    // a name with other characters, or any name when the term has some, is decoded.
+    IntPredicate nameContaining(String term) {
+        byte[] asciiTerm = asciiBytes(term);
+        return slot -> {
+            ByteBuffer bytes = nameChunk(slot);
+            int start = nameStart(slot);
+            int length = nameLength(slot);
+            if (asciiTerm != null && isAscii(bytes, start, length)) {
+                return containsIgnoreCase(bytes, start, length, asciiTerm);
+            }
+            return name(slot).toLowerCase(Locale.ROOT).contains(term);
+        };
+    }
+
+    // String.CASE_INSENSITIVE_ORDER on the names of two slots, compared in place up to the
+    // first non-ASCII byte
+    int compareNames(int a, int b) {
+        ByteBuffer bytesA = nameChunk(a);
+        ByteBuffer bytesB = nameChunk(b);
+        int startA = nameStart(a);
+        int startB = nameStart(b);
+        int lengthA = nameLength(a);
+        int lengthB = nameLength(b);
+        for (int i = 0; i < Math.min(lengthA, lengthB); i++) {
+            byte x = bytesA.get(startA + i);
+            byte y = bytesB.get(startB + i);
+            if (x < 0 || y < 0) {
+                return String.CASE_INSENSITIVE_ORDER.compare(name(a), name(b));
+            }
+            if (x != y && toLowerCase(x) != toLowerCase(y)) {
+                return toLowerCase(x) - toLowerCase(y);
+            }
+        }
+        // One name is a prefix of the other and all ASCII, so more bytes means more characters
+        return lengthA - lengthB;
+    }
+
+    // The same against a name on the heap
+    int compareName(int slot, String other) {
+        ByteBuffer bytes = nameChunk(slot);
+        int start = nameStart(slot);
+        int length = nameLength(slot);
+        for (int i = 0; i < Math.min(length, other.length()); i++) {
+            byte x = bytes.get(start + i);
+            char y = other.charAt(i);
+            if (x < 0 || y >= 0x80) {
+                return String.CASE_INSENSITIVE_ORDER.compare(name(slot), other);
+            }
+            if (x != y && toLowerCase(x) != toLowerCase((byte) y)) {
+                return toLowerCase(x) - toLowerCase((byte) y);
+            }
+        }
+        return length - other.length();
+    }
+
+    int department(int slot) {
+        return chunk(slot).getInt(offset(slot) + DEPARTMENT);
+    }
+
+    void setDepartment(int slot, int spellingCode) {
+        chunk(slot).putInt(offset(slot) + DEPARTMENT, spellingCode);
+    }
+
+    double salary(int slot) {
+        return chunk(slot).getDouble(offset(slot) + SALARY);
+    }
+
+    void setSalary(int slot, double salary) {
+        chunk(slot).putDouble(offset(slot) + SALARY, salary);
+    }
+
+    double rating(int slot) {
+        return chunk(slot).getDouble(offset(slot) + RATING);
+    }
+
+    void setRating(int slot, double rating) {
+        chunk(slot).putDouble(offset(slot) + RATING, rating);
+    }
+
+    int experience(int slot) {
+        return chunk(slot).getInt(offset(slot) + EXPERIENCE);
+    }
+
+    void setExperience(int slot, int experience) {
+        chunk(slot).putInt(offset(slot) + EXPERIENCE, experience);
+    }
+
+    Boolean active(int slot) {
+        int flags = chunk(slot).getInt(offset(slot) + FLAGS);
+        return (flags & ACTIVE_KNOWN) == 0 ? null : (flags & ACTIVE) != 0;
+    }
+
+    void setActive(int slot, Boolean active) {
+        ByteBuffer chunk = chunk(slot);
+        int flags = chunk.getInt(offset(slot) + FLAGS) & ~(ACTIVE | ACTIVE_KNOWN);
+        if (active != null) {
+            flags |= active ? ACTIVE | ACTIVE_KNOWN : ACTIVE_KNOWN;
+        }
+        chunk.putInt(offset(slot) + FLAGS, flags);
+    }
+
+    // Bytes reserved and in use, by area
+    Map<String, Long> usage() {
+        long slotBytes = (long) slotChunks.length * SLOTS_PER_CHUNK * SLOT_BYTES;
+        long stringBytes = 0;
+        for (ByteBuffer chunk : stringChunks) {
+            stringBytes += chunk.capacity();
+        }
+        Map<String, Long> usage = new LinkedHashMap<>();
+        usage.put("slotBytes", slotBytes);
+        usage.put("slotsInUse", (long) used);
+        usage.put("freeListSlots", (long) (slots - used));
+        usage.put("unallocatedSlots", (long) slotChunks.length * SLOTS_PER_CHUNK - slots);
+        usage.put("stringBytes", stringBytes);
+        usage.put("stringBytesLive", stringLive);
+        usage.put("stringBytesGarbage", stringGarbage);
+        usage.put("totalBytes", slotBytes + stringBytes);
+        return usage;
+    }
+
+    private ByteBuffer nameChunk(int slot) {
+        return stringChunks.get((int) (chunk(slot).getLong(offset(slot) + NAME_ADDRESS) >>> 32));
+    }
+
+    private int nameStart(int slot) {
+        return (int) chunk(slot).getLong(offset(slot) + NAME_ADDRESS);
+    }
+
+    private int nameLength(int slot) {
+        return chunk(slot).getInt(offset(slot) + NAME_LENGTH);
+    }
+
+    // null when the string has a character outside ASCII
+    private static byte[] asciiBytes(String string) {
+        for (int i = 0; i < string.length(); i++) {
+            if (string.charAt(i) >= 0x80) {
+                return null;
+            }
+        }
+        return string.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static boolean isAscii(ByteBuffer bytes, int start, int length) {
+        for (int i = start; i < start + length; i++) {
+            if (bytes.get(i) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean containsIgnoreCase(ByteBuffer bytes, int start, int length, byte[] lowerCaseTerm) {
+        for (int i = start, last = start + length - lowerCaseTerm.length; i <= last; i++) {
+            int matched = 0;
+            while (matched < lowerCaseTerm.length && toLowerCase(bytes.get(i + matched)) == lowerCaseTerm[matched]) {
+                matched++;
+            }
+            if (matched == lowerCaseTerm.length) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static byte toLowerCase(byte ascii) {
+        return ascii >= 'A' && ascii <= 'Z' ? (byte) (ascii + ('a' - 'A')) : ascii;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        slotChunks = new ByteBuffer[0];
+        stringChunks = new ArrayList<>();
+        slots = used = 0;
+        freeHead = -1;
+        stringLive = stringGarbage = 0;
+    }
+
+    private ByteBuffer chunk(int slot) {
+        if (closed) {
+            throw new IllegalStateException("Off-heap store is closed");
+        }
+        return slotChunks[slot >>> CHUNK_SHIFT];
+    }
+
+    private static int offset(int slot) {
+        return (slot & SLOTS_PER_CHUNK - 1) * SLOT_BYTES;
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Off-heap store is closed");
+        }
+    }
+
+    private void growSlots() {
+        ByteBuffer[] grown = new ByteBuffer[slotChunks.length + 1];
+        System.arraycopy(slotChunks, 0, grown, 0, slotChunks.length);
+        grown[slotChunks.length] = ByteBuffer.allocateDirect(SLOTS_PER_CHUNK * SLOT_BYTES).order(ByteOrder.nativeOrder());
+        slotChunks = grown;
+    }
+
+    private long appendString(byte[] bytes) {
+        ByteBuffer tail = stringChunks.isEmpty() ? null : stringChunks.get(stringChunks.size() - 1);
+        if (tail == null || tail.remaining() < bytes.length) {
+            tail = ByteBuffer.allocateDirect(Math.max(STRING_CHUNK_BYTES, bytes.length));
+            stringChunks.add(tail);
+        }
+        long address = (long) (stringChunks.size() - 1) << 32 | tail.position();
+        tail.put(bytes);
+        return address;
+    }
+
+    // Copies the live names into fresh chunks once garbage outweighs them (and a chunk)
+    private void compactIfSparse() {
+        if (stringGarbage <= STRING_CHUNK_BYTES || stringGarbage <= stringLive) {
+            return;
+        }
+        List<ByteBuffer> old = stringChunks;
+        stringChunks = new ArrayList<>();
+        for (int slot = 0; slot < slots; slot++) {
+            ByteBuffer chunk = chunk(slot);
+            int base = offset(slot);
+            if (occupied(slot) && chunk.getInt(base + NAME_LENGTH) > 0) {
+                long address = chunk.getLong(base + NAME_ADDRESS);
+                byte[] bytes = new byte[chunk.getInt(base + NAME_LENGTH)];
+                old.get((int) (address >>> 32)).get((int) address, bytes);
+                chunk.putLong(base + NAME_ADDRESS, appendString(bytes));
+            }
+        }
+        stringGarbage = 0;
+    }
+}
@@ -0,0 +1,386 @@
+package database;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import ExceptionHandling.EmployeeNotFoundException;
+import ExceptionHandling.PersistenceException;
+import model.DepartmentDictionary;
+import model.Employee;
+import model.EmployeeField;
+import persistence.IdCodec;
+import persistence.PersistenceConfig;
+import persistence.SnapshotStore;
+import persistence.WriteAheadLog;
+
+// EmployeeDatabase whose mutations survive restarts.
+// Every mutation is checked, appended to a write-ahead log (fsynced in groups, see
+// PersistenceConfig) and only then applied, so memory never holds a change the log lacks.
+// Every snapshotEveryRecords records a background thread writes the full state to a snapshot
+// and drops the log segments it covers. open() loads the newest snapshot and replays the log
+// tail behind it.
+public class PersistentEmployeeDatabase<T> extends EmployeeDatabase<T> implements Closeable {
+    private static final byte ADD = 1;
+    private static final byte REMOVE = 2;
+    private static final byte UPDATE = 3;
+    private static final byte RAISE_ONE = 4;
+    private static final byte RAISE_BULK = 5;
+    private static final byte ADD_BATCH = 6;
+    private static final byte UPDATE_BATCH = 7;
+    private static final byte RENAME_DEPARTMENT = 8;
+    private static final byte MERGE_DEPARTMENTS = 9;
+
+    private final IdCodec<T> idCodec;
+    private final PersistenceConfig config;
+    private final SnapshotStore<T> snapshots;
+    private final ExecutorService snapshotWriter;
+    private final AtomicBoolean snapshotPending = new AtomicBoolean();
+    // Serializes snapshot writes; guards writtenLsn
+    private final Object snapshotLock = new Object();
+    private long writtenLsn;
+    private WriteAheadLog log;
+    private long recordsSinceSnapshot;
+
+    // Writers are serialized by this object's monitor; the thread-safe indexes let readers
+    // (e.g. UI background tasks) run alongside them without locking.
+    private PersistentEmployeeDatabase(Path directory, IdCodec<T> idCodec, PersistenceConfig config) {
+        super(true);
+        this.idCodec = idCodec;
+        this.config = config;
+        this.snapshots = new SnapshotStore<>(directory, idCodec);
+        this.snapshotWriter = config.getSnapshotEveryRecords() == 0 ? null : Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "snapshot-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static <T> PersistentEmployeeDatabase<T> open(Path directory, IdCodec<T> idCodec) {
+        return open(directory, idCodec, PersistenceConfig.defaults());
+    }
+
+    public static <T> PersistentEmployeeDatabase<T> open(Path directory, IdCodec<T> idCodec,
+                                                         PersistenceConfig config) {
+        PersistentEmployeeDatabase<T> db = new PersistentEmployeeDatabase<>(directory, idCodec, config);
+        SnapshotStore.Snapshot<T> snapshot = db.snapshots.loadLatest();
+        for (Employee<T> emp : snapshot.getEmployees()) {
+            db.applyAdd(emp);
+        }
+        db.log = WriteAheadLog.open(directory, config, snapshot.getLsn(), db::replay);
+        db.recordsSinceSnapshot = db.log.lastLsn() - snapshot.getLsn();
+        db.writtenLsn = snapshot.getLsn();
+        return db;
+    }
+
+    @Override
+    public synchronized void addEmployee(Employee<T> employee) {
+        if (employee == null) {
+            throw new IllegalArgumentException("Employee cannot be null");
+        }
+        logged(ADD, out -> SnapshotStore.writeEmployee(out, employee, idCodec));
+        super.addEmployee(employee);
+        snapshotIfDue();
+    }
+
+    // Logged as a single record, so a batch costs one append and at most one fsync
+    @Override
+    public synchronized void addEmployees(Collection<? extends Employee<T>> employees) {
+        for (Employee<T> employee : employees) {
+            if (employee == null) {
+                throw new IllegalArgumentException("Employee cannot be null");
+            }
+        }
+        logged(ADD_BATCH, out -> {
+            out.writeInt(employees.size());
+            for (Employee<T> employee : employees) {
+                SnapshotStore.writeEmployee(out, employee, idCodec);
+            }
+        });
+        super.addEmployees(employees);
+        snapshotIfDue();
+    }
+
+    @Override
+    public synchronized void removeEmployee(T employeeId) {
+        stored(employeeId);
+        logged(REMOVE, out -> idCodec.write(out, employeeId));
+        super.removeEmployee(employeeId);
+        snapshotIfDue();
+    }
+
+    @Override
+    public synchronized void updateEmployeeDetails(T employeeId, String field, Object newValue) {
+        stored(employeeId);
+        EmployeeField<?> descriptor = EmployeeField.forName(field);
+        if (descriptor == null) {
+            throw new IllegalArgumentException("Invalid field: " + field);
+        }
+        checkValue(descriptor, newValue);
+        logged(UPDATE, out -> {
+            idCodec.write(out, employeeId);
+            writeChange(out, descriptor, newValue);
+        });
+        super.updateEmployeeDetails(employeeId, field, newValue);
+        snapshotIfDue();
+    }
+
+    // One log record for the whole batch, replayed as one batch
+    @Override
+    public synchronized void updateEmployees(EmployeeUpdateBatch<T> batch) {
+        for (T employeeId : batch.employeeIds()) {
+            stored(employeeId);
+        }
+        logged(UPDATE_BATCH, out -> {
+            out.writeInt(batch.employeeCount());
+            for (Map.Entry<T, Map<EmployeeField<?>, Object>> entry : batch.changes().entrySet()) {
+                idCodec.write(out, entry.getKey());
+                out.writeInt(entry.getValue().size());
+                for (Map.Entry<EmployeeField<?>, Object> change : entry.getValue().entrySet()) {
+                    writeChange(out, change.getKey(), change.getValue());
+                }
+            }
+        });
+        super.updateEmployees(batch);
+        snapshotIfDue();
+    }
+
+    @Override
+    public synchronized void raiseSalary(T employeeId, double raiseAmount) {
+        EmployeeField.SALARY.validate(stored(employeeId).getSalary() + raiseAmount);
+        logged(RAISE_ONE, out -> {
+            idCodec.write(out, employeeId);
+            out.writeDouble(raiseAmount);
+        });
+        super.raiseSalary(employeeId, raiseAmount);
+        snapshotIfDue();
+    }
+
+    @Override
+    public synchronized void giveRaise(double minRating, double raiseAmount) {
+        for (Employee<T> emp : filterByPerformance(minRating)) {
+            EmployeeField.SALARY.validate(emp.getSalary() + raiseAmount);
+        }
+        logged(RAISE_BULK, out -> {
+            out.writeDouble(minRating);
+            out.writeDouble(raiseAmount);
+        });
+        super.giveRaise(minRating, raiseAmount);
+        snapshotIfDue();
+    }
+
+    // Snapshots store the names employees show, so a rename or merge needs the log only until
+    // the next snapshot; old names stop being aliases after a restart from that snapshot.
+    @Override
+    public synchronized void renameDepartment(String department, String newName) {
+        checkRename(department, newName);
+        logged(RENAME_DEPARTMENT, out -> {
+            out.writeUTF(department);
+            out.writeUTF(newName);
+        });
+        super.renameDepartment(department, newName);
+        snapshotIfDue();
+    }
+
+    @Override
+    public synchronized void mergeDepartments(String department, String into) {
+        getDepartmentAliases().checkMerge(department, into);
+        logged(MERGE_DEPARTMENTS, out -> {
+            out.writeUTF(department);
+            out.writeUTF(into);
+        });
+        super.mergeDepartments(department, into);
+        snapshotIfDue();
+    }
+
+    // Writes a snapshot now and drops the log segments it covers. Writers wait only while
+    // the log is rolled and the state captured, not while the snapshot is written.
+    public void snapshot() {
+        Runnable write;
+        synchronized (this) {
+            write = captureSnapshot();
+        }
+        write.run();
+    }
+
+    // Forces every logged mutation to stable storage, regardless of the group-commit settings.
+    public void sync() {
+        log.sync();
+    }
+
+    // Waits for a background snapshot in progress, then closes the log
+    @Override
+    public synchronized void close() {
+        if (snapshotWriter != null) {
+            snapshotWriter.shutdown();
+            try {
+                snapshotWriter.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        log.close();
+    }
+
+    // Appended before the write is applied: a write the log refuses (e.g. a record over its
+    // size limit) never reaches memory
+    private void logged(byte type, WriteAheadLog.PayloadWriter payload) {
+        log.append(type, payload);
+    }
+
+    // Once the write is applied. Snapshots are handed to the background writer one at a time;
+    // while one is being written the count keeps running, so the next write retries.
+    private void snapshotIfDue() {
+        if (config.getSnapshotEveryRecords() > 0 && ++recordsSinceSnapshot >= config.getSnapshotEveryRecords()
+                && snapshotPending.compareAndSet(false, true)) {
+            Runnable write = captureSnapshot();
+            snapshotWriter.execute(() -> {
+                try {
+                    write.run();
+                } catch (PersistenceException e) {
+                    // The log still holds every record, so nothing is lost; the next snapshot retries
+                } finally {
+                    snapshotPending.set(false);
+                }
+            });
+        }
+    }
+
+    // Rolls the log and captures the state it holds up to here, for writing outside the
+    // monitor. Caller holds the monitor.
+    private Runnable captureSnapshot() {
+        log.roll();
+        long lsn = log.lastLsn();
+        EmployeeSnapshot<T> state = readSnapshot();
+        recordsSinceSnapshot = 0;
+        return () -> {
+            synchronized (snapshotLock) {
+                // A snapshot captured later may have been written first
+                if (lsn <= writtenLsn) {
+                    return;
+                }
+                snapshots.write(lsn, state);
+                log.deleteSegmentsUpTo(lsn);
+                writtenLsn = lsn;
+            }
+        };
+    }
+
+    private Employee<T> stored(T employeeId) {
+        Employee<T> emp = storedEmployee(employeeId);
+        if (emp == null) {
+            throw new EmployeeNotFoundException("Employee with ID " + employeeId + " not found");
+        }
+        return emp;
+    }
+
+    // The checks updateEmployeeDetails makes, without the update
+    private static <V> void checkValue(EmployeeField<V> field, Object value) {
+        try {
+            field.validate(field.cast(value));
+        } catch (ClassCastException e) {
+            throw new IllegalArgumentException("Invalid type for field " + field.getName(), e);
+        }
+    }
+
+    private void replay(long lsn, byte type, DataInput in) throws IOException {
+        switch (type) {
+            case ADD -> applyAdd(SnapshotStore.readEmployee(in, idCodec));
+            case REMOVE -> super.removeEmployee(idCodec.read(in));
+            case UPDATE -> {
+                T id = idCodec.read(in);
+                EmployeeField<?> field = readField(in, lsn);
+                super.updateEmployeeDetails(id, field.getName(), readValue(in, field));
+            }
+            case RAISE_ONE -> super.raiseSalary(idCodec.read(in), in.readDouble());
+            case RAISE_BULK -> super.giveRaise(in.readDouble(), in.readDouble());
+            case ADD_BATCH -> {
+                int count = in.readInt();
+                List<Employee<T>> batch = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    batch.add(SnapshotStore.readEmployee(in, idCodec));
+                }
+                super.addEmployees(batch);
+            }
+            case UPDATE_BATCH -> {
+                EmployeeUpdateBatch<T> batch = new EmployeeUpdateBatch<>();
+                int employees = in.readInt();
+                for (int i = 0; i < employees; i++) {
+                    T id = idCodec.read(in);
+                    int fields = in.readInt();
+                    for (int f = 0; f < fields; f++) {
+                        addChange(batch, id, readField(in, lsn), in);
+                    }
+                }
+                super.updateEmployees(batch);
+            }
+            // The departments may have had no employees left by the snapshot the log starts from
+            case RENAME_DEPARTMENT -> {
+                String department = in.readUTF();
+                String newName = in.readUTF();
+                DepartmentDictionary.intern(department);
+                super.renameDepartment(department, newName);
+            }
+            case MERGE_DEPARTMENTS -> {
+                String department = in.readUTF();
+                String into = in.readUTF();
+                DepartmentDictionary.intern(department);
+                DepartmentDictionary.intern(into);
+                super.mergeDepartments(department, into);
+            }
+            default -> throw new PersistenceException("Unknown log record type " + type + " at " + lsn);
+        }
+    }
+
+    // Field name, then the value in the field's type; active is 0/1, or 2 for null
+    private static void writeChange(DataOutput out, EmployeeField<?> field, Object value) throws IOException {
+        out.writeUTF(field.getName());
+        if (field == EmployeeField.NAME || field == EmployeeField.DEPARTMENT) {
+            out.writeUTF((String) value);
+        } else if (field == EmployeeField.SALARY || field == EmployeeField.RATING) {
+            out.writeDouble((Double) value);
+        } else if (field == EmployeeField.EXPERIENCE) {
+            out.writeInt((Integer) value);
+        } else {
+            out.writeByte(value == null ? 2 : (Boolean) value ? 1 : 0);
+        }
+    }
+
+    private static EmployeeField<?> readField(DataInput in, long lsn) throws IOException {
+        String name = in.readUTF();
+        EmployeeField<?> field = EmployeeField.forName(name);
+        if (field == null) {
+            throw new PersistenceException("Unknown field in log record " + lsn + ": " + name);
+        }
+        return field;
+    }
+
+    private static Object readValue(DataInput in, EmployeeField<?> field) throws IOException {
+        if (field == EmployeeField.NAME || field == EmployeeField.DEPARTMENT) {
+            return in.readUTF();
+        } else if (field == EmployeeField.SALARY || field == EmployeeField.RATING) {
+            return in.readDouble();
+        } else if (field == EmployeeField.EXPERIENCE) {
+            return in.readInt();
+        }
+        byte active = in.readByte();
+        return active == 2 ? null : active == 1;
+    }
+
+    private <V> void addChange(EmployeeUpdateBatch<T> batch, T id, EmployeeField<V> field, DataInput in) throws IOException {
+        batch.set(id, field, field.cast(readValue(in, field)));
+    }
+
+    private void applyAdd(Employee<T> employee) {
+        super.addEmployee(employee);
+    }
+}
@@ -0,0 +1,80 @@
+package database;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// The access path an EmployeeQuery runs with, as reported by EmployeeQuery.explain().
+// Costs are in "rows touched" and only meant to be compared with each other.
+public final class QueryPlan {
+    public enum AccessPath {
+        ID_LOOKUP,
+        DEPARTMENT_INDEX,
+        NAME_INDEX,
+        SALARY_INDEX,
+        RATING_INDEX,
+        EXPERIENCE_INDEX,
+        ID_ORDER,
+        COLUMN_BITMAP,
+        FULL_SCAN
+    }
+
+    private final AccessPath accessPath;
+    private final long estimatedRows;
+    private final double cost;
+    private final String ordering;
+    private final List<String> conditions;
+    private final Map<AccessPath, Double> considered;
+
+    QueryPlan(AccessPath accessPath, long estimatedRows, double cost, String ordering,
+              List<String> conditions, Map<AccessPath, Double> considered) {
+        this.accessPath = accessPath;
+        this.estimatedRows = estimatedRows;
+        this.cost = cost;
+        this.ordering = ordering;
+        this.conditions = Collections.unmodifiableList(conditions);
+        this.considered = Collections.unmodifiableMap(new LinkedHashMap<>(considered));
+    }
+
+    public AccessPath getAccessPath() {
+        return accessPath;
+    }
+
+    // Candidate rows the access path is expected to produce before filtering
+    public long getEstimatedRows() {
+        return estimatedRows;
+    }
+
+    public double getCost() {
+        return cost;
+    }
+
+    public String getOrdering() {
+        return ordering;
+    }
+
+    public List<String> getConditions() {
+        return conditions;
+    }
+
+    // Every access path the planner priced, cheapest first
+    public Map<AccessPath, Double> getConsidered() {
+        return considered;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("Access path: ").append(accessPath)
+                .append(" (~").append(estimatedRows).append(" candidate rows, cost ")
+                .append(Math.round(cost)).append(")\n");
+        builder.append("Filter: ").append(conditions.isEmpty() ? "none" : String.join(" AND ", conditions)).append('\n');
+        builder.append("Order: ").append(ordering).append('\n');
+        builder.append("Considered:");
+        for (Map.Entry<AccessPath, Double> entry : considered.entrySet()) {
+            builder.append(' ').append(entry.getKey()).append('=').append(Math.round(entry.getValue()));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,90 @@
+package database;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import model.Employee;
+import utility.TopKSelector;
+
+// Shared single-pass execution for EmployeeQuery: filters the candidates an access path
+// produces and applies order, offset and limit without materializing the unfiltered rows.
+final class QueryRunner {
+    private QueryRunner() {
+    }
+
+    // ordered = the candidates already arrive in the query's sort order, so the scan can stop
+    // as soon as offset + limit matches have been seen
+    static <T> List<Employee<T>> collect(EmployeeQuery<T> query, Iterable<Employee<T>> candidates, boolean ordered) {
+        int offset = query.getOffset();
+        int limit = query.getLimit();
+        if (query.getSortKey() == null || ordered) {
+            List<Employee<T>> result = new ArrayList<>();
+            int skipped = 0;
+            for (Employee<T> emp : candidates) {
+                if (result.size() >= limit) {
+                    break;
+                }
+                if (query.matches(emp) && skipped++ >= offset) {
+                    result.add(emp);
+                }
+            }
+            return result;
+        }
+
+        Comparator<Employee<T>> order = query.isAscending()
+                ? query.getSortKey().comparator() : query.getSortKey().<T>comparator().reversed();
+        List<Employee<T>> sorted;
+        if (limit == Integer.MAX_VALUE) {
+            sorted = new ArrayList<>();
+            for (Employee<T> emp : matching(query, candidates)) {
+                sorted.add(emp);
+            }
+            sorted.sort(order);
+        } else {
+            sorted = TopKSelector.select(matching(query, candidates), (int) Math.min((long) offset + limit, Integer.MAX_VALUE), order);
+        }
+        return offset >= sorted.size() ? new ArrayList<>() : new ArrayList<>(sorted.subList(offset, sorted.size()));
+    }
+
+    static <T> int count(EmployeeQuery<T> query, Iterable<Employee<T>> candidates) {
+        int count = 0;
+        for (Employee<T> emp : candidates) {
+            if (query.matches(emp)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // Lazy view of the candidates that satisfy the query
+    private static <T> Iterable<Employee<T>> matching(EmployeeQuery<T> query, Iterable<Employee<T>> candidates) {
+        return () -> new Iterator<Employee<T>>() {
+            private final Iterator<Employee<T>> delegate = candidates.iterator();
+            private Employee<T> next;
+
+            @Override
+            public boolean hasNext() {
+                while (next == null && delegate.hasNext()) {
+                    Employee<T> emp = delegate.next();
+                    if (query.matches(emp)) {
+                        next = emp;
+                    }
+                }
+                return next != null;
+            }
+
+            @Override
+            public Employee<T> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Employee<T> emp = next;
+                next = null;
+                return emp;
+            }
+        };
+    }
+}
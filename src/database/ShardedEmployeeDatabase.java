@@ -0,0 +1,700 @@
+package database;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import ExceptionHandling.EmployeeNotFoundException;
+import aggregate.DepartmentSummary;
+import aggregate.SummaryStatistics;
+import model.DepartmentDictionary;
+import model.Employee;
+import model.EmployeeField;
+import utility.PersistentHashMap;
+
+// Employees partitioned over N independent EmployeeDatabase shards, by ID hash or by
+// department, so that queries use every core. A query fans out to the shards that can hold
+// matches as a fork/join task tree and the partial results are merged: sorted runs with a
+// k-way merge (sortBySalary, getPage, filterBySalaryRange), top-K by taking each shard's top K
+// and merging the first K, and aggregates by combining counts, sums and variances.
+// Partitioning by department keeps each department on one shard, so department searches and
+// summaries touch one shard; an employee whose department changes moves to its new shard.
+// Thread-safe: writes are exclusive and queries shared, through one read/write lock. Bulk
+// writes (addEmployees, updateEmployees, giveRaise) also apply the shards in parallel.
+// Results are only ordered where the single-shard engine orders them as well.
+public class ShardedEmployeeDatabase<T> extends EmployeeDatabase<T> {
+    public enum Partitioning {
+        ID_HASH,
+        DEPARTMENT
+    }
+
+    private final EmployeeDatabase<T>[] shards;
+    private final Partitioning partitioning;
+    private final ForkJoinPool pool;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Employee ID -> shard holding it; only by department, where the ID alone does not tell
+    private final Map<T, Integer> shardById;
+
+    // One shard per core, by ID hash, on the common fork/join pool
+    public ShardedEmployeeDatabase() {
+        this(Runtime.getRuntime().availableProcessors(), Partitioning.ID_HASH);
+    }
+
+    public ShardedEmployeeDatabase(int shardCount, Partitioning partitioning) {
+        this(shardCount, partitioning, ForkJoinPool.commonPool());
+    }
+
+    @SuppressWarnings("unchecked")
+    public ShardedEmployeeDatabase(int shardCount, Partitioning partitioning, ForkJoinPool pool) {
+        super(Storage.EXTERNAL);
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("Shard count must be positive");
+        }
+        if (partitioning == null || pool == null) {
+            throw new IllegalArgumentException("Partitioning and pool cannot be null");
+        }
+        this.shards = (EmployeeDatabase<T>[]) new EmployeeDatabase<?>[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new EmployeeDatabase<>();
+        }
+        this.partitioning = partitioning;
+        this.pool = pool;
+        this.shardById = partitioning == Partitioning.DEPARTMENT ? new HashMap<>() : null;
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    public Partitioning getPartitioning() {
+        return partitioning;
+    }
+
+    // Employees per shard, to check the balance of the partitioning
+    public int[] getShardSizes() {
+        return read(() -> {
+            int[] sizes = new int[shards.length];
+            for (int i = 0; i < shards.length; i++) {
+                sizes[i] = shards[i].size();
+            }
+            return sizes;
+        });
+    }
+
+    @Override
+    public void addEmployee(Employee<T> employee) {
+        if (employee == null) {
+            throw new IllegalArgumentException("Employee cannot be null");
+        }
+        write(() -> writeInPlace(Collections.singletonList(employee.getEmployeeId()),
+                () -> shards[place(employee)].addEmployee(employee)));
+    }
+
+    // Grouped by shard, then the shards load in parallel. As in EmployeeDatabase the last of
+    // several employees with one ID wins.
+    @Override
+    public void addEmployees(Collection<? extends Employee<T>> employees) {
+        Map<T, Employee<T>> latest = new LinkedHashMap<>();
+        for (Employee<T> employee : employees) {
+            if (employee == null) {
+                throw new IllegalArgumentException("Employee cannot be null");
+            }
+            latest.put(employee.getEmployeeId(), employee);
+        }
+        write(() -> writeInPlace(latest.keySet(), () -> {
+            List<List<Employee<T>>> groups = new ArrayList<>(shards.length);
+            for (int i = 0; i < shards.length; i++) {
+                groups.add(new ArrayList<>());
+            }
+            for (Employee<T> employee : latest.values()) {
+                groups.get(place(employee)).add(employee);
+            }
+            scatter(allShards(), shard -> {
+                List<Employee<T>> group = groups.get(shard);
+                if (!group.isEmpty()) {
+                    shards[shard].addEmployees(group);
+                }
+                return null;
+            });
+        }));
+    }
+
+    @Override
+    public void removeEmployee(T employeeId) {
+        write(() -> {
+            int shard = require(employeeId);
+            writeInPlace(Collections.singletonList(employeeId), () -> {
+                shards[shard].removeEmployee(employeeId);
+                if (shardById != null) {
+                    shardById.remove(employeeId);
+                }
+            });
+        });
+    }
+
+    @Override
+    public void updateEmployeeDetails(T employeeId, String field, Object newValue) {
+        write(() -> {
+            int shard = require(employeeId);
+            writeInPlace(Collections.singletonList(employeeId), () -> {
+                shards[shard].updateEmployeeDetails(employeeId, field, newValue);
+                relocate(employeeId);
+            });
+        });
+    }
+
+    // All or nothing as in EmployeeDatabase: every ID is checked before any shard changes
+    @Override
+    @SuppressWarnings("unchecked")
+    public void updateEmployees(EmployeeUpdateBatch<T> batch) {
+        write(() -> {
+            Map<Integer, EmployeeUpdateBatch<T>> byShard = new HashMap<>();
+            for (T employeeId : batch.employeeIds()) {
+                byShard.computeIfAbsent(require(employeeId), s -> new EmployeeUpdateBatch<>());
+            }
+            for (Map.Entry<T, Map<EmployeeField<?>, Object>> entry : batch.changes().entrySet()) {
+                EmployeeUpdateBatch<T> part = byShard.get(shardOf(entry.getKey()));
+                for (Map.Entry<EmployeeField<?>, Object> change : entry.getValue().entrySet()) {
+                    part.set(entry.getKey(), (EmployeeField<Object>) change.getKey(), change.getValue());
+                }
+            }
+            writeInPlace(batch.employeeIds(), () -> {
+                scatter(toArray(byShard.keySet()), shard -> {
+                    shards[shard].updateEmployees(byShard.get(shard));
+                    return null;
+                });
+                for (T employeeId : batch.employeeIds()) {
+                    relocate(employeeId);
+                }
+            });
+        });
+    }
+
+    @Override
+    public void raiseSalary(T employeeId, double raiseAmount) {
+        write(() -> {
+            int shard = require(employeeId);
+            writeInPlace(Collections.singletonList(employeeId), () -> shards[shard].raiseSalary(employeeId, raiseAmount));
+        });
+    }
+
+    // All or nothing as in EmployeeDatabase: every raised salary is checked before any shard changes
+    @Override
+    public void giveRaise(double minRating, double raiseAmount) {
+        write(() -> {
+            List<T> raised = new ArrayList<>();
+            for (Employee<T> emp : concat(scatter(allShards(), shard -> shards[shard].filterByPerformance(minRating)))) {
+                EmployeeField.SALARY.validate(emp.getSalary() + raiseAmount);
+                raised.add(emp.getEmployeeId());
+            }
+            // Whatever was applied is published, even if a shard fails for another reason
+            writeInPlace(raised, () -> scatter(allShards(), shard -> {
+                shards[shard].giveRaise(minRating, raiseAmount);
+                return null;
+            }));
+        });
+    }
+
+    // Every shard renames the department and relabels its employees. This database's aliases
+    // follow, as they pick the shards a department query goes to: by department, employees stay
+    // on the shard of their old code, which remains in the department's group.
+    @Override
+    public void renameDepartment(String department, String newName) {
+        write(() -> {
+            checkRename(department, newName);
+            List<T> members = ids(searchByDepartment(department));
+            writeInPlace(members, () -> scatter(allShards(), shard -> {
+                shards[shard].renameDepartment(department, newName);
+                return null;
+            }));
+            getDepartmentAliases().rename(department, newName);
+        });
+    }
+
+    @Override
+    public void mergeDepartments(String department, String into) {
+        write(() -> {
+            getDepartmentAliases().checkMerge(department, into);
+            List<T> members = ids(searchByDepartment(department));
+            writeInPlace(members, () -> scatter(allShards(), shard -> {
+                shards[shard].mergeDepartments(department, into);
+                return null;
+            }));
+            getDepartmentAliases().merge(department, into);
+        });
+    }
+
+    @Override
+    public List<Employee<T>> getAllEmployees() {
+        return read(() -> concat(scatter(allShards(), shard -> shards[shard].getAllEmployees())));
+    }
+
+    @Override
+    public List<Employee<T>> searchByDepartment(String department) {
+        if (department == null || department.isBlank()) {
+            return Collections.emptyList();
+        }
+        return read(() -> concat(scatter(shardsFor(department), shard -> shards[shard].searchByDepartment(department))));
+    }
+
+    @Override
+    public List<Employee<T>> searchByName(String name) {
+        if (name == null || name.isBlank()) {
+            return Collections.emptyList();
+        }
+        return read(() -> concat(scatter(allShards(), shard -> shards[shard].searchByName(name))));
+    }
+
+    @Override
+    public List<Employee<T>> search(String query) {
+        if (query == null || query.isBlank()) {
+            return Collections.emptyList();
+        }
+        return read(() -> concat(scatter(allShards(), shard -> shards[shard].search(query))));
+    }
+
+    // Lowest rating first, as the rating index yields them
+    @Override
+    public List<Employee<T>> filterByPerformance(double minRating) {
+        return read(() -> merge(scatter(allShards(), shard -> shards[shard].filterByPerformance(minRating)),
+                SortKey.RATING.comparator(), 0, Integer.MAX_VALUE));
+    }
+
+    // Lowest salary first, as the salary index yields them
+    @Override
+    public List<Employee<T>> filterBySalaryRange(double min, double max) {
+        return read(() -> merge(scatter(allShards(), shard -> shards[shard].filterBySalaryRange(min, max)),
+                SortKey.SALARY.comparator(), 0, Integer.MAX_VALUE));
+    }
+
+    @Override
+    public int size() {
+        return read(() -> sum(scatter(allShards(), shard -> shards[shard].size())));
+    }
+
+    @Override
+    public int count(String filter) {
+        return read(() -> sum(scatter(allShards(), shard -> shards[shard].count(filter))));
+    }
+
+    // Each shard serves its first offset + limit rows from its own index; merging those gives
+    // the global window
+    @Override
+    public List<Employee<T>> getPage(String filter, SortKey sortKey, boolean ascending, int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("Offset and limit cannot be negative");
+        }
+        int window = (int) Math.min((long) offset + limit, Integer.MAX_VALUE);
+        return read(() -> merge(scatter(allShards(), shard -> shards[shard].getPage(filter, sortKey, ascending, 0, window)),
+                order(sortKey, ascending), offset, limit));
+    }
+
+    // The employees ordered before it in every shard
+    @Override
+    public int positionOf(String filter, SortKey sortKey, boolean ascending, Employee<T> employee) {
+        if (employee == null) {
+            throw new IllegalArgumentException("Employee cannot be null");
+        }
+        return read(() -> sum(scatter(allShards(), shard -> shards[shard].positionOf(filter, sortKey, ascending, employee))));
+    }
+
+    // Summed over the shards, so a department present in several shards counts once per shard
+    @Override
+    public Map<String, Integer> getIndexSizes() {
+        return read(() -> {
+            Map<String, Integer> sizes = new LinkedHashMap<>();
+            sizes.put("shards", shards.length);
+            for (Map<String, Integer> shardSizes : scatter(allShards(), shard -> shards[shard].getIndexSizes())) {
+                for (Map.Entry<String, Integer> entry : shardSizes.entrySet()) {
+                    sizes.merge(entry.getKey(), entry.getValue(), Integer::sum);
+                }
+            }
+            return sizes;
+        });
+    }
+
+    // Every shard runs the query with the window widened to offset + limit; sorted results
+    // are k-way merged, unsorted ones concatenated, and the window cut from the merge
+    @Override
+    protected List<Employee<T>> executeQuery(EmployeeQuery<T> query) {
+        int window = (int) Math.min((long) query.getOffset() + query.getLimit(), Integer.MAX_VALUE);
+        EmployeeQuery<T> part = query.window(0, window);
+        return read(() -> {
+            List<List<Employee<T>>> results = scatter(shardsFor(query), shard -> shards[shard].executeQuery(part));
+            if (query.getSortKey() == null) {
+                List<Employee<T>> all = concat(results);
+                int from = Math.min(query.getOffset(), all.size());
+                return new ArrayList<>(all.subList(from, (int) Math.min(all.size(), (long) from + query.getLimit())));
+            }
+            return merge(results, order(query.getSortKey(), query.isAscending()), query.getOffset(), query.getLimit());
+        });
+    }
+
+    @Override
+    protected int countQuery(EmployeeQuery<T> query) {
+        return read(() -> sum(scatter(shardsFor(query), shard -> shards[shard].countQuery(query))));
+    }
+
+    // The first shard's access path, with rows and costs summed over the shards queried
+    @Override
+    protected QueryPlan planQuery(EmployeeQuery<T> query) {
+        return read(() -> {
+            List<QueryPlan> plans = scatter(shardsFor(query), shard -> shards[shard].planQuery(query));
+            long rows = 0;
+            double cost = 0;
+            Map<QueryPlan.AccessPath, Double> considered = new LinkedHashMap<>();
+            for (QueryPlan plan : plans) {
+                rows += plan.getEstimatedRows();
+                cost += plan.getCost();
+                for (Map.Entry<QueryPlan.AccessPath, Double> entry : plan.getConsidered().entrySet()) {
+                    considered.merge(entry.getKey(), entry.getValue(), Double::sum);
+                }
+            }
+            QueryPlan first = plans.get(0);
+            return new QueryPlan(first.getAccessPath(), rows, cost, first.getOrdering(), query.describeConditions(), considered);
+        });
+    }
+
+    // Each shard's snapshot is O(1), but they are copied into one map: O(n)
+    @Override
+    public EmployeeSnapshot<T> readSnapshot() {
+        return read(() -> {
+            PersistentHashMap.Builder<T, Employee<T>> builder = PersistentHashMap.<T, Employee<T>>empty().toBuilder();
+            for (EmployeeDatabase<T> shard : shards) {
+                for (Employee<T> emp : shard.readSnapshot()) {
+                    builder.put(emp.getEmployeeId(), emp);
+                }
+            }
+            return new EmployeeSnapshot<>(builder.build());
+        });
+    }
+
+    @Override
+    public List<Employee<T>> sortBySalary() {
+        return read(() -> merge(scatter(allShards(), shard -> shards[shard].sortBySalary()),
+                order(SortKey.SALARY, false), 0, Integer.MAX_VALUE));
+    }
+
+    @Override
+    public List<Employee<T>> sortByPerformance() {
+        return read(() -> merge(scatter(allShards(), shard -> shards[shard].sortByPerformance()),
+                order(SortKey.RATING, false), 0, Integer.MAX_VALUE));
+    }
+
+    // Partial top-K: the global top K is among the shards' top K
+    @Override
+    public List<Employee<T>> getTopPaid(int limit) {
+        return read(() -> merge(scatter(allShards(), shard -> shards[shard].getTopPaid(limit)),
+                order(SortKey.SALARY, false), 0, limit));
+    }
+
+    @Override
+    public List<Employee<T>> getTopPerformers(int limit) {
+        return read(() -> merge(scatter(allShards(), shard -> shards[shard].getTopPerformers(limit)),
+                order(SortKey.RATING, false), 0, limit));
+    }
+
+    @Override
+    public List<Employee<T>> getTop(int limit, Comparator<Employee<T>> order) {
+        return read(() -> merge(scatter(allShards(), shard -> shards[shard].getTop(limit, order)), order, 0, limit));
+    }
+
+    // Combined from the shards' sums and counts
+    @Override
+    public double getAverageSalary(String department) {
+        DepartmentSummary summary = getDepartmentSummary(department);
+        return summary == null ? 0 : summary.getSalary().getAverage();
+    }
+
+    @Override
+    public DepartmentSummary getDepartmentSummary(String department) {
+        int code = getDepartmentAliases().lookup(department);
+        if (code == DepartmentDictionary.NONE) {
+            return null;
+        }
+        return read(() -> {
+            SummaryStatistics salary = SummaryStatistics.EMPTY;
+            SummaryStatistics rating = SummaryStatistics.EMPTY;
+            for (DepartmentSummary summary : scatter(shardsFor(department), shard -> shards[shard].getDepartmentSummary(department))) {
+                if (summary != null) {
+                    salary = salary.combine(summary.getSalary());
+                    rating = rating.combine(summary.getRating());
+                }
+            }
+            return salary.getCount() == 0 ? null : new DepartmentSummary(getDepartmentAliases().name(code), salary, rating);
+        });
+    }
+
+    @Override
+    public List<DepartmentSummary> getDepartmentSummaries() {
+        return read(() -> {
+            Map<Integer, DepartmentSummary> byDepartment = new HashMap<>();
+            for (List<DepartmentSummary> summaries : scatter(allShards(), shard -> shards[shard].getDepartmentSummaries())) {
+                for (DepartmentSummary summary : summaries) {
+                    byDepartment.merge(getDepartmentAliases().lookup(summary.getDepartment()), summary,
+                            (a, b) -> new DepartmentSummary(a.getDepartment(), a.getSalary().combine(b.getSalary()),
+                                    a.getRating().combine(b.getRating())));
+                }
+            }
+            List<DepartmentSummary> result = new ArrayList<>(byDepartment.values());
+            result.sort(Comparator.comparing(DepartmentSummary::getDepartment, String.CASE_INSENSITIVE_ORDER));
+            return result;
+        });
+    }
+
+    private int shardFor(Employee<T> employee) {
+        int hash = partitioning == Partitioning.DEPARTMENT
+                ? Integer.hashCode(employee.getDepartmentCode()) : employee.getEmployeeId().hashCode();
+        return Math.floorMod(hash ^ hash >>> 16, shards.length);
+    }
+
+    // Shard holding the employee, or where it would be; null by department for an unknown ID
+    private Integer shardOf(T employeeId) {
+        if (shardById != null) {
+            return shardById.get(employeeId);
+        }
+        int hash = employeeId.hashCode();
+        return Math.floorMod(hash ^ hash >>> 16, shards.length);
+    }
+
+    private int require(T employeeId) {
+        Integer shard = shardOf(employeeId);
+        if (shard == null || !shards[shard].readSnapshot().containsEmployee(employeeId)) {
+            throw new EmployeeNotFoundException("Employee with ID " + employeeId + " not found");
+        }
+        return shard;
+    }
+
+    // Shard an added employee goes to. By department, a stored employee whose department
+    // changed is first removed from its old shard.
+    private int place(Employee<T> employee) {
+        int shard = shardFor(employee);
+        if (shardById != null) {
+            Integer previous = shardById.put(employee.getEmployeeId(), shard);
+            if (previous != null && previous != shard) {
+                shards[previous].removeEmployee(employee.getEmployeeId());
+            }
+        }
+        return shard;
+    }
+
+    // Moves an updated employee whose department now belongs on another shard
+    private void relocate(T employeeId) {
+        if (shardById == null) {
+            return;
+        }
+        int shard = shardById.get(employeeId);
+        Employee<T> emp = shards[shard].query().id(employeeId).list().get(0);
+        int target = shardFor(emp);
+        if (target != shard) {
+            shards[shard].removeEmployee(employeeId);
+            shards[target].addEmployee(emp);
+            shardById.put(employeeId, target);
+        }
+    }
+
+    private int[] allShards() {
+        int[] all = new int[shards.length];
+        for (int i = 0; i < all.length; i++) {
+            all[i] = i;
+        }
+        return all;
+    }
+
+    // By department, only the shards of every code in the department's group
+    private int[] shardsFor(String department) {
+        if (partitioning != Partitioning.DEPARTMENT) {
+            return allShards();
+        }
+        int code = getDepartmentAliases().lookup(department);
+        if (code == DepartmentDictionary.NONE) {
+            return new int[] {0};
+        }
+        Set<Integer> targets = new LinkedHashSet<>();
+        for (int member : getDepartmentAliases().members(code)) {
+            int hash = Integer.hashCode(member);
+            targets.add(Math.floorMod(hash ^ hash >>> 16, shards.length));
+        }
+        return toArray(targets);
+    }
+
+    private int[] shardsFor(EmployeeQuery<T> query) {
+        if (query.getEmployeeId() != null) {
+            Integer shard = shardOf(query.getEmployeeId());
+            return new int[] {shard == null ? 0 : shard};
+        }
+        if (!query.getDepartments().isEmpty()) {
+            return shardsFor(query.getDepartments().get(0));
+        }
+        return allShards();
+    }
+
+    private static <T> List<T> ids(List<Employee<T>> employees) {
+        List<T> ids = new ArrayList<>(employees.size());
+        for (Employee<T> emp : employees) {
+            ids.add(emp.getEmployeeId());
+        }
+        return ids;
+    }
+
+    private static int[] toArray(Collection<Integer> values) {
+        int[] array = new int[values.size()];
+        int i = 0;
+        for (int value : values) {
+            array[i++] = value;
+        }
+        return array;
+    }
+
+    // Runs op on each target shard, in parallel as a fork/join tree, and returns the results in
+    // target order. A single target runs on the calling thread.
+    private <R> List<R> scatter(int[] targets, Function<Integer, R> op) {
+        List<R> results = new ArrayList<>(Collections.nCopies(targets.length, null));
+        if (targets.length == 0) {
+            return results;
+        }
+        if (targets.length == 1) {
+            results.set(0, op.apply(targets[0]));
+        } else {
+            pool.invoke(new Scatter<>(targets, op, results, 0, targets.length));
+        }
+        return results;
+    }
+
+    private static <E> List<E> concat(List<List<E>> parts) {
+        int size = 0;
+        for (List<E> part : parts) {
+            size += part.size();
+        }
+        List<E> result = new ArrayList<>(size);
+        for (List<E> part : parts) {
+            result.addAll(part);
+        }
+        return result;
+    }
+
+    private static int sum(List<Integer> parts) {
+        int sum = 0;
+        for (int part : parts) {
+            sum += part;
+        }
+        return sum;
+    }
+
+    private static <T> Comparator<Employee<T>> order(SortKey sortKey, boolean ascending) {
+        return ascending ? sortKey.comparator() : sortKey.<T>comparator().reversed();
+    }
+
+    // k-way merge of runs sorted by order: a heap holds the head of each run, so producing
+    // offset + limit rows costs O((offset + limit) log k)
+    private static <E> List<E> merge(List<List<E>> runs, Comparator<? super E> order, int offset, int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit cannot be negative");
+        }
+        PriorityQueue<Cursor<E>> heads = new PriorityQueue<>(Math.max(1, runs.size()),
+                (a, b) -> order.compare(a.head(), b.head()));
+        for (List<E> run : runs) {
+            if (!run.isEmpty()) {
+                heads.add(new Cursor<>(run));
+            }
+        }
+        List<E> result = new ArrayList<>();
+        int skipped = 0;
+        while (!heads.isEmpty() && result.size() < limit) {
+            Cursor<E> cursor = heads.poll();
+            E next = cursor.head();
+            if (skipped < offset) {
+                skipped++;
+            } else {
+                result.add(next);
+            }
+            if (++cursor.position < cursor.run.size()) {
+                heads.add(cursor);
+            }
+        }
+        return result;
+    }
+
+    private <R> R read(Supplier<R> query) {
+        lock.readLock().lock();
+        try {
+            return query.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void write(Runnable update) {
+        lock.writeLock().lock();
+        try {
+            update.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // The shards publish their own events, but not across a move between shards, so the
+    // writes here publish them off the shard holding each employee
+    @Override
+    protected Employee<T> storedEmployee(T employeeId) {
+        Integer shard = shardOf(employeeId);
+        return shard == null ? null : shards[shard].storedEmployee(employeeId);
+    }
+
+    private static final class Cursor<E> {
+        private final List<E> run;
+        private int position;
+
+        private Cursor(List<E> run) {
+            this.run = run;
+        }
+
+        private E head() {
+            return run.get(position);
+        }
+    }
+
+    // Splits the targets in halves until one is left, so the pool's workers steal whole subtrees
+    private static final class Scatter<R> extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] targets;
+        private final Function<Integer, R> op;
+        private final List<R> results;
+        private final int from;
+        private final int to;
+
+        private Scatter(int[] targets, Function<Integer, R> op, List<R> results, int from, int to) {
+            this.targets = targets;
+            this.op = op;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= 1) {
+                if (to > from) {
+                    results.set(from, op.apply(targets[from]));
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new Scatter<>(targets, op, results, from, middle), new Scatter<>(targets, op, results, middle, to));
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package database;
+
+import java.util.Comparator;
+
+import model.Employee;
+import model.EmployeeField;
+import utility.EmployeeIdComparator;
+
+// Column a page of employees can be ordered by. Ties always break on employee ID, so the
+// order is total and pages never overlap or skip rows. ID, SALARY, RATING and EXPERIENCE
+// are served straight from ordered indexes; NAME and DEPARTMENT are ranked with a bounded heap.
+public enum SortKey {
+    ID,
+    NAME,
+    DEPARTMENT,
+    SALARY,
+    RATING,
+    EXPERIENCE;
+
+    public <T> Comparator<Employee<T>> comparator() {
+        Comparator<Employee<T>> byId = Comparator.comparing(Employee::getEmployeeId, new EmployeeIdComparator<>());
+        Comparator<Employee<T>> byKey = switch (this) {
+            case ID -> (e1, e2) -> 0;
+            case NAME -> Comparator.comparing(Employee::getName, String.CASE_INSENSITIVE_ORDER);
+            case DEPARTMENT -> Comparator.comparing(Employee::getDepartment, String.CASE_INSENSITIVE_ORDER);
+            case SALARY -> (e1, e2) -> Double.compare(e1.getSalary() + 0.0, e2.getSalary() + 0.0);
+            case RATING -> (e1, e2) -> Double.compare(e1.getPerformanceRating() + 0.0, e2.getPerformanceRating() + 0.0);
+            case EXPERIENCE -> Comparator.comparingInt(Employee::getYearsOfExperience);
+        };
+        return byKey.thenComparing(byId);
+    }
+
+    // The attribute this key orders by; null for ID, which cannot change
+    public EmployeeField<?> field() {
+        return switch (this) {
+            case ID -> null;
+            case NAME -> EmployeeField.NAME;
+            case DEPARTMENT -> EmployeeField.DEPARTMENT;
+            case SALARY -> EmployeeField.SALARY;
+            case RATING -> EmployeeField.RATING;
+            case EXPERIENCE -> EmployeeField.EXPERIENCE;
+        };
+    }
+}
@@ -0,0 +1,121 @@
+package exporter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import ExceptionHandling.PersistenceException;
+import model.Employee;
+
+// Streams employees to a file or channel in constant memory.
+// Each row is formatted into one reused StringBuilder, copied into a reused char buffer and
+// encoded as UTF-8 straight into a direct ByteBuffer that is written out whenever it fills, so
+// the cost per row is independent of how many rows have been written before it.
+public class EmployeeExporter {
+    private static final int DEFAULT_BUFFER_BYTES = 64 * 1024;
+
+    private final ExportFormat format;
+    private final int bufferBytes;
+
+    public EmployeeExporter(ExportFormat format) {
+        this(format, DEFAULT_BUFFER_BYTES);
+    }
+
+    public EmployeeExporter(ExportFormat format, int bufferBytes) {
+        if (format == null) {
+            throw new IllegalArgumentException("Export format cannot be null");
+        }
+        if (bufferBytes < 16) {
+            throw new IllegalArgumentException("Buffer must hold at least 16 bytes");
+        }
+        this.format = format;
+        this.bufferBytes = bufferBytes;
+    }
+
+    // Writes (or replaces) the file and returns the number of employees written.
+    public long export(Iterable<? extends Employee<?>> employees, Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            return export(employees, channel);
+        } catch (IOException e) {
+            throw new PersistenceException("Failed to write " + file, e);
+        }
+    }
+
+    // Writes to the channel without closing it and returns the number of employees written.
+    public long export(Iterable<? extends Employee<?>> employees, WritableByteChannel channel) {
+        Sink sink = new Sink(channel, bufferBytes);
+        StringBuilder line = new StringBuilder(256);
+        long rows = 0;
+        try {
+            format.appendHeader(line);
+            sink.write(line);
+            for (Employee<?> emp : employees) {
+                format.appendRow(emp, line);
+                sink.write(line);
+                rows++;
+            }
+            sink.finish();
+            return rows;
+        } catch (IOException e) {
+            throw new PersistenceException("Failed to export employees", e);
+        }
+    }
+
+    private static final class Sink {
+        private final WritableByteChannel channel;
+        private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+        private final ByteBuffer bytes;
+        private char[] chars = new char[256];
+        private CharBuffer text = CharBuffer.wrap(chars);
+
+        private Sink(WritableByteChannel channel, int bufferBytes) {
+            this.channel = channel;
+            this.bytes = ByteBuffer.allocateDirect(bufferBytes);
+        }
+
+        // Encodes and clears the line; bytes reach the channel only when the buffer fills
+        private void write(StringBuilder line) throws IOException {
+            int length = line.length();
+            if (length > chars.length) {
+                chars = new char[Math.max(length, chars.length * 2)];
+                text = CharBuffer.wrap(chars);
+            }
+            line.getChars(0, length, chars, 0);
+            line.setLength(0);
+            text.clear().limit(length);
+            while (true) {
+                CoderResult result = encoder.encode(text, bytes, false);
+                if (result.isOverflow()) {
+                    drain();
+                } else if (result.isUnderflow()) {
+                    return;
+                } else {
+                    result.throwException();
+                }
+            }
+        }
+
+        private void finish() throws IOException {
+            text.clear().limit(0);
+            encoder.encode(text, bytes, true);
+            encoder.flush(bytes);
+            drain();
+        }
+
+        private void drain() throws IOException {
+            bytes.flip();
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            bytes.clear();
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package exporter;
+
+import model.Employee;
+
+// Output layouts for EmployeeExporter.
+// Rows are appended to a caller-owned StringBuilder so one buffer can be reused for a whole
+// export; numbers are written with StringBuilder.append or fixed-point long arithmetic rather
+// than String.format. CSV uses the column order CsvEmployeeImporter reads back.
+public enum ExportFormat {
+    CSV("csv") {
+        @Override
+        public void appendHeader(StringBuilder out) {
+            out.append("id,name,department,salary,rating,experience,active\n");
+        }
+
+        @Override
+        public void appendRow(Employee<?> emp, StringBuilder out) {
+            appendCsvField(out, String.valueOf(emp.getEmployeeId()));
+            out.append(',');
+            appendCsvField(out, emp.getName());
+            out.append(',');
+            appendCsvField(out, emp.getDepartment());
+            out.append(',').append(emp.getSalary().doubleValue());
+            out.append(',').append(emp.getPerformanceRating().doubleValue());
+            out.append(',').append(emp.getYearsOfExperience().intValue());
+            out.append(',');
+            if (emp.isActive() != null) {
+                out.append(emp.isActive().booleanValue());
+            }
+            out.append('\n');
+        }
+    },
+
+    JSON_LINES("jsonl") {
+        @Override
+        public void appendHeader(StringBuilder out) {
+        }
+
+        @Override
+        public void appendRow(Employee<?> emp, StringBuilder out) {
+            Object id = emp.getEmployeeId();
+            out.append("{\"id\":");
+            if (id instanceof Number) {
+                out.append(id);
+            } else {
+                appendJsonString(out, String.valueOf(id));
+            }
+            out.append(",\"name\":");
+            appendJsonString(out, emp.getName());
+            out.append(",\"department\":");
+            appendJsonString(out, emp.getDepartment());
+            out.append(",\"salary\":").append(emp.getSalary().doubleValue());
+            out.append(",\"rating\":").append(emp.getPerformanceRating().doubleValue());
+            out.append(",\"experience\":").append(emp.getYearsOfExperience().intValue());
+            out.append(",\"active\":").append(emp.isActive() == null ? "null" : emp.isActive() ? "true" : "false");
+            out.append("}\n");
+        }
+    },
+
+    FIXED_WIDTH("txt") {
+        @Override
+        public void appendHeader(StringBuilder out) {
+            padRight(out, "ID", ID_WIDTH);
+            padRight(out, "Name", NAME_WIDTH);
+            padRight(out, "Department", DEPARTMENT_WIDTH);
+            padLeft(out, "Salary", SALARY_WIDTH);
+            padLeft(out, "Rating", RATING_WIDTH);
+            padLeft(out, "Exp", EXPERIENCE_WIDTH);
+            padLeft(out, "Active", ACTIVE_WIDTH);
+            out.append('\n');
+        }
+
+        @Override
+        public void appendRow(Employee<?> emp, StringBuilder out) {
+            padRight(out, String.valueOf(emp.getEmployeeId()), ID_WIDTH);
+            padRight(out, emp.getName(), NAME_WIDTH);
+            padRight(out, emp.getDepartment(), DEPARTMENT_WIDTH);
+
+            int start = out.length();
+            appendFixed(out, emp.getSalary(), 2);
+            alignRight(out, start, SALARY_WIDTH);
+            start = out.length();
+            appendFixed(out, emp.getPerformanceRating(), 1);
+            alignRight(out, start, RATING_WIDTH);
+            start = out.length();
+            out.append(emp.getYearsOfExperience().intValue());
+            alignRight(out, start, EXPERIENCE_WIDTH);
+            padLeft(out, emp.isActive() == null ? "" : emp.isActive() ? "yes" : "no", ACTIVE_WIDTH);
+            out.append('\n');
+        }
+    };
+
+    private static final int ID_WIDTH = 10;
+    private static final int NAME_WIDTH = 26;
+    private static final int DEPARTMENT_WIDTH = 20;
+    private static final int SALARY_WIDTH = 14;
+    private static final int RATING_WIDTH = 8;
+    private static final int EXPERIENCE_WIDTH = 6;
+    private static final int ACTIVE_WIDTH = 8;
+    private static final long[] POWERS_OF_TEN = {1, 10, 100, 1000, 10_000};
+
+    private final String extension;
+
+    ExportFormat(String extension) {
+        this.extension = extension;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public abstract void appendHeader(StringBuilder out);
+
+    public abstract void appendRow(Employee<?> emp, StringBuilder out);
+
+    // value rounded half-up to the given number of decimals (at most 4), e.g. 1234.5 -> "1234.50"
+    static void appendFixed(StringBuilder out, double value, int decimals) {
+        long scale = POWERS_OF_TEN[decimals];
+        if (Double.isNaN(value) || Double.isInfinite(value) || Math.abs(value) >= 1e15 / scale) {
+            out.append(value);
+            return;
+        }
+        long scaled = Math.round(Math.abs(value) * scale);
+        if (value < 0 && scaled != 0) {
+            out.append('-');
+        }
+        out.append(scaled / scale);
+        if (decimals > 0) {
+            out.append('.');
+            long fraction = scaled % scale;
+            for (long digit = scale / 10; digit > fraction && digit > 1; digit /= 10) {
+                out.append('0');
+            }
+            out.append(fraction);
+        }
+    }
+
+    private static void appendCsvField(StringBuilder out, String value) {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            out.append(value);
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                out.append('"');
+            }
+            out.append(c);
+        }
+        out.append('"');
+    }
+
+    private static void appendJsonString(StringBuilder out, String value) {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        out.append("\\u00");
+                        out.append(Character.forDigit(c >> 4, 16)).append(Character.forDigit(c & 0xF, 16));
+                    } else {
+                        out.append(c);
+                    }
+                }
+            }
+        }
+        out.append('"');
+    }
+
+    // Values longer than the column are cut so the following columns stay aligned
+    private static void padRight(StringBuilder out, String value, int width) {
+        int length = Math.min(value.length(), width - 1);
+        out.append(value, 0, length);
+        for (int i = length; i < width; i++) {
+            out.append(' ');
+        }
+    }
+
+    private static void padLeft(StringBuilder out, String value, int width) {
+        int start = out.length();
+        out.append(value);
+        alignRight(out, start, width);
+    }
+
+    private static void alignRight(StringBuilder out, int start, int width) {
+        int padding = width - (out.length() - start);
+        for (int i = 0; i < padding; i++) {
+            out.insert(start, ' ');
+        }
+    }
+}
@@ -0,0 +1,328 @@
+package importer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import ExceptionHandling.PersistenceException;
+import database.EmployeeDatabase;
+import model.Employee;
+
+// Streaming, parallel CSV import into an EmployeeDatabase.
+// The file is cut into newline-aligned chunks that are memory-mapped and parsed on a worker
+// pool; rows are validated by the Employee setters. Parsed chunks are inserted in file order
+// with one addEmployees() batch per chunk, and only a bounded window of chunks is in flight,
+// so memory stays flat regardless of file size. Invalid rows are reported, not fatal.
+//
+// Columns: id,name,department,salary,rating,experience[,active]. A header row naming these
+// columns may reorder them. A blank id is filled from the idGenerator when one is given.
+// Quoted fields ("Doe, John") are supported; line breaks inside quotes are not.
+public class CsvEmployeeImporter<T> {
+    public static final int DEFAULT_CHUNK_BYTES = 4 * 1024 * 1024;
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private static final String[] COLUMNS = {"id", "name", "department", "salary", "rating", "experience", "active"};
+
+    private final Function<String, T> idParser;
+    private final Supplier<T> idGenerator;
+    private final int chunkBytes;
+    private final int parallelism;
+
+    public CsvEmployeeImporter(Function<String, T> idParser) {
+        this(idParser, null, DEFAULT_CHUNK_BYTES, Runtime.getRuntime().availableProcessors());
+    }
+
+    public CsvEmployeeImporter(Function<String, T> idParser, Supplier<T> idGenerator,
+                               int chunkBytes, int parallelism) {
+        if (chunkBytes <= 0 || parallelism <= 0) {
+            throw new IllegalArgumentException("Chunk size and parallelism must be positive");
+        }
+        this.idParser = idParser;
+        this.idGenerator = idGenerator;
+        this.chunkBytes = chunkBytes;
+        this.parallelism = parallelism;
+    }
+
+    public ImportResult importFile(Path csv, EmployeeDatabase<T> db, ImportListener listener) {
+        long started = System.currentTimeMillis();
+        ExecutorService workers = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread thread = new Thread(r, "csv-import");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try (FileChannel channel = FileChannel.open(csv, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = skipBom(channel);
+            int[] columns = defaultColumns();
+            long lineNumber = 0;
+
+            long headerEnd = nextLineStart(channel, position, size);
+            if (headerEnd > position) {
+                int[] header = parseHeader(decode(channel, position, headerEnd));
+                if (header != null) {
+                    columns = header;
+                    position = headerEnd;
+                    lineNumber = 1;
+                }
+            }
+
+            long imported = 0;
+            long rejected = 0;
+            List<ImportError> errors = new ArrayList<>();
+            Deque<Future<ParsedChunk<T>>> inFlight = new ArrayDeque<>();
+            int[] columnMap = columns;
+            long bytesDone = position;
+
+            while (position < size || !inFlight.isEmpty()) {
+                // Keep a bounded window of chunks parsing ahead of the inserter
+                while (position < size && inFlight.size() < parallelism * 2) {
+                    long start = position;
+                    long end = nextLineStart(channel, Math.min(size, start + chunkBytes), size);
+                    MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+                    inFlight.add(workers.submit(() -> parseChunk(bytes, columnMap)));
+                    position = end;
+                }
+
+                ParsedChunk<T> chunk = inFlight.poll().get();
+                db.addEmployees(chunk.employees);
+                imported += chunk.employees.size();
+                rejected += chunk.errors.size();
+                for (ImportError error : chunk.errors) {
+                    if (errors.size() < MAX_REPORTED_ERRORS) {
+                        errors.add(new ImportError(lineNumber + error.getLineNumber(), error.getMessage()));
+                    }
+                }
+                lineNumber += chunk.lines;
+                bytesDone += chunk.bytes;
+                if (listener != null) {
+                    listener.onProgress(bytesDone, size, imported, rejected);
+                }
+            }
+            return new ImportResult(imported, rejected, errors, System.currentTimeMillis() - started);
+        } catch (IOException e) {
+            throw new PersistenceException("Failed to read " + csv, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PersistenceException("Import of " + csv + " was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new PersistenceException("Failed to parse " + csv, e.getCause());
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    private ParsedChunk<T> parseChunk(ByteBuffer bytes, int[] columns) {
+        CharBuffer text = StandardCharsets.UTF_8.decode(bytes);
+        ParsedChunk<T> chunk = new ParsedChunk<>();
+        List<String> fields = new ArrayList<>(COLUMNS.length);
+        StringBuilder field = new StringBuilder();
+        int lineStart = 0;
+        int length = text.length();
+        for (int i = 0; i <= length; i++) {
+            if (i < length && text.get(i) != '\n') {
+                continue;
+            }
+            int lineEnd = i > lineStart && text.get(i - 1) == '\r' ? i - 1 : i;
+            if (i < length || lineEnd > lineStart) {
+                chunk.lines++;
+                if (lineEnd > lineStart) {
+                    try {
+                        split(text, lineStart, lineEnd, fields, field);
+                        chunk.employees.add(toEmployee(fields, columns));
+                    } catch (RuntimeException e) {
+                        chunk.errors.add(new ImportError(chunk.lines, describe(e)));
+                    }
+                }
+            }
+            lineStart = i + 1;
+        }
+        chunk.bytes = bytes.limit();
+        return chunk;
+    }
+
+    private Employee<T> toEmployee(List<String> fields, int[] columns) {
+        String rawId = column(fields, columns, 0);
+        T id;
+        if (rawId.isEmpty()) {
+            if (idGenerator == null) {
+                throw new IllegalArgumentException("Employee ID cannot be empty.");
+            }
+            id = idGenerator.get();
+        } else {
+            id = idParser.apply(rawId);
+        }
+        String active = column(fields, columns, 6);
+        return new Employee<>(id,
+                column(fields, columns, 1),
+                column(fields, columns, 2),
+                parseDouble(column(fields, columns, 3), "salary"),
+                parseDouble(column(fields, columns, 4), "rating"),
+                parseInt(column(fields, columns, 5), "experience"),
+                active.isEmpty() || parseBoolean(active));
+    }
+
+    private static String column(List<String> fields, int[] columns, int column) {
+        int index = columns[column];
+        if (index < 0 || index >= fields.size()) {
+            if (column == 6 || column == 0) {
+                return "";
+            }
+            throw new IllegalArgumentException("Missing column: " + COLUMNS[column]);
+        }
+        return fields.get(index).trim();
+    }
+
+    // RFC 4180 style: fields may be quoted, "" inside quotes is a literal quote
+    private static void split(CharSequence line, int start, int end, List<String> fields, StringBuilder field) {
+        fields.clear();
+        field.setLength(0);
+        boolean quoted = false;
+        for (int i = start; i < end; i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < end && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+    }
+
+    private static double parseDouble(String value, String column) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + column + ": '" + value + "'");
+        }
+    }
+
+    private static int parseInt(String value, String column) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + column + ": '" + value + "'");
+        }
+    }
+
+    private static boolean parseBoolean(String value) {
+        switch (value.toLowerCase(Locale.ROOT)) {
+            case "true", "yes", "y", "1" -> {
+                return true;
+            }
+            case "false", "no", "n", "0" -> {
+                return false;
+            }
+            default -> throw new IllegalArgumentException("Invalid active flag: '" + value + "'");
+        }
+    }
+
+    private static String describe(RuntimeException e) {
+        return e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+    }
+
+    private static int[] defaultColumns() {
+        int[] columns = new int[COLUMNS.length];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = i;
+        }
+        return columns;
+    }
+
+    // Column positions from a header row, or null if the first row is data
+    private static int[] parseHeader(CharSequence line) {
+        List<String> fields = new ArrayList<>();
+        split(line, 0, line.length(), fields, new StringBuilder());
+        int[] columns = new int[COLUMNS.length];
+        Arrays.fill(columns, -1);
+        boolean header = false;
+        for (int i = 0; i < fields.size(); i++) {
+            String name = fields.get(i).trim().toLowerCase(Locale.ROOT);
+            for (int c = 0; c < COLUMNS.length; c++) {
+                if (COLUMNS[c].equals(name)) {
+                    columns[c] = i;
+                    header = true;
+                }
+            }
+        }
+        return header ? columns : null;
+    }
+
+    private static long skipBom(FileChannel channel) throws IOException {
+        ByteBuffer bom = ByteBuffer.allocate(3);
+        channel.read(bom, 0);
+        return bom.position() == 3 && (bom.get(0) & 0xFF) == 0xEF && (bom.get(1) & 0xFF) == 0xBB
+                && (bom.get(2) & 0xFF) == 0xBF ? 3 : 0;
+    }
+
+    // Offset just past the first '\n' at or after from, or size if there is none
+    private static long nextLineStart(FileChannel channel, long from, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        long position = from;
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private static CharSequence decode(FileChannel channel, long start, long end) throws IOException {
+        ByteBuffer line = ByteBuffer.allocate((int) Math.min(end - start, 1 << 20));
+        channel.read(line, start);
+        line.flip();
+        CharBuffer text = StandardCharsets.UTF_8.decode(line);
+        int length = text.length();
+        while (length > 0 && (text.get(length - 1) == '\n' || text.get(length - 1) == '\r')) {
+            length--;
+        }
+        return text.subSequence(0, length);
+    }
+
+    private static final class ParsedChunk<T> {
+        private final List<Employee<T>> employees = new ArrayList<>();
+        private final List<ImportError> errors = new ArrayList<>();
+        private long lines;
+        private long bytes;
+    }
+}
@@ -0,0 +1,25 @@
+package importer;
+
+// One rejected CSV row.
+public class ImportError {
+    private final long lineNumber;
+    private final String message;
+
+    public ImportError(long lineNumber, String message) {
+        this.lineNumber = lineNumber;
+        this.message = message;
+    }
+
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return "Line " + lineNumber + ": " + message;
+    }
+}
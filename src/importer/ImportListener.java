@@ -0,0 +1,7 @@
+package importer;
+
+// Called on the importing thread after every batch is inserted.
+@FunctionalInterface
+public interface ImportListener {
+    void onProgress(long bytesProcessed, long totalBytes, long imported, long rejected);
+}
@@ -0,0 +1,40 @@
+package importer;
+
+import java.util.Collections;
+import java.util.List;
+
+// Outcome of a bulk import. Only the first errors are kept in detail; getRejected() counts all.
+public class ImportResult {
+    private final long imported;
+    private final long rejected;
+    private final List<ImportError> errors;
+    private final long elapsedMillis;
+
+    public ImportResult(long imported, long rejected, List<ImportError> errors, long elapsedMillis) {
+        this.imported = imported;
+        this.rejected = rejected;
+        this.errors = Collections.unmodifiableList(errors);
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public List<ImportError> getErrors() {
+        return errors;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Imported %d employees, rejected %d rows in %d ms", imported, rejected, elapsedMillis);
+    }
+}
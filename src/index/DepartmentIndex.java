@@ -0,0 +1,139 @@
+package index;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import model.DepartmentAliases;
+import model.DepartmentDictionary;
+import utility.KeyCollections;
+
+// Hash index: department code -> employee IDs, so department lookups ignore case by comparing
+// DepartmentDictionary codes. Buckets are keyed by the code an employee had when indexed; a
+// lookup also reads the buckets of the departments the database's DepartmentAliases renamed or
+// merged into the one asked for, so neither needs reindexing.
+// In concurrent mode buckets are updated atomically per department; callers must still
+// serialize updates for the same employee ID.
+public class DepartmentIndex<T> {
+    private final boolean concurrent;
+    private final KeyCollections<T> ids;
+    private final DepartmentAliases aliases;
+    private final Map<Integer, Set<T>> buckets;
+    private final Map<T, Integer> keyById;
+
+    public DepartmentIndex() {
+        this(false);
+    }
+
+    public DepartmentIndex(boolean concurrent) {
+        this(concurrent, concurrent ? KeyCollections.concurrent() : KeyCollections.hashed());
+    }
+
+    public DepartmentIndex(boolean concurrent, KeyCollections<T> ids) {
+        this(concurrent, ids, new DepartmentAliases());
+    }
+
+    // ids makes the buckets and the ID -> department map; it must be concurrent if this is
+    public DepartmentIndex(boolean concurrent, KeyCollections<T> ids, DepartmentAliases aliases) {
+        this.concurrent = concurrent;
+        this.ids = ids;
+        this.aliases = aliases;
+        this.buckets = concurrent ? new ConcurrentHashMap<>() : new HashMap<>();
+        this.keyById = ids.newMap();
+    }
+
+    // departmentCode as from Employee.getDepartmentCode(); NONE removes the employee
+    public void index(T employeeId, int departmentCode) {
+        Integer key = departmentCode == DepartmentDictionary.NONE ? null : departmentCode;
+        Integer previous = key == null ? keyById.remove(employeeId) : keyById.put(employeeId, key);
+        if (key != null && key.equals(previous)) {
+            return;
+        }
+        if (previous != null) {
+            removeFromBucket(previous, employeeId);
+        }
+        if (key != null) {
+            // Added inside compute() so it cannot race with removeFromBucket() dropping the bucket
+            buckets.compute(key, (k, existing) -> {
+                Set<T> bucket = existing;
+                if (bucket == null) {
+                    bucket = ids.newSet();
+                }
+                bucket.add(employeeId);
+                return bucket;
+            });
+        }
+    }
+
+    public void remove(T employeeId) {
+        Integer previous = keyById.remove(employeeId);
+        if (previous != null) {
+            removeFromBucket(previous, employeeId);
+        }
+    }
+
+    public Set<T> lookup(String department) {
+        if (department == null || department.isBlank()) {
+            return Collections.emptySet();
+        }
+        return lookup(aliases.lookup(department));
+    }
+
+    public Set<T> lookup(int departmentCode) {
+        if (departmentCode == DepartmentDictionary.NONE) {
+            return Collections.emptySet();
+        }
+        int[] members = aliases.members(departmentCode);
+        if (members.length == 1) {
+            Set<T> ids = buckets.get(members[0]);
+            return ids == null ? Collections.emptySet() : Collections.unmodifiableSet(ids);
+        }
+        Set<T> ids = new HashSet<>();
+        for (int member : members) {
+            Set<T> bucket = buckets.get(member);
+            if (bucket != null) {
+                ids.addAll(bucket);
+            }
+        }
+        return ids;
+    }
+
+    // Employee IDs in every department whose current name contains the fragment, ignoring
+    // case. Departments are few, so their names are simply scanned.
+    public List<T> containing(String fragment) {
+        String folded = fragment.toLowerCase(Locale.ROOT);
+        List<T> result = new ArrayList<>();
+        for (Map.Entry<Integer, Set<T>> entry : buckets.entrySet()) {
+            if (aliases.name(entry.getKey()).toLowerCase(Locale.ROOT).contains(folded)) {
+                result.addAll(entry.getValue());
+            }
+        }
+        return result;
+    }
+
+    public int size() {
+        return keyById.size();
+    }
+
+    // Distinct departments, ignoring case and counting merged ones once
+    public int departmentCount() {
+        Set<Integer> departments = new HashSet<>();
+        for (Integer key : buckets.keySet()) {
+            departments.add(aliases.canonical(key));
+        }
+        return departments.size();
+    }
+
+    private void removeFromBucket(Integer key, T employeeId) {
+        buckets.computeIfPresent(key, (k, ids) -> {
+            ids.remove(employeeId);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+}
@@ -0,0 +1,593 @@
+package index;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+
+import utility.EmployeeIdComparator;
+import utility.KeyCollections;
+
+// Ordered index over a numeric employee attribute (salary, rating, ...), kept sorted by
+// (key, employeeId) so ties always break on ID. Backed by order-statistic treaps: every node
+// knows its subtree size, so besides O(log n) updates and O(log n + k) range scans it can
+// count a range in O(log n) and return page N of either order in O(log n + page size)
+// without walking the entries before it.
+// Thread-safe. Entries can be split by ID hash over several treaps (shards), each behind its
+// own lock, so writers to different shards run in parallel. Counts add up the shards, scans
+// merge them, and page() locks them all and finds where the page starts in each shard by
+// bisection: O(s^2 log^2 n) for s shards instead of O(log n). The lazy iterables fetch
+// entries in small chunks, resuming after the last entry returned, so they never block
+// writers for long and are weakly consistent: an entry present throughout is seen exactly once.
+public class RangeIndex<T> {
+    private static final int CHUNK = 128;
+
+    private final Comparator<T> idComparator = new EmployeeIdComparator<>();
+    private final Shard<T>[] shards;
+    private final int shardMask;
+
+    public RangeIndex() {
+        this(1);
+    }
+
+    public RangeIndex(int shardCount) {
+        this(shardCount, KeyCollections.hashed());
+    }
+
+    // shardCount is rounded up to a power of two. ids makes each shard's ID -> node map, which
+    // the shard's lock guards, so it need not be thread-safe.
+    @SuppressWarnings("unchecked")
+    public RangeIndex(int shardCount, KeyCollections<T> ids) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("Shard count must be positive");
+        }
+        int size = Integer.highestOneBit(shardCount);
+        if (size < shardCount) {
+            size <<= 1;
+        }
+        this.shards = (Shard<T>[]) new Shard<?>[size];
+        for (int i = 0; i < size; i++) {
+            shards[i] = new Shard<>(idComparator, ids.newMap());
+        }
+        this.shardMask = size - 1;
+    }
+
+    public void index(T employeeId, double key) {
+        Shard<T> shard = shardFor(employeeId);
+        shard.lock.lock();
+        try {
+            shard.index(employeeId, key + 0.0); // fold -0.0 into 0.0
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    // Batch form of index(): keys[i] is the key of employeeIds.get(i). Each shard's lock is
+    // taken once for the whole batch; an ID listed twice ends up with its last key.
+    public void indexAll(List<T> employeeIds, double[] keys) {
+        int[] shardOf = new int[employeeIds.size()];
+        for (int i = 0; i < shardOf.length; i++) {
+            shardOf[i] = shardIndex(employeeIds.get(i));
+        }
+        for (int s = 0; s < shards.length; s++) {
+            Shard<T> shard = shards[s];
+            shard.lock.lock();
+            try {
+                for (int i = 0; i < shardOf.length; i++) {
+                    if (shardOf[i] == s) {
+                        shard.index(employeeIds.get(i), keys[i] + 0.0);
+                    }
+                }
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+    }
+
+    public void remove(T employeeId) {
+        Shard<T> shard = shardFor(employeeId);
+        shard.lock.lock();
+        try {
+            shard.remove(employeeId);
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    // Employee IDs with min <= key <= max, in ascending key order.
+    public Iterable<T> range(double min, double max) {
+        if (Double.isNaN(min) || Double.isNaN(max) || min > max) {
+            return Collections.emptyList();
+        }
+        return () -> cursor(min + 0.0, max + 0.0, true);
+    }
+
+    // Employee IDs with min <= key <= max, highest key first.
+    public Iterable<T> rangeDescending(double min, double max) {
+        if (Double.isNaN(min) || Double.isNaN(max) || min > max) {
+            return Collections.emptyList();
+        }
+        return () -> cursor(min + 0.0, max + 0.0, false);
+    }
+
+    // Number of entries with min <= key <= max: O(s log n).
+    public int count(double min, double max) {
+        if (Double.isNaN(min) || Double.isNaN(max) || min > max) {
+            return 0;
+        }
+        int count = 0;
+        for (Shard<T> shard : shards) {
+            shard.lock.lock();
+            try {
+                count += shard.countBefore(max + 0.0, null, 1, false) - shard.countBefore(min + 0.0, null, -1, false);
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+        return count;
+    }
+
+    // Employee IDs with key >= min, in ascending key order.
+    public Iterable<T> atLeast(double min) {
+        return range(min, Double.POSITIVE_INFINITY);
+    }
+
+    // All employee IDs, lowest key first.
+    public Iterable<T> ascending() {
+        return () -> cursor(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, true);
+    }
+
+    // All employee IDs, highest key first.
+    public Iterable<T> descending() {
+        return () -> cursor(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, false);
+    }
+
+    // Entries that order before / after the probe (key, employeeId), which need not be indexed:
+    // its ascending / descending position. O(s log n).
+    public int countBefore(double key, T employeeId) {
+        int count = 0;
+        for (Shard<T> shard : shards) {
+            shard.lock.lock();
+            try {
+                count += shard.countBefore(key + 0.0, employeeId, 0, false);
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+        return count;
+    }
+
+    public int countAfter(double key, T employeeId) {
+        int count = 0;
+        for (Shard<T> shard : shards) {
+            shard.lock.lock();
+            try {
+                count += size(shard.root) - shard.countBefore(key + 0.0, employeeId, 0, true);
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+        return count;
+    }
+
+    // Up to limit employee IDs starting at position offset of the ascending or descending
+    // order, however deep the page.
+    public List<T> page(int offset, int limit, boolean ascending) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("Offset and limit cannot be negative");
+        }
+        List<Node<T>> nodes;
+        int locked = 0;
+        try {
+            for (; locked < shards.length; locked++) {
+                shards[locked].lock.lock();
+            }
+            int size = 0;
+            for (Shard<T> shard : shards) {
+                size += size(shard.root);
+            }
+            int from = Math.min(offset, size);
+            int to = (int) Math.min((long) offset + limit, size);
+            nodes = select(ascending ? from : size - to, to - from);
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                shards[i].lock.unlock();
+            }
+        }
+        List<T> ids = new ArrayList<>(nodes.size());
+        for (Node<T> node : nodes) {
+            ids.add(node.employeeId);
+        }
+        if (!ascending) {
+            Collections.reverse(ids);
+        }
+        return ids;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Shard<T> shard : shards) {
+            shard.lock.lock();
+            try {
+                size += size(shard.root);
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    private Shard<T> shardFor(T employeeId) {
+        return shards[shardIndex(employeeId)];
+    }
+
+    private int shardIndex(T employeeId) {
+        int h = employeeId == null ? 0 : employeeId.hashCode();
+        return (h ^ (h >>> 16)) & shardMask;
+    }
+
+    private Iterator<T> cursor(double min, double max, boolean ascending) {
+        if (shards.length == 1) {
+            return new Cursor<>(shards[0], min, max, ascending);
+        }
+        List<Cursor<T>> cursors = new ArrayList<>(shards.length);
+        for (Shard<T> shard : shards) {
+            cursors.add(new Cursor<>(shard, min, max, ascending));
+        }
+        return new MergingCursor(cursors, ascending);
+    }
+
+    // The count entries from ascending position start on, in order. Caller holds every shard's
+    // lock. With several shards, first narrows down how many entries of each shard order
+    // before start: a window per shard, halved on the widest each round by ranking its middle
+    // entry across all shards; then merges count entries from each shard's start.
+    private List<Node<T>> select(int start, int count) {
+        List<Node<T>> out = new ArrayList<>(count);
+        if (count == 0) {
+            return out;
+        }
+        if (shards.length == 1) {
+            collect(shards[0].root, start, start + count, 0, out);
+            return out;
+        }
+        int[] low = new int[shards.length];
+        int[] high = new int[shards.length];
+        for (int i = 0; i < shards.length; i++) {
+            high[i] = size(shards[i].root);
+        }
+        int[] before = new int[shards.length];
+        while (true) {
+            int widest = -1;
+            for (int i = 0, width = 0; i < shards.length; i++) {
+                if (high[i] - low[i] > width) {
+                    width = high[i] - low[i];
+                    widest = i;
+                }
+            }
+            if (widest < 0) {
+                break;
+            }
+            List<Node<T>> probe = new ArrayList<>(1);
+            int middle = (low[widest] + high[widest]) >>> 1;
+            collect(shards[widest].root, middle, middle + 1, 0, probe);
+            Node<T> pivot = probe.get(0);
+            int rank = 0;
+            for (int i = 0; i < shards.length; i++) {
+                before[i] = shards[i].countBefore(pivot.key, pivot.employeeId, 0, false);
+                rank += before[i];
+            }
+            for (int i = 0; i < shards.length; i++) {
+                if (rank == start) {
+                    low[i] = high[i] = before[i];
+                } else if (rank < start) {
+                    // The pivot and everything before it precede the page
+                    low[i] = Math.max(low[i], before[i] + (i == widest ? 1 : 0));
+                } else {
+                    high[i] = Math.min(high[i], before[i]);
+                }
+            }
+        }
+        List<List<Node<T>>> runs = new ArrayList<>(shards.length);
+        for (int i = 0; i < shards.length; i++) {
+            List<Node<T>> run = new ArrayList<>();
+            collect(shards[i].root, low[i], low[i] + count, 0, run);
+            runs.add(run);
+        }
+        int[] next = new int[shards.length];
+        while (out.size() < count) {
+            int smallest = -1;
+            for (int i = 0; i < shards.length; i++) {
+                if (next[i] < runs.get(i).size() && (smallest < 0
+                        || order(runs.get(i).get(next[i]), runs.get(smallest).get(next[smallest])) < 0)) {
+                    smallest = i;
+                }
+            }
+            if (smallest < 0) {
+                break;
+            }
+            out.add(runs.get(smallest).get(next[smallest]++));
+        }
+        return out;
+    }
+
+    private int order(Node<T> a, Node<T> b) {
+        int byKey = Double.compare(a.key, b.key);
+        return byKey != 0 ? byKey : idComparator.compare(a.employeeId, b.employeeId);
+    }
+
+    // In-order collection of the entries whose ascending rank is in [from, to)
+    private static <T> void collect(Node<T> node, int from, int to, int base, List<Node<T>> out) {
+        if (node == null || from >= base + node.size || to <= base) {
+            return;
+        }
+        int rank = base + size(node.left);
+        collect(node.left, from, to, base, out);
+        if (rank >= from && rank < to) {
+            out.add(node);
+        }
+        collect(node.right, from, to, rank + 1, out);
+    }
+
+    private static int size(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    // One treap and the lock that guards it
+    private static final class Shard<T> {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Comparator<T> idComparator;
+        private final Map<T, Node<T>> nodeById;
+        private Node<T> root;
+
+        private Shard(Comparator<T> idComparator, Map<T, Node<T>> nodeById) {
+            this.idComparator = idComparator;
+            this.nodeById = nodeById;
+        }
+
+        private void index(T employeeId, double key) {
+            Node<T> previous = nodeById.get(employeeId);
+            if (previous != null) {
+                if (Double.compare(previous.key, key) == 0) {
+                    return;
+                }
+                root = delete(root, previous.key, employeeId);
+            }
+            Node<T> node = new Node<>(key, employeeId, ThreadLocalRandom.current().nextInt());
+            nodeById.put(employeeId, node);
+            root = insert(root, node);
+        }
+
+        private void remove(T employeeId) {
+            Node<T> previous = nodeById.remove(employeeId);
+            if (previous != null) {
+                root = delete(root, previous.key, employeeId);
+            }
+        }
+
+        // Entries that order before the probe (key, employeeId); with inclusive, also the entry
+        // equal to it. bound -1 / +1 makes the probe sort before / after every ID with that key.
+        private int countBefore(double key, T employeeId, int bound, boolean inclusive) {
+            int count = 0;
+            Node<T> node = root;
+            while (node != null) {
+                int c = compare(key, employeeId, bound, node);
+                if (c < 0 || (c == 0 && !inclusive)) {
+                    node = node.left;
+                } else {
+                    count += size(node.left) + 1;
+                    node = node.right;
+                }
+            }
+            return count;
+        }
+
+        private int compare(double key, T employeeId, int bound, Node<T> node) {
+            int byKey = Double.compare(key, node.key);
+            if (byKey != 0) return byKey;
+            if (bound != 0) return bound;
+            return idComparator.compare(employeeId, node.employeeId);
+        }
+
+        private Node<T> insert(Node<T> node, Node<T> added) {
+            if (node == null) {
+                return added;
+            }
+            if (compare(added.key, added.employeeId, 0, node) < 0) {
+                node.left = insert(node.left, added);
+                if (node.left.priority > node.priority) {
+                    node = rotateRight(node);
+                }
+            } else {
+                node.right = insert(node.right, added);
+                if (node.right.priority > node.priority) {
+                    node = rotateLeft(node);
+                }
+            }
+            node.update();
+            return node;
+        }
+
+        private Node<T> delete(Node<T> node, double key, T employeeId) {
+            if (node == null) {
+                return null;
+            }
+            int c = compare(key, employeeId, 0, node);
+            if (c == 0) {
+                return merge(node.left, node.right);
+            }
+            if (c < 0) {
+                node.left = delete(node.left, key, employeeId);
+            } else {
+                node.right = delete(node.right, key, employeeId);
+            }
+            node.update();
+            return node;
+        }
+
+        private static <T> Node<T> merge(Node<T> left, Node<T> right) {
+            if (left == null) return right;
+            if (right == null) return left;
+            if (left.priority > right.priority) {
+                left.right = merge(left.right, right);
+                left.update();
+                return left;
+            }
+            right.left = merge(left, right.left);
+            right.update();
+            return right;
+        }
+
+        private static <T> Node<T> rotateRight(Node<T> node) {
+            Node<T> left = node.left;
+            node.left = left.right;
+            left.right = node;
+            node.update();
+            left.update();
+            return left;
+        }
+
+        private static <T> Node<T> rotateLeft(Node<T> node) {
+            Node<T> right = node.right;
+            node.right = right.left;
+            right.left = node;
+            node.update();
+            right.update();
+            return right;
+        }
+    }
+
+    // Resumable scan of one shard over [min, max]: each refill takes the shard's lock once,
+    // positions itself by rank just past the last entry handed out and copies up to CHUNK entries
+    private static final class Cursor<T> implements Iterator<T> {
+        private final Shard<T> shard;
+        private final double min;
+        private final double max;
+        private final boolean ascending;
+        private final List<Node<T>> chunk = new ArrayList<>();
+        private int position;
+        private Node<T> last;
+        private boolean exhausted;
+
+        private Cursor(Shard<T> shard, double min, double max, boolean ascending) {
+            this.shard = shard;
+            this.min = min;
+            this.max = max;
+            this.ascending = ascending;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (position == chunk.size() && !exhausted) {
+                refill();
+            }
+            return position < chunk.size();
+        }
+
+        @Override
+        public T next() {
+            return nextNode().employeeId;
+        }
+
+        private Node<T> peek() {
+            return hasNext() ? chunk.get(position) : null;
+        }
+
+        private Node<T> nextNode() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            last = chunk.get(position++);
+            return last;
+        }
+
+        private void refill() {
+            chunk.clear();
+            position = 0;
+            shard.lock.lock();
+            try {
+                int low = shard.countBefore(min, null, -1, false);
+                int high = shard.countBefore(max, null, 1, false);
+                int from;
+                int to;
+                if (ascending) {
+                    from = last == null ? low : Math.max(low, shard.countBefore(last.key, last.employeeId, 0, true));
+                    to = Math.min(high, from + CHUNK);
+                } else {
+                    to = last == null ? high : Math.min(high, shard.countBefore(last.key, last.employeeId, 0, false));
+                    from = Math.max(low, to - CHUNK);
+                }
+                if (from < to) {
+                    collect(shard.root, from, to, 0, chunk);
+                }
+                exhausted = to - from < CHUNK;
+            } finally {
+                shard.lock.unlock();
+            }
+            if (!ascending) {
+                Collections.reverse(chunk);
+            }
+        }
+    }
+
+    // Merges the shards' cursors into one order
+    private final class MergingCursor implements Iterator<T> {
+        private final List<Cursor<T>> cursors;
+        private final int direction;
+
+        private MergingCursor(List<Cursor<T>> cursors, boolean ascending) {
+            this.cursors = cursors;
+            this.direction = ascending ? 1 : -1;
+        }
+
+        @Override
+        public boolean hasNext() {
+            for (Cursor<T> cursor : cursors) {
+                if (cursor.hasNext()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public T next() {
+            Cursor<T> first = null;
+            Node<T> head = null;
+            for (Cursor<T> cursor : cursors) {
+                Node<T> candidate = cursor.peek();
+                if (candidate != null && (head == null || direction * order(candidate, head) < 0)) {
+                    first = cursor;
+                    head = candidate;
+                }
+            }
+            if (first == null) {
+                throw new NoSuchElementException();
+            }
+            return first.nextNode().employeeId;
+        }
+    }
+
+    private static final class Node<T> {
+        private final double key;
+        private final T employeeId;
+        private final int priority;
+        private int size = 1;
+        private Node<T> left;
+        private Node<T> right;
+
+        private Node(double key, T employeeId, int priority) {
+            this.key = key;
+            this.employeeId = employeeId;
+            this.priority = priority;
+        }
+
+        private void update() {
+            size = 1 + RangeIndex.size(left) + RangeIndex.size(right);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package index;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import utility.KeyCollections;
+
+// Inverted trigram index for case-insensitive substring search.
+// Each key's text is lowercased once at index time and split into overlapping 3-character
+// grams. A query intersects the posting lists of its own trigrams, starting from the shortest,
+// and only the surviving candidates are checked with contains(). Queries shorter than three
+// characters fall back to scanning the stored lowercase texts.
+// In concurrent mode callers must still serialize updates for the same key.
+public class TrigramIndex<K> {
+    private final KeyCollections<K> keys;
+    private final Map<Long, Set<K>> postings;
+    private final Map<K, String> textByKey;
+
+    public TrigramIndex() {
+        this(false);
+    }
+
+    public TrigramIndex(boolean concurrent) {
+        this(concurrent, concurrent ? KeyCollections.concurrent() : KeyCollections.hashed());
+    }
+
+    // keys makes the posting lists and the key -> text map; it must be concurrent if this is
+    public TrigramIndex(boolean concurrent, KeyCollections<K> keys) {
+        this.keys = keys;
+        this.postings = concurrent ? new ConcurrentHashMap<>() : new HashMap<>();
+        this.textByKey = keys.newMap();
+    }
+
+    public void index(K key, String text) {
+        if (text == null) {
+            remove(key);
+            return;
+        }
+        String folded = text.toLowerCase(Locale.ROOT);
+        String previous = textByKey.put(key, folded);
+        if (folded.equals(previous)) {
+            return;
+        }
+        if (previous != null) {
+            for (long gram : trigrams(previous)) {
+                removePosting(gram, key);
+            }
+        }
+        for (long gram : trigrams(folded)) {
+            postings.compute(gram, (g, existing) -> {
+                Set<K> posting = existing != null ? existing : keys.newSet();
+                posting.add(key);
+                return posting;
+            });
+        }
+    }
+
+    public void remove(K key) {
+        String previous = textByKey.remove(key);
+        if (previous != null) {
+            for (long gram : trigrams(previous)) {
+                removePosting(gram, key);
+            }
+        }
+    }
+
+    // Keys whose text contains the fragment, ignoring case.
+    public List<K> search(String fragment) {
+        if (fragment == null || fragment.isEmpty()) {
+            return Collections.emptyList();
+        }
+        String query = fragment.toLowerCase(Locale.ROOT);
+        List<K> result = new ArrayList<>();
+        if (query.length() < 3) {
+            for (Map.Entry<K, String> entry : textByKey.entrySet()) {
+                if (entry.getValue().contains(query)) {
+                    result.add(entry.getKey());
+                }
+            }
+            return result;
+        }
+
+        Set<Long> grams = trigrams(query);
+        List<Set<K>> lists = new ArrayList<>(grams.size());
+        for (long gram : grams) {
+            Set<K> posting = postings.get(gram);
+            if (posting == null) {
+                return Collections.emptyList();
+            }
+            lists.add(posting);
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+
+        Set<K> smallest = lists.get(0);
+        candidates:
+        for (K key : smallest) {
+            for (int i = 1; i < lists.size(); i++) {
+                if (!lists.get(i).contains(key)) {
+                    continue candidates;
+                }
+            }
+            String text = textByKey.get(key);
+            if (text != null && text.contains(query)) {
+                result.add(key);
+            }
+        }
+        return result;
+    }
+
+    // Upper bound on search(fragment).size(): the shortest posting list of the fragment's trigrams.
+    public int estimate(String fragment) {
+        if (fragment == null || fragment.isEmpty()) {
+            return 0;
+        }
+        String query = fragment.toLowerCase(Locale.ROOT);
+        if (query.length() < 3) {
+            return textByKey.size();
+        }
+        int smallest = Integer.MAX_VALUE;
+        for (long gram : trigrams(query)) {
+            Set<K> posting = postings.get(gram);
+            smallest = Math.min(smallest, posting == null ? 0 : posting.size());
+        }
+        return smallest;
+    }
+
+    public int size() {
+        return textByKey.size();
+    }
+
+    // Distinct trigrams, i.e. posting lists
+    public int trigramCount() {
+        return postings.size();
+    }
+
+    private void removePosting(long gram, K key) {
+        postings.computeIfPresent(gram, (g, keys) -> {
+            keys.remove(key);
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+
+    private static Set<Long> trigrams(String text) {
+        Set<Long> grams = new HashSet<>();
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            grams.add(((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2));
+        }
+        return grams;
+    }
+}
@@ -0,0 +1,180 @@
+package metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+// Call counts, error counts, latency and result-size histograms per database operation,
+// plus dataset and index size gauges read on demand. All recording is lock-free, so any
+// number of threads can record concurrently. Fed by InstrumentedEmployeeDatabase; read
+// through JMX (register()) or MetricsLogReporter.
+public final class DatabaseMetrics implements DatabaseMetricsMXBean {
+    public enum Operation {
+        ADD_EMPLOYEE("addEmployee"),
+        ADD_EMPLOYEES("addEmployees"),
+        REMOVE_EMPLOYEE("removeEmployee"),
+        UPDATE_EMPLOYEE_DETAILS("updateEmployeeDetails"),
+        UPDATE("update"),
+        UPDATE_EMPLOYEES("updateEmployees"),
+        RAISE_SALARY("raiseSalary"),
+        GIVE_RAISE("giveRaise"),
+        RENAME_DEPARTMENT("renameDepartment"),
+        MERGE_DEPARTMENTS("mergeDepartments"),
+        GET_ALL_EMPLOYEES("getAllEmployees"),
+        SEARCH_BY_DEPARTMENT("searchByDepartment"),
+        SEARCH_BY_NAME("searchByName"),
+        SEARCH("search"),
+        FILTER_BY_PERFORMANCE("filterByPerformance"),
+        FILTER_BY_SALARY_RANGE("filterBySalaryRange"),
+        COUNT("count"),
+        GET_PAGE("getPage"),
+        POSITION_OF("positionOf"),
+        QUERY("query.list"),
+        QUERY_COUNT("query.count"),
+        QUERY_EXPLAIN("query.explain"),
+        SORT_BY_SALARY("sortBySalary"),
+        SORT_BY_PERFORMANCE("sortByPerformance"),
+        GET_TOP_PAID("getTopPaid"),
+        GET_TOP_PERFORMERS("getTopPerformers"),
+        GET_TOP("getTop"),
+        GET_AVERAGE_SALARY("getAverageSalary"),
+        GET_DEPARTMENT_SUMMARY("getDepartmentSummary"),
+        GET_DEPARTMENT_SUMMARIES("getDepartmentSummaries");
+
+        private final String label;
+
+        Operation(String label) {
+            this.label = label;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    private static final Operation[] OPERATIONS = Operation.values();
+
+    private final Histogram[] latencies = new Histogram[OPERATIONS.length];
+    private final Histogram[] rows = new Histogram[OPERATIONS.length];
+    private final LongAdder[] errors = new LongAdder[OPERATIONS.length];
+    private final IntSupplier employeeCount;
+    private final Supplier<Map<String, Integer>> indexSizes;
+    private volatile ObjectName registeredName;
+
+    public DatabaseMetrics(IntSupplier employeeCount, Supplier<Map<String, Integer>> indexSizes) {
+        this.employeeCount = employeeCount;
+        this.indexSizes = indexSizes;
+        for (int i = 0; i < OPERATIONS.length; i++) {
+            latencies[i] = new Histogram();
+            rows[i] = new Histogram();
+            errors[i] = new LongAdder();
+        }
+    }
+
+    // startNanos is the System.nanoTime() taken before the call
+    public void record(Operation operation, long startNanos) {
+        latencies[operation.ordinal()].record(System.nanoTime() - startNanos);
+    }
+
+    public void record(Operation operation, long startNanos, int resultRows) {
+        latencies[operation.ordinal()].record(System.nanoTime() - startNanos);
+        rows[operation.ordinal()].record(resultRows);
+    }
+
+    public void failed(Operation operation, long startNanos) {
+        latencies[operation.ordinal()].record(System.nanoTime() - startNanos);
+        errors[operation.ordinal()].increment();
+    }
+
+    public OperationStatistics statistics(Operation operation) {
+        int i = operation.ordinal();
+        return new OperationStatistics(operation.toString(), errors[i].sum(), latencies[i], rows[i]);
+    }
+
+    @Override
+    public int getEmployeeCount() {
+        return employeeCount.getAsInt();
+    }
+
+    @Override
+    public Map<String, Integer> getIndexSizes() {
+        return Collections.unmodifiableMap(indexSizes.get());
+    }
+
+    @Override
+    public List<OperationStatistics> getOperations() {
+        List<OperationStatistics> result = new ArrayList<>();
+        for (Operation operation : OPERATIONS) {
+            if (latencies[operation.ordinal()].getCount() > 0) {
+                result.add(statistics(operation));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public long getTotalCalls() {
+        long total = 0;
+        for (Histogram latency : latencies) {
+            total += latency.getCount();
+        }
+        return total;
+    }
+
+    @Override
+    public long getTotalErrors() {
+        long total = 0;
+        for (LongAdder error : errors) {
+            total += error.sum();
+        }
+        return total;
+    }
+
+    @Override
+    public void reset() {
+        for (int i = 0; i < OPERATIONS.length; i++) {
+            latencies[i].reset();
+            rows[i].reset();
+            errors[i].reset();
+        }
+    }
+
+    // Registers with the platform MBean server as EmployeeManage:type=DatabaseMetrics,name=<name>
+    public synchronized ObjectName register(String name) {
+        if (registeredName != null) {
+            throw new IllegalStateException("Already registered as " + registeredName);
+        }
+        try {
+            ObjectName objectName = ObjectName.getInstance("EmployeeManage:type=DatabaseMetrics,name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            registeredName = objectName;
+            return objectName;
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not register metrics MBean '" + name + "'", e);
+        }
+    }
+
+    public synchronized void unregister() {
+        if (registeredName == null) {
+            return;
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.unregisterMBean(registeredName);
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not unregister metrics MBean " + registeredName, e);
+        } finally {
+            registeredName = null;
+        }
+    }
+}
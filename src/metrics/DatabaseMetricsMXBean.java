@@ -0,0 +1,20 @@
+package metrics;
+
+import java.util.List;
+import java.util.Map;
+
+// JMX view of a DatabaseMetrics, e.g. in JConsole under EmployeeManage:type=DatabaseMetrics
+public interface DatabaseMetricsMXBean {
+    int getEmployeeCount();
+
+    Map<String, Integer> getIndexSizes();
+
+    // Only operations that have been called since the last reset
+    List<OperationStatistics> getOperations();
+
+    long getTotalCalls();
+
+    long getTotalErrors();
+
+    void reset();
+}
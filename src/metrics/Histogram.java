@@ -0,0 +1,110 @@
+package metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// Lock-free, HDR-style histogram of non-negative long values (latencies in nanoseconds,
+// result row counts). Buckets are log-linear: every power of two is split into 32 equal
+// sub-buckets, so any recorded value is reported within 1/32 (about 3%) of its true value
+// over the whole range, in a fixed 1312 buckets. Values of 2^44 and above share the top bucket.
+// Recording is two atomic adds and a usually CAS-free max check; the count is derived from
+// the buckets on read instead of kept separately. Reads are not atomic with respect to
+// concurrent writers, which is fine for monitoring.
+public final class Histogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 44;
+    private static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    // Negative values are recorded as 0
+    public void record(long value) {
+        long clamped = Math.max(0, value);
+        counts.incrementAndGet(index(clamped));
+        sum.add(clamped);
+        max.accumulate(clamped);
+    }
+
+    public long getCount() {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    public long getSum() {
+        return sum.sum();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public double getMean() {
+        long n = getCount();
+        return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+
+    // Smallest bucket upper bound that at least percentile% of the recorded values fall under,
+    // capped at the exact maximum; 0 when nothing has been recorded
+    public long valueAtPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100 || Double.isNaN(percentile)) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100");
+        }
+        long total = 0;
+        long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(highestEquivalentValue(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    // Not atomic: values recorded during a reset may be partly kept
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        sum.reset();
+        max.reset();
+    }
+
+    static int index(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        int group = exponent - SUB_BUCKET_BITS + 1;
+        int subBucket = (int) (value >>> (group - 1));
+        return group * SUB_BUCKETS + subBucket - SUB_BUCKETS;
+    }
+
+    // Largest value that maps to the bucket
+    static long highestEquivalentValue(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int group = index / SUB_BUCKETS;
+        long subBucket = SUB_BUCKETS + index % SUB_BUCKETS;
+        return ((subBucket + 1) << (group - 1)) - 1;
+    }
+}
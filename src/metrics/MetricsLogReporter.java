@@ -0,0 +1,53 @@
+package metrics;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Logs a DatabaseMetrics summary at a fixed period on a daemon thread: one line with the
+// dataset and index sizes, then one line per operation called since the last reset.
+// Figures are cumulative; pass resetAfterReport = true for per-period figures instead.
+public final class MetricsLogReporter implements AutoCloseable {
+    private static final Logger LOG = Logger.getLogger(MetricsLogReporter.class.getName());
+
+    private final DatabaseMetrics metrics;
+    private final boolean resetAfterReport;
+    private final ScheduledExecutorService scheduler;
+
+    public MetricsLogReporter(DatabaseMetrics metrics, long period, TimeUnit unit, boolean resetAfterReport) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("Report period must be positive");
+        }
+        this.metrics = metrics;
+        this.resetAfterReport = resetAfterReport;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::report, period, period, unit);
+    }
+
+    public void report() {
+        // A failing gauge must not cancel the schedule
+        try {
+            LOG.info(String.format("employees=%d indexes=%s calls=%d errors=%d",
+                    metrics.getEmployeeCount(), metrics.getIndexSizes(), metrics.getTotalCalls(), metrics.getTotalErrors()));
+            for (OperationStatistics statistics : metrics.getOperations()) {
+                LOG.info(statistics.toString());
+            }
+            if (resetAfterReport) {
+                metrics.reset();
+            }
+        } catch (RuntimeException e) {
+            LOG.log(Level.WARNING, "Metrics report failed", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
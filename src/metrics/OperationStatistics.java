@@ -0,0 +1,83 @@
+package metrics;
+
+// Point-in-time figures for one database operation, as shown over JMX and in the log.
+// Latencies are in microseconds; rows are the sizes of the results the operation returned.
+public final class OperationStatistics {
+    private final String operation;
+    private final long calls;
+    private final long errors;
+    private final double meanMicros;
+    private final double p50Micros;
+    private final double p90Micros;
+    private final double p99Micros;
+    private final double p999Micros;
+    private final double maxMicros;
+    private final double meanRows;
+    private final long maxRows;
+
+    OperationStatistics(String operation, long errors, Histogram latency, Histogram rows) {
+        this.operation = operation;
+        this.calls = latency.getCount();
+        this.errors = errors;
+        this.meanMicros = latency.getMean() / 1_000;
+        this.p50Micros = latency.valueAtPercentile(50) / 1_000.0;
+        this.p90Micros = latency.valueAtPercentile(90) / 1_000.0;
+        this.p99Micros = latency.valueAtPercentile(99) / 1_000.0;
+        this.p999Micros = latency.valueAtPercentile(99.9) / 1_000.0;
+        this.maxMicros = latency.getMax() / 1_000.0;
+        this.meanRows = rows.getMean();
+        this.maxRows = rows.getMax();
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    // Includes failed calls
+    public long getCalls() {
+        return calls;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    public double getMeanMicros() {
+        return meanMicros;
+    }
+
+    public double getP50Micros() {
+        return p50Micros;
+    }
+
+    public double getP90Micros() {
+        return p90Micros;
+    }
+
+    public double getP99Micros() {
+        return p99Micros;
+    }
+
+    public double getP999Micros() {
+        return p999Micros;
+    }
+
+    public double getMaxMicros() {
+        return maxMicros;
+    }
+
+    // 0 for operations that do not return rows
+    public double getMeanRows() {
+        return meanRows;
+    }
+
+    public long getMaxRows() {
+        return maxRows;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s calls=%d errors=%d mean=%.1fus p50=%.1fus p90=%.1fus p99=%.1fus p99.9=%.1fus max=%.1fus rows(mean=%.1f max=%d)",
+                operation, calls, errors, meanMicros, p50Micros, p90Micros, p99Micros, p999Micros, maxMicros, meanRows, maxRows);
+    }
+}
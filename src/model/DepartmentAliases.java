@@ -0,0 +1,142 @@
+package model;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import ExceptionHandling.InvalidDepartmentException;
+
+// One database's department renames and merges, over the process-wide DepartmentDictionary.
+// Department codes form groups: a merged code points at the code it was merged into (its
+// head), whose group lists it among its members, and a renamed group shows its new name.
+// rename() and merge() are O(1) in the number of employees: filters and group-bys follow them
+// at once, and old names stay aliases of the group. The database then relabels the employees
+// it holds, so that they, their snapshot copies and its change feed show the new name.
+// Lookups are lock-free; renames and merges are serialized.
+public final class DepartmentAliases {
+    private final Object lock = new Object();
+    // Head of each code's group; codes past the end head their own. Replaced, never mutated.
+    private volatile int[] heads = new int[0];
+    // Members of every group with more than the head in it
+    private final Map<Integer, int[]> members = new ConcurrentHashMap<>();
+    // Names of renamed groups, by head
+    private final Map<Integer, String> names = new ConcurrentHashMap<>();
+    private volatile long changes;
+
+    // Department code for the name ignoring case, following renames and merges; NONE if unknown
+    public int lookup(String department) {
+        int code = DepartmentDictionary.lookup(department);
+        return code == DepartmentDictionary.NONE ? DepartmentDictionary.NONE : canonical(code);
+    }
+
+    // The department a department code stands for now, i.e. the head of its group
+    public int canonical(int departmentCode) {
+        int[] heads = this.heads;
+        return departmentCode >= 0 && departmentCode < heads.length ? heads[departmentCode] : departmentCode;
+    }
+
+    // Department code of a spelling code, following renames and merges
+    public int department(int spellingCode) {
+        return canonical(DepartmentDictionary.department(spellingCode));
+    }
+
+    // Current display name of a department code
+    public String name(int departmentCode) {
+        int head = canonical(departmentCode);
+        String name = names.get(head);
+        return name != null ? name : DepartmentDictionary.name(head);
+    }
+
+    // The department code and every code in its group. Indexes keyed by the codes employees
+    // had when they were indexed look up all of them.
+    public int[] members(int departmentCode) {
+        int head = canonical(departmentCode);
+        int[] group = members.get(head);
+        return group != null ? group.clone() : new int[] {head};
+    }
+
+    // Whether the department was renamed or had another merged into it
+    public boolean isAliased(int departmentCode) {
+        int head = canonical(departmentCode);
+        return names.containsKey(head) || members.containsKey(head);
+    }
+
+    // Gives the department's group the new name, which then finds it as well as the old ones
+    public void rename(String department, String newName) {
+        synchronized (lock) {
+            checkRename(department, newName);
+            int from = require(department);
+            int head = canonical(DepartmentDictionary.department(DepartmentDictionary.intern(newName)));
+            join(from, head);
+            names.put(head, newName);
+            changes++;
+        }
+    }
+
+    // Folds department into the target: from then on both names find the target's group,
+    // whose name it shows, and group-bys count them as one department
+    public void merge(String department, String into) {
+        synchronized (lock) {
+            checkMerge(department, into);
+            int from = require(department);
+            int target = require(into);
+            if (from == target) {
+                return;
+            }
+            join(from, target);
+            changes++;
+        }
+    }
+
+    // The checks rename() and merge() make, for callers that must know a change will succeed
+    // before applying it (e.g. to log it first)
+    public void checkRename(String department, String newName) {
+        if (newName == null || newName.isBlank()) {
+            throw new InvalidDepartmentException("Department cannot be empty.");
+        }
+        require(department);
+    }
+
+    public void checkMerge(String department, String into) {
+        require(department);
+        require(into);
+    }
+
+    // Changes whenever a department is added anywhere or renamed or merged here, so results
+    // that depend on which codes a name resolves to can tell when to recompute
+    public long version() {
+        return changes + DepartmentDictionary.departmentCount();
+    }
+
+    // Moves every member of from's group into target's group. Re-pointing each member keeps
+    // chains one step long. Caller holds lock.
+    private void join(int from, int target) {
+        if (from == target) {
+            return;
+        }
+        int[] moved = members(from);
+        int[] kept = members(target);
+        int size = Math.max(heads.length, DepartmentDictionary.departmentCount());
+        int[] next = Arrays.copyOf(heads, size);
+        for (int code = heads.length; code < size; code++) {
+            next[code] = code;
+        }
+        for (int member : moved) {
+            next[member] = target;
+        }
+        int[] group = Arrays.copyOf(kept, kept.length + moved.length);
+        System.arraycopy(moved, 0, group, kept.length, moved.length);
+        members.put(target, group);
+        members.remove(from);
+        names.remove(from);
+        heads = next;
+    }
+
+    private int require(String department) {
+        int code = lookup(department);
+        if (code == DepartmentDictionary.NONE) {
+            throw new IllegalArgumentException("Unknown department: " + department);
+        }
+        return code;
+    }
+}
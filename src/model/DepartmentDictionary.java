@@ -0,0 +1,121 @@
+package model;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import ExceptionHandling.InvalidDepartmentException;
+
+// Process-wide dictionary of department names, so employees, indexes and aggregates hold and
+// compare small ints instead of strings.
+// Two kinds of code: a spelling code per distinct spelling as entered ("IT", "it"), which is
+// what Employee.setDepartment stores, and a department code per name ignoring case, which is
+// what filters and group-bys compare. Codes are dense, start at 0 and are never reused.
+// The dictionary only ever grows and a code never changes meaning, so every database in the
+// process can share it. Renames and merges belong to one database and live in its
+// DepartmentAliases, which maps these codes to the departments they stand for there.
+// Lookups are lock-free; additions are serialized.
+public final class DepartmentDictionary {
+    // Code of "no department", e.g. for a lookup of a name never seen
+    public static final int NONE = -1;
+
+    private static final Object lock = new Object();
+    private static final Map<String, Integer> spellingCodes = new ConcurrentHashMap<>();
+    // Folded name -> department code
+    private static final Map<String, Integer> departmentCodes = new ConcurrentHashMap<>();
+    // Arrays grow by doubling and are republished after each append, so a code handed out is
+    // always readable through the volatile read
+    private static volatile Spelling[] spellings = new Spelling[16];
+    private static volatile String[] departmentNames = new String[16];
+    private static volatile int spellingCount;
+    private static volatile int departmentCount;
+
+    private DepartmentDictionary() {
+    }
+
+    // Spelling code of the department name, added on first use
+    public static int intern(String department) {
+        Integer code = department == null ? null : spellingCodes.get(department);
+        if (code != null) {
+            return code;
+        }
+        if (department == null || department.isBlank()) {
+            throw new InvalidDepartmentException("Department cannot be empty.");
+        }
+        synchronized (lock) {
+            code = spellingCodes.get(department);
+            if (code != null) {
+                return code;
+            }
+            String folded = fold(department);
+            Integer owner = departmentCodes.get(folded);
+            if (owner == null) {
+                owner = departmentCount;
+                departmentNames = append(departmentNames, owner, department);
+                departmentCount = owner + 1;
+                departmentCodes.put(folded, owner);
+            }
+            code = spellingCount;
+            spellings = append(spellings, code, new Spelling(department, owner));
+            spellingCount = code + 1;
+            spellingCodes.put(department, code);
+            return code;
+        }
+    }
+
+    // Department code for the name ignoring case; NONE if no employee anywhere ever had it
+    public static int lookup(String department) {
+        if (department == null) {
+            return NONE;
+        }
+        Integer code = departmentCodes.get(fold(department));
+        return code == null ? NONE : code;
+    }
+
+    // The spelling as entered
+    public static String spelling(int spellingCode) {
+        return spellings[spellingCode].text;
+    }
+
+    // Department code of a spelling code
+    public static int department(int spellingCode) {
+        return spellings[spellingCode].department;
+    }
+
+    // The first spelling seen of a department code
+    public static String name(int departmentCode) {
+        return departmentNames[departmentCode];
+    }
+
+    // Upper bound (exclusive) of the spelling codes handed out so far
+    public static int spellingCount() {
+        return spellingCount;
+    }
+
+    // Upper bound (exclusive) of the department codes handed out so far. Changes whenever a
+    // department is added, so it also versions the results of lookup().
+    public static int departmentCount() {
+        return departmentCount;
+    }
+
+    private static String fold(String department) {
+        return department.toLowerCase(Locale.ROOT);
+    }
+
+    private static <E> E[] append(E[] array, int size, E element) {
+        E[] target = size < array.length ? array : Arrays.copyOf(array, array.length * 2);
+        target[size] = element;
+        return target;
+    }
+
+    private static final class Spelling {
+        private final String text;
+        private final int department;
+
+        private Spelling(String text, int department) {
+            this.text = text;
+            this.department = department;
+        }
+    }
+}
@@ -1,4 +1,8 @@
 package model;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
 import java.util.Objects;
 
@@ -10,7 +14,8 @@ public class Employee<T> implements Comparable<Employee<T>>, Serializable {
 
     private T employeeId;
     private String name;
-    private String department;
+    // Spelling code in the DepartmentDictionary; serialized as the name (see serialPersistentFields)
+    private transient int department = DepartmentDictionary.NONE;
     private Double salary;
     private Double performanceRating;
     private Integer yearsOfExperience;
@@ -27,6 +32,12 @@ public class Employee<T> implements Comparable<Employee<T>>, Serializable {
         this.setActive(isActive);
     }
 
+    // For subclasses that keep the attribute values somewhere else (e.g. columnar row views)
+    // and override the getters and setters below.
+    protected Employee(T employeeId) {
+        this.setEmployeeId(employeeId);
+    }
+
     // Getters and Setters with validation
     public T getEmployeeId() {
         return employeeId;
@@ -43,19 +54,22 @@ public class Employee<T> implements Comparable<Employee<T>>, Serializable {
     }
 
     public void setName(String name) {
-        if (name == null || name.isBlank())
-            throw new IllegalArgumentException("Name cannot be empty.");
-        this.name = name;
+        this.name = validateName(name);
     }
 
     public String getDepartment() {
-        return department;
+        return department == DepartmentDictionary.NONE ? null : DepartmentDictionary.spelling(department);
     }
 
     public void setDepartment(String department) {
-        if (department == null || department.isBlank())
-            throw new InvalidDepartmentException("Department cannot be empty.");
-        this.department = department;
+        this.department = DepartmentDictionary.intern(validateDepartment(department));
+    }
+
+    // Department code ignoring case, for filters and group-bys that compare ints. Renames and
+    // merges are a database's own: DepartmentAliases maps this code to the department it
+    // stands for there. DepartmentDictionary.NONE while no department is set.
+    public int getDepartmentCode() {
+        return department == DepartmentDictionary.NONE ? DepartmentDictionary.NONE : DepartmentDictionary.department(department);
     }
 
     public Double getSalary() {
@@ -63,9 +77,7 @@ public class Employee<T> implements Comparable<Employee<T>>, Serializable {
     }
 
     public void setSalary(Double salary) {
-        if (salary == null || salary < 0)
-            throw new InvalidSalaryException("Salary cannot be negative.");
-        this.salary = salary;
+        this.salary = validateSalary(salary);
     }
 
     public Double getPerformanceRating() {
@@ -73,9 +85,7 @@ public class Employee<T> implements Comparable<Employee<T>>, Serializable {
     }
 
     public void setPerformanceRating(Double performanceRating) {
-        if (performanceRating == null || performanceRating < 0 || performanceRating > 5)
-            throw new IllegalArgumentException("Performance rating must be between 0 and 5.");
-        this.performanceRating = performanceRating;
+        this.performanceRating = validatePerformanceRating(performanceRating);
     }
 
     public Integer getYearsOfExperience() {
@@ -83,9 +93,7 @@ public class Employee<T> implements Comparable<Employee<T>>, Serializable {
     }
 
     public void setYearsOfExperience(Integer yearsOfExperience) {
-        if (yearsOfExperience == null || yearsOfExperience < 0)
-            throw new IllegalArgumentException("Years of experience cannot be negative.");
-        this.yearsOfExperience = yearsOfExperience;
+        this.yearsOfExperience = validateYearsOfExperience(yearsOfExperience);
     }
 
     public Boolean isActive() {
@@ -96,25 +104,58 @@ public class Employee<T> implements Comparable<Employee<T>>, Serializable {
         this.isActive = active;
     }
 
+    // Validation rules shared by the setters above and by alternative storage engines
+    protected static String validateName(String name) {
+        if (name == null || name.isBlank())
+            throw new IllegalArgumentException("Name cannot be empty.");
+        return name;
+    }
+
+    protected static String validateDepartment(String department) {
+        if (department == null || department.isBlank())
+            throw new InvalidDepartmentException("Department cannot be empty.");
+        return department;
+    }
+
+    protected static Double validateSalary(Double salary) {
+        if (salary == null || salary < 0)
+            throw new InvalidSalaryException("Salary cannot be negative.");
+        return salary;
+    }
+
+    protected static Double validatePerformanceRating(Double performanceRating) {
+        if (performanceRating == null || performanceRating < 0 || performanceRating > 5)
+            throw new IllegalArgumentException("Performance rating must be between 0 and 5.");
+        return performanceRating;
+    }
+
+    protected static Integer validateYearsOfExperience(Integer yearsOfExperience) {
+        if (yearsOfExperience == null || yearsOfExperience < 0)
+            throw new IllegalArgumentException("Years of experience cannot be negative.");
+        return yearsOfExperience;
+    }
+
     @Override
     public int compareTo(Employee<T> other) {
         if (other == null) return -1;
-        if (this.yearsOfExperience == null && other.yearsOfExperience == null) return 0;
-        if (this.yearsOfExperience == null) return 1;
-        if (other.yearsOfExperience == null) return -1;
-        return Integer.compare(other.yearsOfExperience, this.yearsOfExperience);
+        Integer mine = this.getYearsOfExperience();
+        Integer theirs = other.getYearsOfExperience();
+        if (mine == null && theirs == null) return 0;
+        if (mine == null) return 1;
+        if (theirs == null) return -1;
+        return Integer.compare(theirs, mine);
     }
 
     @Override
     public String toString() {
         return String.format("%s | %s | %s | $%.2f | Rating: %.1f | Exp: %d yrs | Active: %s",
                 employeeId.toString(),
-                name,
-                department,
-                salary,
-                performanceRating,
-                yearsOfExperience,
-                isActive ? "Yes" : "No");
+                getName(),
+                getDepartment(),
+                getSalary(),
+                getPerformanceRating(),
+                getYearsOfExperience(),
+                isActive() ? "Yes" : "No");
     }
 
     @Override
@@ -128,5 +169,42 @@ public class Employee<T> implements Comparable<Employee<T>>, Serializable {
     public int hashCode() {
         return Objects.hash(employeeId);
     }
+
+    // Codes are only meaningful inside one process, so the department travels by name, as the
+    // String field it was before it became a code: streams stay readable both ways.
+    private static final ObjectStreamField[] serialPersistentFields = {
+            new ObjectStreamField("employeeId", Object.class),
+            new ObjectStreamField("name", String.class),
+            new ObjectStreamField("department", String.class),
+            new ObjectStreamField("salary", Double.class),
+            new ObjectStreamField("performanceRating", Double.class),
+            new ObjectStreamField("yearsOfExperience", Integer.class),
+            new ObjectStreamField("isActive", Boolean.class)
+    };
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("employeeId", employeeId);
+        fields.put("name", name);
+        fields.put("department", department == DepartmentDictionary.NONE ? null : DepartmentDictionary.spelling(department));
+        fields.put("salary", salary);
+        fields.put("performanceRating", performanceRating);
+        fields.put("yearsOfExperience", yearsOfExperience);
+        fields.put("isActive", isActive);
+        out.writeFields();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        employeeId = (T) fields.get("employeeId", null);
+        name = (String) fields.get("name", null);
+        String departmentName = (String) fields.get("department", null);
+        department = departmentName == null ? DepartmentDictionary.NONE : DepartmentDictionary.intern(departmentName);
+        salary = (Double) fields.get("salary", null);
+        performanceRating = (Double) fields.get("performanceRating", null);
+        yearsOfExperience = (Integer) fields.get("yearsOfExperience", null);
+        isActive = (Boolean) fields.get("isActive", null);
+    }
 }
 
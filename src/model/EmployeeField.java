@@ -0,0 +1,94 @@
+package model;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+// Typed descriptor for an updatable Employee attribute: its name, value type, accessors and
+// validation rule. Lets callers update fields without string dispatch or unchecked casts,
+// e.g. db.update(id, EmployeeField.SALARY, 85_000.0).
+public final class EmployeeField<V> {
+    public static final EmployeeField<String> NAME = new EmployeeField<>("name", String.class,
+            Employee::getName, Employee::setName, Employee::validateName);
+    public static final EmployeeField<String> DEPARTMENT = new EmployeeField<>("department", String.class,
+            Employee::getDepartment, Employee::setDepartment, Employee::validateDepartment);
+    public static final EmployeeField<Double> SALARY = new EmployeeField<>("salary", Double.class,
+            Employee::getSalary, Employee::setSalary, Employee::validateSalary);
+    public static final EmployeeField<Double> RATING = new EmployeeField<>("rating", Double.class,
+            Employee::getPerformanceRating, Employee::setPerformanceRating, Employee::validatePerformanceRating);
+    public static final EmployeeField<Integer> EXPERIENCE = new EmployeeField<>("experience", Integer.class,
+            Employee::getYearsOfExperience, Employee::setYearsOfExperience, Employee::validateYearsOfExperience);
+    public static final EmployeeField<Boolean> ACTIVE = new EmployeeField<>("active", Boolean.class,
+            Employee::isActive, Employee::setActive, active -> active);
+
+    private static final List<EmployeeField<?>> VALUES =
+            Collections.unmodifiableList(Arrays.asList(NAME, DEPARTMENT, SALARY, RATING, EXPERIENCE, ACTIVE));
+
+    private final String name;
+    private final Class<V> type;
+    private final Function<Employee<?>, V> getter;
+    private final BiConsumer<Employee<?>, V> setter;
+    private final UnaryOperator<V> validator;
+
+    private EmployeeField(String name, Class<V> type, Function<Employee<?>, V> getter,
+                          BiConsumer<Employee<?>, V> setter, UnaryOperator<V> validator) {
+        this.name = name;
+        this.type = type;
+        this.getter = getter;
+        this.setter = setter;
+        this.validator = validator;
+    }
+
+    public static List<EmployeeField<?>> values() {
+        return VALUES;
+    }
+
+    // The descriptor for a field name as accepted by updateEmployeeDetails, or null
+    public static EmployeeField<?> forName(String name) {
+        if (name == null) {
+            return null;
+        }
+        String key = name.toLowerCase(Locale.ROOT);
+        for (EmployeeField<?> field : VALUES) {
+            if (field.name.equals(key)) {
+                return field;
+            }
+        }
+        return null;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Class<V> getType() {
+        return type;
+    }
+
+    public V get(Employee<?> employee) {
+        return getter.apply(employee);
+    }
+
+    public void set(Employee<?> employee, V value) {
+        setter.accept(employee, value);
+    }
+
+    // Throws the same exception the setter would, without touching any employee
+    public V validate(V value) {
+        return validator.apply(value);
+    }
+
+    // For values that arrive untyped; throws ClassCastException on a type mismatch
+    public V cast(Object value) {
+        return type.cast(value);
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,72 @@
+package model;
+
+// Read-only copy of an employee as it was at one moment, as handed out by database snapshots.
+// Shares the (immutable) attribute values with the employee it was copied from; every setter
+// throws UnsupportedOperationException once the copy is constructed.
+public final class ImmutableEmployee<T> extends Employee<T> {
+    private static final long serialVersionUID = 1L;
+
+    // Still false while the Employee constructor runs its setters
+    private final boolean sealed;
+
+    private ImmutableEmployee(Employee<T> employee) {
+        super(employee.getEmployeeId(), employee.getName(), employee.getDepartment(), employee.getSalary(),
+                employee.getPerformanceRating(), employee.getYearsOfExperience(), employee.isActive());
+        this.sealed = true;
+    }
+
+    public static <T> ImmutableEmployee<T> copyOf(Employee<T> employee) {
+        if (employee == null) {
+            throw new IllegalArgumentException("Employee cannot be null");
+        }
+        return employee instanceof ImmutableEmployee<T> immutable ? immutable : new ImmutableEmployee<>(employee);
+    }
+
+    @Override
+    public void setEmployeeId(T employeeId) {
+        checkMutable();
+        super.setEmployeeId(employeeId);
+    }
+
+    @Override
+    public void setName(String name) {
+        checkMutable();
+        super.setName(name);
+    }
+
+    @Override
+    public void setDepartment(String department) {
+        checkMutable();
+        super.setDepartment(department);
+    }
+
+    @Override
+    public void setSalary(Double salary) {
+        checkMutable();
+        super.setSalary(salary);
+    }
+
+    @Override
+    public void setPerformanceRating(Double performanceRating) {
+        checkMutable();
+        super.setPerformanceRating(performanceRating);
+    }
+
+    @Override
+    public void setYearsOfExperience(Integer yearsOfExperience) {
+        checkMutable();
+        super.setYearsOfExperience(yearsOfExperience);
+    }
+
+    @Override
+    public void setActive(Boolean active) {
+        checkMutable();
+        super.setActive(active);
+    }
+
+    private void checkMutable() {
+        if (sealed) {
+            throw new UnsupportedOperationException("Employee " + getEmployeeId() + " is a read-only snapshot copy");
+        }
+    }
+}
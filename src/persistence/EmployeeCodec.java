@@ -0,0 +1,341 @@
+package persistence;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import ExceptionHandling.InvalidDepartmentException;
+import ExceptionHandling.InvalidSalaryException;
+import ExceptionHandling.PersistenceException;
+import model.Employee;
+
+// Compact binary format for employees and whole-database dumps (encodeAll(db.readSnapshot())),
+// for snapshots, caches and shipping records between processes without Java serialization's
+// class metadata. Unsigned integers are LEB128 varints, IDs are zigzag varints (or strings),
+// doubles are 8 raw big-endian bytes and strings are varint (UTF-8 length + 1), 0 for null.
+//   Employee: [id][name][department][salary][rating][varint experience << 2 | active]
+//             active is 0 = no, 1 = yes, 2 = unset, packed into the experience varint
+//   Record:   [byte 0xE7][byte version << 4 | id kind][employee, department inline]
+//   Dump:     [int "EMPD"][byte version][byte id kind][varint count]
+//             [varint departments][department strings...][employees, department as varint code + 1]
+// Each department string is stored once per dump and decoded once, so decoded employees share
+// it. Decoding reads straight from the caller's buffer (heap, direct or memory-mapped) from its
+// position on and leaves the position after what it read; nothing is copied up front.
+// Readers reject newer versions, other ID kinds and values an Employee cannot hold (a negative
+// salary, say) with a PersistenceException.
+public final class EmployeeCodec<T> {
+    public static final int VERSION = 1;
+
+    private static final byte RECORD_MAGIC = (byte) 0xE7;
+    private static final int DUMP_MAGIC = 0x454D5044; // "EMPD"
+
+    public static final EmployeeCodec<Integer> INTEGER = new EmployeeCodec<>(1, new IdFormat<>() {
+        @Override
+        public void write(Output out, Integer employeeId) {
+            out.writeVarLong(zigzag(employeeId));
+        }
+
+        @Override
+        public Integer read(ByteBuffer in) {
+            long value = unzigzag(readVarLong(in));
+            if (value != (int) value) {
+                throw new IllegalArgumentException("Employee ID out of int range: " + value);
+            }
+            return (int) value;
+        }
+    });
+
+    public static final EmployeeCodec<Long> LONG = new EmployeeCodec<>(2, new IdFormat<>() {
+        @Override
+        public void write(Output out, Long employeeId) {
+            out.writeVarLong(zigzag(employeeId));
+        }
+
+        @Override
+        public Long read(ByteBuffer in) {
+            return unzigzag(readVarLong(in));
+        }
+    });
+
+    public static final EmployeeCodec<String> STRING = new EmployeeCodec<>(3, new IdFormat<>() {
+        @Override
+        public void write(Output out, String employeeId) {
+            out.writeString(employeeId);
+        }
+
+        @Override
+        public String read(ByteBuffer in) {
+            return readString(in);
+        }
+    });
+
+    private final int idKind;
+    private final IdFormat<T> ids;
+
+    private EmployeeCodec(int idKind, IdFormat<T> ids) {
+        this.idKind = idKind;
+        this.ids = ids;
+    }
+
+    public byte[] encode(Employee<T> emp) {
+        Output out = new Output(64);
+        out.writeByte(RECORD_MAGIC);
+        out.writeByte(VERSION << 4 | idKind);
+        writeEmployee(out, emp, null);
+        return out.toByteArray();
+    }
+
+    public Employee<T> decode(ByteBuffer in) {
+        try {
+            if (in.get() != RECORD_MAGIC) {
+                throw new PersistenceException("Not an employee record");
+            }
+            int header = in.get() & 0xFF;
+            checkHeader(header >>> 4, header & 0x0F);
+            return readEmployee(in, null);
+        } catch (BufferUnderflowException | IllegalArgumentException | InvalidSalaryException | InvalidDepartmentException e) {
+            throw new PersistenceException("Malformed employee record", e);
+        }
+    }
+
+    public byte[] encodeAll(Collection<? extends Employee<T>> employees) {
+        Map<String, Integer> codes = new HashMap<>();
+        List<String> departments = new ArrayList<>();
+        for (Employee<T> emp : employees) {
+            String department = emp.getDepartment();
+            if (department != null && codes.putIfAbsent(department, departments.size()) == null) {
+                departments.add(department);
+            }
+        }
+        Output out = new Output(64 + 48 * employees.size());
+        out.writeInt(DUMP_MAGIC);
+        out.writeByte(VERSION);
+        out.writeByte(idKind);
+        out.writeVarLong(employees.size());
+        out.writeVarLong(departments.size());
+        for (String department : departments) {
+            out.writeString(department);
+        }
+        for (Employee<T> emp : employees) {
+            writeEmployee(out, emp, codes);
+        }
+        return out.toByteArray();
+    }
+
+    public List<Employee<T>> decodeAll(ByteBuffer in) {
+        List<Employee<T>> employees = new ArrayList<>();
+        decodeAll(in, employees::add);
+        return employees;
+    }
+
+    // Streams the employees of a dump to sink as they are decoded
+    public void decodeAll(ByteBuffer in, Consumer<? super Employee<T>> sink) {
+        try {
+            if (readInt(in) != DUMP_MAGIC) {
+                throw new PersistenceException("Not an employee dump");
+            }
+            checkHeader(in.get(), in.get());
+            long count = readVarLong(in);
+            long departmentCount = readVarLong(in);
+            if (count > in.remaining() || departmentCount > in.remaining()) {
+                throw new PersistenceException("Malformed employee dump: counts exceed its size");
+            }
+            String[] departments = new String[(int) departmentCount];
+            for (int i = 0; i < departments.length; i++) {
+                departments[i] = readString(in);
+            }
+            for (long i = 0; i < count; i++) {
+                sink.accept(readEmployee(in, departments));
+            }
+        } catch (BufferUnderflowException | IllegalArgumentException | InvalidSalaryException | InvalidDepartmentException e) {
+            throw new PersistenceException("Malformed employee dump", e);
+        }
+    }
+
+    private void checkHeader(int version, int kind) {
+        if (version < 1 || version > VERSION) {
+            throw new PersistenceException("Unsupported employee format version " + version);
+        }
+        if (kind != idKind) {
+            throw new PersistenceException("Employee IDs are of kind " + kind + ", expected " + idKind);
+        }
+    }
+
+    // With a dictionary the department is written as its code + 1, else inline
+    private void writeEmployee(Output out, Employee<T> emp, Map<String, Integer> departments) {
+        ids.write(out, emp.getEmployeeId());
+        out.writeString(emp.getName());
+        if (departments == null) {
+            out.writeString(emp.getDepartment());
+        } else {
+            out.writeVarLong(emp.getDepartment() == null ? 0 : departments.get(emp.getDepartment()) + 1);
+        }
+        out.writeDouble(emp.getSalary());
+        out.writeDouble(emp.getPerformanceRating());
+        Boolean active = emp.isActive();
+        out.writeVarLong((long) emp.getYearsOfExperience() << 2 | (active == null ? 2 : active ? 1 : 0));
+    }
+
+    private Employee<T> readEmployee(ByteBuffer in, String[] departments) {
+        T id = ids.read(in);
+        String name = readString(in);
+        String department;
+        if (departments == null) {
+            department = readString(in);
+        } else {
+            long code = readVarLong(in);
+            if (code > departments.length) {
+                throw new IllegalArgumentException("Unknown department code " + code);
+            }
+            department = code == 0 ? null : departments[(int) code - 1];
+        }
+        double salary = readDouble(in);
+        double rating = readDouble(in);
+        long packed = readVarLong(in);
+        int active = (int) (packed & 3);
+        if (active == 3 || packed >>> 2 > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Malformed experience and active flag");
+        }
+        return new Employee<>(id, name, department, salary, rating, (int) (packed >>> 2), active == 2 ? null : active == 1);
+    }
+
+    private static long zigzag(long value) {
+        return value << 1 ^ value >> 63;
+    }
+
+    private static long unzigzag(long value) {
+        return value >>> 1 ^ -(value & 1);
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Varint longer than 10 bytes");
+    }
+
+    // Multi-byte values are big-endian whatever the buffer's byte order
+    private static int readInt(ByteBuffer in) {
+        int value = in.getInt();
+        return in.order() == ByteOrder.BIG_ENDIAN ? value : Integer.reverseBytes(value);
+    }
+
+    private static double readDouble(ByteBuffer in) {
+        long bits = in.getLong();
+        return Double.longBitsToDouble(in.order() == ByteOrder.BIG_ENDIAN ? bits : Long.reverseBytes(bits));
+    }
+
+    private static String readString(ByteBuffer in) {
+        long length = readVarLong(in);
+        if (length == 0) {
+            return null;
+        }
+        if (length - 1 > in.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        int size = (int) (length - 1);
+        String value;
+        if (in.hasArray()) {
+            value = new String(in.array(), in.arrayOffset() + in.position(), size, StandardCharsets.UTF_8);
+            in.position(in.position() + size);
+        } else {
+            byte[] bytes = new byte[size];
+            in.get(bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return value;
+    }
+
+    private interface IdFormat<T> {
+        void write(Output out, T employeeId);
+
+        T read(ByteBuffer in);
+    }
+
+    // Growable big-endian byte array
+    private static final class Output {
+        private byte[] bytes;
+        private int size;
+
+        private Output(int capacity) {
+            this.bytes = new byte[capacity];
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+            }
+        }
+
+        private void writeByte(int value) {
+            ensure(1);
+            bytes[size++] = (byte) value;
+        }
+
+        private void writeInt(int value) {
+            ensure(4);
+            for (int shift = 24; shift >= 0; shift -= 8) {
+                bytes[size++] = (byte) (value >>> shift);
+            }
+        }
+
+        private void writeVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                bytes[size++] = (byte) (value & 0x7F | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        private void writeDouble(double value) {
+            long bits = Double.doubleToRawLongBits(value);
+            ensure(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                bytes[size++] = (byte) (bits >>> shift);
+            }
+        }
+
+        // ASCII, the usual case, is copied char by char without an intermediate byte[]
+        private void writeString(String value) {
+            if (value == null) {
+                writeVarLong(0);
+                return;
+            }
+            int length = value.length();
+            int start = size;
+            writeVarLong(length + 1L);
+            ensure(length);
+            for (int i = 0; i < length; i++) {
+                char c = value.charAt(i);
+                if (c >= 0x80) {
+                    size = start;
+                    byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+                    writeVarLong(utf8.length + 1L);
+                    ensure(utf8.length);
+                    System.arraycopy(utf8, 0, bytes, size, utf8.length);
+                    size += utf8.length;
+                    return;
+                }
+                bytes[size++] = (byte) c;
+            }
+        }
+
+        private byte[] toByteArray() {
+            return Arrays.copyOf(bytes, size);
+        }
+    }
+}
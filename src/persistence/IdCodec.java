@@ -0,0 +1,48 @@
+package persistence;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+// Writes and reads employee IDs of type T in log records and snapshots.
+public interface IdCodec<T> {
+    void write(DataOutput out, T employeeId) throws IOException;
+
+    T read(DataInput in) throws IOException;
+
+    IdCodec<Integer> INTEGER = new IdCodec<>() {
+        @Override
+        public void write(DataOutput out, Integer employeeId) throws IOException {
+            out.writeInt(employeeId);
+        }
+
+        @Override
+        public Integer read(DataInput in) throws IOException {
+            return in.readInt();
+        }
+    };
+
+    IdCodec<Long> LONG = new IdCodec<>() {
+        @Override
+        public void write(DataOutput out, Long employeeId) throws IOException {
+            out.writeLong(employeeId);
+        }
+
+        @Override
+        public Long read(DataInput in) throws IOException {
+            return in.readLong();
+        }
+    };
+
+    IdCodec<String> STRING = new IdCodec<>() {
+        @Override
+        public void write(DataOutput out, String employeeId) throws IOException {
+            out.writeUTF(employeeId);
+        }
+
+        @Override
+        public String read(DataInput in) throws IOException {
+            return in.readUTF();
+        }
+    };
+}
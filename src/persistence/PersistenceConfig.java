@@ -0,0 +1,39 @@
+package persistence;
+
+// Durability knobs for PersistentEmployeeDatabase.
+//   groupCommitRecords        - fsync the log once this many records are pending (1 = fsync every write)
+//   groupCommitIntervalMillis - fsync pending records at least this often (0 = only on the record count)
+//   snapshotEveryRecords      - write a compacting snapshot after this many log records (0 = never)
+public class PersistenceConfig {
+    private final int groupCommitRecords;
+    private final long groupCommitIntervalMillis;
+    private final int snapshotEveryRecords;
+
+    public PersistenceConfig(int groupCommitRecords, long groupCommitIntervalMillis, int snapshotEveryRecords) {
+        if (groupCommitRecords < 1) {
+            throw new IllegalArgumentException("Group commit size must be at least 1");
+        }
+        if (groupCommitIntervalMillis < 0 || snapshotEveryRecords < 0) {
+            throw new IllegalArgumentException("Intervals cannot be negative");
+        }
+        this.groupCommitRecords = groupCommitRecords;
+        this.groupCommitIntervalMillis = groupCommitIntervalMillis;
+        this.snapshotEveryRecords = snapshotEveryRecords;
+    }
+
+    public static PersistenceConfig defaults() {
+        return new PersistenceConfig(64, 50, 100_000);
+    }
+
+    public int getGroupCommitRecords() {
+        return groupCommitRecords;
+    }
+
+    public long getGroupCommitIntervalMillis() {
+        return groupCommitIntervalMillis;
+    }
+
+    public int getSnapshotEveryRecords() {
+        return snapshotEveryRecords;
+    }
+}
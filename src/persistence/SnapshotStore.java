@@ -0,0 +1,171 @@
+package persistence;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+import ExceptionHandling.PersistenceException;
+import model.Employee;
+
+// Compacting point-in-time snapshots of the whole database.
+// File layout: [int magic][int version][long lsn][int count][employee records...][long crc32]
+// Files are named snapshot-<lsn>.snap and written via a temp file plus atomic rename, so a
+// crash mid-snapshot never damages the previous one.
+public class SnapshotStore<T> {
+    private static final int MAGIC = 0x454D5053; // "EMPS"
+    private static final int VERSION = 1;
+    private static final String PREFIX = "snapshot-";
+    private static final String SUFFIX = ".snap";
+
+    private final Path directory;
+    private final IdCodec<T> idCodec;
+
+    public SnapshotStore(Path directory, IdCodec<T> idCodec) {
+        this.directory = directory;
+        this.idCodec = idCodec;
+    }
+
+    public static class Snapshot<T> {
+        private final long lsn;
+        private final List<Employee<T>> employees;
+
+        private Snapshot(long lsn, List<Employee<T>> employees) {
+            this.lsn = lsn;
+            this.employees = employees;
+        }
+
+        public long getLsn() {
+            return lsn;
+        }
+
+        public List<Employee<T>> getEmployees() {
+            return employees;
+        }
+    }
+
+    public void write(long lsn, Collection<Employee<T>> employees) {
+        Path target = directory.resolve(String.format("%s%020d%s", PREFIX, lsn, SUFFIX));
+        Path temp = directory.resolve(target.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(directory);
+            try (FileOutputStream file = new FileOutputStream(temp.toFile())) {
+                CheckedOutputStream checked = new CheckedOutputStream(
+                        new BufferedOutputStream(file, 1 << 20), new CRC32());
+                DataOutputStream out = new DataOutputStream(checked);
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(lsn);
+                out.writeInt(employees.size());
+                for (Employee<T> emp : employees) {
+                    writeEmployee(out, emp, idCodec);
+                }
+                out.flush();
+                out.writeLong(checked.getChecksum().getValue());
+                out.flush();
+                file.getChannel().force(true);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            deleteOlderThan(lsn);
+        } catch (IOException e) {
+            throw new PersistenceException("Failed to write snapshot " + target, e);
+        }
+    }
+
+    // Newest snapshot that passes its checksum, or an empty snapshot at lsn 0.
+    public Snapshot<T> loadLatest() {
+        try {
+            if (!Files.isDirectory(directory)) {
+                return new Snapshot<>(0, new ArrayList<>());
+            }
+            for (Path file : listSnapshots(Comparator.reverseOrder())) {
+                Snapshot<T> snapshot = tryLoad(file);
+                if (snapshot != null) {
+                    return snapshot;
+                }
+            }
+            return new Snapshot<>(0, new ArrayList<>());
+        } catch (IOException e) {
+            throw new PersistenceException("Failed to read snapshots in " + directory, e);
+        }
+    }
+
+    private Snapshot<T> tryLoad(Path file) throws IOException {
+        try (CheckedInputStream checked = new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(file), 1 << 20), new CRC32())) {
+            DataInputStream in = new DataInputStream(checked);
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return null;
+            }
+            long lsn = in.readLong();
+            int count = in.readInt();
+            List<Employee<T>> employees = new ArrayList<>(Math.max(0, count));
+            for (int i = 0; i < count; i++) {
+                employees.add(readEmployee(in, idCodec));
+            }
+            long expected = checked.getChecksum().getValue();
+            return in.readLong() == expected ? new Snapshot<>(lsn, employees) : null;
+        } catch (IOException | RuntimeException e) {
+            return null; // torn or corrupt: fall back to an older snapshot
+        }
+    }
+
+    private void deleteOlderThan(long lsn) throws IOException {
+        for (Path file : listSnapshots(Comparator.naturalOrder())) {
+            String name = file.getFileName().toString();
+            long fileLsn = Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+            if (fileLsn < lsn) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private List<Path> listSnapshots(Comparator<Path> order) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(p -> {
+                String name = p.getFileName().toString();
+                return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+            }).sorted(order).collect(Collectors.toList());
+        }
+    }
+
+    // Employee record shared by snapshots and log records: active is 0 = no, 1 = yes, 2 = unset
+    public static <T> void writeEmployee(DataOutput out, Employee<T> emp, IdCodec<T> idCodec) throws IOException {
+        idCodec.write(out, emp.getEmployeeId());
+        out.writeUTF(emp.getName());
+        out.writeUTF(emp.getDepartment());
+        out.writeDouble(emp.getSalary());
+        out.writeDouble(emp.getPerformanceRating());
+        out.writeInt(emp.getYearsOfExperience());
+        Boolean active = emp.isActive();
+        out.writeByte(active == null ? 2 : active ? 1 : 0);
+    }
+
+    public static <T> Employee<T> readEmployee(DataInput in, IdCodec<T> idCodec) throws IOException {
+        T id = idCodec.read(in);
+        String name = in.readUTF();
+        String department = in.readUTF();
+        double salary = in.readDouble();
+        double rating = in.readDouble();
+        int experience = in.readInt();
+        byte active = in.readByte();
+        return new Employee<>(id, name, department, salary, rating, experience,
+                active == 2 ? null : active == 1);
+    }
+}
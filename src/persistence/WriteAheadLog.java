@@ -0,0 +1,300 @@
+package persistence;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import ExceptionHandling.PersistenceException;
+
+// Append-only, segmented log of opaque typed records.
+// Record layout: [int payloadLength][long lsn][byte type][payload][int crc32(lsn, type, payload)]
+// Payloads are limited to MAX_PAYLOAD_BYTES; append() refuses larger ones.
+// Segments are named wal-<first lsn>.log. A torn or corrupt tail (e.g. after a crash mid-write)
+// ends replay and is truncated away before new records are appended.
+public class WriteAheadLog implements Closeable {
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int HEADER_BYTES = Integer.BYTES + Long.BYTES + Byte.BYTES;
+    private static final int MAX_PAYLOAD_BYTES = 16 * 1024 * 1024;
+
+    public interface RecordHandler {
+        void apply(long lsn, byte type, DataInput payload) throws IOException;
+    }
+
+    public interface PayloadWriter {
+        void write(DataOutput out) throws IOException;
+    }
+
+    private final Path directory;
+    private final PersistenceConfig config;
+    private final ByteArrayOutputStream payloadBuffer = new ByteArrayOutputStream(256);
+    private final DataOutputStream payloadOut = new DataOutputStream(payloadBuffer);
+    private final CRC32 crc = new CRC32();
+    private final ScheduledExecutorService flusher;
+
+    private FileOutputStream segmentFile;
+    private DataOutputStream segmentOut;
+    private long lastLsn;
+    private int pendingSync;
+    private boolean closed;
+
+    private WriteAheadLog(Path directory, PersistenceConfig config, long lastLsn) throws IOException {
+        this.directory = directory;
+        this.config = config;
+        this.lastLsn = lastLsn;
+        List<Path> segments = listSegments(directory);
+        openSegment(segments.isEmpty() ? segmentPath(lastLsn + 1) : segments.get(segments.size() - 1));
+
+        if (config.getGroupCommitIntervalMillis() > 0) {
+            flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "wal-group-commit");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long interval = config.getGroupCommitIntervalMillis();
+            flusher.scheduleWithFixedDelay(this::syncQuietly, interval, interval, TimeUnit.MILLISECONDS);
+        } else {
+            flusher = null;
+        }
+    }
+
+    // Replays every record with lsn > afterLsn through the handler, truncates any torn tail,
+    // and returns the log positioned for appending.
+    public static WriteAheadLog open(Path directory, PersistenceConfig config, long afterLsn,
+                                     RecordHandler handler) {
+        try {
+            Files.createDirectories(directory);
+            long lastLsn = afterLsn;
+            List<Path> segments = listSegments(directory);
+            for (int i = 0; i < segments.size(); i++) {
+                SegmentScan scan = replaySegment(segments.get(i), afterLsn, handler);
+                lastLsn = Math.max(lastLsn, scan.lastLsn);
+                if (scan.validBytes < Files.size(segments.get(i))) {
+                    truncate(segments.get(i), scan.validBytes);
+                    // Anything after a corrupt record cannot be trusted
+                    for (Path later : segments.subList(i + 1, segments.size())) {
+                        Files.delete(later);
+                    }
+                    break;
+                }
+            }
+            return new WriteAheadLog(directory, config, lastLsn);
+        } catch (IOException e) {
+            throw new PersistenceException("Failed to open write-ahead log in " + directory, e);
+        }
+    }
+
+    public synchronized long append(byte type, PayloadWriter writer) {
+        ensureOpen();
+        try {
+            payloadBuffer.reset();
+            writer.write(payloadOut);
+            payloadOut.flush();
+            // Replay would take a longer record for a torn tail and drop it with everything after
+            if (payloadBuffer.size() > MAX_PAYLOAD_BYTES) {
+                throw new PersistenceException("Log record of " + payloadBuffer.size()
+                        + " bytes exceeds the limit of " + MAX_PAYLOAD_BYTES);
+            }
+            byte[] payload = payloadBuffer.toByteArray();
+            long lsn = lastLsn + 1;
+            int checksum = checksum(crc, lsn, type, payload);
+
+            segmentOut.writeInt(payload.length);
+            segmentOut.writeLong(lsn);
+            segmentOut.writeByte(type);
+            segmentOut.write(payload);
+            segmentOut.writeInt(checksum);
+            lastLsn = lsn;
+
+            if (++pendingSync >= config.getGroupCommitRecords()) {
+                sync();
+            }
+            return lsn;
+        } catch (IOException e) {
+            throw new PersistenceException("Failed to append to write-ahead log", e);
+        }
+    }
+
+    // Flushes buffered records and forces them to stable storage.
+    public synchronized void sync() {
+        if (closed || pendingSync == 0) {
+            return;
+        }
+        try {
+            segmentOut.flush();
+            segmentFile.getChannel().force(false);
+            pendingSync = 0;
+        } catch (IOException e) {
+            throw new PersistenceException("Failed to sync write-ahead log", e);
+        }
+    }
+
+    // Starts a new segment so that everything up to lastLsn() can later be dropped as a unit.
+    public synchronized void roll() {
+        ensureOpen();
+        sync();
+        try {
+            segmentOut.close();
+            openSegment(segmentPath(lastLsn + 1));
+        } catch (IOException e) {
+            throw new PersistenceException("Failed to roll write-ahead log", e);
+        }
+    }
+
+    // Deletes closed segments whose records are all covered by a snapshot at upToLsn.
+    public synchronized void deleteSegmentsUpTo(long upToLsn) {
+        try {
+            List<Path> segments = listSegments(directory);
+            for (int i = 0; i + 1 < segments.size(); i++) {
+                if (firstLsnOf(segments.get(i + 1)) <= upToLsn + 1) {
+                    Files.deleteIfExists(segments.get(i));
+                }
+            }
+        } catch (IOException e) {
+            throw new PersistenceException("Failed to compact write-ahead log", e);
+        }
+    }
+
+    public synchronized long lastLsn() {
+        return lastLsn;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        if (flusher != null) {
+            flusher.shutdownNow();
+        }
+        closed = true;
+        try {
+            segmentOut.flush();
+            segmentFile.getChannel().force(false);
+            segmentOut.close();
+        } catch (IOException e) {
+            throw new PersistenceException("Failed to close write-ahead log", e);
+        }
+    }
+
+    private void syncQuietly() {
+        try {
+            sync();
+        } catch (PersistenceException e) {
+            // Surfaced again by the next append or explicit sync
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new PersistenceException("Write-ahead log is closed");
+        }
+    }
+
+    private void openSegment(Path segment) throws IOException {
+        segmentFile = new FileOutputStream(segment.toFile(), true);
+        segmentOut = new DataOutputStream(new BufferedOutputStream(segmentFile, 64 * 1024));
+    }
+
+    private Path segmentPath(long firstLsn) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstLsn, SEGMENT_SUFFIX));
+    }
+
+    // Scans the intact prefix of a segment, handing records newer than afterLsn to the handler.
+    private static SegmentScan replaySegment(Path segment, long afterLsn, RecordHandler handler) throws IOException {
+        SegmentScan scan = new SegmentScan(firstLsnOf(segment) - 1);
+        CRC32 crc = new CRC32();
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(segment), 1 << 20))) {
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    return scan;
+                }
+                if (length < 0 || length > MAX_PAYLOAD_BYTES) {
+                    return scan;
+                }
+                try {
+                    long lsn = in.readLong();
+                    byte type = in.readByte();
+                    byte[] payload = new byte[length];
+                    in.readFully(payload);
+                    if (in.readInt() != checksum(crc, lsn, type, payload)) {
+                        return scan;
+                    }
+                    if (lsn > afterLsn) {
+                        handler.apply(lsn, type, new DataInputStream(new ByteArrayInputStream(payload)));
+                    }
+                    scan.validBytes += HEADER_BYTES + length + Integer.BYTES;
+                    scan.lastLsn = lsn;
+                } catch (EOFException e) {
+                    return scan;
+                }
+            }
+        }
+    }
+
+    private static void truncate(Path segment, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(size);
+            channel.force(true);
+        }
+    }
+
+    private static List<Path> listSegments(Path directory) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(p -> {
+                String name = p.getFileName().toString();
+                return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+            }).sorted().forEach(segments::add);
+        }
+        return segments;
+    }
+
+    private static long firstLsnOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static int checksum(CRC32 crc, long lsn, byte type, byte[] payload) {
+        crc.reset();
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            crc.update((int) (lsn >>> shift));
+        }
+        crc.update(type);
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private static final class SegmentScan {
+        private long validBytes;
+        private long lastLsn;
+
+        private SegmentScan(long lastLsn) {
+            this.lastLsn = lastLsn;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package scan;
+
+// One row per iteration; the fallback and the reference for the vector kernels
+final class ScalarScanKernels extends ScanKernels {
+
+    @Override
+    public long[] selectRange(double[] values, int length, double min, double max) {
+        checkLength(values, length);
+        long[] selection = newSelection(length);
+        for (int row = 0; row < length; row++) {
+            double value = values[row];
+            if (value >= min && value <= max) {
+                selection[row >>> 6] |= 1L << row;
+            }
+        }
+        return selection;
+    }
+
+    @Override
+    public long[] selectCodes(int[] values, int length, int[] codes) {
+        checkLength(values, length);
+        long[] selection = newSelection(length);
+        for (int row = 0; row < length; row++) {
+            int value = values[row];
+            for (int code : codes) {
+                if (value == code) {
+                    selection[row >>> 6] |= 1L << row;
+                    break;
+                }
+            }
+        }
+        return selection;
+    }
+
+    @Override
+    public double sum(double[] values, int length, long[] selection) {
+        checkLength(values, length);
+        double sum = 0;
+        for (int row = 0; row < length; row++) {
+            if (selected(selection, row)) {
+                sum += values[row];
+            }
+        }
+        return sum;
+    }
+
+    @Override
+    public double min(double[] values, int length, long[] selection) {
+        checkLength(values, length);
+        double min = Double.POSITIVE_INFINITY;
+        for (int row = 0; row < length; row++) {
+            if (selected(selection, row)) {
+                min = Math.min(min, values[row]);
+            }
+        }
+        return min;
+    }
+
+    @Override
+    public void add(double[] values, int length, long[] selection, double delta) {
+        checkLength(values, length);
+        for (int row = 0; row < length; row++) {
+            if (selected(selection, row)) {
+                values[row] += delta;
+            }
+        }
+    }
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+}
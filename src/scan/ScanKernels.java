@@ -0,0 +1,88 @@
+package scan;
+
+// Predicate and aggregate kernels over packed primitive columns, as kept by
+// ColumnarEmployeeDatabase (salaries and ratings as double[], departments as int[] codes).
+// A selection is a bitmap in BitSet.valueOf(long[]) layout: bit i of word i / 64 is row i,
+// and bits at or past length are always clear. Every kernel reads rows [0, length) only.
+// SCALAR is a plain loop per row. vector(), when built with the vector profile and run with
+//   --add-modules jdk.incubator.vector
+// evaluates several rows per instruction with the Vector API; DEFAULT is vector() when
+// available and SCALAR otherwise, or SCALAR anyway with -Dscan.kernels=scalar.
+// Sums may differ from a left-to-right sum in the last bits, since lanes add in parallel.
+public abstract class ScanKernels {
+    public static final ScanKernels SCALAR = new ScalarScanKernels();
+
+    private static final ScanKernels VECTOR = loadVector();
+
+    public static final ScanKernels DEFAULT =
+            VECTOR == null || "scalar".equals(System.getProperty("scan.kernels")) ? SCALAR : VECTOR;
+
+    // The Vector API implementation, or null when it was not compiled in or jdk.incubator.vector
+    // is not in the boot layer
+    public static ScanKernels vector() {
+        return VECTOR;
+    }
+
+    // Rows with min <= values[row] <= max; NaN never matches
+    public abstract long[] selectRange(double[] values, int length, double min, double max);
+
+    // Rows whose code is one of codes
+    public abstract long[] selectCodes(int[] values, int length, int[] codes);
+
+    // Sum of the selected values
+    public abstract double sum(double[] values, int length, long[] selection);
+
+    // Smallest selected value; +Infinity when nothing is selected
+    public abstract double min(double[] values, int length, long[] selection);
+
+    // Adds delta to every selected value in place
+    public abstract void add(double[] values, int length, long[] selection, double delta);
+
+    public abstract String name();
+
+    // Number of selected rows
+    public static int count(long[] selection) {
+        int count = 0;
+        for (long word : selection) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    static long[] newSelection(int length) {
+        return new long[(length + 63) >>> 6];
+    }
+
+    static boolean selected(long[] selection, int row) {
+        return (selection[row >>> 6] & 1L << row) != 0;
+    }
+
+    static void checkLength(double[] values, int length) {
+        if (length < 0 || length > values.length) {
+            throw new IllegalArgumentException("Length " + length + " outside the column of " + values.length);
+        }
+    }
+
+    static void checkLength(int[] values, int length) {
+        if (length < 0 || length > values.length) {
+            throw new IllegalArgumentException("Length " + length + " outside the column of " + values.length);
+        }
+    }
+
+    // Loaded by name so that this class links, and builds, without the incubator module
+    private static ScanKernels loadVector() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return null;
+        }
+        try {
+            return (ScanKernels) Class.forName("scan.VectorScanKernels").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return name();
+    }
+}
@@ -0,0 +1,143 @@
+package scan;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+// Vector API kernels at the CPU's preferred width (e.g. 4 doubles per AVX2 instruction, 8 with
+// AVX-512), with a scalar loop for the last rows. Lane counts are powers of two up to 64, so a
+// vector of rows always falls inside one selection word: comparisons turn straight into bits
+// of it and the bits of a word slice straight into masks. Mask-driven kernels skip vectors
+// with nothing selected and drop the mask where everything is.
+// Compiled only by the vector and benchmarks profiles; loaded through ScanKernels.vector(),
+// when jdk.incubator.vector is present.
+final class VectorScanKernels extends ScanKernels {
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+    private static final long DOUBLE_LANES = laneBits(DOUBLES.length());
+
+    @Override
+    public long[] selectRange(double[] values, int length, double min, double max) {
+        checkLength(values, length);
+        long[] selection = newSelection(length);
+        int upper = DOUBLES.loopBound(length);
+        int row = 0;
+        for (; row < upper; row += DOUBLES.length()) {
+            DoubleVector v = DoubleVector.fromArray(DOUBLES, values, row);
+            long bits = v.compare(VectorOperators.GE, min).and(v.compare(VectorOperators.LE, max)).toLong();
+            selection[row >>> 6] |= bits << row;
+        }
+        for (; row < length; row++) {
+            double value = values[row];
+            if (value >= min && value <= max) {
+                selection[row >>> 6] |= 1L << row;
+            }
+        }
+        return selection;
+    }
+
+    @Override
+    public long[] selectCodes(int[] values, int length, int[] codes) {
+        checkLength(values, length);
+        long[] selection = newSelection(length);
+        if (codes.length == 0) {
+            return selection;
+        }
+        int upper = INTS.loopBound(length);
+        int row = 0;
+        for (; row < upper; row += INTS.length()) {
+            IntVector v = IntVector.fromArray(INTS, values, row);
+            VectorMask<Integer> matches = v.compare(VectorOperators.EQ, codes[0]);
+            for (int i = 1; i < codes.length; i++) {
+                matches = matches.or(v.compare(VectorOperators.EQ, codes[i]));
+            }
+            selection[row >>> 6] |= matches.toLong() << row;
+        }
+        for (; row < length; row++) {
+            for (int code : codes) {
+                if (values[row] == code) {
+                    selection[row >>> 6] |= 1L << row;
+                    break;
+                }
+            }
+        }
+        return selection;
+    }
+
+    @Override
+    public double sum(double[] values, int length, long[] selection) {
+        checkLength(values, length);
+        DoubleVector acc = DoubleVector.zero(DOUBLES);
+        int upper = DOUBLES.loopBound(length);
+        int row = 0;
+        for (; row < upper; row += DOUBLES.length()) {
+            long bits = selection[row >>> 6] >>> row & DOUBLE_LANES;
+            if (bits == DOUBLE_LANES) {
+                acc = acc.add(DoubleVector.fromArray(DOUBLES, values, row));
+            } else if (bits != 0) {
+                acc = acc.add(DoubleVector.fromArray(DOUBLES, values, row), VectorMask.fromLong(DOUBLES, bits));
+            }
+        }
+        double sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; row < length; row++) {
+            if (selected(selection, row)) {
+                sum += values[row];
+            }
+        }
+        return sum;
+    }
+
+    @Override
+    public double min(double[] values, int length, long[] selection) {
+        checkLength(values, length);
+        DoubleVector acc = DoubleVector.broadcast(DOUBLES, Double.POSITIVE_INFINITY);
+        int upper = DOUBLES.loopBound(length);
+        int row = 0;
+        for (; row < upper; row += DOUBLES.length()) {
+            long bits = selection[row >>> 6] >>> row & DOUBLE_LANES;
+            if (bits == DOUBLE_LANES) {
+                acc = acc.min(DoubleVector.fromArray(DOUBLES, values, row));
+            } else if (bits != 0) {
+                acc = acc.lanewise(VectorOperators.MIN, DoubleVector.fromArray(DOUBLES, values, row), VectorMask.fromLong(DOUBLES, bits));
+            }
+        }
+        double min = acc.reduceLanes(VectorOperators.MIN);
+        for (; row < length; row++) {
+            if (selected(selection, row)) {
+                min = Math.min(min, values[row]);
+            }
+        }
+        return min;
+    }
+
+    @Override
+    public void add(double[] values, int length, long[] selection, double delta) {
+        checkLength(values, length);
+        int upper = DOUBLES.loopBound(length);
+        int row = 0;
+        for (; row < upper; row += DOUBLES.length()) {
+            long bits = selection[row >>> 6] >>> row & DOUBLE_LANES;
+            if (bits == DOUBLE_LANES) {
+                DoubleVector.fromArray(DOUBLES, values, row).add(delta).intoArray(values, row);
+            } else if (bits != 0) {
+                DoubleVector.fromArray(DOUBLES, values, row).add(delta, VectorMask.fromLong(DOUBLES, bits)).intoArray(values, row);
+            }
+        }
+        for (; row < length; row++) {
+            if (selected(selection, row)) {
+                values[row] += delta;
+            }
+        }
+    }
+
+    @Override
+    public String name() {
+        return "vector(" + DOUBLES.vectorBitSize() + " bit)";
+    }
+
+    private static long laneBits(int lanes) {
+        return lanes == 64 ? -1L : (1L << lanes) - 1;
+    }
+}
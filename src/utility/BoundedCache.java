@@ -0,0 +1,157 @@
+package utility;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Map of at most capacity entries that evicts on put when full: the least recently used entry
+// (LRU), or the least frequently used one with ties going to the least recently used (LFU).
+// Every get() hit and put() counts as a use. LRU is a LinkedHashMap in access order; LFU keeps
+// keys in per-frequency buckets, so both are O(1) per call apart from O(log f) for the f
+// distinct frequencies. All methods are synchronized.
+public final class BoundedCache<K, V> {
+    public enum Eviction {
+        LRU,
+        LFU
+    }
+
+    private final int capacity;
+    private final Eviction eviction;
+    private final LinkedHashMap<K, V> recency;
+    private final Map<K, Counted<V>> counted;
+    private final TreeMap<Long, LinkedHashSet<K>> byFrequency;
+    private long evictions;
+
+    public BoundedCache(int capacity, Eviction eviction) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        if (eviction == null) {
+            throw new IllegalArgumentException("Eviction policy cannot be null");
+        }
+        this.capacity = capacity;
+        this.eviction = eviction;
+        if (eviction == Eviction.LRU) {
+            this.recency = new LinkedHashMap<>(16, 0.75f, true);
+            this.counted = null;
+            this.byFrequency = null;
+        } else {
+            this.recency = null;
+            this.counted = new HashMap<>();
+            this.byFrequency = new TreeMap<>();
+        }
+    }
+
+    public synchronized V get(K key) {
+        if (recency != null) {
+            return recency.get(key);
+        }
+        Counted<V> entry = counted.get(key);
+        if (entry == null) {
+            return null;
+        }
+        touch(key, entry);
+        return entry.value;
+    }
+
+    public synchronized void put(K key, V value) {
+        if (key == null || value == null) {
+            throw new IllegalArgumentException("Key and value cannot be null");
+        }
+        if (recency != null) {
+            if (!recency.containsKey(key) && recency.size() >= capacity) {
+                Iterator<K> eldest = recency.keySet().iterator();
+                eldest.next();
+                eldest.remove();
+                evictions++;
+            }
+            recency.put(key, value);
+            return;
+        }
+        Counted<V> entry = counted.get(key);
+        if (entry != null) {
+            entry.value = value;
+            touch(key, entry);
+            return;
+        }
+        if (counted.size() >= capacity) {
+            Map.Entry<Long, LinkedHashSet<K>> least = byFrequency.firstEntry();
+            Iterator<K> oldest = least.getValue().iterator();
+            K victim = oldest.next();
+            oldest.remove();
+            if (least.getValue().isEmpty()) {
+                byFrequency.remove(least.getKey());
+            }
+            counted.remove(victim);
+            evictions++;
+        }
+        counted.put(key, new Counted<>(value));
+        byFrequency.computeIfAbsent(1L, f -> new LinkedHashSet<>()).add(key);
+    }
+
+    // Removes the entry only while it still maps to value, so a newer one is left alone
+    public synchronized boolean remove(K key, V value) {
+        if (recency != null) {
+            return recency.remove(key, value);
+        }
+        Counted<V> entry = counted.get(key);
+        if (entry == null || !entry.value.equals(value)) {
+            return false;
+        }
+        counted.remove(key);
+        unlink(key, entry.frequency);
+        return true;
+    }
+
+    public synchronized void clear() {
+        if (recency != null) {
+            recency.clear();
+        } else {
+            counted.clear();
+            byFrequency.clear();
+        }
+    }
+
+    public synchronized int size() {
+        return recency != null ? recency.size() : counted.size();
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public Eviction eviction() {
+        return eviction;
+    }
+
+    // Entries dropped to make room, since the cache was created
+    public synchronized long evictions() {
+        return evictions;
+    }
+
+    private void touch(K key, Counted<V> entry) {
+        unlink(key, entry.frequency);
+        entry.frequency++;
+        byFrequency.computeIfAbsent(entry.frequency, f -> new LinkedHashSet<>()).add(key);
+    }
+
+    private void unlink(K key, long frequency) {
+        LinkedHashSet<K> keys = byFrequency.get(frequency);
+        keys.remove(key);
+        if (keys.isEmpty()) {
+            byFrequency.remove(frequency);
+        }
+    }
+
+    private static final class Counted<V> {
+        private V value;
+        private long frequency = 1;
+
+        private Counted(V value) {
+            this.value = value;
+        }
+    }
+}
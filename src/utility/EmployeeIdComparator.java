@@ -0,0 +1,22 @@
+package utility;
+
+import java.util.Comparator;
+
+// Orders employee IDs deterministically so ties in sorted structures always break the same way.
+// Comparable IDs use their natural order; anything else falls back to class name, then toString().
+public class EmployeeIdComparator<T> implements Comparator<T> {
+    @Override
+    @SuppressWarnings("unchecked")
+    public int compare(T id1, T id2) {
+        if (id1 == id2) return 0;
+        if (id1 == null) return 1;
+        if (id2 == null) return -1;
+
+        if (id1 instanceof Comparable && id1.getClass() == id2.getClass()) {
+            return ((Comparable<Object>) id1).compareTo(id2);
+        }
+        int byClass = id1.getClass().getName().compareTo(id2.getClass().getName());
+        if (byClass != 0) return byClass;
+        return id1.toString().compareTo(id2.toString());
+    }
+}
@@ -0,0 +1,246 @@
+package utility;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+// Open-addressing hash map from primitive int keys to non-null values: two parallel arrays,
+// linear probing and backward-shift deletion (no tombstones), so an entry costs two array
+// slots instead of a HashMap.Node plus a boxed key. The int methods never box; the Map view
+// exists so the map can stand in for a Map<Integer, V> and unboxes on the way in.
+// Not thread-safe.
+public final class IntHashMap<V> extends AbstractMap<Integer, V> {
+    private static final int MIN_CAPACITY = 16;
+
+    private int[] keys;
+    private Object[] values;
+    private int shift;
+    private int size;
+
+    public IntHashMap() {
+        this(MIN_CAPACITY);
+    }
+
+    // Sized so that expectedSize entries fit without rehashing
+    public IntHashMap(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Expected size cannot be negative");
+        }
+        allocate(capacityFor(expectedSize));
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int mask = values.length - 1;
+        for (int slot = slot(key); values[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return (V) values[slot];
+            }
+        }
+        return null;
+    }
+
+    public boolean containsKey(int key) {
+        return get(key) != null;
+    }
+
+    // Returns the previous value, or null
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Value cannot be null");
+        }
+        int mask = values.length - 1;
+        int slot = slot(key);
+        for (; values[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                V previous = (V) values[slot];
+                values[slot] = value;
+                return previous;
+            }
+        }
+        if ((size + 1) * 4L > values.length * 3L) {
+            rehash(values.length * 2);
+            return put(key, value);
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+        return null;
+    }
+
+    // Returns the removed value, or null
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        int mask = values.length - 1;
+        for (int slot = slot(key); values[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                V removed = (V) values[slot];
+                closeGap(slot);
+                size--;
+                return removed;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    @Override
+    public V get(Object key) {
+        return key instanceof Integer ? get(((Integer) key).intValue()) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public V put(Integer key, V value) {
+        return put(key.intValue(), value);
+    }
+
+    @Override
+    public V remove(Object key) {
+        return key instanceof Integer ? remove(((Integer) key).intValue()) : null;
+    }
+
+    // Live view in slot order; the iterator does not support removal
+    @Override
+    public Collection<V> values() {
+        return new AbstractCollection<V>() {
+            @Override
+            public Iterator<V> iterator() {
+                return new SlotIterator<V>() {
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    V at(int slot) {
+                        return (V) values[slot];
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    // Boxes every key it hands out; prefer values() or the int methods on hot paths
+    @Override
+    public Set<Entry<Integer, V>> entrySet() {
+        return new AbstractSet<Entry<Integer, V>>() {
+            @Override
+            public Iterator<Entry<Integer, V>> iterator() {
+                return new SlotIterator<Entry<Integer, V>>() {
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    Entry<Integer, V> at(int slot) {
+                        return new SimpleImmutableEntry<>(keys[slot], (V) values[slot]);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    // Fibonacci hashing: the top bits of key * 2^32/phi, which spreads sequential IDs evenly
+    private int slot(int key) {
+        return (key * 0x9E3779B9) >>> shift;
+    }
+
+    // Backward-shift deletion: pull later entries of the probe run into the hole whenever
+    // their home slot does not lie cyclically between the hole and where they sit now
+    private void closeGap(int gap) {
+        int mask = values.length - 1;
+        for (int next = (gap + 1) & mask; values[next] != null; next = (next + 1) & mask) {
+            int home = slot(keys[next]);
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+        }
+        values[gap] = null;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != null) {
+                int slot = slot(oldKeys[i]);
+                while (values[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new Object[capacity];
+        shift = 32 - Integer.numberOfTrailingZeros(capacity);
+    }
+
+    // Smallest power of two that holds expectedSize at a load factor of at most 3/4
+    private static int capacityFor(int expectedSize) {
+        long required = Math.max(MIN_CAPACITY, (expectedSize * 4L + 2) / 3 + 1);
+        if (required > (1 << 30)) {
+            throw new IllegalArgumentException("Expected size too large: " + expectedSize);
+        }
+        return Integer.highestOneBit((int) required - 1) << 1;
+    }
+
+    private abstract class SlotIterator<E> implements Iterator<E> {
+        private int slot = advance(0);
+
+        abstract E at(int slot);
+
+        private int advance(int from) {
+            while (from < values.length && values[from] == null) {
+                from++;
+            }
+            return from;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return slot < values.length;
+        }
+
+        @Override
+        public E next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            E element = at(slot);
+            slot = advance(slot + 1);
+            return element;
+        }
+    }
+}
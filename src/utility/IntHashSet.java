@@ -0,0 +1,175 @@
+package utility;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+// Open-addressing hash set of primitive ints, laid out like IntHashMap but with the keys
+// alone: one int per slot, FREE marking an empty one (the FREE value itself is tracked by a
+// flag). Starts small, as most index posting sets hold only a handful of IDs. Stands in for a
+// Set<Integer>, unboxing on the way in and boxing what the iterator hands out.
+// Not thread-safe.
+public final class IntHashSet extends AbstractSet<Integer> {
+    private static final int FREE = 0;
+    private static final int MIN_CAPACITY = 4;
+
+    private int[] keys = new int[MIN_CAPACITY];
+    private int shift = 32 - Integer.numberOfTrailingZeros(MIN_CAPACITY);
+    private int size;
+    private boolean containsFree;
+
+    public boolean contains(int key) {
+        if (key == FREE) {
+            return containsFree;
+        }
+        int mask = keys.length - 1;
+        for (int slot = slot(key); keys[slot] != FREE; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean add(int key) {
+        if (key == FREE) {
+            if (containsFree) {
+                return false;
+            }
+            containsFree = true;
+            size++;
+            return true;
+        }
+        int mask = keys.length - 1;
+        int slot = slot(key);
+        for (; keys[slot] != FREE; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return false;
+            }
+        }
+        if ((size + 1) * 4L > keys.length * 3L) {
+            rehash(keys.length * 2);
+            return add(key);
+        }
+        keys[slot] = key;
+        size++;
+        return true;
+    }
+
+    public boolean remove(int key) {
+        if (key == FREE) {
+            if (!containsFree) {
+                return false;
+            }
+            containsFree = false;
+            size--;
+            return true;
+        }
+        int mask = keys.length - 1;
+        for (int slot = slot(key); keys[slot] != FREE; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                closeGap(slot);
+                size--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(keys, FREE);
+        containsFree = false;
+        size = 0;
+    }
+
+    @Override
+    public boolean contains(Object key) {
+        return key instanceof Integer && contains(((Integer) key).intValue());
+    }
+
+    @Override
+    public boolean add(Integer key) {
+        return add(key.intValue());
+    }
+
+    @Override
+    public boolean remove(Object key) {
+        return key instanceof Integer && remove(((Integer) key).intValue());
+    }
+
+    // The FREE key first if present, then slot order; does not support removal
+    @Override
+    public Iterator<Integer> iterator() {
+        return new Iterator<Integer>() {
+            private boolean freePending = containsFree;
+            private int slot = advance(0);
+
+            private int advance(int from) {
+                while (from < keys.length && keys[from] == FREE) {
+                    from++;
+                }
+                return from;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return freePending || slot < keys.length;
+            }
+
+            @Override
+            public Integer next() {
+                if (freePending) {
+                    freePending = false;
+                    return FREE;
+                }
+                if (slot >= keys.length) {
+                    throw new NoSuchElementException();
+                }
+                int key = keys[slot];
+                slot = advance(slot + 1);
+                return key;
+            }
+        };
+    }
+
+    // Fibonacci hashing, as in IntHashMap
+    private int slot(int key) {
+        return (key * 0x9E3779B9) >>> shift;
+    }
+
+    // Backward-shift deletion, as in IntHashMap
+    private void closeGap(int gap) {
+        int mask = keys.length - 1;
+        for (int next = (gap + 1) & mask; keys[next] != FREE; next = (next + 1) & mask) {
+            int home = slot(keys[next]);
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                gap = next;
+            }
+        }
+        keys[gap] = FREE;
+    }
+
+    private void rehash(int capacity) {
+        int[] old = keys;
+        keys = new int[capacity];
+        shift = 32 - Integer.numberOfTrailingZeros(capacity);
+        int mask = capacity - 1;
+        for (int key : old) {
+            if (key != FREE) {
+                int slot = slot(key);
+                while (keys[slot] != FREE) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+            }
+        }
+    }
+}
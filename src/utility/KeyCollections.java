@@ -0,0 +1,59 @@
+package utility;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Makes the per-employee maps and sets that the indexes and aggregates key by employee ID, so
+// that an engine whose IDs are primitive (see IntEmployeeDatabase) can keep them in IntHashMap
+// and IntHashSet instead of HashMap nodes.
+public interface KeyCollections<K> {
+    <V> Map<K, V> newMap();
+
+    Set<K> newSet();
+
+    static <K> KeyCollections<K> hashed() {
+        return new KeyCollections<K>() {
+            @Override
+            public <V> Map<K, V> newMap() {
+                return new HashMap<>();
+            }
+
+            @Override
+            public Set<K> newSet() {
+                return new HashSet<>();
+            }
+        };
+    }
+
+    static <K> KeyCollections<K> concurrent() {
+        return new KeyCollections<K>() {
+            @Override
+            public <V> Map<K, V> newMap() {
+                return new ConcurrentHashMap<>();
+            }
+
+            @Override
+            public Set<K> newSet() {
+                return ConcurrentHashMap.newKeySet();
+            }
+        };
+    }
+
+    // Not thread-safe
+    static KeyCollections<Integer> ints() {
+        return new KeyCollections<Integer>() {
+            @Override
+            public <V> Map<Integer, V> newMap() {
+                return new IntHashMap<>();
+            }
+
+            @Override
+            public Set<Integer> newSet() {
+                return new IntHashSet();
+            }
+        };
+    }
+}
@@ -0,0 +1,443 @@
+package utility;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+// Immutable hash map with structural sharing: a hash array mapped trie (HAMT) branching 32 ways
+// on 5 bits of the key's hash per level. plus() and minus() return a new map that copies only
+// the O(log32 n) nodes on the path to the key and shares everything else with the old one, so
+// keeping any number of versions alive costs only what changed between them. A version that
+// is no longer referenced is simply garbage collected.
+// The hash is consumed most significant bits first (2 at the root, then 5 per level), so keys
+// with nearby hash codes, like sequential Integer IDs, fill whole 32-entry leaves instead of
+// scattering over thousands of sparse ones, which keeps iteration cache-friendly. All 32 bits
+// are used, so the hash needs no spreading.
+// Maps are safe to share between threads once published (e.g. through a volatile field).
+// Keys may not be null. For bulk changes, a Builder edits the nodes it has already copied in
+// place instead of copying them again for every key.
+public final class PersistentHashMap<K, V> extends AbstractMap<K, V> {
+    private static final PersistentHashMap<?, ?> EMPTY = new PersistentHashMap<>(null, 0);
+    private static final Object NOT_FOUND = new Object();
+    private static final int BITS = 5;
+    private static final int MAX_DEPTH = 8;
+
+    private final Node root;
+    private final int size;
+
+    private PersistentHashMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentHashMap<K, V> empty() {
+        return (PersistentHashMap<K, V>) EMPTY;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        if (key == null || root == null) {
+            return null;
+        }
+        Object value = root.find(0, hash(key), key);
+        return value == NOT_FOUND ? null : (V) value;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key != null && root != null && root.find(0, hash(key), key) != NOT_FOUND;
+    }
+
+    // This map with key mapped to value; this map itself when it already was
+    public PersistentHashMap<K, V> plus(K key, V value) {
+        if (key == null) {
+            throw new IllegalArgumentException("Key cannot be null");
+        }
+        Box added = new Box();
+        Node base = root == null ? BitmapNode.EMPTY : root;
+        Node updated = base.assoc(null, 0, hash(key), key, value, added);
+        return updated == root ? this : new PersistentHashMap<>(updated, added.value ? size + 1 : size);
+    }
+
+    // This map without key; this map itself when key was absent
+    public PersistentHashMap<K, V> minus(Object key) {
+        if (key == null || root == null) {
+            return this;
+        }
+        Box removed = new Box();
+        Node updated = root.without(null, 0, hash(key), key, removed);
+        return removed.value ? new PersistentHashMap<>(updated, size - 1) : this;
+    }
+
+    public Builder<K, V> toBuilder() {
+        return new Builder<>(root, size);
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Map.Entry<K, V>> iterator() {
+                return new TrieIterator<>(root, true);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    // Walks the values directly, without an entry object per mapping
+    @Override
+    public Collection<V> values() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<V> iterator() {
+                return new TrieIterator<>(root, false);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private static int hash(Object key) {
+        return key.hashCode();
+    }
+
+    // shift 0 takes bits 30-31, shift 5 bits 25-29, ..., shift 30 bits 0-4
+    private static int bit(int hash, int shift) {
+        return 1 << ((hash >>> (30 - shift)) & 31);
+    }
+
+    // Accumulates changes on top of a map. Nodes it copied carry its edit token and are changed
+    // in place by later calls; nodes of the map it started from are never touched. build() ends
+    // the run: the builder switches to a fresh token, so the map it returned stays immutable
+    // however the builder is used afterwards. Not thread-safe.
+    public static final class Builder<K, V> {
+        private Object edit = new Object();
+        private Node root;
+        private int size;
+
+        private Builder(Node root, int size) {
+            this.root = root;
+            this.size = size;
+        }
+
+        public Builder<K, V> put(K key, V value) {
+            if (key == null) {
+                throw new IllegalArgumentException("Key cannot be null");
+            }
+            Box added = new Box();
+            root = (root == null ? BitmapNode.EMPTY : root).assoc(edit, 0, hash(key), key, value, added);
+            if (added.value) {
+                size++;
+            }
+            return this;
+        }
+
+        public Builder<K, V> remove(Object key) {
+            if (key != null && root != null) {
+                Box removed = new Box();
+                root = root.without(edit, 0, hash(key), key, removed);
+                if (removed.value) {
+                    size--;
+                }
+            }
+            return this;
+        }
+
+        public PersistentHashMap<K, V> build() {
+            edit = new Object();
+            return root == null ? empty() : new PersistentHashMap<>(root, size);
+        }
+    }
+
+    private static final class Box {
+        private boolean value;
+    }
+
+    // Entries are stored as key, value pairs in one array. In a BitmapNode a pair with a null
+    // key holds a child node in the value slot; a CollisionNode holds keys with equal hashes.
+    private abstract static class Node {
+        final Object edit;
+        Object[] array;
+
+        Node(Object edit, Object[] array) {
+            this.edit = edit;
+            this.array = array;
+        }
+
+        abstract Object find(int shift, int hash, Object key);
+
+        abstract Node assoc(Object edit, int shift, int hash, Object key, Object value, Box added);
+
+        // null when the node ends up empty
+        abstract Node without(Object edit, int shift, int hash, Object key, Box removed);
+
+        boolean editable(Object edit) {
+            return edit != null && edit == this.edit;
+        }
+    }
+
+    private static final class BitmapNode extends Node {
+        static final BitmapNode EMPTY = new BitmapNode(null, 0, new Object[0]);
+
+        int bitmap;
+
+        BitmapNode(Object edit, int bitmap, Object[] array) {
+            super(edit, array);
+            this.bitmap = bitmap;
+        }
+
+        @Override
+        Object find(int shift, int hash, Object key) {
+            int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return NOT_FOUND;
+            }
+            int i = 2 * Integer.bitCount(bitmap & (bit - 1));
+            Object k = array[i];
+            if (k == null) {
+                return ((Node) array[i + 1]).find(shift + BITS, hash, key);
+            }
+            return key.equals(k) ? array[i + 1] : NOT_FOUND;
+        }
+
+        @Override
+        Node assoc(Object edit, int shift, int hash, Object key, Object value, Box added) {
+            int bit = bit(hash, shift);
+            int i = 2 * Integer.bitCount(bitmap & (bit - 1));
+            if ((bitmap & bit) == 0) {
+                added.value = true;
+                Object[] grown = new Object[array.length + 2];
+                System.arraycopy(array, 0, grown, 0, i);
+                grown[i] = key;
+                grown[i + 1] = value;
+                System.arraycopy(array, i, grown, i + 2, array.length - i);
+                if (editable(edit)) {
+                    array = grown;
+                    bitmap |= bit;
+                    return this;
+                }
+                return new BitmapNode(edit, bitmap | bit, grown);
+            }
+            Object k = array[i];
+            Object v = array[i + 1];
+            if (k == null) {
+                Node child = ((Node) v).assoc(edit, shift + BITS, hash, key, value, added);
+                return child == v ? this : set(edit, i + 1, child);
+            }
+            if (key.equals(k)) {
+                return v == value ? this : set(edit, i + 1, value);
+            }
+            added.value = true;
+            return set(edit, i, null, split(edit, shift + BITS, k, v, hash, key, value));
+        }
+
+        @Override
+        Node without(Object edit, int shift, int hash, Object key, Box removed) {
+            int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return this;
+            }
+            int i = 2 * Integer.bitCount(bitmap & (bit - 1));
+            Object k = array[i];
+            Object v = array[i + 1];
+            if (k == null) {
+                Node child = ((Node) v).without(edit, shift + BITS, hash, key, removed);
+                if (child == v) {
+                    return this;
+                }
+                if (child != null) {
+                    return set(edit, i + 1, child);
+                }
+            } else if (!key.equals(k)) {
+                return this;
+            } else {
+                removed.value = true;
+            }
+            if (bitmap == bit) {
+                return null;
+            }
+            Object[] shrunk = new Object[array.length - 2];
+            System.arraycopy(array, 0, shrunk, 0, i);
+            System.arraycopy(array, i + 2, shrunk, i, array.length - i - 2);
+            if (editable(edit)) {
+                array = shrunk;
+                bitmap ^= bit;
+                return this;
+            }
+            return new BitmapNode(edit, bitmap ^ bit, shrunk);
+        }
+
+        private BitmapNode set(Object edit, int i, Object value) {
+            BitmapNode node = editable(edit) ? this : new BitmapNode(edit, bitmap, array.clone());
+            node.array[i] = value;
+            return node;
+        }
+
+        private BitmapNode set(Object edit, int i, Object key, Object value) {
+            BitmapNode node = editable(edit) ? this : new BitmapNode(edit, bitmap, array.clone());
+            node.array[i] = key;
+            node.array[i + 1] = value;
+            return node;
+        }
+
+        // Node holding two entries that share a slot one level up
+        private static Node split(Object edit, int shift, Object key1, Object value1, int hash2, Object key2, Object value2) {
+            int hash1 = hash(key1);
+            if (hash1 == hash2) {
+                return new CollisionNode(edit, hash1, new Object[] {key1, value1, key2, value2});
+            }
+            Box ignored = new Box();
+            return EMPTY.assoc(edit, shift, hash1, key1, value1, ignored)
+                    .assoc(edit, shift, hash2, key2, value2, ignored);
+        }
+    }
+
+    private static final class CollisionNode extends Node {
+        final int hash;
+
+        CollisionNode(Object edit, int hash, Object[] array) {
+            super(edit, array);
+            this.hash = hash;
+        }
+
+        @Override
+        Object find(int shift, int hash, Object key) {
+            int i = indexOf(key);
+            return i < 0 ? NOT_FOUND : array[i + 1];
+        }
+
+        @Override
+        Node assoc(Object edit, int shift, int hash, Object key, Object value, Box added) {
+            if (hash != this.hash) {
+                // A different hash reached this node before their bits diverged: push it down a level
+                return new BitmapNode(edit, bit(this.hash, shift), new Object[] {null, this})
+                        .assoc(edit, shift, hash, key, value, added);
+            }
+            int i = indexOf(key);
+            if (i >= 0) {
+                if (array[i + 1] == value) {
+                    return this;
+                }
+                CollisionNode node = editable(edit) ? this : new CollisionNode(edit, hash, array.clone());
+                node.array[i + 1] = value;
+                return node;
+            }
+            added.value = true;
+            Object[] grown = new Object[array.length + 2];
+            System.arraycopy(array, 0, grown, 0, array.length);
+            grown[array.length] = key;
+            grown[array.length + 1] = value;
+            if (editable(edit)) {
+                array = grown;
+                return this;
+            }
+            return new CollisionNode(edit, hash, grown);
+        }
+
+        @Override
+        Node without(Object edit, int shift, int hash, Object key, Box removed) {
+            int i = indexOf(key);
+            if (i < 0) {
+                return this;
+            }
+            removed.value = true;
+            if (array.length == 2) {
+                return null;
+            }
+            Object[] shrunk = new Object[array.length - 2];
+            System.arraycopy(array, 0, shrunk, 0, i);
+            System.arraycopy(array, i + 2, shrunk, i, array.length - i - 2);
+            if (editable(edit)) {
+                array = shrunk;
+                return this;
+            }
+            return new CollisionNode(edit, hash, shrunk);
+        }
+
+        private int indexOf(Object key) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (key.equals(array[i])) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    // Depth-first walk with an explicit stack of (array, position), yielding entries or values;
+    // needs no locks because the nodes of a built map never change
+    private static final class TrieIterator<E> implements Iterator<E> {
+        private final boolean entries;
+        private final Object[][] arrays = new Object[MAX_DEPTH][];
+        private final int[] positions = new int[MAX_DEPTH];
+        private int depth = -1;
+        private Object nextKey;
+        private Object nextValue;
+
+        private TrieIterator(Node root, boolean entries) {
+            this.entries = entries;
+            if (root != null) {
+                arrays[0] = root.array;
+                depth = 0;
+            }
+            advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextKey != null;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public E next() {
+            if (nextKey == null) {
+                throw new NoSuchElementException();
+            }
+            Object next = entries ? new SimpleImmutableEntry<>(nextKey, nextValue) : nextValue;
+            advance();
+            return (E) next;
+        }
+
+        private void advance() {
+            nextKey = null;
+            while (depth >= 0) {
+                Object[] array = arrays[depth];
+                int i = positions[depth];
+                if (i == array.length) {
+                    arrays[depth--] = null;
+                    continue;
+                }
+                positions[depth] = i + 2;
+                if (array[i] == null) {
+                    depth++;
+                    arrays[depth] = ((Node) array[i + 1]).array;
+                    positions[depth] = 0;
+                } else {
+                    nextKey = array[i];
+                    nextValue = array[i + 1];
+                    return;
+                }
+            }
+        }
+    }
+}
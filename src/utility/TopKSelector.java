@@ -0,0 +1,96 @@
+package utility;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.IntBinaryOperator;
+
+// Streaming top-K selection with a bounded heap: O(n log k) time and O(k) memory,
+// instead of sorting all n items to keep only the first k.
+public final class TopKSelector {
+    private TopKSelector() {
+    }
+
+    // The first k items of the given order, sorted by that order.
+    public static <E> List<E> select(Iterable<? extends E> items, int k, Comparator<? super E> order) {
+        if (k < 0) {
+            throw new IllegalArgumentException("Limit cannot be negative");
+        }
+        if (k == 0) {
+            return new ArrayList<>();
+        }
+        // Head of the heap is the worst of the current top k
+        PriorityQueue<E> heap = new PriorityQueue<>(Math.min(k, 1024) + 1, Collections.reverseOrder(order));
+        for (E item : items) {
+            if (heap.size() < k) {
+                heap.add(item);
+            } else if (order.compare(item, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(item);
+            }
+        }
+        List<E> result = new ArrayList<>(heap);
+        result.sort(order);
+        return result;
+    }
+
+    // The same over ints, e.g. row or slot numbers, ranked by an int comparator so nothing is
+    // boxed: the first k of items[0, length) in that order, sorted.
+    public static int[] select(int[] items, int length, int k, IntBinaryOperator order) {
+        if (k < 0) {
+            throw new IllegalArgumentException("Limit cannot be negative");
+        }
+        // Max-heap by the order, so the head is again the worst of the current top k
+        int[] heap = new int[Math.min(k, length)];
+        int size = 0;
+        for (int i = 0; i < length; i++) {
+            int item = items[i];
+            if (size < heap.length) {
+                heap[size] = item;
+                siftUp(heap, size++, order);
+            } else if (size > 0 && order.applyAsInt(item, heap[0]) < 0) {
+                heap[0] = item;
+                siftDown(heap, size, order);
+            }
+        }
+        // Moving the worst to the back each time leaves the heap sorted
+        for (int end = size - 1; end > 0; end--) {
+            int worst = heap[0];
+            heap[0] = heap[end];
+            heap[end] = worst;
+            siftDown(heap, end, order);
+        }
+        return heap;
+    }
+
+    private static void siftUp(int[] heap, int index, IntBinaryOperator order) {
+        int item = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (order.applyAsInt(item, heap[parent]) <= 0) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = item;
+    }
+
+    private static void siftDown(int[] heap, int size, IntBinaryOperator order) {
+        int item = heap[0];
+        int index = 0;
+        for (int child = 1; child < size; child = 2 * index + 1) {
+            if (child + 1 < size && order.applyAsInt(heap[child + 1], heap[child]) > 0) {
+                child++;
+            }
+            if (order.applyAsInt(item, heap[child]) >= 0) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = item;
+    }
+}